@@ -0,0 +1,223 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.common.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A LRU cache of {@link File}s with maximum filesystem size, keeping an in-memory index of the cached files.
+ * <p>
+ * The index is built once from the directory content when the cache is created, then it keeps the entries in access
+ * order with the running total size and count. Accesses are recorded in memory instead of changing the file
+ * modification time, and clearing old entries only touches the files to delete.
+ * <p>
+ * Files added to or removed from the directory by an external process are discovered lazily on access.
+ *
+ * @since 10.10
+ */
+public class IndexedLRUFileCache extends LRUFileCache {
+
+    private static final Log log = LogFactory.getLog(IndexedLRUFileCache.class);
+
+    protected static class Entry {
+
+        protected final long size;
+
+        protected long time;
+
+        protected Entry(long size, long time) {
+            this.size = size;
+            this.time = time;
+        }
+    }
+
+    /** Cache entries by key, in access order (least recently used first). Guarded by itself. */
+    protected final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    protected long totalSize;
+
+    /**
+     * Constructs a cache in the given directory with the given maximum size (in bytes).
+     *
+     * @param dir the directory to use to store cached files
+     * @param maxSize the maximum size of the cache (in bytes)
+     * @param maxCount the maximum number of files in the cache
+     * @param minAge the minimum age of a file in the cache to be eligible for removal (in seconds)
+     */
+    public IndexedLRUFileCache(File dir, long maxSize, long maxCount, long minAge) {
+        super(dir, maxSize, maxCount, minAge);
+        rebuildIndex();
+    }
+
+    /**
+     * Rebuilds the index from the directory content, the file modification time gives the initial access order.
+     */
+    protected void rebuildIndex() {
+        List<PathInfo> files = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, RegularFileFilter.INSTANCE)) {
+                for (Path path : ds) {
+                    try {
+                        files.add(new PathInfo(path));
+                    } catch (IOException e) {
+                        log.error(e, e);
+                    }
+                }
+            } catch (IOException e) {
+                log.error(e, e);
+            }
+        }
+        Collections.sort(files);
+        Collections.reverse(files); // oldest first
+        synchronized (index) {
+            index.clear();
+            totalSize = 0;
+            for (PathInfo pi : files) {
+                index.put(pi.path.getFileName().toString(), new Entry(pi.size, pi.time));
+                totalSize += pi.size;
+            }
+        }
+    }
+
+    @Override
+    public long getSize() {
+        synchronized (index) {
+            return totalSize;
+        }
+    }
+
+    @Override
+    public int getNumberOfItems() {
+        synchronized (index) {
+            return index.size();
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        synchronized (index) {
+            index.clear();
+            totalSize = 0;
+        }
+    }
+
+    @Override
+    protected void doClearOldEntries() {
+        List<String> victims = new ArrayList<>();
+        long threshold = System.currentTimeMillis() - minAgeMillis;
+        synchronized (index) {
+            Iterator<Map.Entry<String, Entry>> it = index.entrySet().iterator();
+            while ((totalSize > maxSize || index.size() > maxCount) && it.hasNext()) {
+                Map.Entry<String, Entry> es = it.next();
+                if (es.getValue().time >= threshold) {
+                    // following entries are more recent, not old enough to be candidates
+                    break;
+                }
+                it.remove();
+                totalSize -= es.getValue().size;
+                victims.add(es.getKey());
+            }
+        }
+        for (String key : victims) {
+            try {
+                Files.deleteIfExists(dir.resolve(key));
+            } catch (IOException e) {
+                log.error(e, e);
+            }
+        }
+    }
+
+    @Override
+    public File getTempFile() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            // deleted by an external process doing cleanup
+            synchronized (index) {
+                index.clear();
+                totalSize = 0;
+            }
+        }
+        return super.getTempFile();
+    }
+
+    @Override
+    public File getFile(String key) {
+        checkKey(key);
+        Path path = dir.resolve(key);
+        if (!Files.exists(path)) {
+            removeFromIndex(key);
+            return null;
+        }
+        recordAccess(path);
+        return path.toFile();
+    }
+
+    /** Records access to a file in the index, adding it if needed. */
+    @Override
+    protected void recordAccess(Path path) {
+        String key = path.getFileName().toString();
+        long now = System.currentTimeMillis();
+        synchronized (index) {
+            Entry entry = index.get(key);
+            if (entry != null) {
+                entry.time = now;
+                return;
+            }
+        }
+        long size;
+        try {
+            size = Files.size(path);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.error(e, e);
+            return;
+        }
+        synchronized (index) {
+            if (!index.containsKey(key)) {
+                index.put(key, new Entry(size, now));
+                totalSize += size;
+            }
+        }
+    }
+
+    protected void removeFromIndex(String key) {
+        synchronized (index) {
+            Entry entry = index.remove(key);
+            if (entry != null) {
+                totalSize -= entry.size;
+            }
+        }
+    }
+
+}
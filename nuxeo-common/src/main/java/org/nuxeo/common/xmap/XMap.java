@@ -31,6 +31,7 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -98,6 +99,39 @@ public class XMap {
 
     private static DocumentBuilderFactory factory = initFactory();
 
+    /**
+     * Document builders are costly to create, keep one per thread. A builder is never used concurrently as the document
+     * is fully parsed before being mapped.
+     */
+    private static final ThreadLocal<DocumentBuilder> builders = new ThreadLocal<>();
+
+    /**
+     * The annotated members of each class, computed once and shared by all the XMap instances as they don't depend on
+     * the registered value factories. Each bundle and extension point uses its own XMap, registering the same classes
+     * over and over.
+     */
+    private static final ClassValue<List<MemberBinding>> bindings = new ClassValue<List<MemberBinding>>() {
+        @Override
+        protected List<MemberBinding> computeValue(Class<?> aClass) {
+            return scanClass(aClass);
+        }
+    };
+
+    /**
+     * An annotated field or setter method of a class.
+     */
+    private static class MemberBinding {
+
+        final Annotation annotation;
+
+        final XAccessor accessor;
+
+        MemberBinding(Annotation annotation, XAccessor accessor) {
+            this.annotation = annotation;
+            this.accessor = accessor;
+        }
+    }
+
     // top level objects
     private final Map<String, XAnnotatedObject> roots;
 
@@ -185,16 +219,19 @@ public class XMap {
     }
 
     private void scan(XAnnotatedObject xob) {
-        scanClass(xob, xob.klass);
+        for (MemberBinding binding : bindings.get(xob.klass)) {
+            XAnnotatedMember member = createMember(binding.annotation, binding.accessor);
+            xob.addMember(member);
+        }
     }
 
-    private void scanClass(XAnnotatedObject xob, Class<?> aClass) {
+    private static List<MemberBinding> scanClass(Class<?> aClass) {
+        List<MemberBinding> list = new ArrayList<>();
         Field[] fields = aClass.getDeclaredFields();
         for (Field field : fields) {
             Annotation anno = checkMemberAnnotation(field);
             if (anno != null) {
-                XAnnotatedMember member = createFieldMember(field, anno);
-                xob.addMember(member);
+                list.add(new MemberBinding(anno, new XFieldAccessor(field)));
             }
         }
 
@@ -207,15 +244,31 @@ public class XMap {
             }
             Annotation anno = checkMemberAnnotation(method);
             if (anno != null) {
-                XAnnotatedMember member = createMethodMember(method, anno, aClass);
-                xob.addMember(member);
+                list.add(new MemberBinding(anno, new XMethodAccessor(method, aClass)));
             }
         }
 
         // scan superClass annotations
         if (aClass.getSuperclass() != null) {
-            scanClass(xob, aClass.getSuperclass());
+            list.addAll(bindings.get(aClass.getSuperclass()));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Gets a document builder for the current thread.
+     *
+     * @since 10.10
+     */
+    protected static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = builders.get();
+        if (builder == null) {
+            builder = getFactory().newDocumentBuilder();
+            builders.set(builder);
+        } else {
+            builder.reset();
         }
+        return builder;
     }
 
     /**
@@ -258,9 +311,7 @@ public class XMap {
      */
     public Object load(Context ctx, InputStream in) throws IOException {
         try {
-            DocumentBuilderFactory factory = getFactory();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(in);
+            Document document = getDocumentBuilder().parse(in);
             return load(ctx, document.getDocumentElement());
         } catch (ParserConfigurationException | SAXException e) {
             throw new IOException(e);
@@ -331,9 +382,7 @@ public class XMap {
      */
     public Object[] loadAll(Context ctx, InputStream in) throws IOException {
         try {
-            DocumentBuilderFactory factory = getFactory();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(in);
+            Document document = getDocumentBuilder().parse(in);
             return loadAll(ctx, document.getDocumentElement());
         } catch (ParserConfigurationException | SAXException e) {
             throw new IOException(e);
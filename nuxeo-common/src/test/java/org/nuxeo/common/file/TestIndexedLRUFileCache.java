@@ -0,0 +1,85 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.common.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import org.junit.Test;
+
+/**
+ * Runs the {@link LRUFileCache} tests against the {@link IndexedLRUFileCache}, plus index specific ones.
+ */
+public class TestIndexedLRUFileCache extends TestLRUFileCache {
+
+    @Override
+    protected LRUFileCache newCache(File dir, long maxSize, long maxCount, long minAge) {
+        return new IndexedLRUFileCache(dir, maxSize, maxCount, minAge);
+    }
+
+    @Test
+    public void testIndexRebuiltAtStartup() throws Exception {
+        LRUFileCache cache = newCache(dir, 100, 9999, 1);
+        cache.putFile("1", new ByteArrayInputStream(new byte[30]));
+        cache.putFile("2", new ByteArrayInputStream(new byte[40]));
+
+        LRUFileCache cache2 = newCache(dir, 100, 9999, 1);
+        assertEquals(2, cache2.getNumberOfItems());
+        assertEquals(70, cache2.getSize());
+        assertNotNull(cache2.getFile("1"));
+    }
+
+    @Test
+    public void testGetFileRecordsAccess() throws Exception {
+        LRUFileCache cache = newCache(dir, 10000, 2, 1); // 2 files max
+        cache.setClearOldEntriesIntervalMillis(0); // clear immediately
+        byte[] buf = new byte[30];
+
+        cache.putFile("1", new ByteArrayInputStream(buf));
+        cache.putFile("2", new ByteArrayInputStream(buf));
+        Thread.sleep(1100);
+        // hit on the oldest entry makes "2" the least recently used one
+        assertNotNull(cache.getFile("1"));
+        Thread.sleep(1100);
+        cache.putFile("3", new ByteArrayInputStream(buf));
+        assertEquals(2, cache.getNumberOfItems());
+        assertEquals(60, cache.getSize());
+        assertTrue(new File(dir, "1").exists());
+        assertFalse(new File(dir, "2").exists());
+        assertTrue(new File(dir, "3").exists());
+    }
+
+    @Test
+    public void testExternalFileRemoval() throws Exception {
+        LRUFileCache cache = newCache(dir, 100, 9999, 1);
+        cache.putFile("1", new ByteArrayInputStream(new byte[30]));
+        assertTrue(new File(dir, "1").delete());
+
+        assertNull(cache.getFile("1"));
+        assertEquals(0, cache.getNumberOfItems());
+        assertEquals(0, cache.getSize());
+    }
+
+}
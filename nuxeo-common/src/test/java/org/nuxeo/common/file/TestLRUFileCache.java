@@ -46,6 +46,10 @@ public class TestLRUFileCache {
         FileUtils.deleteQuietly(dir);
     }
 
+    protected LRUFileCache newCache(File dir, long maxSize, long maxCount, long minAge) {
+        return new LRUFileCache(dir, maxSize, maxCount, minAge);
+    }
+
     public long getDirSize() {
         long size = 0;
         for (File f : dir.listFiles()) {
@@ -56,7 +60,7 @@ public class TestLRUFileCache {
 
     @Test
     public void testLRUFileCache() throws Exception {
-        LRUFileCache cache = new LRUFileCache(dir, 100, 9999, 1); // 100 bytes max
+        LRUFileCache cache = newCache(dir, 100, 9999, 1); // 100 bytes max
         cache.setClearOldEntriesIntervalMillis(0); // clear immediately
         assertEquals(0, cache.getSize());
         assertEquals(0, getDirSize());
@@ -119,7 +123,7 @@ public class TestLRUFileCache {
 
     @Test
     public void testLRUFileCacheMaxCount() throws Exception {
-        LRUFileCache cache = new LRUFileCache(dir, 10000, 3, 1); // 3 files max
+        LRUFileCache cache = newCache(dir, 10000, 3, 1); // 3 files max
         cache.setClearOldEntriesIntervalMillis(0); // clear immediately
         assertEquals(0, cache.getNumberOfItems());
 
@@ -157,7 +161,7 @@ public class TestLRUFileCache {
 
     @Test
     public void testLRUFileCacheExternalCleanup() throws Exception {
-        LRUFileCache cache = new LRUFileCache(dir, 100, 9999, 1); // 100 bytes max
+        LRUFileCache cache = newCache(dir, 100, 9999, 1); // 100 bytes max
         cache.setClearOldEntriesIntervalMillis(0); // clear immediately
 
         // create one file
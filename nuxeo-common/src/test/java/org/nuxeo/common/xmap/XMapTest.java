@@ -24,6 +24,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URL;
 import java.time.Duration;
 
@@ -120,6 +122,23 @@ public class XMapTest {
         assertEquals(Duration.ofSeconds(1), author.durationJdk);
     }
 
+    @Test
+    public void testSeveralInstances() throws Exception {
+        URL url = Thread.currentThread().getContextClassLoader().getResource("test-xmap.xml");
+        // the class bindings and the document builder are shared by the instances
+        for (int i = 0; i < 3; i++) {
+            XMap xmap = new XMap();
+            xmap.register(Author.class);
+            try {
+                xmap.load(new ByteArrayInputStream("<author".getBytes()));
+                fail("Should not parse invalid XML");
+            } catch (IOException e) {
+                // expected
+            }
+            checkAuthor((Author) xmap.load(url));
+        }
+    }
+
     @Test
     public void testInvalidClass() throws Exception {
         XMap xmap = new XMap();
@@ -239,6 +239,18 @@ public interface CoreSession {
      */
     DocumentModelList getDocuments(DocumentRef[] docRefs) throws DocumentNotFoundException;
 
+    /**
+     * Gets a list of documents given their ids, fetched in bulk.
+     * <p>
+     * Documents that don't exist or on which the given permission is not granted are skipped.
+     *
+     * @param ids the document ids
+     * @param permission the permission to check
+     * @return the documents, in the same order as the ids
+     * @since 10.10
+     */
+    DocumentModelList getDocuments(List<String> ids, String permission);
+
     /**
      * Gets a child document given its name and the parent reference.
      * <p>
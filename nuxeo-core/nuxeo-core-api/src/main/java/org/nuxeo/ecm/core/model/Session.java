@@ -20,6 +20,7 @@
 package org.nuxeo.ecm.core.model;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -134,6 +135,27 @@ public interface Session<T extends QueryFilter> {
      */
     Document getDocumentByUUID(String uuid) throws DocumentNotFoundException;
 
+    /**
+     * Gets several documents given their IDs, fetching them in bulk when the storage allows it.
+     *
+     * @param uuids the document ids
+     * @return the documents, in the same order as the ids, with {@code null} for documents that don't exist
+     * @since 10.10
+     */
+    default List<Document> getDocumentsByUUIDs(List<String> uuids) {
+        List<Document> docs = new ArrayList<>(uuids.size());
+        for (String uuid : uuids) {
+            Document doc;
+            try {
+                doc = getDocumentByUUID(uuid);
+            } catch (DocumentNotFoundException e) {
+                doc = null;
+            }
+            docs.add(doc);
+        }
+        return docs;
+    }
+
     /**
      * Gets the root document in this repository.
      *
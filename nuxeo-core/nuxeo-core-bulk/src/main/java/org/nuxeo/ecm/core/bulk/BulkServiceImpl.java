@@ -27,6 +27,7 @@ import static org.nuxeo.ecm.core.bulk.message.BulkStatus.State.UNKNOWN;
 import java.io.Serializable;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,7 +44,6 @@ import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.codec.CodecService;
 import org.nuxeo.runtime.kv.KeyValueService;
 import org.nuxeo.runtime.kv.KeyValueStore;
-import org.nuxeo.runtime.kv.KeyValueStoreProvider;
 import org.nuxeo.runtime.stream.StreamService;
 
 /**
@@ -156,9 +156,11 @@ public class BulkServiceImpl implements BulkService {
         byte[] statusAsBytes = BulkCodecs.getStatusCodec().encode(status);
         switch (status.getState()) {
         case ABORTED:
-            kvStore.put(STATUS_PREFIX + status.getId(), statusAsBytes, ABORTED_TTL_SECONDS);
             // we remove the command from the kv store, so computation have to handle abort
-            kvStore.put(COMMAND_PREFIX + status.getId(), (String) null);
+            Map<String, byte[]> values = new HashMap<>();
+            values.put(STATUS_PREFIX + status.getId(), statusAsBytes);
+            values.put(COMMAND_PREFIX + status.getId(), null);
+            kvStore.putAll(values, ABORTED_TTL_SECONDS);
             break;
         case COMPLETED:
             kvStore.put(STATUS_PREFIX + status.getId(), statusAsBytes, COMPLETED_TTL_SECONDS);
@@ -244,7 +246,7 @@ public class BulkServiceImpl implements BulkService {
 
     @Override
     public boolean await(Duration duration) throws InterruptedException {
-        KeyValueStoreProvider kv = (KeyValueStoreProvider) getKvStore();
+        KeyValueStore kv = getKvStore();
         Set<String> commandIds = kv.keyStream(STATUS_PREFIX)
                                    .map(k -> k.replaceFirst(STATUS_PREFIX, ""))
                                    .collect(Collectors.toSet());
@@ -269,9 +271,11 @@ public class BulkServiceImpl implements BulkService {
 
     @Override
     public List<BulkStatus> getStatuses(String username) {
-        KeyValueStoreProvider kv = (KeyValueStoreProvider) getKvStore();
-        return kv.keyStream(STATUS_PREFIX)
-                 .map(kv::get)
+        KeyValueStore kv = getKvStore();
+        List<String> keys = kv.keyStream(STATUS_PREFIX).collect(Collectors.toList());
+        return kv.get(keys)
+                 .values()
+                 .stream()
                  .map(BulkCodecs.getStatusCodec()::decode)
                  .filter(status -> username.equals(status.getUsername()))
                  .collect(Collectors.toList());
@@ -20,7 +20,12 @@
 package org.nuxeo.ecm.core.cache;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * The nuxeo cache interface that define generic methods to use cache technologies
@@ -90,4 +95,63 @@ public interface Cache {
         return get(key) != null;
     }
 
+    /**
+     * Gets the value for the given key, loading and storing it if not present.
+     * <p>
+     * Implementations should make sure that concurrent calls for the same key wait for a single load. The loaded value
+     * is stored locally, loading is not considered as a write to be propagated to other nodes.
+     *
+     * @param key the string key
+     * @param loader the function computing the value, if it returns null nothing is stored
+     * @return the value, or null if the key is null or if the loader returned null
+     * @since 10.10
+     */
+    default Serializable get(String key, Function<String, ? extends Serializable> loader) {
+        if (key == null) {
+            return null;
+        }
+        Serializable value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets the values for the given keys, loading the missing ones with a single call to the bulk loader.
+     *
+     * @param keys the string keys
+     * @param bulkLoader the function computing the values of the missing keys, keys it doesn't return are not stored
+     * @return the values of the keys having one
+     * @since 10.10
+     */
+    default Map<String, Serializable> getAll(Collection<String> keys,
+            Function<Set<String>, Map<String, ? extends Serializable>> bulkLoader) {
+        Map<String, Serializable> values = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (key == null) {
+                continue;
+            }
+            Serializable value = get(key);
+            if (value == null) {
+                missing.add(key);
+            } else {
+                values.put(key, value);
+            }
+        }
+        if (!missing.isEmpty()) {
+            bulkLoader.apply(missing).forEach((key, value) -> {
+                if (key != null && value != null && missing.contains(key)) {
+                    put(key, value);
+                    values.put(key, value);
+                }
+            });
+        }
+        return values;
+    }
+
 }
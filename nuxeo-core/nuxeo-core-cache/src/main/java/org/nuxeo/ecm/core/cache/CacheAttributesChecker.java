@@ -20,7 +20,12 @@
 package org.nuxeo.ecm.core.cache;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Class to implement mandatory check attributes before calling implementation of cache This enable to have the same
@@ -42,6 +47,20 @@ public class CacheAttributesChecker extends CacheWrapper {
         return super.get(key);
     }
 
+    @Override
+    public Serializable get(String key, Function<String, ? extends Serializable> loader) {
+        if (key == null) {
+            return null;
+        }
+        return super.get(key, loader);
+    }
+
+    @Override
+    public Map<String, Serializable> getAll(Collection<String> keys,
+            Function<Set<String>, Map<String, ? extends Serializable>> bulkLoader) {
+        return super.getAll(keys.stream().filter(Objects::nonNull).collect(Collectors.toSet()), bulkLoader);
+    }
+
     @Override
     public Set<String> keySet() {
         return super.keySet();
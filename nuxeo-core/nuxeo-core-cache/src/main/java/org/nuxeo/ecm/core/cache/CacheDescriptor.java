@@ -55,6 +55,31 @@ public class CacheDescriptor implements Descriptor {
     /** @since 9.3 */
     public static final String OPTION_CONCURRENCY_LEVEL = "concurrencyLevel";
 
+    /**
+     * Time in seconds after which an entry loaded with {@link Cache#get(String, java.util.function.Function)} is
+     * reloaded asynchronously when accessed, so that hot entries are refreshed before they expire. Disabled by default.
+     * <p>
+     * The reload calls the loader from another thread, so it must not depend on the context of the calling thread.
+     *
+     * @since 10.10
+     */
+    public static final String OPTION_REFRESH_AFTER_WRITE = "refreshAfterWrite";
+
+    /**
+     * Maximum size in bytes of the off-heap tier of a {@link TieredCacheImpl}, the usual KB, MB, GB suffixes are
+     * recognized.
+     *
+     * @since 10.10
+     */
+    public static final String OPTION_OFF_HEAP_MAX_SIZE = "offHeapMaxSize";
+
+    /**
+     * Class of the {@link CacheValueCodec} used to store values off-heap.
+     *
+     * @since 10.10
+     */
+    public static final String OPTION_CODEC = "codec";
+
     @XNode("@name")
     public String name;
 
@@ -70,4 +70,13 @@ public interface CacheManagement extends Cache {
      */
     void invalidateLocalAll();
 
+    /**
+     * Returns the number of asynchronous refreshes of entries done by this cache, if it supports refresh-ahead.
+     *
+     * @since 10.10
+     */
+    default long getRefreshCount() {
+        return 0;
+    }
+
 }
@@ -17,6 +17,12 @@
 package org.nuxeo.ecm.core.cache;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.nuxeo.runtime.metrics.MetricsService;
 
@@ -25,6 +31,7 @@ import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.RatioGauge;
 import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
 
 public class CacheMetrics extends CacheWrapper {
 
@@ -44,6 +51,10 @@ public class CacheMetrics extends CacheWrapper {
 
     protected Gauge<Long> size;
 
+    protected Timer load;
+
+    protected Gauge<Long> refresh;
+
     protected final String READ_HIT_NAME = nameOf("read-hit-counter");
 
     protected final String READ_HIT_RATIO_NAME = nameOf("read-hit-ratio");
@@ -58,6 +69,10 @@ public class CacheMetrics extends CacheWrapper {
 
     protected final String SIZE_NAME = nameOf("size");
 
+    protected final String LOAD_NAME = nameOf("load-timer");
+
+    protected final String REFRESH_NAME = nameOf("refresh-counter");
+
     protected String nameOf(String name) {
         return MetricRegistry.name("nuxeo", "cache", getName(), name);
     }
@@ -89,6 +104,14 @@ public class CacheMetrics extends CacheWrapper {
                 return Long.valueOf(getSize());
             }
         });
+        load = registry.timer(LOAD_NAME);
+        registry.register(REFRESH_NAME, refresh = new Gauge<Long>() {
+
+            @Override
+            public Long getValue() {
+                return Long.valueOf(getRefreshCount());
+            }
+        });
     }
 
     @Override
@@ -100,6 +123,8 @@ public class CacheMetrics extends CacheWrapper {
         registry.remove(WRITE_NAME);
         registry.remove(INVALIDATE_ALL_NAME);
         registry.remove(SIZE_NAME);
+        registry.remove(LOAD_NAME);
+        registry.remove(REFRESH_NAME);
     }
 
     @Override
@@ -114,6 +139,40 @@ public class CacheMetrics extends CacheWrapper {
         return value;
     }
 
+    @Override
+    public Serializable get(String key, Function<String, ? extends Serializable> loader) {
+        AtomicBoolean loaded = new AtomicBoolean();
+        Serializable value = super.get(key, k -> {
+            loaded.set(true);
+            try (Timer.Context context = load.time()) {
+                return loader.apply(k);
+            }
+        });
+        read.inc();
+        if (loaded.get()) {
+            read_miss.inc();
+        } else {
+            read_hit.inc();
+        }
+        return value;
+    }
+
+    @Override
+    public Map<String, Serializable> getAll(Collection<String> keys,
+            Function<Set<String>, Map<String, ? extends Serializable>> bulkLoader) {
+        AtomicInteger missing = new AtomicInteger();
+        Map<String, Serializable> values = super.getAll(keys, ks -> {
+            missing.addAndGet(ks.size());
+            try (Timer.Context context = load.time()) {
+                return bulkLoader.apply(ks);
+            }
+        });
+        read.inc(keys.size());
+        read_hit.inc(keys.size() - missing.get());
+        read_miss.inc(missing.get());
+        return values;
+    }
+
     @Override
     public void put(String key, Serializable value) {
         try {
@@ -0,0 +1,45 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.cache;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Converts cache values to and from bytes, for caches storing them outside the Java heap.
+ *
+ * @since 10.10
+ */
+public interface CacheValueCodec {
+
+    /**
+     * Encodes a value.
+     *
+     * @throws IOException if the value cannot be encoded
+     */
+    byte[] encode(Serializable value) throws IOException;
+
+    /**
+     * Decodes a value previously encoded by {@link #encode}.
+     *
+     * @throws IOException if the value cannot be decoded
+     */
+    Serializable decode(byte[] bytes) throws IOException;
+
+}
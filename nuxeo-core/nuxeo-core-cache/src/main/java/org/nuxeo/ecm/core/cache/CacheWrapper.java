@@ -17,7 +17,10 @@
 package org.nuxeo.ecm.core.cache;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * @since 9.1
@@ -40,6 +43,17 @@ public class CacheWrapper implements CacheManagement {
         return cache.get(key);
     }
 
+    @Override
+    public Serializable get(String key, Function<String, ? extends Serializable> loader) {
+        return cache.get(key, loader);
+    }
+
+    @Override
+    public Map<String, Serializable> getAll(Collection<String> keys,
+            Function<Set<String>, Map<String, ? extends Serializable>> bulkLoader) {
+        return cache.getAll(keys, bulkLoader);
+    }
+
     @Override
     public Set<String> keySet() {
         return cache.keySet();
@@ -80,6 +94,11 @@ public class CacheWrapper implements CacheManagement {
         return cache.hasEntry(key);
     }
 
+    @Override
+    public long getRefreshCount() {
+        return cache.getRefreshCount();
+    }
+
     @Override
     public void start() {
         cache.start();
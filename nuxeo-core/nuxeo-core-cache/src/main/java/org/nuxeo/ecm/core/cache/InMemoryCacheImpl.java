@@ -21,20 +21,43 @@ package org.nuxeo.ecm.core.cache;
 
 import static org.nuxeo.ecm.core.cache.CacheDescriptor.OPTION_CONCURRENCY_LEVEL;
 import static org.nuxeo.ecm.core.cache.CacheDescriptor.OPTION_MAX_SIZE;
+import static org.nuxeo.ecm.core.cache.CacheDescriptor.OPTION_REFRESH_AFTER_WRITE;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.nuxeo.ecm.core.api.NuxeoException;
 
+import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * Default in memory implementation for cache management based on guava
+ * <p>
+ * Concurrent loads of the same key through {@link #get(String, Function)} are done only once. Loaded entries can be
+ * refreshed asynchronously before they expire, see {@link CacheDescriptor#OPTION_REFRESH_AFTER_WRITE}.
  *
  * @since 6.0
  */
@@ -42,8 +65,23 @@ public class InMemoryCacheImpl extends AbstractCache {
 
     private static final Log log = LogFactory.getLog(InMemoryCacheImpl.class);
 
+    protected static final int REFRESH_QUEUE_SIZE = 1000;
+
     protected final Cache<String, Serializable> cache;
 
+    /** Refresh delay in milliseconds, {@code 0} if refresh-ahead is disabled. */
+    protected final long refreshAfterWrite;
+
+    /** Load time of the entries that can be refreshed. */
+    protected final Map<String, Long> loadTimes = new ConcurrentHashMap<>();
+
+    /** Keys being refreshed. */
+    protected final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    protected final AtomicLong refreshCount = new AtomicLong();
+
+    protected ExecutorService refreshExecutor;
+
     public InMemoryCacheImpl(CacheDescriptor desc) {
         super(desc);
         CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
@@ -55,7 +93,44 @@ public class InMemoryCacheImpl extends AbstractCache {
         if (options.containsKey(OPTION_MAX_SIZE)) {
             builder = builder.maximumSize(Integer.parseInt(options.get(OPTION_MAX_SIZE)));
         }
-        cache = builder.build();
+        if (options.containsKey(OPTION_REFRESH_AFTER_WRITE)) {
+            refreshAfterWrite = TimeUnit.SECONDS.toMillis(Long.parseLong(options.get(OPTION_REFRESH_AFTER_WRITE)));
+        } else {
+            refreshAfterWrite = 0;
+        }
+        // removals are tracked for refresh-ahead and by subclasses
+        cache = builder.removalListener((RemovalListener<String, Serializable>) this::onRemoval).build();
+    }
+
+    @Override
+    public void start() {
+        if (refreshAfterWrite > 0) {
+            refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(REFRESH_QUEUE_SIZE), r -> {
+                        Thread thread = new Thread(r, "Nuxeo-cache-refresh-" + name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+            refreshExecutor = null;
+        }
+    }
+
+    /**
+     * Called when an entry is removed from the cache, whatever the cause.
+     *
+     * @since 10.10
+     */
+    protected void onRemoval(RemovalNotification<String, Serializable> notification) {
+        if (notification.getCause() != RemovalCause.REPLACED) {
+            loadTimes.remove(notification.getKey());
+        }
     }
 
     @Override
@@ -67,6 +142,116 @@ public class InMemoryCacheImpl extends AbstractCache {
         }
     }
 
+    @Override
+    public Serializable get(String key, Function<String, ? extends Serializable> loader) {
+        if (key == null) {
+            return null;
+        }
+        Serializable value;
+        try {
+            // guava makes concurrent calls for the same key wait for the first one's load
+            value = cache.get(key, () -> load(key, loader));
+        } catch (InvalidCacheLoadException e) {
+            // the loader returned null, nothing to cache
+            return null;
+        } catch (ExecutionException e) {
+            throw new NuxeoException(e.getCause());
+        } catch (UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+        if (refreshAfterWrite > 0) {
+            refreshIfNeeded(key, value, loader);
+        }
+        return value;
+    }
+
+    protected Serializable load(String key, Function<String, ? extends Serializable> loader) {
+        Serializable value = loader.apply(key);
+        if (value != null) {
+            if (refreshAfterWrite > 0) {
+                loadTimes.put(key, Long.valueOf(System.currentTimeMillis()));
+            }
+            stored(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Called when a value is about to be stored, or has just been stored, in the cache by a load, a refresh or a put.
+     *
+     * @since 10.10
+     */
+    protected void stored(String key, Serializable value) {
+        // nothing by default
+    }
+
+    /**
+     * Schedules the reload of an entry if it was loaded long enough ago. The current value is kept until the new one is
+     * loaded, or until it expires if the reload fails.
+     */
+    protected void refreshIfNeeded(String key, Serializable value, Function<String, ? extends Serializable> loader) {
+        Long loadTime = loadTimes.get(key);
+        ExecutorService executor = refreshExecutor;
+        if (loadTime == null || executor == null
+                || System.currentTimeMillis() - loadTime.longValue() < refreshAfterWrite) {
+            return;
+        }
+        if (!refreshing.add(key)) {
+            // already being refreshed
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    Serializable newValue = loader.apply(key);
+                    // don't overwrite an entry invalidated or updated in the meantime
+                    if (newValue == null) {
+                        cache.asMap().remove(key, value);
+                    } else if (cache.asMap().replace(key, value, newValue)) {
+                        loadTimes.put(key, Long.valueOf(System.currentTimeMillis()));
+                        stored(key, newValue);
+                        refreshCount.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    log.debug(String.format("Failed to refresh key '%s' in the cache '%s'", key, name), e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // too many pending refreshes, the entry will be refreshed on a later access
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Unlike {@link #get(String, Function)}, concurrent bulk loads of the same keys are not coalesced, but the first
+     * stored value of a key wins.
+     */
+    @Override
+    public Map<String, Serializable> getAll(Collection<String> keys,
+            Function<Set<String>, Map<String, ? extends Serializable>> bulkLoader) {
+        Set<String> missing = new LinkedHashSet<>(keys);
+        missing.remove(null);
+        Map<String, Serializable> values = new HashMap<>(cache.getAllPresent(missing));
+        missing.removeAll(values.keySet());
+        if (!missing.isEmpty()) {
+            bulkLoader.apply(missing).forEach((key, value) -> {
+                if (key != null && value != null && missing.contains(key)) {
+                    Serializable previous = cache.asMap().putIfAbsent(key, value);
+                    if (previous == null) {
+                        stored(key, value);
+                    }
+                    values.put(key, previous == null ? value : previous);
+                }
+            });
+        }
+        return values;
+    }
+
     @Override
     public Set<String> keySet() {
         return cache.asMap().keySet();
@@ -94,6 +279,7 @@ public class InMemoryCacheImpl extends AbstractCache {
     @Override
     public void invalidateLocalAll() {
         cache.invalidateAll();
+        loadTimes.clear();
     }
 
     @Override
@@ -104,6 +290,9 @@ public class InMemoryCacheImpl extends AbstractCache {
     @Override
     public void putLocal(String key, Serializable value) {
         if (key != null && value != null) {
+            // an explicitly stored value is not refreshed
+            loadTimes.remove(key);
+            stored(key, value);
             cache.put(key, value);
         } else {
             log.warn(String.format("Can't put a null key nor a null value in the cache '%s'!", name));
@@ -120,4 +309,9 @@ public class InMemoryCacheImpl extends AbstractCache {
         return cache.size();
     }
 
+    @Override
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
 }
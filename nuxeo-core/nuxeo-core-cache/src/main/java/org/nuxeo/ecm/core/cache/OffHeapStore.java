@@ -0,0 +1,280 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Store of serialized values kept outside the Java heap, bounded by the total size of the values.
+ * <p>
+ * The values are stored in fixed-size pages of direct buffer slabs. The slabs are allocated on demand up to the maximum
+ * size and reused for the whole life of the store, so storing a value doesn't allocate direct memory that only the GC
+ * could free. The least recently used entries are evicted when no page is available. Each entry has its own expiration
+ * time, the expired entries are purged in expiration order without scanning the others.
+ *
+ * @since 10.10
+ */
+public class OffHeapStore {
+
+    protected static final int PAGE_SIZE = 256;
+
+    protected static final int SLAB_PAGES = 4096; // 1MB slabs
+
+    /**
+     * A stored value, with its expiration time.
+     */
+    public static class Value {
+
+        public final byte[] bytes;
+
+        public final long expiration;
+
+        protected Value(byte[] bytes, long expiration) {
+            this.bytes = bytes;
+            this.expiration = expiration;
+        }
+    }
+
+    protected static class Entry {
+
+        protected final int[] pages;
+
+        protected final int length;
+
+        protected final long expiration;
+
+        protected Entry(int[] pages, int length, long expiration) {
+            this.pages = pages;
+            this.length = length;
+            this.expiration = expiration;
+        }
+
+        protected boolean isExpired(long now) {
+            return now >= expiration;
+        }
+    }
+
+    protected final int totalPages;
+
+    protected final int pagesPerSlab;
+
+    protected final List<ByteBuffer> slabs = new ArrayList<>();
+
+    /** Stack of the free pages of the allocated slabs. */
+    protected final int[] freePages;
+
+    protected int freeCount;
+
+    /** In access order, the eldest entry is the least recently used one. */
+    protected final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Expiration time to keys expiring at this time. */
+    protected final NavigableMap<Long, Set<String>> expirations = new TreeMap<>();
+
+    protected long bytes;
+
+    public OffHeapStore(long maxBytes) {
+        totalPages = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / PAGE_SIZE));
+        pagesPerSlab = Math.min(SLAB_PAGES, totalPages);
+        freePages = new int[totalPages];
+    }
+
+    protected static int pagesFor(int length) {
+        return (length + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+
+    /**
+     * Allocates a new slab if the maximum size is not reached yet.
+     *
+     * @return {@code true} if a slab was allocated
+     */
+    protected boolean allocateSlab() {
+        int first = slabs.size() * pagesPerSlab;
+        if (first >= totalPages) {
+            return false;
+        }
+        int pages = Math.min(pagesPerSlab, totalPages - first);
+        slabs.add(ByteBuffer.allocateDirect(pages * PAGE_SIZE));
+        for (int page = first + pages - 1; page >= first; page--) {
+            freePages[freeCount++] = page;
+        }
+        return true;
+    }
+
+    /**
+     * Stores a value, evicting the least recently used entries if needed. A value larger than the maximum size is not
+     * stored.
+     *
+     * @param expiration the expiration time of the value, in milliseconds since the epoch
+     */
+    public synchronized void put(String key, byte[] value, long expiration) {
+        remove(key);
+        int needed = pagesFor(value.length);
+        if (needed > totalPages) {
+            return;
+        }
+        purgeExpired(System.currentTimeMillis());
+        while (freeCount < needed) {
+            if (!allocateSlab()) {
+                evictEldest();
+            }
+        }
+        int[] pages = new int[needed];
+        for (int i = 0; i < needed; i++) {
+            int page = freePages[--freeCount];
+            pages[i] = page;
+            ByteBuffer slab = slabs.get(page / pagesPerSlab);
+            slab.position((page % pagesPerSlab) * PAGE_SIZE);
+            int offset = i * PAGE_SIZE;
+            slab.put(value, offset, Math.min(PAGE_SIZE, value.length - offset));
+        }
+        entries.put(key, new Entry(pages, value.length, expiration));
+        expirations.computeIfAbsent(Long.valueOf(expiration), k -> new HashSet<>()).add(key);
+        bytes += value.length;
+    }
+
+    /**
+     * Removes an entry from the indexes, without freeing its pages.
+     */
+    protected Entry removeEntry(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            Long expiration = Long.valueOf(entry.expiration);
+            Set<String> keys = expirations.get(expiration);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                expirations.remove(expiration);
+            }
+        }
+        return entry;
+    }
+
+    protected byte[] read(Entry entry) {
+        byte[] value = new byte[entry.length];
+        for (int i = 0; i < entry.pages.length; i++) {
+            int page = entry.pages[i];
+            ByteBuffer slab = slabs.get(page / pagesPerSlab);
+            slab.position((page % pagesPerSlab) * PAGE_SIZE);
+            int offset = i * PAGE_SIZE;
+            slab.get(value, offset, Math.min(PAGE_SIZE, value.length - offset));
+        }
+        return value;
+    }
+
+    protected void free(Entry entry) {
+        for (int page : entry.pages) {
+            freePages[freeCount++] = page;
+        }
+        bytes -= entry.length;
+    }
+
+    protected void evictEldest() {
+        free(removeEntry(entries.keySet().iterator().next()));
+    }
+
+    /**
+     * Removes the expired entries.
+     */
+    protected void purgeExpired(long now) {
+        NavigableMap<Long, Set<String>> expired = expirations.headMap(Long.valueOf(now), true);
+        while (!expired.isEmpty()) {
+            Set<String> keys = expired.firstEntry().getValue();
+            for (String key : keys.toArray(new String[0])) {
+                free(removeEntry(key));
+            }
+        }
+    }
+
+    /**
+     * Gets a value without removing it.
+     *
+     * @return the value, or {@code null} if absent or expired
+     */
+    public synchronized byte[] get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            remove(key);
+            return null;
+        }
+        return read(entry);
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @return the removed value, or {@code null} if absent or expired
+     */
+    public synchronized Value remove(String key) {
+        Entry entry = removeEntry(key);
+        if (entry == null) {
+            return null;
+        }
+        Value value = entry.isExpired(System.currentTimeMillis()) ? null : new Value(read(entry), entry.expiration);
+        free(entry);
+        return value;
+    }
+
+    public synchronized boolean containsKey(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized List<String> keys() {
+        purgeExpired(System.currentTimeMillis());
+        return new ArrayList<>(entries.keySet());
+    }
+
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            free(entry);
+        }
+        entries.clear();
+        expirations.clear();
+    }
+
+    public synchronized int size() {
+        purgeExpired(System.currentTimeMillis());
+        return entries.size();
+    }
+
+    /**
+     * Returns the total size of the stored values.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+}
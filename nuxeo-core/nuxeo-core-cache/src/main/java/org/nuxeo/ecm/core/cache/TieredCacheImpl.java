@@ -0,0 +1,320 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.cache;
+
+import static org.nuxeo.ecm.core.cache.CacheDescriptor.OPTION_CODEC;
+import static org.nuxeo.ecm.core.cache.CacheDescriptor.OPTION_OFF_HEAP_MAX_SIZE;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.common.utils.SizeUtils;
+import org.nuxeo.ecm.core.api.NuxeoException;
+
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Two-tier in memory cache: a small on-heap tier of live values, bounded by its number of entries, backed by a larger
+ * off-heap tier of encoded values, bounded by their size in bytes.
+ * <p>
+ * Values evicted from the heap tier because of its size are moved to the off-heap tier, and moved back when accessed.
+ * A value expires the cache TTL after it was stored, whatever the tier it is in and the number of moves between tiers.
+ * The values are encoded with a {@link CacheValueCodec}, by default with Java serialization.
+ * <p>
+ * Options are {@link CacheDescriptor#OPTION_MAX_SIZE} for the heap tier, {@link CacheDescriptor#OPTION_OFF_HEAP_MAX_SIZE}
+ * and {@link CacheDescriptor#OPTION_CODEC}.
+ *
+ * @since 10.10
+ */
+public class TieredCacheImpl extends InMemoryCacheImpl {
+
+    private static final Log log = LogFactory.getLog(TieredCacheImpl.class);
+
+    /** Default maximum size of the off-heap tier: 64MB. */
+    public static final long DEFAULT_OFF_HEAP_MAX_SIZE = 64 * 1024 * 1024;
+
+    protected static final int LOCK_STRIPES = 64;
+
+    /**
+     * A value of the heap tier with its expiration time, which is kept when the value moves between tiers.
+     */
+    protected static class Stamp {
+
+        protected final Serializable value;
+
+        protected final long expiration;
+
+        protected Stamp(Serializable value, long expiration) {
+            this.value = value;
+            this.expiration = expiration;
+        }
+    }
+
+    protected final OffHeapStore offHeap;
+
+    protected final CacheValueCodec codec;
+
+    protected final long ttlMillis;
+
+    /** Stamps of the values of the heap tier. */
+    protected final ConcurrentMap<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    /** Per-key locks ordering the moves between tiers with the puts and invalidations. */
+    protected final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+
+    public TieredCacheImpl(CacheDescriptor desc) {
+        super(desc);
+        Map<String, String> options = desc.options;
+        long maxBytes = DEFAULT_OFF_HEAP_MAX_SIZE;
+        if (options.containsKey(OPTION_OFF_HEAP_MAX_SIZE)) {
+            maxBytes = SizeUtils.parseSizeInBytes(options.get(OPTION_OFF_HEAP_MAX_SIZE));
+        }
+        offHeap = new OffHeapStore(maxBytes);
+        ttlMillis = TimeUnit.MINUTES.toMillis(ttl);
+        String codecClass = options.get(OPTION_CODEC);
+        if (codecClass == null) {
+            codec = new SerializableCacheValueCodec();
+        } else {
+            try {
+                codec = (CacheValueCodec) Class.forName(codecClass).getConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new NuxeoException("Failed to instantiate codec: " + codecClass + " for cache: " + name, e);
+            }
+        }
+    }
+
+    @Override
+    protected void stored(String key, Serializable value) {
+        stamps.put(key, new Stamp(value, System.currentTimeMillis() + ttlMillis));
+        offHeap.remove(key);
+    }
+
+    @Override
+    protected void onRemoval(RemovalNotification<String, Serializable> notification) {
+        super.onRemoval(notification);
+        String key = notification.getKey();
+        Serializable value = notification.getValue();
+        if (notification.getCause() == RemovalCause.SIZE) {
+            demote(key, value);
+        } else {
+            removeStamp(key, value);
+        }
+    }
+
+    protected void removeStamp(String key, Serializable value) {
+        Stamp stamp = stamps.get(key);
+        if (stamp != null && stamp.value == value) {
+            stamps.remove(key, stamp);
+        }
+    }
+
+    /**
+     * Moves a value evicted from the heap tier to the off-heap tier, unless the key was put or invalidated since the
+     * eviction.
+     */
+    protected void demote(String key, Serializable value) {
+        Lock lock = locks.get(key);
+        // called by guava after the eviction, maybe by a thread holding the lock of another key: don't wait
+        if (!lock.tryLock()) {
+            removeStamp(key, value);
+            return;
+        }
+        try {
+            Stamp stamp = stamps.get(key);
+            if (stamp == null || stamp.value != value) {
+                // stale value
+                return;
+            }
+            stamps.remove(key, stamp);
+            if (stamp.expiration > System.currentTimeMillis()) {
+                offHeap.put(key, codec.encode(value), stamp.expiration);
+            }
+        } catch (IOException e) {
+            log.debug(String.format("Cannot move key '%s' off-heap in the cache '%s'", key, name), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Moves a value from the off-heap tier back to the heap tier. */
+    protected Serializable promote(String key) {
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            OffHeapStore.Value stored = offHeap.remove(key);
+            if (stored == null) {
+                return null;
+            }
+            Serializable value = decode(key, stored.bytes);
+            if (value == null) {
+                return null;
+            }
+            // keep the expiration of the value, stamped before being visible to evictions
+            Stamp stamp = new Stamp(value, stored.expiration);
+            Stamp previousStamp = stamps.put(key, stamp);
+            Serializable previous = cache.asMap().putIfAbsent(key, value);
+            if (previous == null) {
+                return value;
+            }
+            if (previousStamp == null) {
+                stamps.remove(key, stamp);
+            } else {
+                stamps.replace(key, stamp, previousStamp);
+            }
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected Serializable decode(String key, byte[] bytes) {
+        try {
+            return codec.decode(bytes);
+        } catch (IOException e) {
+            log.warn(String.format("Cannot decode key '%s' in the cache '%s': %s", key, name, e));
+            return null;
+        }
+    }
+
+    /**
+     * Checks the expiration of a value of the heap tier. The heap tier expires the values the cache TTL after they were
+     * put in it, a promoted value must expire earlier.
+     *
+     * @return the value, or {@code null} if it expired
+     */
+    protected Serializable checkExpiration(String key, Serializable value) {
+        if (value == null) {
+            return null;
+        }
+        Stamp stamp = stamps.get(key);
+        if (stamp != null && stamp.value == value && stamp.expiration <= System.currentTimeMillis()) {
+            cache.asMap().remove(key, value);
+            return null;
+        }
+        return value;
+    }
+
+    @Override
+    public Serializable get(String key) {
+        if (key == null) {
+            return null;
+        }
+        Serializable value = checkExpiration(key, cache.getIfPresent(key));
+        if (value == null) {
+            value = promote(key);
+        }
+        return value;
+    }
+
+    @Override
+    public Serializable get(String key, Function<String, ? extends Serializable> loader) {
+        if (key != null && checkExpiration(key, cache.getIfPresent(key)) == null) {
+            promote(key);
+        }
+        return super.get(key, loader);
+    }
+
+    @Override
+    public Map<String, Serializable> getAll(Collection<String> keys,
+            Function<Set<String>, Map<String, ? extends Serializable>> bulkLoader) {
+        for (String key : keys) {
+            if (key != null && checkExpiration(key, cache.getIfPresent(key)) == null) {
+                promote(key);
+            }
+        }
+        return super.getAll(keys, bulkLoader);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        Set<String> keys = new HashSet<>(super.keySet());
+        keys.addAll(offHeap.keys());
+        return keys;
+    }
+
+    @Override
+    public void invalidateLocal(String key) {
+        if (key == null) {
+            super.invalidateLocal(key);
+            return;
+        }
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            super.invalidateLocal(key);
+            stamps.remove(key);
+            offHeap.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidateLocalAll() {
+        super.invalidateLocalAll();
+        stamps.clear();
+        offHeap.clear();
+    }
+
+    @Override
+    public void putLocal(String key, Serializable value) {
+        if (key == null || value == null) {
+            super.putLocal(key, value);
+            return;
+        }
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            super.putLocal(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasEntry(String key) {
+        return super.hasEntry(key) || offHeap.containsKey(key);
+    }
+
+    @Override
+    public long getSize() {
+        return super.getSize() + offHeap.size();
+    }
+
+    /**
+     * Returns the total size in bytes of the values stored off-heap.
+     */
+    public long getOffHeapBytes() {
+        return offHeap.getBytes();
+    }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.nuxeo.ecm.core.transientstore.keyvalueblob;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.function.Function.identity;
 import static org.apache.commons.lang3.StringUtils.defaultIfBlank;
 
@@ -318,14 +319,15 @@ public class KeyValueBlobTransientStore implements TransientStoreProvider {
     public void putParameter(String key, String parameter, Serializable value) {
         KeyValueStore kvs = getKeyValueStore();
         String k = key + DOT_PARAM_DOT + parameter;
+        Map<String, byte[]> values = new HashMap<>();
         if (value instanceof String) {
-            kvs.put(k, (String) value, ttl);
-            kvs.put(k + FORMAT, (String) null);
+            values.put(k, ((String) value).getBytes(UTF_8));
+            values.put(k + FORMAT, null);
         } else {
-            byte[] bytes = SerializationUtils.serialize(value);
-            kvs.put(k, bytes, ttl);
-            kvs.put(k + FORMAT, FORMAT_JAVA, ttl);
+            values.put(k, SerializationUtils.serialize(value));
+            values.put(k + FORMAT, FORMAT_JAVA.getBytes(UTF_8));
         }
+        kvs.putAll(values, ttl);
         // atomically add key to param info
         atomicUpdate(key + DOT_PARAMINFO, json -> {
             List<String> parameters = jsonToList(json);
@@ -385,14 +387,16 @@ public class KeyValueBlobTransientStore implements TransientStoreProvider {
         KeyValueStore kvs = getKeyValueStore();
         String json = kvs.getString(key + DOT_PARAMINFO);
         List<String> parameters = jsonToList(json);
+        List<String> keys = new ArrayList<>();
         if (parameters != null) {
             for (String parameter : parameters) {
                 String k = key + DOT_PARAM_DOT + parameter;
-                kvs.put(k, (String) null);
-                kvs.put(k + FORMAT, (String) null);
+                keys.add(k);
+                keys.add(k + FORMAT);
             }
         }
-        kvs.put(key + DOT_PARAMINFO, (String) null);
+        keys.add(key + DOT_PARAMINFO);
+        kvs.deleteAll(keys);
     }
 
     @Override
@@ -412,6 +416,7 @@ public class KeyValueBlobTransientStore implements TransientStoreProvider {
         BlobProvider bp = getBlobProvider();
         long totalSize = 0;
         int i = 0;
+        Map<String, byte[]> values = new HashMap<>();
         for (Blob blob : blobs) {
             long size = blob.getLength();
             if (size >= 0) {
@@ -432,13 +437,14 @@ public class KeyValueBlobTransientStore implements TransientStoreProvider {
             blobMap.put(FILENAME, blob.getFilename());
             blobMap.put(LENGTH, String.valueOf(size));
             blobMap.put(DIGEST, blob.getDigest());
-            kvs.put(key + DOT_BLOB_DOT + i, toJson(blobMap), ttl);
+            values.put(key + DOT_BLOB_DOT + i, toJson(blobMap).getBytes(UTF_8));
             i++;
         }
         Map<String, String> blobInfoMap = new HashMap<>();
         blobInfoMap.put(COUNT, String.valueOf(blobs.size()));
         blobInfoMap.put(SIZE, String.valueOf(totalSize));
-        kvs.put(key + DOT_BLOBINFO, toJson(blobInfoMap), ttl);
+        values.put(key + DOT_BLOBINFO, toJson(blobInfoMap).getBytes(UTF_8));
+        kvs.putAll(values, ttl);
         addStorageSize(totalSize);
         markEntryExists(key);
     }
@@ -456,10 +462,12 @@ public class KeyValueBlobTransientStore implements TransientStoreProvider {
         long size = sizeStr == null ? 0 : Long.parseLong(sizeStr);
 
         // remove blobs
+        List<String> keys = new ArrayList<>(count + 1);
         for (int i = 0; i < count; i++) {
-            kvs.put(key + DOT_BLOB_DOT + i, (String) null);
+            keys.add(key + DOT_BLOB_DOT + i);
         }
-        kvs.put(key + DOT_BLOBINFO, (String) null);
+        keys.add(key + DOT_BLOBINFO);
+        kvs.deleteAll(keys);
         // fix storage size
         addStorageSize(-size);
     }
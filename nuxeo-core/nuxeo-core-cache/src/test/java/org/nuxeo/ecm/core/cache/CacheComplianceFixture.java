@@ -23,8 +23,13 @@ package org.nuxeo.ecm.core.cache;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -119,4 +124,54 @@ public class CacheComplianceFixture {
                         "nuxeo.cache.defaultCache.write", "nuxeo.cache.defaultCache.invalidate-all",
                         "nuxeo.cache.defaultCache.size"));
     }
+
+    @Test
+    public void getWithLoader() {
+        AtomicInteger loads = new AtomicInteger();
+        Serializable val = defaultCache.get(CacheFeature.KEY, k -> {
+            loads.incrementAndGet();
+            return "other";
+        });
+        Assert.assertEquals(CacheFeature.VAL, val);
+        Assert.assertEquals(0, loads.get());
+
+        val = defaultCache.get("key2", k -> {
+            loads.incrementAndGet();
+            return "val2";
+        });
+        Assert.assertEquals("val2", val);
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals("val2", defaultCache.get("key2"));
+    }
+
+    @Test
+    public void getWithLoaderReturningNull() {
+        Assert.assertNull(defaultCache.get("key-not-exist", k -> null));
+        Assert.assertFalse(defaultCache.hasEntry("key-not-exist"));
+        Assert.assertNull(defaultCache.get(null, k -> "val"));
+    }
+
+    @Test
+    public void getAll() {
+        Map<String, Serializable> values = defaultCache.getAll(Arrays.asList(CacheFeature.KEY, "key2", "key3"),
+                keys -> {
+                    Assert.assertEquals(2, keys.size());
+                    Map<String, Serializable> loaded = new HashMap<>();
+                    loaded.put("key2", "val2");
+                    return loaded;
+                });
+        Assert.assertEquals(2, values.size());
+        Assert.assertEquals(CacheFeature.VAL, values.get(CacheFeature.KEY));
+        Assert.assertEquals("val2", values.get("key2"));
+        Assert.assertEquals("val2", defaultCache.get("key2"));
+        Assert.assertFalse(defaultCache.hasEntry("key3"));
+
+        // all present, no load
+        values = defaultCache.getAll(Arrays.asList(CacheFeature.KEY, "key2"), keys -> {
+            fail("Should not load");
+            return Collections.emptyMap();
+        });
+        Assert.assertEquals(2, values.size());
+    }
+
 }
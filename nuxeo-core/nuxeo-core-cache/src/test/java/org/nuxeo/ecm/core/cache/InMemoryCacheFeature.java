@@ -35,10 +35,14 @@ public class InMemoryCacheFeature implements RunnerFeature {
 
     public static final String MAXSIZE_TEST_CACHE_NAME = "maxsize-test-cache";
 
+    public static final String REFRESH_TEST_CACHE_NAME = "refresh-test-cache";
+
     @Override
     public void configure(FeaturesRunner runner, Binder binder) {
         binder.bind(Cache.class).annotatedWith(Names.named(MAXSIZE_TEST_CACHE_NAME)).toProvider(
                 () -> Framework.getService(CacheService.class).getCache(MAXSIZE_TEST_CACHE_NAME));
+        binder.bind(Cache.class).annotatedWith(Names.named(REFRESH_TEST_CACHE_NAME)).toProvider(
+                () -> Framework.getService(CacheService.class).getCache(REFRESH_TEST_CACHE_NAME));
     }
 
 }
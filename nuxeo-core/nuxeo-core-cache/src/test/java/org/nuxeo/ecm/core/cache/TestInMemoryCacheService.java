@@ -20,10 +20,21 @@
 
 package org.nuxeo.ecm.core.cache;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -48,6 +59,10 @@ public class TestInMemoryCacheService {
     @Named(InMemoryCacheFeature.MAXSIZE_TEST_CACHE_NAME)
     Cache maxSizeCache;
 
+    @Inject
+    @Named(InMemoryCacheFeature.REFRESH_TEST_CACHE_NAME)
+    Cache refreshCache;
+
     @Test
     public void getGuavaCache() {
         InMemoryCacheImpl guavaCache = CacheFeature.unwrapImpl(InMemoryCacheImpl.class, defaultCache);
@@ -81,4 +96,56 @@ public class TestInMemoryCacheService {
         assertNull(defaultCache.get("key2"));
     }
 
+    @Test
+    public void concurrentLoadsAreSingleFlight() throws Exception {
+        int nThreads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(nThreads);
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<Serializable>> futures = new ArrayList<>();
+            for (int i = 0; i < nThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    return defaultCache.get("hot-key", k -> {
+                        loads.incrementAndGet();
+                        try {
+                            Thread.sleep(200); // slow backend
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "hot-val";
+                    });
+                }));
+            }
+            ready.await();
+            go.countDown();
+            for (Future<Serializable> future : futures) {
+                assertEquals("hot-val", future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void refreshAhead() throws Exception {
+        CacheManagement cache = (CacheManagement) refreshCache;
+        long refreshCount = cache.getRefreshCount();
+        assertEquals("val1", refreshCache.get("refresh-key", k -> "val1"));
+        // refreshAfterWrite is 1s
+        Thread.sleep(1100);
+        // the current value is returned while the refresh happens
+        assertEquals("val1", refreshCache.get("refresh-key", k -> "val2"));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"val2".equals(refreshCache.get("refresh-key")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals("val2", refreshCache.get("refresh-key"));
+        assertTrue(cache.getRefreshCount() > refreshCount);
+    }
+
 }
@@ -0,0 +1,203 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+
+/**
+ * @since 10.10
+ */
+@RunWith(FeaturesRunner.class)
+@Features({ CacheFeature.class, TieredCacheFeature.class })
+public class TestTieredCacheService {
+
+    @Inject
+    @Named(CacheFeature.DEFAULT_TEST_CACHE_NAME)
+    Cache defaultCache;
+
+    @Test
+    public void getTieredCache() {
+        TieredCacheImpl tieredCache = CacheFeature.unwrapImpl(TieredCacheImpl.class, defaultCache);
+        assertNotNull(tieredCache);
+    }
+
+    @Test
+    public void evictedValuesMoveOffHeap() {
+        TieredCacheImpl tieredCache = CacheFeature.unwrapImpl(TieredCacheImpl.class, defaultCache);
+        // heap tier holds a single entry, key1 is already there
+        defaultCache.put("key2", new ArrayList<>(Arrays.asList("a", "b")));
+        defaultCache.put("key3", "val3");
+        assertEquals(3, tieredCache.getSize());
+        assertTrue(tieredCache.getOffHeapBytes() > 0);
+
+        // values are moved back on access
+        assertEquals(CacheFeature.VAL, defaultCache.get(CacheFeature.KEY));
+        assertEquals(Arrays.asList("a", "b"), defaultCache.get("key2"));
+        assertEquals("val3", defaultCache.get("key3"));
+        assertEquals(3, tieredCache.getSize());
+    }
+
+    @Test
+    public void invalidateOffHeap() {
+        TieredCacheImpl tieredCache = CacheFeature.unwrapImpl(TieredCacheImpl.class, defaultCache);
+        defaultCache.put("key2", "val2");
+        // key1 is off-heap now
+        assertTrue(defaultCache.hasEntry(CacheFeature.KEY));
+        defaultCache.invalidate(CacheFeature.KEY);
+        assertFalse(defaultCache.hasEntry(CacheFeature.KEY));
+        assertNull(defaultCache.get(CacheFeature.KEY));
+
+        defaultCache.invalidateAll();
+        assertEquals(0, tieredCache.getSize());
+        assertEquals(0, tieredCache.getOffHeapBytes());
+    }
+
+    @Test
+    public void loaderUsesOffHeapValue() {
+        defaultCache.put("key2", "val2");
+        // key1 is off-heap, it's not loaded again
+        Serializable value = defaultCache.get(CacheFeature.KEY, k -> "other");
+        assertEquals(CacheFeature.VAL, value);
+    }
+
+    @Test
+    public void expirationIsKeptAcrossTiers() {
+        TieredCacheImpl tieredCache = CacheFeature.unwrapImpl(TieredCacheImpl.class, defaultCache);
+        long expiration = tieredCache.stamps.get(CacheFeature.KEY).expiration;
+        defaultCache.put("key2", "val2");
+        // key1 is off-heap now, then back on heap
+        assertNull(tieredCache.stamps.get(CacheFeature.KEY));
+        assertEquals(CacheFeature.VAL, defaultCache.get(CacheFeature.KEY));
+        assertEquals(expiration, tieredCache.stamps.get(CacheFeature.KEY).expiration);
+    }
+
+    @Test
+    public void staleValueIsNotMovedOffHeap() {
+        TieredCacheImpl tieredCache = CacheFeature.unwrapImpl(TieredCacheImpl.class, defaultCache);
+        Serializable old = defaultCache.get(CacheFeature.KEY);
+        defaultCache.put(CacheFeature.KEY, "new");
+        // eviction of the old value notified after the put
+        tieredCache.demote(CacheFeature.KEY, old);
+        assertFalse(tieredCache.offHeap.containsKey(CacheFeature.KEY));
+        assertEquals("new", defaultCache.get(CacheFeature.KEY));
+        // eviction notified after an invalidation
+        defaultCache.invalidate(CacheFeature.KEY);
+        tieredCache.demote(CacheFeature.KEY, "new");
+        assertFalse(defaultCache.hasEntry(CacheFeature.KEY));
+    }
+
+    protected static long inOneMinute() {
+        return System.currentTimeMillis() + 60_000;
+    }
+
+    @Test
+    public void offHeapStoreIsBoundedBySize() {
+        OffHeapStore store = new OffHeapStore(2 * OffHeapStore.PAGE_SIZE);
+        store.put("a", new byte[100], inOneMinute());
+        store.put("b", new byte[100], inOneMinute());
+        assertEquals(200, store.getBytes());
+        // access a so that b is the least recently used
+        assertNotNull(store.get("a"));
+        store.put("c", new byte[100], inOneMinute());
+        assertEquals(200, store.getBytes());
+        assertNotNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertNotNull(store.get("c"));
+        // too big to be stored
+        store.put("d", new byte[3 * OffHeapStore.PAGE_SIZE], inOneMinute());
+        assertNull(store.get("d"));
+        assertEquals(200, store.getBytes());
+    }
+
+    @Test
+    public void offHeapStoreReusesPages() {
+        OffHeapStore store = new OffHeapStore(4 * OffHeapStore.PAGE_SIZE);
+        for (int i = 0; i < 100; i++) {
+            byte[] bytes = new byte[OffHeapStore.PAGE_SIZE + i];
+            Arrays.fill(bytes, (byte) i);
+            store.put("key" + i, bytes, inOneMinute());
+            assertArrayEquals(bytes, store.get("key" + i));
+        }
+        // two values of two pages
+        assertEquals(2, store.size());
+        OffHeapStore.Value value = store.remove("key98");
+        assertEquals(OffHeapStore.PAGE_SIZE + 98, value.bytes.length);
+        assertEquals(98, value.bytes[OffHeapStore.PAGE_SIZE + 97]);
+        store.clear();
+        assertEquals(0, store.getBytes());
+        store.put("big", new byte[4 * OffHeapStore.PAGE_SIZE], inOneMinute());
+        assertTrue(store.containsKey("big"));
+    }
+
+    @Test
+    public void offHeapStoreExpires() throws Exception {
+        OffHeapStore store = new OffHeapStore(1024);
+        store.put("a", new byte[] { 1, 2, 3 }, System.currentTimeMillis() + 10);
+        Thread.sleep(20);
+        assertFalse(store.containsKey("a"));
+        assertNull(store.get("a"));
+        assertNull(store.remove("a"));
+        assertEquals(0, store.getBytes());
+    }
+
+    @Test
+    public void customCodec() {
+        CacheDescriptor desc = new CacheDescriptor();
+        desc.name = "codec-test-cache";
+        // everything off-heap
+        desc.options.put(CacheDescriptor.OPTION_MAX_SIZE, "0");
+        desc.options.put(CacheDescriptor.OPTION_CODEC, UpperCaseCodec.class.getName());
+        TieredCacheImpl cache = new TieredCacheImpl(desc);
+        cache.put("key", "val");
+        assertEquals(3, cache.getOffHeapBytes());
+        assertEquals("VAL", cache.get("key"));
+    }
+
+    public static class UpperCaseCodec implements CacheValueCodec {
+
+        @Override
+        public byte[] encode(Serializable value) {
+            return value.toString().toUpperCase().getBytes(UTF_8);
+        }
+
+        @Override
+        public Serializable decode(byte[] bytes) {
+            return new String(bytes, UTF_8);
+        }
+    }
+
+}
@@ -27,7 +27,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -113,8 +112,9 @@ public class ConversionCacheGCManager {
 
         for (String key : cacheKeys) {
             ConversionCacheEntry cacheEntry = ConversionCacheHolder.getCacheEntry(key);
-            Objects.requireNonNull(cacheEntry, key);
-            sortingMap.put(cacheEntry.getLastAccessedTime(), key);
+            if (cacheEntry != null) { // removed concurrently
+                sortingMap.put(cacheEntry.getLastAccessedTime(), key);
+            }
         }
 
         List<Date> accessTimeList = new ArrayList<Date>();
@@ -124,6 +124,9 @@ public class ConversionCacheGCManager {
         long deletedVolume = 0;
         for (Date accessDate : accessTimeList) {
             ConversionCacheEntry cacheEntry = ConversionCacheHolder.getCacheEntry(sortingMap.get(accessDate));
+            if (cacheEntry == null) {
+                continue;
+            }
 
             long deletePotential = cacheEntry.getDiskSpaceUsageInKB();
 
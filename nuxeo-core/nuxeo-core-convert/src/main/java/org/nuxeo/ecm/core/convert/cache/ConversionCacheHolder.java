@@ -22,16 +22,17 @@ package org.nuxeo.ecm.core.convert.cache;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.common.utils.Path;
@@ -39,16 +40,22 @@ import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
 import org.nuxeo.ecm.core.convert.api.ConversionService;
 import org.nuxeo.ecm.core.convert.service.ConversionServiceImpl;
 
+import com.google.common.util.concurrent.Striped;
+
 /**
  * Manager for the cache system of the {@link ConversionService}.
+ * <p>
+ * Operations on an entry are serialized by a lock on its key, so that persisting an entry to disk doesn't block the
+ * access to the other entries. Each key has its own directory on disk.
  *
  * @author tiry
  */
 public class ConversionCacheHolder {
 
-    protected static final Map<String, ConversionCacheEntry> cache = new HashMap<>();
+    protected static final Map<String, ConversionCacheEntry> cache = new ConcurrentHashMap<>();
 
-    protected static final ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock();
+    /** @since 10.10 */
+    protected static final Striped<Lock> keyLocks = Striped.lazyWeakLock(256);
 
     private static final Log log = LogFactory.getLog(ConversionCacheHolder.class);
 
@@ -67,7 +74,7 @@ public class ConversionCacheHolder {
     }
 
     public static int getNbCacheEntries() {
-        return cache.keySet().size();
+        return cache.size();
     }
 
     protected static List<String> getSubPathFromKey(String key) {
@@ -101,18 +108,22 @@ public class ConversionCacheHolder {
             new File(path.toString()).mkdir();
         }
 
-        // path = path.append(key);
+        // the entries are persisted under the hash of their content, which different keys may share: give each key its
+        // own directory, so that concurrent operations on different keys never touch the same files
+        path = path.append(DigestUtils.md5Hex(key));
+        new File(path.toString()).mkdir();
 
         return path.toString();
     }
 
     public static void addToCache(String key, BlobHolder result) {
         Objects.requireNonNull(key);
-        cacheLock.writeLock().lock();
+        Lock lock = keyLocks.get(key);
+        lock.lock();
         try {
             doAddToCache(key, result);
         } finally {
-            cacheLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -132,30 +143,28 @@ public class ConversionCacheHolder {
     }
 
     public static void removeFromCache(String key) {
-        cacheLock.writeLock().lock();
+        Lock lock = keyLocks.get(key);
+        lock.lock();
         try {
             doRemoveFromCache(key);
         } finally {
-            cacheLock.writeLock().unlock();
+            lock.unlock();
         }
-
     }
 
     protected static void doRemoveFromCache(String key) {
-        if (cache.containsKey(key)) {
-            ConversionCacheEntry cce = cache.get(key);
+        ConversionCacheEntry cce = cache.remove(key);
+        if (cce != null) {
             cce.remove();
-            cache.remove(key);
+            if (cce.persistPath != null) {
+                // the directory of the key, if now empty
+                new File(cce.persistPath).getParentFile().delete();
+            }
         }
     }
 
     public static ConversionCacheEntry getCacheEntry(String key) {
-        cacheLock.readLock().lock();
-        try {
-            return doGetCacheEntry(key);
-        } finally {
-            cacheLock.readLock().unlock();
-        }
+        return doGetCacheEntry(key);
     }
 
     protected static ConversionCacheEntry doGetCacheEntry(String key) {
@@ -163,11 +172,16 @@ public class ConversionCacheHolder {
     }
 
     public static BlobHolder getFromCache(String key) {
-        cacheLock.readLock().lock();
+        if (!cache.containsKey(key)) {
+            return null;
+        }
+        // don't restore an entry being persisted or removed
+        Lock lock = keyLocks.get(key);
+        lock.lock();
         try {
             return doGetFromCache(key);
         } finally {
-            cacheLock.readLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -184,24 +198,14 @@ public class ConversionCacheHolder {
     }
 
     public static Set<String> getCacheKeys() {
-        cacheLock.readLock().lock();
-        try {
-            return new HashSet<>(cache.keySet());
-        } finally {
-            cacheLock.readLock().unlock();
-        }
+        return new HashSet<>(cache.keySet());
     }
 
     /**
      * @since 6.0
      */
     public static void deleteCache() {
-        cacheLock.writeLock().lock();
-        try {
-            cache.clear();
-            new File(ConversionServiceImpl.getCacheBasePath()).delete();
-        } finally {
-            cacheLock.writeLock().unlock();
-        }
+        cache.clear();
+        new File(ConversionServiceImpl.getCacheBasePath()).delete();
     }
 }
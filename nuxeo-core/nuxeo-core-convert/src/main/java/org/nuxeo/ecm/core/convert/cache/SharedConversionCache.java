@@ -0,0 +1,111 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.convert.cache;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
+import org.nuxeo.ecm.core.api.blobholder.SimpleBlobHolderWithProperties;
+import org.nuxeo.ecm.core.transientstore.api.MaximumTransientSpaceExceeded;
+import org.nuxeo.ecm.core.transientstore.api.TransientStore;
+import org.nuxeo.ecm.core.transientstore.api.TransientStoreService;
+import org.nuxeo.runtime.api.Framework;
+
+/**
+ * Conversion cache stored in a {@link TransientStore}, shared by all the nodes of a cluster.
+ * <p>
+ * With a {@code KeyValueBlobTransientStore} the converted blobs are written to a blob provider and indexed in a
+ * key/value store, so the entries are visible to all the nodes and survive restarts. Entries expire according to the
+ * TTL of the transient store.
+ *
+ * @since 10.10
+ */
+public class SharedConversionCache {
+
+    private static final Log log = LogFactory.getLog(SharedConversionCache.class);
+
+    public static final String KEY_PREFIX = "convert-";
+
+    protected final String storeName;
+
+    public SharedConversionCache(String storeName) {
+        this.storeName = storeName;
+    }
+
+    protected TransientStore getStore() {
+        return Framework.getService(TransientStoreService.class).getStore(storeName);
+    }
+
+    protected String getStoreKey(String key) {
+        // conversion cache keys contain the conversion parameters and may be long
+        return KEY_PREFIX + DigestUtils.md5Hex(key);
+    }
+
+    /**
+     * Gets a conversion result from the cache, or {@code null} if it's missing.
+     */
+    public BlobHolder get(String key) {
+        String storeKey = getStoreKey(key);
+        TransientStore store = getStore();
+        if (!store.isCompleted(storeKey)) {
+            return null;
+        }
+        List<Blob> blobs = store.getBlobs(storeKey);
+        if (blobs == null) {
+            // expired in the meantime
+            return null;
+        }
+        return new SimpleBlobHolderWithProperties(blobs, store.getParameters(storeKey));
+    }
+
+    /**
+     * Adds a conversion result to the cache. Failures are logged, as the result can always be computed again.
+     */
+    public void put(String key, BlobHolder result) {
+        List<Blob> blobs = result.getBlobs();
+        if (blobs == null) {
+            return;
+        }
+        String storeKey = getStoreKey(key);
+        TransientStore store = getStore();
+        try {
+            store.putBlobs(storeKey, blobs);
+            Map<String, Serializable> properties = result.getProperties();
+            if (properties != null) {
+                store.putParameters(storeKey, properties);
+            }
+            store.setCompleted(storeKey, true);
+            // the entry is not owned by anyone and can be garbage collected after its TTL
+            store.release(storeKey);
+        } catch (MaximumTransientSpaceExceeded e) {
+            log.debug("Conversion cache is full, not caching: " + key);
+        } catch (NuxeoException e) {
+            log.error("Cannot add conversion result to the shared cache: " + key, e);
+            store.remove(storeKey);
+        }
+    }
+
+}
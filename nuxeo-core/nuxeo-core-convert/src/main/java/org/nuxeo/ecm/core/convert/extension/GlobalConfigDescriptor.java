@@ -100,6 +100,19 @@ public class GlobalConfigDescriptor implements Serializable {
         return diskCacheSize == null ? DEFAULT_DISK_CACHE_IN_KB : diskCacheSize.intValue();
     }
 
+    /**
+     * The name of the transient store used as a conversion cache shared by the cluster nodes, if any.
+     *
+     * @since 10.10
+     */
+    @XNode("sharedCacheTransientStore")
+    protected String sharedCacheTransientStore;
+
+    /** @since 10.10 */
+    public String getSharedCacheTransientStore() {
+        return sharedCacheTransientStore;
+    }
+
     public void update(GlobalConfigDescriptor other) {
         if (other.enableCache != null) {
             enableCache = other.enableCache;
@@ -113,6 +126,9 @@ public class GlobalConfigDescriptor implements Serializable {
         if (other.cachingDirectory != null) {
             cachingDirectory = other.cachingDirectory;
         }
+        if (other.sharedCacheTransientStore != null) {
+            sharedCacheTransientStore = other.sharedCacheTransientStore;
+        }
     }
 
 }
@@ -29,6 +29,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -53,6 +56,7 @@ import org.nuxeo.ecm.core.convert.api.ConverterNotRegistered;
 import org.nuxeo.ecm.core.convert.cache.CacheKeyGenerator;
 import org.nuxeo.ecm.core.convert.cache.ConversionCacheHolder;
 import org.nuxeo.ecm.core.convert.cache.GCTask;
+import org.nuxeo.ecm.core.convert.cache.SharedConversionCache;
 import org.nuxeo.ecm.core.convert.extension.ChainedConverter;
 import org.nuxeo.ecm.core.convert.extension.Converter;
 import org.nuxeo.ecm.core.convert.extension.ConverterDescriptor;
@@ -98,6 +102,13 @@ public class ConversionServiceImpl extends DefaultComponent implements Conversio
 
     protected GCTask gcTask;
 
+    /**
+     * The conversions in progress, by cache key, so that identical concurrent conversions are only done once.
+     *
+     * @since 10.10
+     */
+    protected final Map<String, CompletableFuture<Void>> conversionsInProgress = new ConcurrentHashMap<>();
+
     @Override
     public void activate(ComponentContext context) {
         converterDescriptors.clear();
@@ -325,18 +336,14 @@ public class ConversionServiceImpl extends DefaultComponent implements Conversio
 
         String cacheKey = CacheKeyGenerator.computeKey(converterName, blobHolder, parameters);
 
-        BlobHolder result = ConversionCacheHolder.getFromCache(cacheKey);
+        BlobHolder result = getFromCache(cacheKey);
 
         if (result == null) {
-            Converter converter = desc.getConverterInstance();
-            result = converter.convert(blobHolder, parameters);
-
             if (config.isCacheEnabled()) {
-                ConversionCacheHolder.addToCache(cacheKey, result);
+                result = convertOnce(cacheKey, desc, blobHolder, parameters);
+            } else {
+                result = desc.getConverterInstance().convert(blobHolder, parameters);
             }
-        } else if (result.getBlobs() != null && result.getBlobs().size() == 1) {
-            // we need to reset the filename if result is a single file from the cache because the name is just a hash
-            result.getBlob().setFilename(null);
         }
 
         if (result != null) {
@@ -347,6 +354,93 @@ public class ConversionServiceImpl extends DefaultComponent implements Conversio
         return result;
     }
 
+    /**
+     * Converts and caches the result, unless an identical conversion is already in progress in which case its result
+     * is taken from the cache once it is done.
+     *
+     * @since 10.10
+     */
+    protected BlobHolder convertOnce(String cacheKey, ConverterDescriptor desc, BlobHolder blobHolder,
+            Map<String, Serializable> parameters) {
+        CompletableFuture<Void> conversion = new CompletableFuture<>();
+        CompletableFuture<Void> inProgress = conversionsInProgress.putIfAbsent(cacheKey, conversion);
+        if (inProgress != null) {
+            try {
+                inProgress.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new ConversionException(cause);
+            }
+            BlobHolder result = getFromCache(cacheKey);
+            if (result != null) {
+                return result;
+            }
+            // the result could not be cached, convert on our own
+            return desc.getConverterInstance().convert(blobHolder, parameters);
+        }
+        try {
+            BlobHolder result = desc.getConverterInstance().convert(blobHolder, parameters);
+            addToCache(cacheKey, result);
+            conversion.complete(null);
+            return result;
+        } catch (Throwable t) { // NOSONAR the waiting threads must be released whatever the failure
+            conversion.completeExceptionally(t);
+            throw t;
+        } finally {
+            conversionsInProgress.remove(cacheKey, conversion);
+        }
+    }
+
+    /**
+     * Gets a conversion result from the node cache, or from the shared cache if one is configured.
+     *
+     * @since 10.10
+     */
+    protected BlobHolder getFromCache(String cacheKey) {
+        BlobHolder result = ConversionCacheHolder.getFromCache(cacheKey);
+        if (result != null) {
+            if (result.getBlobs() != null && result.getBlobs().size() == 1) {
+                // we need to reset the filename if result is a single file from the cache because the name is just a
+                // hash
+                result.getBlob().setFilename(null);
+            }
+            return result;
+        }
+        SharedConversionCache sharedCache = getSharedCache();
+        return sharedCache == null ? null : sharedCache.get(cacheKey);
+    }
+
+    /**
+     * @since 10.10
+     */
+    protected void addToCache(String cacheKey, BlobHolder result) {
+        if (result == null) {
+            return;
+        }
+        ConversionCacheHolder.addToCache(cacheKey, result);
+        SharedConversionCache sharedCache = getSharedCache();
+        if (sharedCache != null) {
+            sharedCache.put(cacheKey, result);
+        }
+    }
+
+    /**
+     * @since 10.10
+     */
+    protected SharedConversionCache getSharedCache() {
+        String storeName = config.getSharedCacheTransientStore();
+        if (!config.isCacheEnabled() || StringUtils.isBlank(storeName)) {
+            return null;
+        }
+        return new SharedConversionCache(storeName);
+    }
+
     /**
      * Returns true if the converter has the given {@code mimeType} as source mime type, false otherwise.
      *
@@ -25,6 +25,15 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,6 +43,7 @@ import org.nuxeo.ecm.core.api.Blobs;
 import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
 import org.nuxeo.ecm.core.api.blobholder.SimpleBlobHolder;
 import org.nuxeo.ecm.core.convert.api.ConversionService;
+import org.nuxeo.ecm.core.convert.cache.CacheKeyGenerator;
 import org.nuxeo.ecm.core.convert.cache.ConversionCacheGCManager;
 import org.nuxeo.ecm.core.convert.cache.ConversionCacheHolder;
 import org.nuxeo.ecm.core.convert.extension.Converter;
@@ -94,4 +104,68 @@ public class TestCache {
         assertEquals(0, cacheSize1 - cacheSize3);
     }
 
+    @Test
+    public void testConcurrentConversions() throws Exception {
+        ConversionService cs = Framework.getService(ConversionService.class);
+
+        int cacheSize1 = ConversionCacheHolder.getNbCacheEntries();
+
+        File file = FileUtils.getResourceFileFromContext("test-data/hello.doc");
+        Blob blob = Blobs.createBlob(file, "application/msword", null, "hello.doc");
+        BlobHolder bh = new SimpleBlobHolder(blob);
+        // distinct parameters to get a cache key not used by other tests
+        Map<String, Serializable> parameters = Collections.singletonMap("test", "concurrent");
+
+        CountingConverter.COUNT.set(0);
+        int nThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<BlobHolder>> futures = new ArrayList<>();
+            for (int i = 0; i < nThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    return cs.convert("counting", bh, parameters);
+                }));
+            }
+            ready.countDown();
+            for (Future<BlobHolder> future : futures) {
+                assertNotNull(future.get().getBlob());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // a single conversion, shared by all the threads
+        assertEquals(1, CountingConverter.COUNT.get());
+        int cacheSize2 = ConversionCacheHolder.getNbCacheEntries();
+        assertEquals(1, cacheSize2 - cacheSize1);
+    }
+
+    @Test
+    public void testSameResultForDifferentKeys() throws Exception {
+        ConversionService cs = Framework.getService(ConversionService.class);
+
+        File file = FileUtils.getResourceFileFromContext("test-data/hello.doc");
+        Blob blob = Blobs.createBlob(file, "application/msword", null, "hello.doc");
+        BlobHolder bh = new SimpleBlobHolder(blob);
+        Map<String, Serializable> parameters1 = Collections.singletonMap("test", "samehash1");
+        Map<String, Serializable> parameters2 = Collections.singletonMap("test", "samehash2");
+
+        // two cache entries with the same content
+        cs.convert("identity", bh, parameters1);
+        cs.convert("identity", bh, parameters2);
+        String key1 = CacheKeyGenerator.computeKey("identity", bh, parameters1);
+        String key2 = CacheKeyGenerator.computeKey("identity", bh, parameters2);
+        assertNotNull(ConversionCacheHolder.getCacheEntry(key1));
+        assertNotNull(ConversionCacheHolder.getCacheEntry(key2));
+
+        // removing one entry doesn't remove the file of the other one
+        ConversionCacheHolder.removeFromCache(key1);
+        BlobHolder result = ConversionCacheHolder.getFromCache(key2);
+        assertNotNull(result);
+        assertEquals(file.length(), result.getBlob().getLength());
+        ConversionCacheHolder.removeFromCache(key2);
+    }
+
 }
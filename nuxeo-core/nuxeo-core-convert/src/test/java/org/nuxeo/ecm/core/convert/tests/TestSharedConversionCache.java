@@ -0,0 +1,108 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Nuxeo - initial API and implementation
+ *
+ */
+package org.nuxeo.ecm.core.convert.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.common.utils.FileUtils;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.Blobs;
+import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
+import org.nuxeo.ecm.core.api.blobholder.SimpleBlobHolder;
+import org.nuxeo.ecm.core.api.blobholder.SimpleBlobHolderWithProperties;
+import org.nuxeo.ecm.core.convert.api.ConversionService;
+import org.nuxeo.ecm.core.convert.cache.CacheKeyGenerator;
+import org.nuxeo.ecm.core.convert.cache.ConversionCacheHolder;
+import org.nuxeo.ecm.core.convert.cache.SharedConversionCache;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.transientstore.test.InMemoryTransientStoreFeature;
+
+/**
+ * @since 10.10
+ */
+@RunWith(FeaturesRunner.class)
+@Features({ ConvertFeature.class, InMemoryTransientStoreFeature.class })
+@Deploy("org.nuxeo.ecm.core.convert:OSGI-INF/convert-service-config-shared-cache.xml")
+@Deploy("org.nuxeo.ecm.core.convert:OSGI-INF/converters-test-contrib3.xml")
+public class TestSharedConversionCache {
+
+    protected Blob getBlob() {
+        File file = FileUtils.getResourceFileFromContext("test-data/hello.doc");
+        return Blobs.createBlob(file, "application/msword", null, "hello.doc");
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        SharedConversionCache cache = new SharedConversionCache("testStore");
+        assertNull(cache.get("somekey"));
+
+        Blob blob = Blobs.createBlob("converted content");
+        Map<String, Serializable> properties = Collections.singletonMap("foo", "bar");
+        cache.put("somekey", new SimpleBlobHolderWithProperties(blob, properties));
+
+        BlobHolder result = cache.get("somekey");
+        assertNotNull(result);
+        assertEquals("converted content", result.getBlob().getString());
+        assertEquals("bar", result.getProperty("foo"));
+        assertNull(cache.get("otherkey"));
+    }
+
+    @Test
+    public void testFullStore() throws Exception {
+        // a store that can not store anything
+        SharedConversionCache cache = new SharedConversionCache("microStore");
+        cache.put("somekey", new SimpleBlobHolder(Blobs.createBlob("converted content")));
+        assertNull(cache.get("somekey"));
+    }
+
+    @Test
+    public void testConversionFromSharedCache() throws Exception {
+        ConversionService cs = Framework.getService(ConversionService.class);
+        BlobHolder bh = new SimpleBlobHolder(getBlob());
+        // distinct parameters to get a cache key not used by other tests
+        Map<String, Serializable> parameters = Collections.singletonMap("test", "shared");
+        CountingConverter.COUNT.set(0);
+
+        BlobHolder result = cs.convert("counting", bh, parameters);
+        assertNotNull(result);
+        assertEquals(1, CountingConverter.COUNT.get());
+
+        // as if converted by another node: not in the cache of this node
+        ConversionCacheHolder.removeFromCache(CacheKeyGenerator.computeKey("counting", bh, parameters));
+
+        BlobHolder cached = cs.convert("counting", bh, parameters);
+        assertNotNull(cached);
+        assertEquals(1, CountingConverter.COUNT.get());
+        assertEquals(result.getBlob().getLength(), cached.getBlob().getLength());
+    }
+
+}
@@ -81,6 +81,18 @@ public class StreamWorkManager extends WorkManagerImpl {
 
     public static final String DEFAULT_WORK_CODEC = "legacy";
 
+    /**
+     * The codec used to encode works into records, use "work" for the compact binary codec.
+     *
+     * @since 10.10
+     */
+    public static final String WORK_COMPUTATION_CODEC_PROP = "nuxeo.stream.work.computation.codec";
+
+    /**
+     * @since 10.10
+     */
+    public static final String DEFAULT_WORK_COMPUTATION_CODEC = "java";
+
     public static final String WORK_OVER_PROVISIONING_PROP = "nuxeo.stream.work.over.provisioning.factor";
 
     public static final String DEFAULT_WORK_OVER_PROVISIONING = "3";
@@ -114,6 +126,8 @@ public class StreamWorkManager extends WorkManagerImpl {
 
     protected long stateTTL;
 
+    protected Codec<Work> workCodec;
+
     protected int getOverProvisioningFactor() {
         // Enable over provisioning only if the log can be distributed
         if (getLogManager().supportSubscribe()) {
@@ -130,6 +144,14 @@ public class StreamWorkManager extends WorkManagerImpl {
         return Framework.getService(CodecService.class).getCodec(getCodecName(), Record.class);
     }
 
+    /**
+     * @since 10.10
+     */
+    protected Codec<Work> getWorkCodec() {
+        String codecName = Framework.getProperty(WORK_COMPUTATION_CODEC_PROP, DEFAULT_WORK_COMPUTATION_CODEC);
+        return Framework.getService(CodecService.class).getCodec(codecName, Work.class);
+    }
+
     @Override
     public void schedule(Work work, Scheduling scheduling, boolean afterCommit) {
         String queueId = getCategoryQueueId(work.getCategory());
@@ -165,7 +187,7 @@ public class StreamWorkManager extends WorkManagerImpl {
             return;
         }
         String key = work.getPartitionKey();
-        LogOffset offset = appender.append(key, Record.of(key, WorkComputation.serialize(work)));
+        LogOffset offset = appender.append(key, Record.of(key, workCodec.encode(work)));
         if (work.isCoalescing()) {
             WorkStateHelper.setLastOffset(work.getId(), offset.offset(), stateTTL);
         }
@@ -202,6 +224,7 @@ public class StreamWorkManager extends WorkManagerImpl {
             }
             getDescriptors(QUEUES_EP).forEach(d -> categoryToQueueId.put(d.getId(), d.getId()));
             index();
+            workCodec = getWorkCodec();
             initTopology();
             logManager = getLogManager();
             streamProcessor = new LogStreamProcessor(logManager);
@@ -259,7 +282,7 @@ public class StreamWorkManager extends WorkManagerImpl {
         Topology.Builder builder = Topology.builder();
         List<WorkQueueDescriptor> descriptors = getDescriptors(QUEUES_EP);
         descriptors.stream().filter(WorkQueueDescriptor::isProcessingEnabled).forEach(d -> builder.addComputation(
-                () -> new WorkComputation(d.getId()), Collections.singletonList("i1:" + d.getId())));
+                () -> new WorkComputation(d.getId(), workCodec), Collections.singletonList("i1:" + d.getId())));
         topology = builder.build();
         settings = new Settings(DEFAULT_CONCURRENCY, getPartitions(DEFAULT_CONCURRENCY), getCodec());
         descriptors.forEach(item -> settings.setConcurrency(item.getId(), item.getMaxThreads()));
@@ -0,0 +1,491 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.work;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.ecm.core.work.api.Work;
+import org.nuxeo.lib.stream.codec.Codec;
+import org.nuxeo.lib.stream.codec.SerializableCodec;
+
+/**
+ * A compact binary codec for {@link Work}.
+ * <p>
+ * The serializable fields of the work class hierarchy, including the common {@link AbstractWork} fields, are written in
+ * a fixed order after the class name and a schema fingerprint computed from the field names and types. Values are
+ * tagged: strings, primitives, enums, {@link ArrayList}, {@link HashMap} and byte arrays have a compact representation,
+ * other values are written using Java serialization. When decoding, the work is created with the no-arg constructor of
+ * its class, and a class name that is not a {@link Work} is rejected.
+ * <p>
+ * Works without a no-arg constructor, works that define their own serialization ({@link Externalizable},
+ * {@code writeObject}, {@code writeReplace} ...) and works where a list, map, array or object is referenced more than
+ * once, whose identity would be lost, are encoded with Java serialization. This format is also accepted when decoding
+ * so records written by the {@code java} codec can still be read.
+ *
+ * @since 10.10
+ */
+public class WorkCodec implements Codec<Work> {
+
+    private static final Logger log = LogManager.getLogger(WorkCodec.class);
+
+    public static final String NAME = "work";
+
+    // a Java serialization stream starts with 0xACED
+    protected static final byte MAGIC = 'N';
+
+    protected static final byte VERSION = 1;
+
+    protected static final byte NULL = 0;
+
+    protected static final byte STRING = 1;
+
+    protected static final byte INT = 2;
+
+    protected static final byte LONG = 3;
+
+    protected static final byte BOOLEAN = 4;
+
+    protected static final byte DOUBLE = 5;
+
+    protected static final byte FLOAT = 6;
+
+    protected static final byte SHORT = 7;
+
+    protected static final byte BYTE = 8;
+
+    protected static final byte CHAR = 9;
+
+    protected static final byte ENUM = 10;
+
+    protected static final byte LIST = 11;
+
+    protected static final byte MAP = 12;
+
+    protected static final byte BYTES = 13;
+
+    protected static final byte JAVA = 15;
+
+    protected static final List<String> CUSTOM_SERIALIZATION_METHODS = Arrays.asList("writeObject", "readObject",
+            "readObjectNoData", "writeReplace", "readResolve");
+
+    protected static final Map<Class<?>, Optional<ClassSchema>> SCHEMAS = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("rawtypes")
+    protected final SerializableCodec javaCodec = new SerializableCodec();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public byte[] encode(Work work) {
+        ClassSchema schema = getSchema(work.getClass());
+        if (schema != null) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(bos)) {
+                out.writeByte(MAGIC);
+                out.writeByte(VERSION);
+                writeWork(out, schema, work, Collections.newSetFromMap(new IdentityHashMap<>()));
+                out.flush();
+                return bos.toByteArray();
+            } catch (UnsupportedValueException e) {
+                log.debug("Fallback to Java serialization for work: {}, {}", work.getClass(), e.getMessage());
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        return javaCodec.encode(work);
+    }
+
+    @Override
+    public Work decode(byte[] data) {
+        return decode(data, 0, data.length);
+    }
+
+    @Override
+    public Work decode(byte[] data, int offset, int length) {
+        if (length == 0 || data[offset] != MAGIC) {
+            return (Work) javaCodec.decode(data, offset, length);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length))) {
+            in.readByte();
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported work codec version: " + version);
+            }
+            return readWork(in);
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Writes the fields of a work.
+     *
+     * @param seen the mutable values already written, to detect shared references
+     */
+    protected void writeWork(DataOutput out, ClassSchema schema, Work work, Set<Object> seen) throws IOException {
+        writeString(out, schema.klass.getName());
+        out.writeInt(schema.fingerprint);
+        try {
+            for (Field field : schema.fields) {
+                Class<?> type = field.getType();
+                if (type == int.class) {
+                    out.writeInt(field.getInt(work));
+                } else if (type == long.class) {
+                    out.writeLong(field.getLong(work));
+                } else if (type == boolean.class) {
+                    out.writeBoolean(field.getBoolean(work));
+                } else if (type == double.class) {
+                    out.writeDouble(field.getDouble(work));
+                } else if (type == float.class) {
+                    out.writeFloat(field.getFloat(work));
+                } else if (type == short.class) {
+                    out.writeShort(field.getShort(work));
+                } else if (type == byte.class) {
+                    out.writeByte(field.getByte(work));
+                } else if (type == char.class) {
+                    out.writeChar(field.getChar(work));
+                } else {
+                    writeValue(out, field.get(work), seen);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new UnsupportedValueException(e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void writeValue(DataOutput out, Object value, Set<Object> seen) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            writeString(out, ((Enum<?>) value).getDeclaringClass().getName());
+            writeString(out, ((Enum<?>) value).name());
+        } else if (!seen.add(value)) {
+            // decoding would create distinct copies
+            throw new UnsupportedValueException("shared reference on " + value.getClass());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value.getClass() == ArrayList.class) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item, seen);
+            }
+        } else if (value.getClass() == HashMap.class) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey(), seen);
+                writeValue(out, entry.getValue(), seen);
+            }
+        } else if (value instanceof Serializable) {
+            byte[] data = javaCodec.encode((Serializable) value);
+            out.writeByte(JAVA);
+            out.writeInt(data.length);
+            out.write(data);
+        } else {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+    }
+
+    protected Work readWork(DataInput in) throws IOException, ReflectiveOperationException {
+        String className = readString(in);
+        int fingerprint = in.readInt();
+        Class<?> klass = loadClass(className);
+        if (!Work.class.isAssignableFrom(klass)) {
+            throw new InvalidClassException(className, "not a work class");
+        }
+        ClassSchema schema = getSchema(klass);
+        if (schema == null || schema.fingerprint != fingerprint) {
+            throw new InvalidClassException(className, "incompatible class schema");
+        }
+        Work work = (Work) schema.constructor.newInstance();
+        for (Field field : schema.fields) {
+            Class<?> type = field.getType();
+            if (type == int.class) {
+                field.setInt(work, in.readInt());
+            } else if (type == long.class) {
+                field.setLong(work, in.readLong());
+            } else if (type == boolean.class) {
+                field.setBoolean(work, in.readBoolean());
+            } else if (type == double.class) {
+                field.setDouble(work, in.readDouble());
+            } else if (type == float.class) {
+                field.setFloat(work, in.readFloat());
+            } else if (type == short.class) {
+                field.setShort(work, in.readShort());
+            } else if (type == byte.class) {
+                field.setByte(work, in.readByte());
+            } else if (type == char.class) {
+                field.setChar(work, in.readChar());
+            } else {
+                field.set(work, readValue(in));
+            }
+        }
+        return work;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected Object readValue(DataInput in) throws IOException, ReflectiveOperationException {
+        byte tag = in.readByte();
+        switch (tag) {
+        case NULL:
+            return null;
+        case STRING:
+            return readString(in);
+        case INT:
+            return in.readInt();
+        case LONG:
+            return in.readLong();
+        case BOOLEAN:
+            return in.readBoolean();
+        case DOUBLE:
+            return in.readDouble();
+        case FLOAT:
+            return in.readFloat();
+        case SHORT:
+            return in.readShort();
+        case BYTE:
+            return in.readByte();
+        case CHAR:
+            return in.readChar();
+        case ENUM:
+            String enumClassName = readString(in);
+            Class enumClass = loadClass(enumClassName);
+            if (!enumClass.isEnum()) {
+                throw new InvalidClassException(enumClassName, "not an enum class");
+            }
+            return Enum.valueOf(enumClass, readString(in));
+        case BYTES:
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return bytes;
+        case LIST:
+            int size = in.readInt();
+            List<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readValue(in));
+            }
+            return list;
+        case MAP:
+            int entries = in.readInt();
+            Map<Object, Object> map = new HashMap<>();
+            for (int i = 0; i < entries; i++) {
+                map.put(readValue(in), readValue(in));
+            }
+            return map;
+        case JAVA:
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            return javaCodec.decode(data);
+        default:
+            throw new IOException("Invalid tag: " + tag);
+        }
+    }
+
+    protected static void writeString(DataOutput out, String value) throws IOException {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    protected static String readString(DataInput in) throws IOException {
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    protected static Class<?> loadClass(String className) throws ClassNotFoundException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = WorkCodec.class.getClassLoader();
+        }
+        return Class.forName(className, false, classLoader);
+    }
+
+    /**
+     * Returns the schema of a work class or null if the class can not be encoded field by field.
+     */
+    protected static ClassSchema getSchema(Class<?> klass) {
+        return SCHEMAS.computeIfAbsent(klass, k -> Optional.ofNullable(computeSchema(k))).orElse(null);
+    }
+
+    protected static ClassSchema computeSchema(Class<?> klass) {
+        if (!Work.class.isAssignableFrom(klass) || Externalizable.class.isAssignableFrom(klass)
+                || Modifier.isAbstract(klass.getModifiers()) || klass.isSynthetic()) {
+            return null;
+        }
+        List<Field> fields = new ArrayList<>();
+        Class<?> current = klass;
+        // fields are ordered from the top of the hierarchy then by name
+        List<Class<?>> hierarchy = new ArrayList<>();
+        while (Serializable.class.isAssignableFrom(current)) {
+            hierarchy.add(0, current);
+            current = current.getSuperclass();
+        }
+        try {
+            for (Class<?> c = klass; c != null; c = c.getSuperclass()) {
+                if (hasCustomSerialization(c)) {
+                    return null;
+                }
+            }
+            for (Class<?> c : hierarchy) {
+                List<Field> declared = new ArrayList<>();
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    declared.add(field);
+                }
+                declared.sort(Comparator.comparing(Field::getName));
+                fields.addAll(declared);
+            }
+            Constructor<?> constructor = klass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return new ClassSchema(klass, constructor, fields);
+        } catch (NoSuchMethodException | RuntimeException e) {
+            // RuntimeException covers the module access restrictions
+            log.debug("Class cannot be encoded field by field: {}, {}", klass, e.getMessage());
+            return null;
+        }
+    }
+
+    protected static boolean hasCustomSerialization(Class<?> klass) {
+        if (klass == Object.class) {
+            return false;
+        }
+        for (Method method : klass.getDeclaredMethods()) {
+            if (CUSTOM_SERIALIZATION_METHODS.contains(method.getName())) {
+                return true;
+            }
+        }
+        try {
+            klass.getDeclaredField("serialPersistentFields");
+            return true;
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    protected static class ClassSchema {
+
+        protected final Class<?> klass;
+
+        protected final Constructor<?> constructor;
+
+        protected final Field[] fields;
+
+        protected final int fingerprint;
+
+        protected ClassSchema(Class<?> klass, Constructor<?> constructor, List<Field> fields) {
+            this.klass = klass;
+            this.constructor = constructor;
+            this.fields = fields.toArray(new Field[0]);
+            StringBuilder signature = new StringBuilder(klass.getName());
+            for (Field field : fields) {
+                signature.append(';')
+                         .append(field.getDeclaringClass().getName())
+                         .append('.')
+                         .append(field.getName())
+                         .append(':')
+                         .append(field.getType().getName());
+            }
+            this.fingerprint = signature.toString().hashCode();
+        }
+    }
+
+    /**
+     * Raised when a value cannot be encoded in the compact format.
+     */
+    protected static class UnsupportedValueException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        public UnsupportedValueException(String message) {
+            super(message);
+        }
+    }
+
+}
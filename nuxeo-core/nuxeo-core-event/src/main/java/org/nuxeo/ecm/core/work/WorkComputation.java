@@ -36,9 +36,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.nuxeo.common.utils.ExceptionUtils;
 import org.nuxeo.ecm.core.work.api.Work;
+import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.lib.stream.computation.AbstractComputation;
 import org.nuxeo.lib.stream.computation.ComputationContext;
 import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.Watermark;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.services.config.ConfigurationService;
@@ -61,14 +63,29 @@ public class WorkComputation extends AbstractComputation {
 
     protected final Timer workTimer;
 
+    protected final Timer pickupTimer;
+
     protected final long stateTTL;
 
+    protected final Codec<Work> workCodec;
+
     protected Work work;
 
     public WorkComputation(String name) {
+        this(name, null);
+    }
+
+    /**
+     * Creates a work computation that decodes works using the provided codec, Java serialization is used when null.
+     *
+     * @since 10.10
+     */
+    public WorkComputation(String name, Codec<Work> workCodec) {
         super(name, 1, 0);
+        this.workCodec = workCodec;
         MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
         workTimer = registry.timer(MetricRegistry.name("nuxeo", "works", name, "total"));
+        pickupTimer = registry.timer(MetricRegistry.name("nuxeo", "works", name, "pickup"));
         stateTTL = Long.parseLong(
                 Framework.getService(ConfigurationService.class).getProperty(STATETTL_KEY, STATETTL_DEFAULT_VALUE));
     }
@@ -82,7 +99,12 @@ public class WorkComputation extends AbstractComputation {
 
     @Override
     public void processRecord(ComputationContext context, String inputStreamName, Record record) {
-        work = deserialize(record.getData());
+        // latency between the work append and its processing
+        long appendTime = Watermark.ofValue(record.getWatermark()).getTimestamp();
+        if (appendTime > 0) {
+            pickupTimer.update(System.currentTimeMillis() - appendTime, TimeUnit.MILLISECONDS);
+        }
+        work = workCodec == null ? deserialize(record.getData()) : workCodec.decode(record.getData());
         try {
             if (work.isCoalescing() && WorkStateHelper.getLastOffset(work.getId()) > context.getLastOffset().offset()) {
                 log.debug("Skipping duplicate of coalescing work id: " + work.getId() + " " + work);
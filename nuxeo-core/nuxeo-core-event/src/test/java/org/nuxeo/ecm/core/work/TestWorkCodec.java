@@ -0,0 +1,171 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.work;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+import org.nuxeo.ecm.core.work.api.Work;
+import org.nuxeo.lib.stream.codec.Codec;
+import org.nuxeo.lib.stream.codec.SerializableCodec;
+
+/**
+ * @since 10.10
+ */
+public class TestWorkCodec {
+
+    private static final Logger log = LogManager.getLogger(TestWorkCodec.class);
+
+    protected static final int LOOPS = 10_000;
+
+    protected final Codec<Work> codec = new WorkCodec();
+
+    protected final Codec<Work> javaCodec = new SerializableCodec<>();
+
+    /**
+     * A work with a no-arg constructor, needed by the compact format.
+     */
+    public static class CodecWork extends SleepWork {
+
+        private static final long serialVersionUID = 1L;
+
+        protected ArrayList<String> tags;
+
+        protected ArrayList<String> otherTags;
+
+        public CodecWork() {
+            super(0);
+        }
+
+        public CodecWork(long durationMillis, String category, String id) {
+            super(durationMillis, category, id);
+        }
+    }
+
+    protected CodecWork newWork() {
+        CodecWork work = new CodecWork(100, "myCategory", "workId");
+        work.setDocuments("default", Arrays.asList("8f3e1c2a-4a2b-4c3f-9b5e-1d2c3b4a5f6e",
+                "2a3b4c5d-6e7f-4a1b-8c9d-0e1f2a3b4c5d", "9e8d7c6b-5a4f-4e3d-2c1b-0a9f8e7d6c5b"));
+        work.setOriginatingUsername("Administrator");
+        work.setWorkInstanceState(Work.State.SCHEDULED);
+        return work;
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        CodecWork work = newWork();
+        work.tags = new ArrayList<>(Arrays.asList("a", "b"));
+        byte[] data = codec.encode(work);
+        assertEquals(WorkCodec.MAGIC, data[0]);
+        CodecWork decoded = (CodecWork) codec.decode(data);
+        assertEquals(work.getId(), decoded.getId());
+        assertEquals(work.getCategory(), decoded.getCategory());
+        assertEquals(work.getDocuments(), decoded.getDocuments());
+        assertEquals(work.getOriginatingUsername(), decoded.getOriginatingUsername());
+        assertEquals(work.getSchedulingTime(), decoded.getSchedulingTime());
+        assertEquals(work.getWorkInstanceState(), decoded.getWorkInstanceState());
+        assertEquals(work.getPartitionKey(), decoded.getPartitionKey());
+        assertEquals(work.getProgress().getPercent(), decoded.getProgress().getPercent(), 0.01);
+        assertEquals(work.tags, decoded.tags);
+        // the compact format is stable
+        assertArrayEquals(data, codec.encode(decoded));
+    }
+
+    @Test
+    public void testFallbackWithoutNoArgConstructor() {
+        SleepWork work = new SleepWork(100, "myCategory", "workId");
+        byte[] data = codec.encode(work);
+        assertNotEquals(WorkCodec.MAGIC, data[0]);
+        assertEquals(work.getId(), codec.decode(data).getId());
+    }
+
+    @Test
+    public void testFallbackOnSharedReference() {
+        CodecWork work = newWork();
+        work.tags = new ArrayList<>(Arrays.asList("a", "b"));
+        work.otherTags = work.tags;
+        byte[] data = codec.encode(work);
+        assertNotEquals(WorkCodec.MAGIC, data[0]);
+        CodecWork decoded = (CodecWork) codec.decode(data);
+        assertEquals(work.tags, decoded.tags);
+        assertSame(decoded.tags, decoded.otherTags);
+    }
+
+    @Test
+    public void testRejectNonWorkClass() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeByte(WorkCodec.MAGIC);
+            out.writeByte(WorkCodec.VERSION);
+            WorkCodec.writeString(out, ArrayList.class.getName());
+            out.writeInt(0);
+        }
+        try {
+            codec.decode(bos.toByteArray());
+            fail("should not decode a non work class");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not a work class"));
+        }
+    }
+
+    @Test
+    public void testDecodeJavaSerialization() {
+        CodecWork work = newWork();
+        SleepWork decoded = (SleepWork) codec.decode(javaCodec.encode(work));
+        assertEquals(work.getId(), decoded.getId());
+        assertEquals(work.getDocuments(), decoded.getDocuments());
+    }
+
+    @Test
+    public void testSizeAndSpeed() {
+        CodecWork work = newWork();
+        int compactSize = codec.encode(work).length;
+        int javaSize = javaCodec.encode(work).length;
+        log.info("Work encoded size compact: {} bytes, java: {} bytes", compactSize, javaSize);
+        assertTrue(compactSize < javaSize);
+        log.info("Compact codec: {} encode+decode/s", () -> throughput(codec, work));
+        log.info("Java codec: {} encode+decode/s", () -> throughput(javaCodec, work));
+    }
+
+    protected long throughput(Codec<Work> codec, Work work) {
+        // warmup
+        for (int i = 0; i < LOOPS; i++) {
+            codec.decode(codec.encode(work));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOPS; i++) {
+            codec.decode(codec.encode(work));
+        }
+        return LOOPS * 1_000_000_000L / Math.max(1, System.nanoTime() - start);
+    }
+
+}
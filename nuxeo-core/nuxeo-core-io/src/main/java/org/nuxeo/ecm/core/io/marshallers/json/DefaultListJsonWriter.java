@@ -122,6 +122,11 @@ public abstract class DefaultListJsonWriter<EntityType> extends AbstractJsonWrit
         jg.writeStringField(ENTITY_FIELD_NAME, entityType);
         writePaginationInfos(list, jg);
         Writer<EntityType> documentWriter = registry.getWriter(ctx, elClazz, elGenericType, APPLICATION_JSON_TYPE);
+        if (documentWriter instanceof ExtensibleEntityJsonWriter) {
+            @SuppressWarnings("unchecked")
+            ExtensibleEntityJsonWriter<EntityType> entityWriter = (ExtensibleEntityJsonWriter<EntityType>) documentWriter;
+            entityWriter.prepareEnrichers(list);
+        }
         jg.writeArrayFieldStart("entries");
         for (EntityType entity : list) {
             documentWriter.write(entity, elClazz, elClazz, APPLICATION_JSON_TYPE, new OutputStreamWithJsonWriter(jg));
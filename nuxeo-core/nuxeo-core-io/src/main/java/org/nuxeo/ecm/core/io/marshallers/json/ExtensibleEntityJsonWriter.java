@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.reflect.TypeUtils;
+import org.nuxeo.ecm.core.io.marshallers.json.enrichers.BatchJsonEnricher;
 import org.nuxeo.ecm.core.io.marshallers.json.enrichers.Enriched;
 import org.nuxeo.ecm.core.io.registry.MarshallerRegistry;
 import org.nuxeo.ecm.core.io.registry.Writer;
@@ -112,6 +113,36 @@ public abstract class ExtensibleEntityJsonWriter<EntityType> extends AbstractJso
         jg.writeEndObject();
     }
 
+    /**
+     * Lets the activated enrichers implementing {@link BatchJsonEnricher} prepare all the given entities at once,
+     * before they are written one by one.
+     *
+     * @param entities The Java entities which will be written.
+     * @since 10.10
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void prepareEnrichers(List<EntityType> entities) throws IOException {
+        if (entities.size() < 2) {
+            return;
+        }
+        try {
+            WrappedContext wrappedCtx = ctx.wrap().controlDepth();
+            for (String enricherName : ctx.getEnrichers(entityType)) {
+                try (Closeable resource = wrappedCtx.with(ENTITY_ENRICHER_NAME, enricherName).open()) {
+                    Collection<Writer<Enriched>> writers = registry.getAllWriters(ctx, Enriched.class,
+                            this.genericType, APPLICATION_JSON_TYPE);
+                    for (Writer<Enriched> writer : writers) {
+                        if (writer instanceof BatchJsonEnricher) {
+                            ((BatchJsonEnricher<EntityType>) writer).prepare(entities);
+                        }
+                    }
+                }
+            }
+        } catch (MaxDepthReachedException e) {
+            // do nothing, enrichers won't be called
+        }
+    }
+
     /**
      * Implement this method to write the entity body.
      *
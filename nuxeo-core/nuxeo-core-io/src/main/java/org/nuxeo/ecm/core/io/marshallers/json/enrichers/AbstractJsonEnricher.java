@@ -21,6 +21,8 @@ package org.nuxeo.ecm.core.io.marshallers.json.enrichers;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.ws.rs.core.MediaType;
 
@@ -39,6 +41,11 @@ public abstract class AbstractJsonEnricher<EntityType> extends AbstractJsonWrite
 
     public static final String ENTITY_ENRICHER_NAME = "_EntityEnricherName";
 
+    /**
+     * @since 10.10
+     */
+    public static final String PREFETCHED_PREFIX = "_Prefetched_";
+
     private final String name;
 
     public AbstractJsonEnricher(String name) {
@@ -65,4 +72,20 @@ public abstract class AbstractJsonEnricher<EntityType> extends AbstractJsonWrite
      */
     public abstract void write(JsonGenerator jg, EntityType enriched) throws IOException;
 
+    /**
+     * Gets the values prefetched by this enricher in the current rendering context, see {@link BatchJsonEnricher}.
+     *
+     * @return The prefetched values by entity key, never null.
+     * @since 10.10
+     */
+    protected <T> Map<String, T> getPrefetched() {
+        String key = PREFETCHED_PREFIX + name;
+        Map<String, T> prefetched = ctx.getParameter(key);
+        if (prefetched == null) {
+            prefetched = new HashMap<>();
+            ctx.setParameterValues(key, prefetched);
+        }
+        return prefetched;
+    }
+
 }
@@ -0,0 +1,49 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Nicolas Chapurlat <nchapurlat@nuxeo.com>
+ */
+
+package org.nuxeo.ecm.core.io.marshallers.json.enrichers;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.nuxeo.ecm.core.io.marshallers.json.DefaultListJsonWriter;
+
+/**
+ * An enricher able to prepare all the entities of a list at once, before they are enriched one by one.
+ * <p>
+ * The {@link DefaultListJsonWriter} calls {@link #prepare(List)} with the whole list, then the enricher is called for
+ * each entity as usual. The enricher can fetch in bulk what it needs and keep it in the rendering context, see
+ * {@link AbstractJsonEnricher#getPrefetched()}. An entity which wasn't prepared, for instance because it's written
+ * alone, must still be enriched.
+ * </p>
+ *
+ * @param <EntityType> The Java type whose the generated JSON will be enriched.
+ * @since 10.10
+ */
+public interface BatchJsonEnricher<EntityType> {
+
+    /**
+     * Prepares the enrichment of the given entities.
+     *
+     * @param entities The entities which will be enriched.
+     * @since 10.10
+     */
+    void prepare(List<EntityType> entities) throws IOException;
+
+}
@@ -19,13 +19,20 @@
 
 package org.nuxeo.ecm.core.io.marshallers.json.enrichers;
 
+import static org.nuxeo.ecm.core.api.security.SecurityConstants.READ;
 import static org.nuxeo.ecm.core.io.registry.reflect.Instantiations.SINGLETON;
 import static org.nuxeo.ecm.core.io.registry.reflect.Priorities.REFERENCE;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.nuxeo.ecm.core.api.CoreSession;
 import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.DocumentRef;
 import org.nuxeo.ecm.core.api.impl.DocumentModelListImpl;
 import org.nuxeo.ecm.core.io.marshallers.json.document.DocumentModelListJsonWriter;
 import org.nuxeo.ecm.core.io.registry.context.RenderingContext.SessionWrapper;
@@ -60,7 +67,8 @@ import com.fasterxml.jackson.core.JsonGenerator;
  * @since 7.2
  */
 @Setup(mode = SINGLETON, priority = REFERENCE)
-public class BreadcrumbJsonEnricher extends AbstractJsonEnricher<DocumentModel> {
+public class BreadcrumbJsonEnricher extends AbstractJsonEnricher<DocumentModel>
+        implements BatchJsonEnricher<DocumentModel> {
 
     public static final String NAME = "breadcrumb";
 
@@ -68,11 +76,49 @@ public class BreadcrumbJsonEnricher extends AbstractJsonEnricher<DocumentModel>
         super(NAME);
     }
 
+    /**
+     * Fetches the ancestors once per distinct parent, documents of a list usually share the same parent.
+     *
+     * @since 10.10
+     */
+    @Override
+    public void prepare(List<DocumentModel> documents) throws IOException {
+        Map<String, List<DocumentModel>> documentsByRepository = new HashMap<>();
+        for (DocumentModel document : documents) {
+            if (document.getId() != null && document.getRepositoryName() != null && document.getParentRef() != null
+                    && !document.isVersion()) {
+                documentsByRepository.computeIfAbsent(document.getRepositoryName(), k -> new ArrayList<>())
+                                     .add(document);
+            }
+        }
+        Map<String, List<DocumentModel>> prefetched = getPrefetched();
+        for (List<DocumentModel> repositoryDocuments : documentsByRepository.values()) {
+            try (SessionWrapper wrapper = ctx.getSession(repositoryDocuments.get(0))) {
+                CoreSession session = wrapper.getSession();
+                Map<DocumentRef, List<DocumentModel>> parentDocumentsByRef = new HashMap<>();
+                for (DocumentModel document : repositoryDocuments) {
+                    // same result as getParentDocuments on the document itself
+                    List<DocumentModel> parentDocuments;
+                    if (session.hasPermission(document.getRef(), READ)) {
+                        parentDocuments = new ArrayList<>(parentDocumentsByRef.computeIfAbsent(
+                                document.getParentRef(), session::getParentDocuments));
+                        parentDocuments.add(document);
+                    } else {
+                        parentDocuments = Collections.emptyList();
+                    }
+                    prefetched.put(document.getId(), parentDocuments);
+                }
+            }
+        }
+    }
+
     @Override
     public void write(JsonGenerator jg, DocumentModel document) throws IOException {
-        List<DocumentModel> parentDocuments = null;
-        try (SessionWrapper wrapper = ctx.getSession(document)) {
-            parentDocuments = wrapper.getSession().getParentDocuments(document.getRef());
+        List<DocumentModel> parentDocuments = this.<List<DocumentModel>> getPrefetched().get(document.getId());
+        if (parentDocuments == null) {
+            try (SessionWrapper wrapper = ctx.getSession(document)) {
+                parentDocuments = wrapper.getSession().getParentDocuments(document.getRef());
+            }
         }
         DocumentModelListImpl documentList = new DocumentModelListImpl(parentDocuments);
         jg.writeFieldName(NAME);
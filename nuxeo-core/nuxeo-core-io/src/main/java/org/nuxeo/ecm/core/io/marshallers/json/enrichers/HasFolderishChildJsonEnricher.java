@@ -23,8 +23,17 @@ import static org.nuxeo.ecm.core.io.registry.reflect.Instantiations.SINGLETON;
 import static org.nuxeo.ecm.core.io.registry.reflect.Priorities.REFERENCE;
 
 import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.IterableQueryResult;
 import org.nuxeo.ecm.core.io.registry.context.RenderingContext.SessionWrapper;
 import org.nuxeo.ecm.core.io.registry.reflect.Setup;
 import org.nuxeo.ecm.core.query.sql.NXQL;
@@ -35,23 +44,67 @@ import com.fasterxml.jackson.core.JsonGenerator;
  * @since 8.10
  */
 @Setup(mode = SINGLETON, priority = REFERENCE)
-public class HasFolderishChildJsonEnricher extends AbstractJsonEnricher<DocumentModel> {
+public class HasFolderishChildJsonEnricher extends AbstractJsonEnricher<DocumentModel>
+        implements BatchJsonEnricher<DocumentModel> {
 
     public static final String NAME = "hasFolderishChild";
 
+    protected static final String FOLDERISH_CHILD_CLAUSE = "ecm:mixinType = 'Folderish'"
+            + " AND ecm:mixinType != 'HiddenInNavigation' AND ecm:isTrashed = 0";
+
     public HasFolderishChildJsonEnricher() {
         super(NAME);
     }
 
+    /**
+     * Finds with a single query which of the folders have a folderish child.
+     *
+     * @since 10.10
+     */
+    @Override
+    public void prepare(List<DocumentModel> documents) throws IOException {
+        Map<String, List<DocumentModel>> foldersByRepository = new HashMap<>();
+        for (DocumentModel document : documents) {
+            if (document.isFolder() && document.getId() != null && document.getRepositoryName() != null) {
+                foldersByRepository.computeIfAbsent(document.getRepositoryName(), k -> new ArrayList<>())
+                                   .add(document);
+            }
+        }
+        Map<String, Boolean> prefetched = getPrefetched();
+        for (List<DocumentModel> folders : foldersByRepository.values()) {
+            Set<String> ids = folders.stream().map(DocumentModel::getId).collect(Collectors.toSet());
+            Set<String> parentIds = new HashSet<>();
+            try (SessionWrapper wrapper = ctx.getSession(folders.get(0))) {
+                String idList = ids.stream().map(NXQL::escapeString).collect(Collectors.joining(", "));
+                String query = "SELECT ecm:parentId FROM Document WHERE " + FOLDERISH_CHILD_CLAUSE
+                        + " AND ecm:parentId IN (" + idList + ")";
+                try (IterableQueryResult result = wrapper.getSession().queryAndFetch(query, NXQL.NXQL)) {
+                    // stop as soon as all the folders are known to have a folderish child
+                    for (Map<String, Serializable> map : result) {
+                        parentIds.add((String) map.get(NXQL.ECM_PARENTID));
+                        if (parentIds.size() == ids.size()) {
+                            break;
+                        }
+                    }
+                }
+            }
+            ids.forEach(id -> prefetched.put(id, parentIds.contains(id)));
+        }
+    }
+
     @Override
     public void write(JsonGenerator jg, DocumentModel document) throws IOException {
         if (!document.isFolder()) {
             jg.writeBooleanField(NAME, false);
             return;
         }
+        Boolean prefetched = this.<Boolean> getPrefetched().get(document.getId());
+        if (prefetched != null) {
+            jg.writeBooleanField(NAME, prefetched);
+            return;
+        }
         try (SessionWrapper wrapper = ctx.getSession(document)) {
-            String fetchFolderishChildQuery = "SELECT * FROM Document WHERE ecm:mixinType = 'Folderish'"
-                    + " AND ecm:mixinType != 'HiddenInNavigation' AND ecm:isTrashed = 0"
+            String fetchFolderishChildQuery = "SELECT * FROM Document WHERE " + FOLDERISH_CHILD_CLAUSE
                     + " AND ecm:parentId = " + NXQL.escapeString(document.getId());
             // Limit result set to 1 as we just want to know if there's at least one Folderish child
             boolean hasChildren = !wrapper.getSession().queryProjection(fetchFolderishChildQuery, 1, 0).isEmpty();
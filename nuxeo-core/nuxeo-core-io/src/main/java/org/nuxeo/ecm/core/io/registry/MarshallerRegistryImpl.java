@@ -20,12 +20,16 @@
 package org.nuxeo.ecm.core.io.registry;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.ws.rs.core.MediaType;
 
@@ -81,6 +85,25 @@ public class MarshallerRegistryImpl extends DefaultComponent implements Marshall
      */
     private static final Map<Class<?>, MarshallerInspector> marshallersByType = new ConcurrentHashMap<>();
 
+    /**
+     * The {@link MarshallerInspector}s whose managed type is compatible with a marshalled type, in priority order. The
+     * marshaller's accept method depends on the {@link RenderingContext}, so it is still called on each lookup.
+     * <p>
+     * The map is replaced when a marshaller is registered or deregistered, so a lookup running concurrently can't
+     * populate the new map with a stale resolution.
+     * </p>
+     *
+     * @since 10.10
+     */
+    private static volatile Map<ResolutionKey, List<MarshallerInspector>> resolutions = new ConcurrentHashMap<>();
+
+    /**
+     * Number of resolutions computed because they were not cached.
+     *
+     * @since 10.10
+     */
+    private static final AtomicLong resolutionCount = new AtomicLong();
+
     @Override
     public void deactivate(ComponentContext context) {
         clear();
@@ -155,6 +178,7 @@ public class MarshallerRegistryImpl extends DefaultComponent implements Marshall
                 inspectors.add(inspector);
             }
         }
+        invalidateResolutions();
     }
 
     @Override
@@ -188,6 +212,7 @@ public class MarshallerRegistryImpl extends DefaultComponent implements Marshall
                 }
             }
         }
+        invalidateResolutions();
     }
 
     @Override
@@ -275,23 +300,16 @@ public class MarshallerRegistryImpl extends DefaultComponent implements Marshall
     @SuppressWarnings("unchecked")
     private <T> Marshaller<T> searchCandidate(RenderingContext ctx, Class<T> marshalledClazz, Type genericType,
             MediaType mediatype, Set<MarshallerInspector> candidates, boolean forceInstantiation) {
-        for (MarshallerInspector inspector : candidates) {
-            // checks the managed class is compatible
-            if (inspector.getMarshalledType().isAssignableFrom(marshalledClazz)) {
-                // checks the generic type is compatible
-                if (genericType == null || marshalledClazz.equals(inspector.getGenericType())
-                        || TypeUtils.isAssignable(genericType, inspector.getGenericType())) {
-                    Marshaller<T> marshaller = null;
-                    if (forceInstantiation) {
-                        marshaller = (Marshaller<T>) inspector.getNewInstance(ctx, false);
-                    } else {
-                        marshaller = inspector.getInstance(ctx);
-                    }
-                    // checks the marshaller accepts the request
-                    if (marshaller.accept(marshalledClazz, genericType, mediatype)) {
-                        return marshaller;
-                    }
-                }
+        for (MarshallerInspector inspector : getCompatibleCandidates(marshalledClazz, genericType, candidates)) {
+            Marshaller<T> marshaller = null;
+            if (forceInstantiation) {
+                marshaller = (Marshaller<T>) inspector.getNewInstance(ctx, false);
+            } else {
+                marshaller = inspector.getInstance(ctx);
+            }
+            // checks the marshaller accepts the request
+            if (marshaller.accept(marshalledClazz, genericType, mediatype)) {
+                return marshaller;
             }
         }
         return null;
@@ -300,18 +318,11 @@ public class MarshallerRegistryImpl extends DefaultComponent implements Marshall
     private <T> Map<MarshallerInspector, Marshaller<T>> searchAllCandidates(RenderingContext ctx,
             Class<T> marshalledClazz, Type genericType, MediaType mediatype, Set<MarshallerInspector> candidates) {
         Map<MarshallerInspector, Marshaller<T>> result = new HashMap<>();
-        for (MarshallerInspector inspector : candidates) {
-            // checks the managed class is compatible
-            if (inspector.getMarshalledType().isAssignableFrom(marshalledClazz)) {
-                // checks the generic type is compatible
-                if (genericType == null || marshalledClazz.equals(inspector.getGenericType())
-                        || TypeUtils.isAssignable(genericType, inspector.getGenericType())) {
-                    // checks the marshaller accepts the request
-                    Marshaller<T> marshaller = inspector.getInstance(ctx);
-                    if (marshaller.accept(marshalledClazz, genericType, mediatype)) {
-                        result.put(inspector, marshaller);
-                    }
-                }
+        for (MarshallerInspector inspector : getCompatibleCandidates(marshalledClazz, genericType, candidates)) {
+            // checks the marshaller accepts the request
+            Marshaller<T> marshaller = inspector.getInstance(ctx);
+            if (marshaller.accept(marshalledClazz, genericType, mediatype)) {
+                result.put(inspector, marshaller);
             }
         }
         return result;
@@ -344,6 +355,91 @@ public class MarshallerRegistryImpl extends DefaultComponent implements Marshall
         readersByMediaType.clear();
         writers.clear();
         readers.clear();
+        invalidateResolutions();
+    }
+
+    private static void invalidateResolutions() {
+        resolutions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the number of resolutions computed so far, for tests.
+     *
+     * @since 10.10
+     */
+    static long getResolutionCount() {
+        return resolutionCount.get();
+    }
+
+    /**
+     * Gets the candidates whose managed type and generic type are compatible with the marshalled ones, keeping the
+     * candidates order.
+     *
+     * @since 10.10
+     */
+    private static List<MarshallerInspector> getCompatibleCandidates(Class<?> marshalledClazz, Type genericType,
+            Set<MarshallerInspector> candidates) {
+        Map<ResolutionKey, List<MarshallerInspector>> current = resolutions;
+        ResolutionKey key = new ResolutionKey(candidates, marshalledClazz, genericType);
+        List<MarshallerInspector> compatibles = current.get(key);
+        if (compatibles == null) {
+            resolutionCount.incrementAndGet();
+            compatibles = new ArrayList<>();
+            for (MarshallerInspector inspector : candidates) {
+                // checks the managed class is compatible
+                if (inspector.getMarshalledType().isAssignableFrom(marshalledClazz)) {
+                    // checks the generic type is compatible
+                    if (genericType == null || marshalledClazz.equals(inspector.getGenericType())
+                            || TypeUtils.isAssignable(genericType, inspector.getGenericType())) {
+                        compatibles.add(inspector);
+                    }
+                }
+            }
+            current.put(key, compatibles);
+        }
+        return compatibles;
+    }
+
+    /**
+     * Key of a resolution: the candidates set, compared by identity as it is one of the registry sets, and the
+     * marshalled types.
+     *
+     * @since 10.10
+     */
+    private static final class ResolutionKey {
+
+        private final Set<MarshallerInspector> candidates;
+
+        private final Class<?> marshalledClazz;
+
+        private final Type genericType;
+
+        private final int hashCode;
+
+        private ResolutionKey(Set<MarshallerInspector> candidates, Class<?> marshalledClazz, Type genericType) {
+            this.candidates = candidates;
+            this.marshalledClazz = marshalledClazz;
+            this.genericType = genericType;
+            hashCode = Objects.hash(System.identityHashCode(candidates), marshalledClazz, genericType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ResolutionKey)) {
+                return false;
+            }
+            ResolutionKey other = (ResolutionKey) obj;
+            return candidates == other.candidates && marshalledClazz.equals(other.marshalledClazz)
+                    && Objects.equals(genericType, other.genericType);
+        }
     }
 
 }
@@ -71,6 +71,33 @@ public class TestMarshallerRegistryImpl {
         assertIsEmpty();
     }
 
+    @Test
+    public void testResolutionCache() {
+        registry.clear();
+        registry.register(DefaultNumberReader.class);
+        long count = MarshallerRegistryImpl.getResolutionCount();
+        assertHasOne();
+        long resolutions = MarshallerRegistryImpl.getResolutionCount() - count;
+        assertTrue(resolutions > 0);
+
+        // same lookup: no new resolution
+        count = MarshallerRegistryImpl.getResolutionCount();
+        assertHasOne();
+        assertHasOne();
+        assertEquals(count, MarshallerRegistryImpl.getResolutionCount());
+
+        // another marshalled type is resolved on its own
+        assertEquals(1, registry.getAllReaders(ctx, Integer.class, null, APPLICATION_JSON_TYPE).size());
+        assertEquals(count + resolutions, MarshallerRegistryImpl.getResolutionCount());
+
+        // a registration invalidates the resolutions
+        registry.deregister(DefaultNumberReader.class);
+        registry.register(DefaultNumberReader.class);
+        count = MarshallerRegistryImpl.getResolutionCount();
+        assertHasOne();
+        assertEquals(count + resolutions, MarshallerRegistryImpl.getResolutionCount());
+    }
+
     private void assertIsEmpty() {
         assertTrue(registry.getAllReaders(ctx, Number.class, null, APPLICATION_JSON_TYPE).isEmpty());
     }
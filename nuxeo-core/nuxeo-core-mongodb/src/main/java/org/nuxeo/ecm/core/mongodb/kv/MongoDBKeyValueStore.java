@@ -28,9 +28,11 @@ import static com.mongodb.client.model.Updates.unset;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.nio.charset.CharacterCodingException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -55,10 +57,14 @@ import com.mongodb.MongoCommandException;
 import com.mongodb.MongoWriteException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 
@@ -351,6 +357,40 @@ public class MongoDBKeyValueStore extends AbstractKeyValueStoreProvider {
         }
     }
 
+    @Override
+    public void putAll(Map<String, byte[]> values, long ttl) {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(values.size());
+        values.forEach((key, bytes) -> {
+            Bson filter = eq(ID_KEY, key);
+            if (bytes == null) {
+                models.add(new DeleteOneModel<>(filter));
+            } else {
+                Document doc = new Document(VALUE_KEY, toStorage(bytes));
+                addTTL(doc, ttl);
+                models.add(new ReplaceOneModel<>(filter, doc, new UpdateOptions().upsert(true)));
+            }
+        });
+        if (log.isTraceEnabled()) {
+            log.trace("MongoDB: PUTALL " + values.keySet() + (ttl == 0 ? "" : " (TTL " + ttl + ")"));
+        }
+        // the keys are distinct so the order of the writes doesn't matter
+        coll.bulkWrite(models, new BulkWriteOptions().ordered(false));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (log.isTraceEnabled()) {
+            log.trace("MongoDB: DELALL " + keys);
+        }
+        coll.deleteMany(in(ID_KEY, keys));
+    }
+
     protected void addTTL(Document doc, long ttl) {
         if (ttl != 0) {
             doc.append(TTL_KEY, getDateFromTTL(ttl));
@@ -63,7 +63,7 @@ public class IdentityQueryTransformer implements QueryTransformer {
 
     @Override
     public FromClause transform(FromClause node) {
-        return new FromClause(transform(node.elements));
+        return new FromClause(node.type, transform(node.elements));
     }
 
     @Override
@@ -75,6 +75,9 @@ public class IdentityQueryTransformer implements QueryTransformer {
 
     @Override
     public WhereClause transform(WhereClause node) {
+        if (node == null) {
+            return null;
+        }
         return new WhereClause(transform(node.predicate));
     }
 
@@ -133,7 +136,9 @@ public class IdentityQueryTransformer implements QueryTransformer {
 
     @Override
     public Operand transform(Operand node) {
-        if (node instanceof Literal) {
+        if (node == null) {
+            return null;
+        } else if (node instanceof Literal) {
             return transform((Literal) node);
         } else if (node instanceof LiteralList) {
             return transform((LiteralList) node);
@@ -191,6 +196,7 @@ public class IdentityQueryTransformer implements QueryTransformer {
     @Override
     public Reference transform(Reference node) {
         Reference ref = new Reference(node.name, node.cast, node.esHint);
+        ref.originalName = node.originalName;
         ref.info = node.info;
         return ref;
     }
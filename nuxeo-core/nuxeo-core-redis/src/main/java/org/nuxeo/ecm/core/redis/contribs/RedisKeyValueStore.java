@@ -27,10 +27,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -41,6 +45,9 @@ import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.kv.AbstractKeyValueStoreProvider;
 import org.nuxeo.runtime.kv.KeyValueStoreDescriptor;
 
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.exceptions.JedisDataException;
 
 /**
@@ -51,6 +58,8 @@ import redis.clients.jedis.exceptions.JedisDataException;
  * <li>namespace: the Redis namespace to use for keys (in addition to the global Redis namespace configured in the Redis
  * service). DEPRECATED since 10.10, use the descriptor's {@code <namespace>} element instead.
  * </ul>
+ * <p>
+ * Bulk writes are pipelined, and key streams use incremental {@code SCAN}s instead of a blocking {@code KEYS}.
  *
  * @since 9.1
  */
@@ -66,6 +75,9 @@ public class RedisKeyValueStore extends AbstractKeyValueStoreProvider {
 
     protected static final Long ONE = Long.valueOf(1);
 
+    /** Number of keys examined by each {@code SCAN} call. */
+    protected static final int SCAN_COUNT = 1000;
+
     protected String namespace;
 
     protected byte[] compareAndSetSHA;
@@ -106,19 +118,54 @@ public class RedisKeyValueStore extends AbstractKeyValueStoreProvider {
 
     @Override
     public Stream<String> keyStream() {
-        RedisExecutor redisExecutor = Framework.getService(RedisExecutor.class);
-        int namespaceLength = namespace.length();
-        Set<String> keys = redisExecutor.execute(jedis -> jedis.keys(namespace + "*"));
-        return keys.stream().map(key -> key.substring(namespaceLength));
+        return scan(namespace + "*");
     }
 
     @Override
     public Stream<String> keyStream(String prefix) {
-        final String prefixf = ecapeGlob(prefix);
+        return scan(namespace + ecapeGlob(prefix) + "*");
+    }
+
+    /**
+     * Streams the keys matching a pattern, using one {@code SCAN} call for each batch of keys.
+     *
+     * @since 10.10
+     */
+    protected Stream<String> scan(String pattern) {
         RedisExecutor redisExecutor = Framework.getService(RedisExecutor.class);
+        ScanParams params = new ScanParams().match(pattern).count(SCAN_COUNT);
+        Iterator<String> it = new Iterator<String>() {
+
+            protected Iterator<String> batch = Collections.emptyIterator();
+
+            protected String cursor = ScanParams.SCAN_POINTER_START;
+
+            protected boolean done;
+
+            @Override
+            public boolean hasNext() {
+                while (!batch.hasNext() && !done) {
+                    ScanResult<String> result = redisExecutor.execute(jedis -> jedis.scan(cursor, params));
+                    cursor = result.getStringCursor();
+                    done = ScanParams.SCAN_POINTER_START.equals(cursor);
+                    batch = result.getResult().iterator();
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
         int namespaceLength = namespace.length();
-        Set<String> keys = redisExecutor.execute(jedis -> jedis.keys(namespace + prefixf + "*"));
-        return keys.stream().map(key -> key.substring(namespaceLength));
+        // SCAN may return a key more than once
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.NONNULL), false)
+                            .distinct()
+                            .map(key -> key.substring(namespaceLength));
     }
 
     /** Escape glob-like wildcards and [] char ranges with a backslash. */
@@ -157,6 +204,43 @@ public class RedisKeyValueStore extends AbstractKeyValueStoreProvider {
         });
     }
 
+    @Override
+    public void putAll(Map<String, byte[]> values, long ttl) {
+        if (values.isEmpty()) {
+            return;
+        }
+        RedisExecutor redisExecutor = Framework.getService(RedisExecutor.class);
+        redisExecutor.execute(jedis -> {
+            Pipeline pipeline = jedis.pipelined();
+            values.forEach((key, value) -> {
+                byte[] keyb = getBytes(namespace + key);
+                if (value == null) {
+                    pipeline.del(keyb);
+                } else if (ttl == 0) {
+                    pipeline.set(keyb, value);
+                } else {
+                    pipeline.setex(keyb, (int) ttl, value);
+                }
+            });
+            pipeline.sync();
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        byte[][] byteKeys = new byte[keys.size()][];
+        int i = 0;
+        for (String key : keys) {
+            byteKeys[i++] = getBytes(namespace + key);
+        }
+        RedisExecutor redisExecutor = Framework.getService(RedisExecutor.class);
+        redisExecutor.execute(jedis -> jedis.del(byteKeys));
+    }
+
     @Override
     public byte[] get(String key) {
         RedisExecutor redisExecutor = Framework.getService(RedisExecutor.class);
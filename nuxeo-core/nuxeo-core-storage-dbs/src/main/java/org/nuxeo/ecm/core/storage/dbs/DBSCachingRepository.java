@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
@@ -50,6 +51,7 @@ import org.nuxeo.ecm.core.query.sql.model.OrderByClause;
 import org.nuxeo.ecm.core.storage.State;
 import org.nuxeo.ecm.core.storage.State.StateDiff;
 import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.ChangeTokenUpdater;
+import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.StateUpdate;
 import org.nuxeo.runtime.metrics.MetricsService;
 
 import com.codahale.metrics.MetricRegistry;
@@ -85,7 +87,7 @@ public class DBSCachingRepository implements DBSRepository {
     public DBSCachingRepository(DBSRepository repository, DBSRepositoryDescriptor descriptor) {
         this.repository = repository;
         // Init caches
-        cache = newCache(descriptor);
+        cache = newStateCache(descriptor);
         registry.registerAll(GuavaCacheMetric.of(cache, "nuxeo", "repositories", repository.getName(), "cache"));
         childCache = newCache(descriptor);
         registry.registerAll(
@@ -111,6 +113,19 @@ public class DBSCachingRepository implements DBSRepository {
         return builder.build();
     }
 
+    /**
+     * Creates the documents state cache, bounded by weight if a maximum size in bytes is configured.
+     *
+     * @since 10.10
+     */
+    protected Cache<String, State> newStateCache(DBSRepositoryDescriptor descriptor) {
+        if (descriptor.cacheMaxBytes == null || descriptor.cacheMaxBytes.longValue() <= 0) {
+            return newCache(descriptor);
+        }
+        return new WindowTinyLfuCache<>(descriptor.cacheMaxBytes.longValue(), descriptor.cacheTTL.longValue(),
+                TimeUnit.MINUTES, new DBSStateWeigher());
+    }
+
     protected void initClusterInvalidator(DBSRepositoryDescriptor descriptor) {
         String nodeId = descriptor.clusterNodeId;
         if (StringUtils.isBlank(nodeId)) {
@@ -227,6 +242,15 @@ public class DBSCachingRepository implements DBSRepository {
         invalidate(id);
     }
 
+    @Override
+    public void updateStates(List<StateUpdate> updates) {
+        try {
+            repository.updateStates(updates);
+        } finally {
+            invalidateAll(updates.stream().map(StateUpdate::getId).collect(Collectors.toSet()));
+        }
+    }
+
     @Override
     public void deleteStates(Set<String> ids) {
         repository.deleteStates(ids);
@@ -44,7 +44,9 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
@@ -52,6 +54,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.core.query.QueryParseException;
 import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.core.query.sql.model.DefaultQueryVisitor;
 import org.nuxeo.ecm.core.query.sql.model.Expression;
 import org.nuxeo.ecm.core.query.sql.model.MultiExpression;
 import org.nuxeo.ecm.core.query.sql.model.Operand;
@@ -62,6 +65,7 @@ import org.nuxeo.ecm.core.query.sql.model.Reference;
 import org.nuxeo.ecm.core.query.sql.model.SQLQuery;
 import org.nuxeo.ecm.core.query.sql.model.SelectClause;
 import org.nuxeo.ecm.core.query.sql.model.SelectList;
+import org.nuxeo.ecm.core.query.sql.model.StringLiteral;
 import org.nuxeo.ecm.core.schema.DocumentType;
 import org.nuxeo.ecm.core.schema.SchemaManager;
 import org.nuxeo.ecm.core.schema.types.ComplexType;
@@ -245,13 +249,16 @@ public class DBSExpressionEvaluator extends ExpressionEvaluator {
     protected static class DBSPathResolver implements PathResolver {
         protected final DBSSession session;
 
+        // paths are resolved once per query, before any parallel evaluation (see resolvePaths)
+        protected final Map<String, Optional<String>> ids = new ConcurrentHashMap<>();
+
         public DBSPathResolver(DBSSession session) {
             this.session = session;
         }
 
         @Override
         public String getIdForPath(String path) {
-            return session.getDocumentIdByPath(path);
+            return ids.computeIfAbsent(path, p -> Optional.ofNullable(session.getDocumentIdByPath(p))).orElse(null);
         }
     }
 
@@ -290,6 +297,58 @@ public class DBSExpressionEvaluator extends ExpressionEvaluator {
         this.orderByClause = query.orderBy;
     }
 
+    /**
+     * Copy constructor, sharing the resolved paths.
+     *
+     * @since 10.10
+     */
+    protected DBSExpressionEvaluator(DBSExpressionEvaluator other) {
+        super(other.pathResolver, other.principals == null ? null : other.principals.toArray(new String[0]),
+                other.fulltextSearchDisabled);
+        this.selectClause = other.selectClause;
+        this.expression = other.expression;
+        this.orderByClause = other.orderByClause;
+    }
+
+    /**
+     * Returns a parsed evaluator for the same query, to evaluate states concurrently with this one, which must have
+     * been parsed first.
+     *
+     * @since 10.10
+     */
+    public DBSExpressionEvaluator copy() {
+        DBSExpressionEvaluator copy = new DBSExpressionEvaluator(this);
+        copy.parse();
+        return copy;
+    }
+
+    /**
+     * Resolves the paths of the {@code ecm:path} and {@code STARTSWITH} predicates, so that evaluating the query, and
+     * its copies from other threads, doesn't use the session.
+     *
+     * @since 10.10
+     */
+    public void resolvePaths() {
+        if (expression == null) {
+            return;
+        }
+        expression.accept(new DefaultQueryVisitor() {
+            @Override
+            public void visitExpression(Expression node) {
+                if (node.lvalue instanceof Reference && NXQL.ECM_PATH.equals(((Reference) node.lvalue).name)
+                        && node.rvalue instanceof StringLiteral) {
+                    // same normalization as the evaluation
+                    String path = ((StringLiteral) node.rvalue).value;
+                    if (path.length() > 1 && path.endsWith("/")) {
+                        path = path.substring(0, path.length() - 1);
+                    }
+                    pathResolver.getIdForPath(path);
+                }
+                super.visitExpression(node);
+            }
+        });
+    }
+
     public SelectClause getSelectClause() {
         return selectClause;
     }
@@ -35,6 +35,7 @@ import org.nuxeo.ecm.core.query.sql.model.OrderByClause;
 import org.nuxeo.ecm.core.storage.State;
 import org.nuxeo.ecm.core.storage.State.StateDiff;
 import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.ChangeTokenUpdater;
+import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.StateUpdate;
 
 /**
  * Interface for a {@link Repository} for Document-Based Storage.
@@ -145,6 +146,19 @@ public interface DBSRepository extends Repository, LockManager {
      */
     void updateState(String id, StateDiff diff, ChangeTokenUpdater changeTokenUpdater);
 
+    /**
+     * Updates documents.
+     * <p>
+     * The updates are applied in order. If some of them fail because of a concurrent update, the others are still
+     * applied and a {@link org.nuxeo.ecm.core.api.ConcurrentUpdateException} is thrown at the end.
+     *
+     * @param updates the updates to apply
+     * @since 10.10
+     */
+    default void updateStates(List<StateUpdate> updates) {
+        updates.forEach(update -> updateState(update.getId(), update.getDiff(), update.getChangeTokenUpdater()));
+    }
+
     /**
      * Deletes a set of document.
      *
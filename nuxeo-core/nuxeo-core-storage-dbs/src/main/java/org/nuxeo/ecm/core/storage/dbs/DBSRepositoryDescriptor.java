@@ -116,6 +116,15 @@ public class DBSRepositoryDescriptor implements Cloneable {
     @XNode("cache@concurrencyLevel")
     public Integer cacheConcurrencyLevel;
 
+    /**
+     * Maximum estimated size in bytes of the documents state cache. When set, the state cache is bounded by weight
+     * instead of {@link #cacheMaxSize} and uses a scan resistant admission policy.
+     *
+     * @since 10.10
+     */
+    @XNode("cache@maxBytes")
+    public Long cacheMaxBytes;
+
     /** @since 8.10 */
     @XNode("clustering@id")
     public String clusterNodeId;
@@ -189,6 +198,9 @@ public class DBSRepositoryDescriptor implements Cloneable {
         if (other.cacheConcurrencyLevel != null) {
             cacheConcurrencyLevel = other.cacheConcurrencyLevel;
         }
+        if (other.cacheMaxBytes != null) {
+            cacheMaxBytes = other.cacheMaxBytes;
+        }
         if (other.clusterNodeId != null) {
             clusterNodeId = other.clusterNodeId;
         }
@@ -0,0 +1,106 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Kevin Leturc
+ */
+package org.nuxeo.ecm.core.storage.dbs;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Map.Entry;
+
+import org.nuxeo.ecm.core.storage.State;
+import org.nuxeo.ecm.core.storage.State.ListDiff;
+import org.nuxeo.ecm.core.storage.State.StateDiff;
+
+import com.google.common.cache.Weigher;
+
+/**
+ * Estimates the heap size in bytes of a {@link State} or {@link StateDiff}, to be used as a cache {@link Weigher}.
+ * <p>
+ * The estimation assumes a 64-bit JVM with compressed oops, it doesn't need to be exact but must be cheap and grow
+ * with the actual footprint of big documents (complex lists, long strings).
+ *
+ * @since 10.10
+ */
+public class DBSStateWeigher implements Weigher<String, State> {
+
+    protected static final int OBJECT_HEADER = 16;
+
+    protected static final int REFERENCE = 4;
+
+    protected static final int STRING_BASE = 40;
+
+    protected static final int BOXED = 16;
+
+    protected static final int CALENDAR = 448;
+
+    protected static final int MAP_ENTRY = 32;
+
+    protected static final int STATE_BASE = 64;
+
+    protected static final int LIST_BASE = 40;
+
+    protected static final int UNKNOWN = 64;
+
+    @Override
+    public int weigh(String key, State state) {
+        long size = sizeOf(key) + sizeOf(state);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Estimates the size in bytes of a value stored in a {@link State}.
+     */
+    public static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String) {
+            return STRING_BASE + 2L * ((String) value).length();
+        } else if (value instanceof State) {
+            long size = STATE_BASE;
+            for (Entry<String, ?> en : ((State) value).entrySet()) {
+                size += MAP_ENTRY + sizeOf(en.getKey()) + sizeOf(en.getValue());
+            }
+            return size;
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            long size = OBJECT_HEADER + (long) REFERENCE * array.length;
+            for (Object v : array) {
+                size += sizeOf(v);
+            }
+            return size;
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            long size = LIST_BASE + (long) REFERENCE * collection.size();
+            for (Object v : collection) {
+                size += sizeOf(v);
+            }
+            return size;
+        } else if (value instanceof ListDiff) {
+            ListDiff listDiff = (ListDiff) value;
+            return OBJECT_HEADER + sizeOf(listDiff.diff) + sizeOf(listDiff.rpush);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return BOXED;
+        } else if (value instanceof Calendar) {
+            return CALENDAR;
+        } else if (value instanceof byte[]) {
+            return OBJECT_HEADER + ((byte[]) value).length;
+        }
+        return UNKNOWN;
+    }
+
+}
@@ -49,6 +49,14 @@ public class GuavaCacheMetric extends NuxeoMetricSet {
         metrics.putGauge(() -> cache.stats().missRate(), "miss", "rate");
         metrics.putGauge(() -> cache.stats().requestCount(), "request", "count");
         metrics.putGauge(() -> cache.stats().totalLoadTime(), "total", "load", "time");
+        if (cache instanceof WindowTinyLfuCache) {
+            WindowTinyLfuCache<?> weightedCache = (WindowTinyLfuCache<?>) cache;
+            metrics.putGauge(weightedCache::weightedSize, "weighted", "size");
+            metrics.putGauge(weightedCache::getMaxWeight, "weighted", "max");
+            metrics.putGauge(weightedCache::sizeEvictionCount, "eviction", "size", "count");
+            metrics.putGauge(weightedCache::expiredEvictionCount, "eviction", "expired", "count");
+            metrics.putGauge(weightedCache::rejectedCount, "eviction", "rejected", "count");
+        }
         return metrics;
     }
 
@@ -0,0 +1,528 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Kevin Leturc
+ */
+package org.nuxeo.ecm.core.storage.dbs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+/**
+ * A weight bounded cache with a scan resistant admission policy, close to W-TinyLFU.
+ * <p>
+ * New entries go to a small LRU window. When an entry is evicted from the window, it enters the main LRU cache only if
+ * there is room for it or if it has been requested more often than each of the main cache victims that would be
+ * evicted for it, according to a frequency sketch of recent requests. So a single pass over many keys (a bulk scroll)
+ * goes through the window without flushing the hot working set held by the main cache.
+ * <p>
+ * Entries expire a given time after write, expired entries are removed when accessed or when looking for a victim.
+ * <p>
+ * Lookups are done in a concurrent map without locking. Like in Caffeine, the reads are recorded in a buffer and
+ * replayed on the frequency sketch and the LRU orders under the eviction lock by the thread that fills the buffer or by
+ * the next write. Reads are dropped when the buffer is full, which only makes the policy a bit less accurate. Writes
+ * update the policy directly under the eviction lock.
+ *
+ * @since 10.10
+ */
+public class WindowTinyLfuCache<V> extends AbstractCache<String, V> {
+
+    /** Part of the maximum weight given to the admission window. */
+    protected static final double WINDOW_RATIO = 0.01;
+
+    /** Used to size the frequency sketch from the maximum weight. */
+    protected static final int AVERAGE_WEIGHT = 4096;
+
+    /** Maximum number of buffered reads, the next ones are dropped. */
+    protected static final int READ_BUFFER_SIZE = 256;
+
+    /** Number of buffered reads triggering their replay. */
+    protected static final int READ_BUFFER_DRAIN_THRESHOLD = 64;
+
+    protected static class Node<V> {
+
+        protected final V value;
+
+        protected final int weight;
+
+        protected final long writeTime;
+
+        protected Node(V value, int weight, long writeTime) {
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    protected final Weigher<String, V> weigher;
+
+    protected final long maxWeight;
+
+    protected final long windowMaxWeight;
+
+    protected final long mainMaxWeight;
+
+    protected final long ttlNanos;
+
+    /** All the entries of the window and of the main cache. */
+    protected final ConcurrentHashMap<String, Node<V>> data = new ConcurrentHashMap<>();
+
+    protected final Queue<Object> readBuffer = new ConcurrentLinkedQueue<>();
+
+    protected final AtomicInteger readBufferSize = new AtomicInteger();
+
+    protected final LongAdder hitCount = new LongAdder();
+
+    protected final LongAdder missCount = new LongAdder();
+
+    protected final ReentrantLock evictionLock = new ReentrantLock();
+
+    // the following fields are guarded by evictionLock
+
+    protected final FrequencySketch sketch;
+
+    protected final LinkedHashMap<String, Node<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+
+    protected final LinkedHashMap<String, Node<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+
+    protected long windowWeight;
+
+    protected long mainWeight;
+
+    protected long sizeEvictionCount;
+
+    protected long expiredEvictionCount;
+
+    protected long rejectedCount;
+
+    public WindowTinyLfuCache(long maxWeight, long ttl, TimeUnit unit, Weigher<String, V> weigher) {
+        this.weigher = weigher;
+        this.maxWeight = maxWeight;
+        windowMaxWeight = Math.max(1, (long) (maxWeight * WINDOW_RATIO));
+        mainMaxWeight = Math.max(1, maxWeight - windowMaxWeight);
+        ttlNanos = unit.toNanos(ttl);
+        sketch = new FrequencySketch((int) Math.min(maxWeight / AVERAGE_WEIGHT, 1 << 22));
+    }
+
+    protected boolean isExpired(Node<V> node, long now) {
+        return now - node.writeTime > ttlNanos;
+    }
+
+    @Override
+    public V getIfPresent(Object key) {
+        Node<V> node = data.get(key);
+        recordRead(key);
+        if (node != null && isExpired(node, System.nanoTime())) {
+            if (evictionLock.tryLock()) {
+                try {
+                    if (removeNode(key, node)) {
+                        expiredEvictionCount++;
+                    }
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            node = null;
+        }
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return node.value;
+    }
+
+    /**
+     * Buffers a read to replay it on the policy, replays the buffered reads if there are enough of them and nobody
+     * else is updating the policy.
+     */
+    protected void recordRead(Object key) {
+        if (readBufferSize.get() >= READ_BUFFER_SIZE) {
+            // lossy
+            return;
+        }
+        readBuffer.offer(key);
+        if (readBufferSize.incrementAndGet() >= READ_BUFFER_DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replays the buffered reads on the frequency sketch and on the LRU orders. Called under the eviction lock.
+     */
+    protected void drainReadBuffer() {
+        Object key;
+        while ((key = readBuffer.poll()) != null) {
+            readBufferSize.decrementAndGet();
+            sketch.increment(key);
+            // access ordered maps, moves the entry to the most recently used position
+            if (window.get(key) == null) {
+                main.get(key);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry if it is still the current one for its key. Called under the eviction lock.
+     */
+    protected boolean removeNode(Object key, Node<V> node) {
+        if (!data.remove(key, node)) {
+            return false;
+        }
+        if (window.remove(key, node)) {
+            windowWeight -= node.weight;
+        } else if (main.remove(key, node)) {
+            mainWeight -= node.weight;
+        }
+        return true;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        Node<V> node = new Node<>(value, weigher.weigh(key, value), System.nanoTime());
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            data.put(key, node);
+            Node<V> old = main.remove(key);
+            if (old != null) {
+                // already admitted, stay in main
+                mainWeight -= old.weight;
+                main.put(key, node);
+                mainWeight += node.weight;
+                evictMain();
+                return;
+            }
+            old = window.put(key, node);
+            windowWeight += node.weight - (old == null ? 0 : old.weight);
+            Iterator<Map.Entry<String, Node<V>>> it = window.entrySet().iterator();
+            while (windowWeight > windowMaxWeight && it.hasNext()) {
+                Map.Entry<String, Node<V>> eldest = it.next();
+                it.remove();
+                windowWeight -= eldest.getValue().weight;
+                admit(eldest.getKey(), eldest.getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Moves a window victim to the main cache if it is worth it. The candidate must be more frequent than each of the
+     * main cache entries to evict for it, otherwise it is rejected and no main cache entry is evicted. Called under the
+     * eviction lock.
+     */
+    protected void admit(String key, Node<V> candidate) {
+        long now = System.nanoTime();
+        if (isExpired(candidate, now)) {
+            data.remove(key, candidate);
+            expiredEvictionCount++;
+            return;
+        }
+        if (candidate.weight > mainMaxWeight) {
+            data.remove(key, candidate);
+            rejectedCount++;
+            return;
+        }
+        List<Map.Entry<String, Node<V>>> victims = new ArrayList<>();
+        long victimsWeight = 0;
+        int candidateFrequency = -1;
+        Iterator<Map.Entry<String, Node<V>>> it = main.entrySet().iterator();
+        while (mainWeight - victimsWeight + candidate.weight > mainMaxWeight) {
+            Map.Entry<String, Node<V>> victim = it.next();
+            Node<V> victimNode = victim.getValue();
+            if (isExpired(victimNode, now)) {
+                // evicted whatever the admission decision
+                it.remove();
+                mainWeight -= victimNode.weight;
+                data.remove(victim.getKey(), victimNode);
+                expiredEvictionCount++;
+                continue;
+            }
+            if (candidateFrequency < 0) {
+                candidateFrequency = sketch.frequency(key);
+            }
+            if (candidateFrequency <= sketch.frequency(victim.getKey())) {
+                data.remove(key, candidate);
+                rejectedCount++;
+                return;
+            }
+            victims.add(victim);
+            victimsWeight += victimNode.weight;
+        }
+        for (Map.Entry<String, Node<V>> victim : victims) {
+            Node<V> victimNode = victim.getValue();
+            main.remove(victim.getKey());
+            mainWeight -= victimNode.weight;
+            data.remove(victim.getKey(), victimNode);
+            sizeEvictionCount++;
+        }
+        main.put(key, candidate);
+        mainWeight += candidate.weight;
+    }
+
+    /**
+     * Evicts the least recently used entries of the main cache until it fits its maximum weight. Called under the
+     * eviction lock.
+     */
+    protected void evictMain() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Node<V>>> it = main.entrySet().iterator();
+        while (mainWeight > mainMaxWeight && it.hasNext()) {
+            Map.Entry<String, Node<V>> victim = it.next();
+            if (isExpired(victim.getValue(), now)) {
+                expiredEvictionCount++;
+            } else {
+                sizeEvictionCount++;
+            }
+            it.remove();
+            mainWeight -= victim.getValue().weight;
+            data.remove(victim.getKey(), victim.getValue());
+        }
+    }
+
+    @Override
+    public void invalidate(Object key) {
+        evictionLock.lock();
+        try {
+            Node<V> node = data.get(key);
+            if (node != null) {
+                removeNode(key, node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            main.clear();
+            windowWeight = 0;
+            mainWeight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return data.mappingCount();
+    }
+
+    @Override
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            long now = System.nanoTime();
+            for (Iterator<Map.Entry<String, Node<V>>> it = window.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, Node<V>> entry = it.next();
+                Node<V> node = entry.getValue();
+                if (isExpired(node, now)) {
+                    it.remove();
+                    windowWeight -= node.weight;
+                    data.remove(entry.getKey(), node);
+                    expiredEvictionCount++;
+                }
+            }
+            for (Iterator<Map.Entry<String, Node<V>>> it = main.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, Node<V>> entry = it.next();
+                Node<V> node = entry.getValue();
+                if (isExpired(node, now)) {
+                    it.remove();
+                    mainWeight -= node.weight;
+                    data.remove(entry.getKey(), node);
+                    expiredEvictionCount++;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        evictionLock.lock();
+        try {
+            return new CacheStats(hitCount.sum(), missCount.sum(), 0, 0, 0, sizeEvictionCount + rejectedCount);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Returns the estimated weight of all the cached entries. */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return windowWeight + mainWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /** Returns the number of entries evicted from the main cache to make room for more frequent ones. */
+    public long sizeEvictionCount() {
+        evictionLock.lock();
+        try {
+            return sizeEvictionCount;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Returns the number of entries evicted because their time to live has expired. */
+    public long expiredEvictionCount() {
+        evictionLock.lock();
+        try {
+            return expiredEvictionCount;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Returns the number of window victims not admitted in the main cache because they were not requested enough. */
+    public long rejectedCount() {
+        evictionLock.lock();
+        try {
+            return rejectedCount;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A Count-Min sketch of 4-bit counters estimating the number of recent requests of a key, with a periodic aging
+     * that halves all the counters.
+     * <p>
+     * A doorkeeper bloom filter absorbs the first request of each key, so the keys requested only once, like the ones
+     * of a scan, don't pollute the counters.
+     */
+    protected static class FrequencySketch {
+
+        protected static final long RESET_MASK = 0x7777777777777777L;
+
+        protected static final int[] SEEDS = { 0x97cb3127, 0xab7fa5c7, 0xc5e2a83f, 0x2b5f3a8d };
+
+        protected final long[] table;
+
+        protected final int counterMask;
+
+        protected final long[] doorkeeper;
+
+        protected final int doorkeeperMask;
+
+        protected final int sampleSize;
+
+        protected int additions;
+
+        protected FrequencySketch(int expectedEntries) {
+            int size = Integer.highestOneBit(Math.max(16, expectedEntries) - 1) << 1;
+            table = new long[size];
+            counterMask = size * 16 - 1;
+            doorkeeper = new long[size * 4];
+            doorkeeperMask = size * 4 * 64 - 1;
+            sampleSize = size * 10;
+        }
+
+        protected static int spread(int hash) {
+            int h = hash * 0x9e3779b9;
+            return h ^ (h >>> 16);
+        }
+
+        protected static int index(int hash, int i, int mask) {
+            int h = (hash + SEEDS[i]) * SEEDS[i];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        protected boolean inDoorkeeper(int hash) {
+            for (int i = 0; i < 2; i++) {
+                int index = index(hash, i, doorkeeperMask);
+                if ((doorkeeper[index >>> 6] & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = 15;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = index(hash, i, counterMask);
+                int count = (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return inDoorkeeper(hash) ? frequency + 1 : frequency;
+        }
+
+        public void increment(Object key) {
+            int hash = spread(key.hashCode());
+            if (++additions >= sampleSize) {
+                reset();
+            }
+            if (!inDoorkeeper(hash)) {
+                for (int i = 0; i < 2; i++) {
+                    int index = index(hash, i, doorkeeperMask);
+                    doorkeeper[index >>> 6] |= 1L << index;
+                }
+                return;
+            }
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = index(hash, i, counterMask);
+                int offset = (index & 15) << 2;
+                if (((table[index >>> 4] >>> offset) & 0xfL) != 0xfL) {
+                    table[index >>> 4] += 1L << offset;
+                }
+            }
+        }
+
+        protected void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            Arrays.fill(doorkeeper, 0);
+            additions /= 2;
+        }
+    }
+
+}
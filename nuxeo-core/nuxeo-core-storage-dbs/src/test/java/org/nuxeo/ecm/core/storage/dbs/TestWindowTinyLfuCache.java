@@ -0,0 +1,176 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Kevin Leturc
+ */
+package org.nuxeo.ecm.core.storage.dbs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.storage.State;
+
+public class TestWindowTinyLfuCache {
+
+    private static final int WEIGHT = 4096;
+
+    private static WindowTinyLfuCache<String> newCache(long maxWeight) {
+        return new WindowTinyLfuCache<>(maxWeight, 10, TimeUnit.MINUTES, (key, value) -> WEIGHT);
+    }
+
+    @Test
+    public void testMaxWeight() {
+        WindowTinyLfuCache<String> cache = newCache(100 * WEIGHT);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value" + i);
+            assertTrue(cache.weightedSize() <= cache.getMaxWeight());
+        }
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.rejectedCount() + cache.sizeEvictionCount() >= 900);
+    }
+
+    @Test
+    public void testScanResistance() {
+        WindowTinyLfuCache<String> cache = newCache(100 * WEIGHT);
+        // hot working set
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 50; i++) {
+                get(cache, "hot" + i);
+            }
+        }
+        // one shot scan of many keys while the hot working set is still used
+        int hotMisses = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertNull(get(cache, "scan" + i));
+            if (i % 2 == 0 && get(cache, "hot" + (i / 2) % 50) == null) {
+                hotMisses++;
+            }
+        }
+        // a LRU cache would miss all of them, 149 distinct keys are requested between two hits on a hot key
+        assertTrue("hot misses: " + hotMisses, hotMisses < 250);
+        assertTrue(cache.rejectedCount() > 9000);
+        assertTrue(cache.weightedSize() <= cache.getMaxWeight());
+    }
+
+    /** Gets a value, putting it in cache on miss, returns {@code null} on miss. */
+    private static String get(WindowTinyLfuCache<String> cache, String key) {
+        String value = cache.getIfPresent(key);
+        if (value == null) {
+            cache.put(key, key);
+        }
+        return value;
+    }
+
+    @Test
+    public void testAdmissionAgainstEachVictim() {
+        // window of weight 2, main cache of weight 198
+        WindowTinyLfuCache<Integer> cache = new WindowTinyLfuCache<>(200, 10, TimeUnit.MINUTES, (key, value) -> value);
+        cache.put("cold", 99);
+        cache.put("hot", 99);
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(cache.getIfPresent("hot"));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.getIfPresent("candidate"));
+        }
+        // the candidate is more frequent than the cold entry but not than the hot one, both would be evicted
+        cache.put("candidate", 150);
+        assertNull(cache.getIfPresent("candidate"));
+        assertNotNull(cache.getIfPresent("cold"));
+        assertNotNull(cache.getIfPresent("hot"));
+        assertEquals(1, cache.rejectedCount());
+        assertEquals(0, cache.sizeEvictionCount());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        WindowTinyLfuCache<String> cache = newCache(100 * WEIGHT);
+        int nThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < nThreads; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 100_000; i++) {
+                        String key = "key" + random.nextInt(500);
+                        if (i % 100 == 0) {
+                            cache.invalidate(key);
+                        } else {
+                            get(cache, key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        cache.cleanUp();
+        assertTrue(cache.weightedSize() <= cache.getMaxWeight());
+        assertEquals(cache.weightedSize(), cache.size() * WEIGHT);
+    }
+
+    @Test
+    public void testInvalidate() {
+        WindowTinyLfuCache<String> cache = newCache(100 * WEIGHT);
+        cache.put("key", "value");
+        assertEquals("value", cache.getIfPresent("key"));
+        cache.invalidate("key");
+        assertNull(cache.getIfPresent("key"));
+        assertEquals(0, cache.weightedSize());
+
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weightedSize());
+    }
+
+    @Test
+    public void testStateWeigher() {
+        State small = new State();
+        small.put(KEY_ID, "id");
+        State big = new State();
+        big.put(KEY_ID, "id");
+        String[] array = new String[1000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = "some value " + i;
+        }
+        big.put("dc:subjects", array);
+        DBSStateWeigher weigher = new DBSStateWeigher();
+        int smallWeight = weigher.weigh("id", small);
+        int bigWeight = weigher.weigh("id", big);
+        assertTrue(smallWeight > 0);
+        assertTrue(bigWeight > 1000 * 2 * "some value".length());
+        assertTrue(bigWeight > smallWeight * 100);
+    }
+
+}
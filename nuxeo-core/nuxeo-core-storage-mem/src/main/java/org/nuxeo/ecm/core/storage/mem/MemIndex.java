@@ -0,0 +1,147 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.mem;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.nuxeo.ecm.core.storage.State;
+
+/**
+ * A hash index of the {@link MemRepository} documents on one or several keys.
+ * <p>
+ * On a single key, each value is indexed, and each element for an array. On several keys, the list of values is
+ * indexed, when they are all present.
+ * <p>
+ * The index is only a hint, the states found through it must still be checked by the caller.
+ *
+ * @since 10.10
+ */
+public class MemIndex {
+
+    protected final String[] keys;
+
+    /** Indexed value -> document ids. */
+    protected final Map<Object, Set<String>> index = new ConcurrentHashMap<>();
+
+    public MemIndex(String... keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Checks if the index has to be updated when applying this diff.
+     */
+    public boolean isAffectedBy(Map<String, ?> diff) {
+        for (String key : keys) {
+            if (diff.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the indexed values of a state.
+     */
+    public List<Object> getValues(State state) {
+        if (keys.length == 1) {
+            Serializable value = state.get(keys[0]);
+            if (value == null) {
+                return Collections.emptyList();
+            } else if (value instanceof Object[]) {
+                return Arrays.asList((Object[]) value);
+            } else {
+                return Collections.singletonList(value);
+            }
+        }
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = state.get(keys[i]);
+            if (values[i] == null) {
+                return Collections.emptyList();
+            }
+        }
+        return Collections.singletonList(Arrays.asList(values));
+    }
+
+    /**
+     * Gets the ids of the documents having a value, for several keys the value is the list of values.
+     */
+    public Set<String> get(Object value) {
+        Set<String> ids = index.get(value);
+        return ids == null ? Collections.emptySet() : ids;
+    }
+
+    public void add(String id, State state) {
+        for (Object value : getValues(state)) {
+            add(id, value);
+        }
+    }
+
+    public void remove(String id, State state) {
+        for (Object value : getValues(state)) {
+            remove(id, value);
+        }
+    }
+
+    /**
+     * Updates the index for a state, given the values it had before it was changed.
+     */
+    public void update(String id, List<Object> oldValues, State state) {
+        List<Object> newValues = getValues(state);
+        // add before remove, so that the document can always be found through one of its values
+        for (Object value : newValues) {
+            if (!oldValues.contains(value)) {
+                add(id, value);
+            }
+        }
+        for (Object value : oldValues) {
+            if (!newValues.contains(value)) {
+                remove(id, value);
+            }
+        }
+    }
+
+    protected void add(String id, Object value) {
+        index.compute(value, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    protected void remove(String id, Object value) {
+        index.computeIfPresent(value, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    public void clear() {
+        index.clear();
+    }
+
+}
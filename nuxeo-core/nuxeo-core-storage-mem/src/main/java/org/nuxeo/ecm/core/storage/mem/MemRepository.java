@@ -27,6 +27,8 @@ import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LOCK_CREATED;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LOCK_OWNER;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_NAME;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PARENT_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PROXY_TARGET_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_VERSION_SERIES_ID;
 
 import java.io.Serializable;
 import java.lang.reflect.Array;
@@ -35,6 +37,7 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -44,6 +47,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.resource.spi.ConnectionManager;
@@ -71,6 +75,7 @@ import org.nuxeo.ecm.core.storage.dbs.DBSExpressionEvaluator;
 import org.nuxeo.ecm.core.storage.dbs.DBSRepositoryBase;
 import org.nuxeo.ecm.core.storage.dbs.DBSSession.OrderByComparator;
 import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.ChangeTokenUpdater;
+import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.StateUpdate;
 import org.nuxeo.runtime.api.Framework;
 
 /**
@@ -97,6 +102,33 @@ public class MemRepository extends DBSRepositoryBase {
      */
     protected Map<String, State> states;
 
+    /**
+     * Property for the number of documents above which queries are evaluated in parallel.
+     *
+     * @since 10.10
+     */
+    public static final String PARALLEL_EVALUATION_THRESHOLD_PROPERTY = "nuxeo.core.mem.parallel.evaluation.threshold";
+
+    /** @since 10.10 */
+    public static final String PARALLEL_EVALUATION_THRESHOLD_DEFAULT = "10000";
+
+    /**
+     * The indexes on a single key, by key.
+     *
+     * @since 10.10
+     */
+    protected Map<String, MemIndex> indexes;
+
+    /**
+     * The index on parent id and name.
+     *
+     * @since 10.10
+     */
+    protected MemIndex childIndex;
+
+    /** All the indexes, to maintain them. */
+    protected List<MemIndex> allIndexes;
+
     public MemRepository(ConnectionManager cm, MemRepositoryDescriptor descriptor) {
         super(cm, descriptor.name, descriptor);
         initRepository();
@@ -115,9 +147,42 @@ public class MemRepository extends DBSRepositoryBase {
 
     protected void initRepository() {
         states = new ConcurrentHashMap<>();
+        initIndexes();
         initRoot();
     }
 
+    protected void initIndexes() {
+        indexes = new HashMap<>();
+        for (String key : Arrays.asList(KEY_PARENT_ID, KEY_ANCESTOR_IDS, KEY_VERSION_SERIES_ID, KEY_PROXY_TARGET_ID)) {
+            indexes.put(key, new MemIndex(key));
+        }
+        childIndex = new MemIndex(KEY_PARENT_ID, KEY_NAME);
+        allIndexes = new ArrayList<>(indexes.values());
+        allIndexes.add(childIndex);
+    }
+
+    /**
+     * Gets the states having a value for a key, using an index if possible. The states must still be checked.
+     */
+    protected Collection<State> getStates(String key, Object value) {
+        MemIndex index = indexes.get(key);
+        if (index == null) {
+            return states.values();
+        }
+        return getStates(index.get(value));
+    }
+
+    protected List<State> getStates(Set<String> ids) {
+        List<State> list = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            State state = states.get(id);
+            if (state != null) {
+                list.add(state);
+            }
+        }
+        return list;
+    }
+
     @Override
     public String generateNewId() {
         if (DEBUG_UUIDS) {
@@ -177,6 +242,9 @@ public class MemRepository extends DBSRepositoryBase {
         state = StateHelper.deepCopy(state, true); // thread-safe
         StateHelper.resetDeltas(state);
         states.put(id, state);
+        for (MemIndex index : allIndexes) {
+            index.add(id, state);
+        }
     }
 
     @Override
@@ -200,7 +268,32 @@ public class MemRepository extends DBSRepositoryBase {
                     applyDiff(state, en.getKey(), en.getValue());
                 }
             }
+            Map<MemIndex, List<Object>> oldValues = new HashMap<>();
+            for (MemIndex index : allIndexes) {
+                if (index.isAffectedBy(diff)) {
+                    oldValues.put(index, index.getValues(state));
+                }
+            }
             applyDiff(state, diff);
+            oldValues.forEach((index, values) -> index.update(id, values, state));
+        }
+    }
+
+    @Override
+    public void updateStates(List<StateUpdate> updates) {
+        // like a bulk write, a concurrent update doesn't prevent the following updates
+        List<String> failedIds = new ArrayList<>();
+        for (StateUpdate update : updates) {
+            try {
+                updateState(update.getId(), update.getDiff(), update.getChangeTokenUpdater());
+            } catch (ConcurrentUpdateException e) {
+                failedIds.add(update.getId());
+            }
+        }
+        if (failedIds.size() == 1) {
+            throw new ConcurrentUpdateException(failedIds.get(0));
+        } else if (!failedIds.isEmpty()) {
+            throw new ConcurrentUpdateException(failedIds.size() + " updates failed for documents: " + failedIds);
         }
     }
 
@@ -210,16 +303,20 @@ public class MemRepository extends DBSRepositoryBase {
             log.trace("Mem: REMOVE " + ids);
         }
         for (String id : ids) {
-            if (states.remove(id) == null) {
+            State state = states.remove(id);
+            if (state == null) {
                 log.debug("Missing on remove: " + id);
+            } else {
+                for (MemIndex index : allIndexes) {
+                    index.remove(id, state);
+                }
             }
         }
     }
 
     @Override
     public State readChildState(String parentId, String name, Set<String> ignored) {
-        // TODO optimize by maintaining a parent/child index
-        for (State state : states.values()) {
+        for (State state : getStates(childIndex.get(Arrays.asList(parentId, name)))) {
             if (ignored.contains(state.get(KEY_ID))) {
                 continue;
             }
@@ -245,7 +342,7 @@ public class MemRepository extends DBSRepositoryBase {
             log.trace("Mem: QUERY " + key + " = " + value);
         }
         List<State> list = new ArrayList<>();
-        for (State state : states.values()) {
+        for (State state : getStates(key, value)) {
             String id = (String) state.get(KEY_ID);
             if (ignored.contains(id)) {
                 continue;
@@ -266,8 +363,9 @@ public class MemRepository extends DBSRepositoryBase {
         if (log.isTraceEnabled()) {
             log.trace("Mem: QUERY " + key1 + " = " + value1 + " AND " + key2 + " = " + value2);
         }
+        Collection<State> candidates = indexes.containsKey(key1) ? getStates(key1, value1) : getStates(key2, value2);
         List<State> list = new ArrayList<>();
-        for (State state : states.values()) {
+        for (State state : candidates) {
             String id = (String) state.get(KEY_ID);
             if (ignored.contains(id)) {
                 continue;
@@ -293,9 +391,8 @@ public class MemRepository extends DBSRepositoryBase {
         if (log.isTraceEnabled()) {
             log.trace("Mem: QUERY " + KEY_ANCESTOR_IDS + " = " + rootId);
         }
-        Stream<State> stream = states.values() //
-                                     .stream()
-                                     .filter(state -> hasAncestor(state, rootId));
+        Stream<State> stream = getStates(KEY_ANCESTOR_IDS, rootId).stream()
+                                                                  .filter(state -> hasAncestor(state, rootId));
         if (limit != 0) {
             stream = stream.limit(limit);
         }
@@ -312,7 +409,7 @@ public class MemRepository extends DBSRepositoryBase {
         if (log.isTraceEnabled()) {
             log.trace("Mem: QUERY " + key + " = " + value);
         }
-        for (State state : states.values()) {
+        for (State state : getStates(key, value)) {
             String id = (String) state.get(KEY_ID);
             if (ignored.contains(id)) {
                 continue;
@@ -336,18 +433,9 @@ public class MemRepository extends DBSRepositoryBase {
         if (log.isTraceEnabled()) {
             log.trace("Mem: QUERY " + evaluator + " OFFSET " + offset + " LIMIT " + limit);
         }
-        evaluator.parse();
-        List<Map<String, Serializable>> projections = new ArrayList<>();
-        for (State state : states.values()) {
-            List<Map<String, Serializable>> matches = evaluator.matches(state);
-            if (!matches.isEmpty()) {
-                if (distinctDocuments) {
-                    projections.add(matches.get(0));
-                } else {
-                    projections.addAll(matches);
-                }
-            }
-        }
+        Stream<Map<String, Serializable>> stream = matches(evaluator).flatMap(
+                matches -> distinctDocuments ? matches.stream().limit(1) : matches.stream());
+        List<Map<String, Serializable>> projections = stream.collect(Collectors.toList());
         // ORDER BY
         // orderByClause may be null and different from evaluator.getOrderByClause() in case we want to post-filter
         if (orderByClause != null) {
@@ -387,16 +475,36 @@ public class MemRepository extends DBSRepositoryBase {
         if (log.isTraceEnabled()) {
             log.trace("Mem: QUERY " + evaluator);
         }
+        List<String> ids = matches(evaluator).map(matches -> matches.get(0).get(ECM_UUID).toString())
+                                             .collect(Collectors.toList());
+        return new ScrollResultImpl<>(NOSCROLL_ID, ids);
+    }
+
+    /**
+     * Evaluates a query on all the documents, in parallel when there are many of them.
+     *
+     * @return the non-empty projection matches of each matching document
+     * @since 10.10
+     */
+    protected Stream<List<Map<String, Serializable>>> matches(DBSExpressionEvaluator evaluator) {
         evaluator.parse();
-        List<String> ids = new ArrayList<>();
-        for (State state : states.values()) {
-            List<Map<String, Serializable>> matches = evaluator.matches(state);
-            if (!matches.isEmpty()) {
-                String id = matches.get(0).get(ECM_UUID).toString();
-                ids.add(id);
-            }
+        Stream<List<Map<String, Serializable>>> stream;
+        if (states.size() < getParallelEvaluationThreshold()) {
+            stream = states.values().stream().map(evaluator::matches);
+        } else {
+            // the session is not thread-safe, resolve the paths on this thread
+            evaluator.resolvePaths();
+            // the evaluator holds the state being evaluated, each thread needs its own
+            ThreadLocal<DBSExpressionEvaluator> evaluators = ThreadLocal.withInitial(evaluator::copy);
+            stream = states.values().parallelStream().map(state -> evaluators.get().matches(state));
         }
-        return new ScrollResultImpl<>(NOSCROLL_ID, ids);
+        return stream.filter(matches -> !matches.isEmpty());
+    }
+
+    /** @since 10.10 */
+    protected int getParallelEvaluationThreshold() {
+        return Integer.parseInt(
+                Framework.getProperty(PARALLEL_EVALUATION_THRESHOLD_PROPERTY, PARALLEL_EVALUATION_THRESHOLD_DEFAULT));
     }
 
     @Override
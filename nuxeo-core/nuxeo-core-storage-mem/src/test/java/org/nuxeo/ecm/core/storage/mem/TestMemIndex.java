@@ -0,0 +1,122 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.mem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ANCESTOR_IDS;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_NAME;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PARENT_ID;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.storage.State;
+import org.nuxeo.ecm.core.storage.State.StateDiff;
+
+public class TestMemIndex {
+
+    private static State state(String id, String parentId, String name, String... ancestorIds) {
+        State state = new State();
+        state.put(KEY_ID, id);
+        state.put(KEY_PARENT_ID, parentId);
+        state.put(KEY_NAME, name);
+        state.put(KEY_ANCESTOR_IDS, ancestorIds);
+        return state;
+    }
+
+    @Test
+    public void testSingleKey() {
+        MemIndex index = new MemIndex(KEY_PARENT_ID);
+        index.add("id1", state("id1", "p1", "a"));
+        index.add("id2", state("id2", "p1", "b"));
+        index.add("id3", state("id3", "p2", "a"));
+        assertEquals(2, index.get("p1").size());
+        assertEquals(Collections.singleton("id3"), index.get("p2"));
+        assertTrue(index.get("p3").isEmpty());
+
+        index.remove("id3", state("id3", "p2", "a"));
+        assertTrue(index.get("p2").isEmpty());
+    }
+
+    @Test
+    public void testArrayKey() {
+        MemIndex index = new MemIndex(KEY_ANCESTOR_IDS);
+        index.add("id1", state("id1", "p1", "a", "root", "p1"));
+        index.add("id2", state("id2", "p2", "a", "root", "p2"));
+        assertEquals(2, index.get("root").size());
+        assertEquals(Collections.singleton("id1"), index.get("p1"));
+    }
+
+    @Test
+    public void testSeveralKeys() {
+        MemIndex index = new MemIndex(KEY_PARENT_ID, KEY_NAME);
+        index.add("id1", state("id1", "p1", "a"));
+        index.add("id2", state("id2", "p1", "b"));
+        index.add("id3", state("id3", null, "a"));
+        assertEquals(Collections.singleton("id1"), index.get(Arrays.asList("p1", "a")));
+        assertEquals(Collections.singleton("id2"), index.get(Arrays.asList("p1", "b")));
+        assertTrue(index.get(Arrays.asList(null, "a")).isEmpty());
+    }
+
+    @Test
+    public void testUpdate() {
+        MemIndex index = new MemIndex(KEY_PARENT_ID);
+        State state = state("id1", "p1", "a");
+        index.add("id1", state);
+
+        StateDiff diff = new StateDiff();
+        diff.put(KEY_NAME, "b");
+        assertTrue(!index.isAffectedBy(diff));
+        diff.put(KEY_PARENT_ID, "p2");
+        assertTrue(index.isAffectedBy(diff));
+
+        List<Object> oldValues = index.getValues(state);
+        MemRepository.applyDiff(state, diff);
+        index.update("id1", oldValues, state);
+        assertTrue(index.get("p1").isEmpty());
+        assertEquals(Collections.singleton("id1"), index.get("p2"));
+    }
+
+    @Test
+    public void testLookupCandidates() {
+        int size = 10_000;
+        MemIndex index = new MemIndex(KEY_PARENT_ID, KEY_NAME);
+        for (int i = 0; i < size; i++) {
+            String id = "id" + i;
+            index.add(id, state(id, "p" + i % 100, "doc" + i));
+        }
+        // each lookup only returns the matching document, instead of all the documents to check with a full scan
+        int lookups = 1000;
+        long candidates = 0;
+        for (int i = 0; i < lookups; i++) {
+            int n = i * 97 % size;
+            Set<String> ids = index.get(Arrays.asList("p" + n % 100, "doc" + n));
+            assertEquals(Collections.singleton("id" + n), ids);
+            candidates += ids.size();
+        }
+        assertEquals(lookups, candidates);
+        assertTrue(index.get(Arrays.asList("p1", "doc2")).isEmpty());
+    }
+
+}
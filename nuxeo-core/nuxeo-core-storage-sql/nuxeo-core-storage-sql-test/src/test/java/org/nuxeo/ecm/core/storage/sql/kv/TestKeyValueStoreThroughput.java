@@ -0,0 +1,121 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.sql.kv;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.storage.sql.SQLBackendFeature;
+import org.nuxeo.runtime.kv.KeyValueService;
+import org.nuxeo.runtime.kv.KeyValueStoreDescriptor;
+import org.nuxeo.runtime.kv.KeyValueStoreProvider;
+import org.nuxeo.runtime.kv.LogKeyValueStore;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+
+/**
+ * Compares the throughput of the {@link SQLKeyValueStore}, on the configured test database, with the embedded
+ * {@link LogKeyValueStore}.
+ *
+ * @since 10.10
+ */
+@RunWith(FeaturesRunner.class)
+@Features(SQLBackendFeature.class)
+@Deploy("org.nuxeo.runtime.jtajca")
+@Deploy("org.nuxeo.runtime.datasource")
+@Deploy("org.nuxeo.ecm.core.storage.sql.test.tests:OSGI-INF/sql-keyvalue-test-contrib.xml")
+public class TestKeyValueStoreThroughput {
+
+    private static final Logger log = LogManager.getLogger(TestKeyValueStoreThroughput.class);
+
+    protected static final int N = 2000;
+
+    @Inject
+    protected KeyValueService keyValueService;
+
+    @Test
+    public void testThroughput() throws Exception {
+        KeyValueStoreProvider sqlStore = (KeyValueStoreProvider) keyValueService.getKeyValueStore("default");
+        File dir = Files.createTempDirectory("kv").toFile();
+        KeyValueStoreDescriptor descriptor = new KeyValueStoreDescriptor();
+        descriptor.name = "throughput";
+        descriptor.properties.put(LogKeyValueStore.DIRECTORY_PROP, dir.getAbsolutePath());
+        LogKeyValueStore logStore = new LogKeyValueStore();
+        logStore.initialize(descriptor);
+        try {
+            // warm up
+            run(sqlStore);
+            run(logStore);
+            List<String> sqlTimes = run(sqlStore);
+            List<String> logTimes = run(logStore);
+            log.info(String.format("%d keys, SQL: %s, log: %s", N, sqlTimes, logTimes));
+        } finally {
+            sqlStore.clear();
+            logStore.close();
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    /**
+     * Runs puts, gets, compareAndSets and addAndGets, returning the times of each step.
+     */
+    protected List<String> run(KeyValueStoreProvider store) {
+        store.clear();
+        List<String> times = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < N; i++) {
+            store.put("key" + i, "value" + i);
+        }
+        start = addTime(times, "put", start);
+        for (int i = 0; i < N; i++) {
+            assertEquals("value" + i, store.getString("key" + i));
+        }
+        start = addTime(times, "get", start);
+        for (int i = 0; i < N; i++) {
+            store.compareAndSet("key" + i, "value" + i, "other" + i);
+        }
+        start = addTime(times, "compareAndSet", start);
+        for (int i = 0; i < N; i++) {
+            store.addAndGet("counter", 1);
+        }
+        addTime(times, "addAndGet", start);
+        assertEquals(Long.valueOf(N), store.getLong("counter"));
+        return times;
+    }
+
+    protected long addTime(List<String> times, String step, long start) {
+        long end = System.nanoTime();
+        times.add(step + "=" + TimeUnit.NANOSECONDS.toMillis(end - start) + "ms");
+        return end;
+    }
+
+}
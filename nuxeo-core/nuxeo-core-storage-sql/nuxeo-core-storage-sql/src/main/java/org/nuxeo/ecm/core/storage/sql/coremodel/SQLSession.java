@@ -190,6 +190,21 @@ public class SQLSession implements Session<QueryFilter> {
         return doc;
     }
 
+    @Override
+    public List<Document> getDocumentsByUUIDs(List<String> uuids) {
+        List<Serializable> ids = new ArrayList<>(uuids.size());
+        for (String uuid : uuids) {
+            ids.add(idFromString(uuid));
+        }
+        // nodes and their prefetched fragments are fetched in bulk
+        List<Node> nodes = session.getNodesByIds(ids);
+        List<Document> docs = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            docs.add(newDocument(node));
+        }
+        return docs;
+    }
+
     @Override
     public Document resolvePath(String path) throws DocumentNotFoundException {
         if (path.endsWith("/") && path.length() > 1) {
@@ -0,0 +1,184 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.sql.jdbc;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.nuxeo.ecm.core.api.impl.FacetFilter;
+import org.nuxeo.ecm.core.query.QueryFilter;
+import org.nuxeo.ecm.core.storage.sql.jdbc.QueryMaker.Query;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A bounded cache of the SQL generated by the {@link NXQLQueryMaker} for a repository.
+ * <p>
+ * The key is the NXQL query string and the security-relevant shape of the {@link QueryFilter}: principal, principals,
+ * permissions, facet filter and query transformers. The generated SQL for queries that depend on the repository content
+ * or on the runtime state (path resolution, trash or tag storage migration) is not cached.
+ *
+ * @since 10.10
+ */
+public class NXQLQueryCache {
+
+    /** Maximum number of generated queries kept per repository, {@code 0} disables the cache. */
+    public static final String CACHE_SIZE_PROP = "org.nuxeo.vcs.query.cache.size";
+
+    public static final int DEFAULT_CACHE_SIZE = 500;
+
+    protected final Cache<Key, Query> cache;
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    protected final Counter hitCount;
+
+    protected final Counter missCount;
+
+    public NXQLQueryCache(String repositoryName) {
+        this(repositoryName, getDefaultMaxSize());
+    }
+
+    public NXQLQueryCache(String repositoryName, int maxSize) {
+        cache = maxSize > 0 ? CacheBuilder.newBuilder().maximumSize(maxSize).build() : null;
+        hitCount = registry.counter(
+                MetricRegistry.name("nuxeo", "repositories", repositoryName, "caches", "queries", "hit"));
+        missCount = registry.counter(
+                MetricRegistry.name("nuxeo", "repositories", repositoryName, "caches", "queries", "miss"));
+    }
+
+    protected static int getDefaultMaxSize() {
+        if (Framework.getRuntime() == null) {
+            return DEFAULT_CACHE_SIZE;
+        }
+        return Integer.parseInt(Framework.getProperty(CACHE_SIZE_PROP, String.valueOf(DEFAULT_CACHE_SIZE)));
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Gets a copy of the query generated for this key, or {@code null} if it's not in the cache.
+     */
+    public Query get(Key key) {
+        Query query = cache.getIfPresent(key);
+        if (query == null) {
+            missCount.inc();
+            return null;
+        }
+        hitCount.inc();
+        return copy(query);
+    }
+
+    public void put(Key key, Query query) {
+        cache.put(key, copy(query));
+    }
+
+    protected Query copy(Query query) {
+        Query copy = new Query();
+        copy.selectInfo = query.selectInfo;
+        copy.selectParams = new LinkedList<>(query.selectParams);
+        return copy;
+    }
+
+    public void clear() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * The key of a generated query.
+     */
+    public static class Key {
+
+        protected final String query;
+
+        protected final String principal;
+
+        protected final List<String> principals;
+
+        protected final List<String> permissions;
+
+        protected final Set<String> requiredFacets;
+
+        protected final Set<String> excludedFacets;
+
+        protected final Boolean facetShortcut;
+
+        protected final List<String> transformers;
+
+        protected final int hashCode;
+
+        public Key(String query, QueryFilter queryFilter) {
+            this.query = query;
+            principal = queryFilter.getPrincipal() == null ? null : queryFilter.getPrincipal().getName();
+            principals = queryFilter.getPrincipals() == null ? null : Arrays.asList(queryFilter.getPrincipals());
+            permissions = queryFilter.getPermissions() == null ? null : Arrays.asList(queryFilter.getPermissions());
+            FacetFilter facetFilter = queryFilter.getFacetFilter();
+            requiredFacets = facetFilter == null ? null : facetFilter.required;
+            excludedFacets = facetFilter == null ? null : facetFilter.excluded;
+            facetShortcut = facetFilter == null ? null : facetFilter.shortcut;
+            transformers = queryFilter.getQueryTransformers()
+                                      .stream()
+                                      .map(transformer -> transformer.getClass().getName())
+                                      .collect(Collectors.toList());
+            hashCode = Objects.hash(query, principal, principals, permissions, requiredFacets, excludedFacets,
+                    facetShortcut, transformers);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hashCode == other.hashCode //
+                    && query.equals(other.query) //
+                    && Objects.equals(principal, other.principal) //
+                    && Objects.equals(principals, other.principals) //
+                    && Objects.equals(permissions, other.permissions) //
+                    && Objects.equals(requiredFacets, other.requiredFacets) //
+                    && Objects.equals(excludedFacets, other.excludedFacets) //
+                    && Objects.equals(facetShortcut, other.facetShortcut) //
+                    && transformers.equals(other.transformers);
+        }
+
+    }
+
+}
@@ -49,7 +49,6 @@ import org.nuxeo.ecm.core.api.trash.TrashService;
 import org.nuxeo.ecm.core.query.QueryFilter;
 import org.nuxeo.ecm.core.query.QueryParseException;
 import org.nuxeo.ecm.core.query.sql.NXQL;
-import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
 import org.nuxeo.ecm.core.query.sql.model.BooleanLiteral;
 import org.nuxeo.ecm.core.query.sql.model.DateLiteral;
 import org.nuxeo.ecm.core.query.sql.model.DefaultQueryVisitor;
@@ -73,6 +72,7 @@ import org.nuxeo.ecm.core.query.sql.model.SQLQuery;
 import org.nuxeo.ecm.core.query.sql.model.SelectClause;
 import org.nuxeo.ecm.core.query.sql.model.StringLiteral;
 import org.nuxeo.ecm.core.query.sql.model.WhereClause;
+import org.nuxeo.ecm.core.storage.ParsedQueryCache;
 import org.nuxeo.ecm.core.storage.sql.ColumnType;
 import org.nuxeo.ecm.core.storage.sql.ColumnType.WrappedId;
 import org.nuxeo.ecm.core.storage.sql.Model;
@@ -278,6 +278,14 @@ public class NXQLQueryMaker implements QueryMaker {
 
     protected int fragJoinCount = 0;
 
+    /**
+     * Whether the generated SQL only depends on the query and the query filter, and not on the repository content or
+     * on the runtime state.
+     *
+     * @since 10.10
+     */
+    protected boolean cacheable = true;
+
     @Override
     public String getName() {
         return NXQL.NXQL;
@@ -295,6 +303,24 @@ public class NXQLQueryMaker implements QueryMaker {
     @Override
     public Query buildQuery(SQLInfo sqlInfo, Model model, PathResolver pathResolver, String query,
             QueryFilter queryFilter, Object... params) {
+        NXQLQueryCache queryCache = sqlInfo.getNXQLQueryCache();
+        // specialized query makers may generate different SQL for the same query
+        if (!queryCache.isEnabled() || getClass() != NXQLQueryMaker.class || params.length != 0) {
+            return doBuildQuery(sqlInfo, model, pathResolver, query, queryFilter, params);
+        }
+        NXQLQueryCache.Key key = new NXQLQueryCache.Key(query, queryFilter);
+        Query q = queryCache.get(key);
+        if (q == null) {
+            q = doBuildQuery(sqlInfo, model, pathResolver, query, queryFilter, params);
+            if (q != null && cacheable) {
+                queryCache.put(key, q);
+            }
+        }
+        return q;
+    }
+
+    protected Query doBuildQuery(SQLInfo sqlInfo, Model model, PathResolver pathResolver, String query,
+            QueryFilter queryFilter, Object... params) {
         this.sqlInfo = sqlInfo;
         database = sqlInfo.database;
         dialect = sqlInfo.dialect;
@@ -309,7 +335,7 @@ public class NXQLQueryMaker implements QueryMaker {
 
         // transform the query according to the transformers defined by the
         // security policies
-        SQLQuery sqlQuery = SQLQueryParser.parse(query);
+        SQLQuery sqlQuery = ParsedQueryCache.getInstance().parse(query);
         for (SQLQuery.Transformer transformer : queryFilter.getQueryTransformers()) {
             sqlQuery = transformer.transform(queryFilter.getPrincipal(), sqlQuery);
         }
@@ -1349,6 +1375,7 @@ public class NXQLQueryMaker implements QueryMaker {
                     NXQL.ECM_FULLTEXT_JOBID.equals(name)) {
                 // ok
             } else if (NXQL.ECM_ISTRASHED.equals(name)) {
+                cacheable = false;
                 TrashService trashService = Framework.getService(TrashService.class);
                 if (trashService.hasFeature(TRASHED_STATE_IS_DEDICATED_PROPERTY)
                         || trashService.hasFeature(TRASHED_STATE_IN_MIGRATION)) {
@@ -1632,6 +1659,7 @@ public class NXQLQueryMaker implements QueryMaker {
                 throw new QueryParseException(NXQL.ECM_FULLTEXT + " must be used as left-hand operand");
             } else if (NXQL.ECM_TAG.equals(name) || name.startsWith(ECM_TAG_STAR)) {
                 // checking the migration service is a hack but we can't really do better here without refactoring
+                cacheable = false;
                 MigrationStatus status = Framework.getService(MigrationService.class).getStatus("tag-storage");
                 boolean facetedTag = "facets".equals(status.getState());
                 if (facetedTag) {
@@ -2016,6 +2044,8 @@ public class NXQLQueryMaker implements QueryMaker {
 
         protected void visitExpressionStartsWithPath(String path) {
             // find the id from the path
+            // the id of a path may change
+            cacheable = false;
             Serializable id = pathResolver.getIdForPath(path);
             if (id == null) {
                 // no such path, always return a false
@@ -2058,6 +2088,8 @@ public class NXQLQueryMaker implements QueryMaker {
             if (path.length() > 1 && path.endsWith(PATH_SEP)) {
                 path = path.substring(0, path.length() - PATH_SEP.length());
             }
+            // the id of a path may change
+            cacheable = false;
             Serializable id = pathResolver.getIdForPath(path);
             if (id == null) {
                 // no such path, always return a false
@@ -2131,6 +2163,7 @@ public class NXQLQueryMaker implements QueryMaker {
         }
 
         protected void visitExpressionIsTrashed(Expression node) {
+            cacheable = false;
             TrashService trashService = Framework.getService(TrashService.class);
             if (trashService.hasFeature(TRASHED_STATE_IS_DEDUCED_FROM_LIFECYCLE)) {
                 visitExpressionIsTrashedOnLifeCycle(node);
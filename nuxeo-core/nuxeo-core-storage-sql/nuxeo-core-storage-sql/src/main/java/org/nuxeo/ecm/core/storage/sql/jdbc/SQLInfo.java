@@ -133,6 +133,9 @@ public class SQLInfo {
 
     protected List<Column> getBinariesColumns;
 
+    /** @since 10.10 */
+    protected final NXQLQueryCache nxqlQueryCache;
+
     /**
      * Generates and holds the needed SQL statements given a {@link Model} and a {@link Dialect}.
      *
@@ -170,6 +173,8 @@ public class SQLInfo {
         getBinariesSql = new ArrayList<>(1);
         getBinariesColumns = new ArrayList<>(1);
 
+        nxqlQueryCache = new NXQLQueryCache(repositoryDescriptor.name);
+
         initSQL();
         initSelections();
 
@@ -184,6 +189,15 @@ public class SQLInfo {
         return database;
     }
 
+    /**
+     * Gets the cache of the SQL generated for NXQL queries.
+     *
+     * @since 10.10
+     */
+    public NXQLQueryCache getNXQLQueryCache() {
+        return nxqlQueryCache;
+    }
+
     // ----- select -----
 
     public String getSelectRootIdSql() {
@@ -33,11 +33,18 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -73,6 +80,9 @@ import org.nuxeo.runtime.transaction.TransactionHelper;
  * <p>
  * The TTL is stored as an expiration time (seconds since epoch) in its own column. Expiration is done by a thread
  * running a cleanup DELETE query every 60 seconds.
+ * <p>
+ * Bulk writes use JDBC batches of upserts, and bulk deletes use {@code IN} lists. If the database supports paging, key
+ * streams read the keys by pages in key order, without holding a connection while the stream is consumed.
  *
  * @since 10.10
  */
@@ -106,6 +116,12 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
     // maximum number of retries in case of concurrency
     protected static final int MAX_RETRY = 5;
 
+    // number of rows in a JDBC batch or an IN list
+    protected static final int BATCH_SIZE = 100;
+
+    // number of keys read at a time by a key stream
+    protected static final int KEY_STREAM_PAGE_SIZE = 1000;
+
     protected JDBCLogger logger;
 
     protected String dataSourceName;
@@ -160,6 +176,16 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
 
     protected String keyStreamPrefixSQL;
 
+    protected String keyPageSQL;
+
+    protected String keyPageAfterSQL;
+
+    protected String keyPagePrefixSQL;
+
+    protected String keyPagePrefixAfterSQL;
+
+    protected String deleteMultiSQL;
+
     protected String setTTLSQL;
 
     protected String existsSQL;
@@ -256,6 +282,17 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
         if (esc != null) {
             keyStreamPrefixSQL += esc;
         }
+        if (dialect.supportsPaging()) {
+            String orderBy = " ORDER BY " + keyColName;
+            String after = keyColName + " > ?";
+            keyPageSQL = dialect.addPagingClause(keyStreamSQL + orderBy, KEY_STREAM_PAGE_SIZE, 0);
+            keyPageAfterSQL = dialect.addPagingClause(keyStreamSQL + " WHERE " + after + orderBy,
+                    KEY_STREAM_PAGE_SIZE, 0);
+            keyPagePrefixSQL = dialect.addPagingClause(keyStreamPrefixSQL + orderBy, KEY_STREAM_PAGE_SIZE, 0);
+            keyPagePrefixAfterSQL = dialect.addPagingClause(keyStreamPrefixSQL + " AND " + after + orderBy,
+                    KEY_STREAM_PAGE_SIZE, 0);
+        }
+        deleteMultiSQL = "DELETE FROM " + tableName + " WHERE " + keyColName + " IN (%s)";
         setTTLSQL = "UPDATE " + tableName + " SET " + ttlColName + " = ? WHERE " + keyColName + " = ?";
         existsSQL = "SELECT 1 FROM " + tableName + " WHERE " + keyColName + " = ?";
         insertSQL = "INSERT INTO " + tableName + "(" + keyColName + ", " + longColName + ", " + stringColName + ", "
@@ -565,12 +602,75 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
 
     @Override
     public Stream<String> keyStream() {
-        return runWithConnection((Connection connection) -> keyStream(connection, null));
+        return keyStream(null);
     }
 
     @Override
     public Stream<String> keyStream(String prefix) {
-        return runWithConnection((Connection connection) -> keyStream(connection, prefix));
+        if (keyPageSQL == null) {
+            return runWithConnection((Connection connection) -> keyStream(connection, prefix));
+        }
+        Iterator<String> it = new Iterator<String>() {
+
+            protected Iterator<String> page = Collections.emptyIterator();
+
+            protected String lastKey;
+
+            protected boolean done;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !done) {
+                    List<String> keys = runWithConnection(
+                            (Connection connection) -> getKeyPage(connection, prefix, lastKey));
+                    done = keys.size() < KEY_STREAM_PAGE_SIZE;
+                    if (!keys.isEmpty()) {
+                        lastKey = keys.get(keys.size() - 1);
+                    }
+                    page = keys.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, characteristics), false);
+    }
+
+    /**
+     * Reads the keys following the given key, in key order.
+     */
+    protected List<String> getKeyPage(Connection connection, String prefix, String lastKey) throws SQLException {
+        String sql;
+        List<Serializable> values = new ArrayList<>(2);
+        if (prefix != null) {
+            values.add(escapeLike(prefix) + "%");
+        }
+        if (lastKey != null) {
+            values.add(lastKey);
+        }
+        if (prefix == null) {
+            sql = lastKey == null ? keyPageSQL : keyPageAfterSQL;
+        } else {
+            sql = lastKey == null ? keyPagePrefixSQL : keyPagePrefixAfterSQL;
+        }
+        List<String> keys = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            setToPreparedStatement(sql, ps, Collections.nCopies(values.size(), keyCol), values);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    keys.add((String) keyCol.getFromResultSet(rs, 1));
+                }
+            }
+        }
+        return keys;
     }
 
     protected Stream<String> keyStream(Connection connection, String prefix) throws SQLException {
@@ -825,6 +925,87 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
         });
     }
 
+    @Override
+    public void putAll(Map<String, byte[]> values, long ttl) {
+        List<String> deleted = new ArrayList<>();
+        Map<String, Object> upserted = new LinkedHashMap<>();
+        values.forEach((key, bytes) -> {
+            Object value = toStorage(bytes);
+            if (value == null) {
+                deleted.add(key);
+            } else {
+                upserted.put(key, value);
+            }
+        });
+        deleteAll(deleted);
+        if (upserted.isEmpty()) {
+            return;
+        }
+        Long ttlValue = ttlToStorage(ttl);
+        List<Column> columns = Arrays.asList(keyCol, longCol, stringCol, bytesCol, ttlCol);
+        // the upsert SQL doesn't depend on the values, only the statement parameters do
+        String sql = null;
+        List<Column> psColumns = null;
+        List<List<Serializable>> rows = new ArrayList<>(upserted.size());
+        for (Map.Entry<String, Object> es : upserted.entrySet()) {
+            Object value = es.getValue();
+            Long longValue = value instanceof Long ? (Long) value : null;
+            String stringValue = value instanceof String ? (String) value : null;
+            byte[] bytesValue = value instanceof byte[] ? (byte[]) value : null;
+            psColumns = new ArrayList<>();
+            List<Serializable> psValues = new ArrayList<>();
+            List<Serializable> rowValues = Arrays.asList(es.getKey(), longValue, stringValue, bytesValue, ttlValue);
+            sql = dialect.getUpsertSql(columns, rowValues, psColumns, psValues);
+            rows.add(psValues);
+        }
+        String upsertSQL = sql;
+        List<Column> upsertColumns = psColumns;
+        runWithConnection((Connection connection) -> {
+            for (int retry = 0; retry < MAX_RETRY; retry++) {
+                try {
+                    try (PreparedStatement ps = connection.prepareStatement(upsertSQL)) {
+                        int batch = 0;
+                        for (List<Serializable> row : rows) {
+                            setToPreparedStatement(upsertSQL, ps, upsertColumns, row);
+                            ps.addBatch();
+                            batch++;
+                            if (batch % BATCH_SIZE == 0 || batch == rows.size()) {
+                                ps.executeBatch();
+                            }
+                        }
+                    }
+                    return;
+                } catch (SQLException e) {
+                    if (!dialect.isConcurrentUpdateException(e)) {
+                        throw e;
+                    }
+                    // upserts are idempotent, retry the whole batch
+                }
+                sleepBeforeRetry();
+            }
+            throw new ConcurrentUpdateException("Failed to do atomic put for keys: " + upserted.keySet());
+        });
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> list = new ArrayList<>(keys);
+        runWithConnection((Connection connection) -> {
+            for (int i = 0; i < list.size(); i += BATCH_SIZE) {
+                List<String> batch = list.subList(i, Math.min(i + BATCH_SIZE, list.size()));
+                String sql = String.format(deleteMultiSQL, nParams(batch.size()));
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    setToPreparedStatement(sql, ps, Collections.nCopies(batch.size(), keyCol), batch);
+                    int count = ps.executeUpdate();
+                    logger.logCount(count);
+                }
+            }
+        });
+    }
+
     @Override
     public boolean setTTL(String key, long ttl) {
         return runWithConnection((Connection connection) -> {
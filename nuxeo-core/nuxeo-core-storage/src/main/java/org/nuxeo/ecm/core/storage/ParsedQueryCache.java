@@ -0,0 +1,122 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage;
+
+import org.nuxeo.ecm.core.query.QueryParseException;
+import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
+import org.nuxeo.ecm.core.query.sql.model.IdentityQueryTransformer;
+import org.nuxeo.ecm.core.query.sql.model.SQLQuery;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A bounded cache of parsed NXQL queries, keyed by query string.
+ * <p>
+ * The cached {@link SQLQuery} is never returned to callers, they get a deep copy that they are free to transform or
+ * to modify in place.
+ *
+ * @since 10.10
+ */
+public class ParsedQueryCache {
+
+    /** Maximum number of parsed queries kept in the shared cache, {@code 0} disables it. */
+    public static final String CACHE_SIZE_PROP = "org.nuxeo.core.query.cache.size";
+
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    /** Queries longer than this (large IN lists for instance) are unlikely to be repeated and are not cached. */
+    public static final int MAX_QUERY_LENGTH = 4096;
+
+    protected static volatile ParsedQueryCache instance;
+
+    protected final Cache<String, SQLQuery> cache;
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    protected final Counter hitCount;
+
+    protected final Counter missCount;
+
+    public ParsedQueryCache(int maxSize) {
+        cache = maxSize > 0 ? CacheBuilder.newBuilder().maximumSize(maxSize).build() : null;
+        hitCount = registry.counter(MetricRegistry.name("nuxeo", "queries", "caches", "parsed", "hit"));
+        missCount = registry.counter(MetricRegistry.name("nuxeo", "queries", "caches", "parsed", "miss"));
+    }
+
+    /**
+     * Gets the cache shared by all the repositories.
+     */
+    public static ParsedQueryCache getInstance() {
+        ParsedQueryCache result = instance;
+        if (result == null) {
+            synchronized (ParsedQueryCache.class) {
+                result = instance;
+                if (result == null) {
+                    int maxSize = DEFAULT_CACHE_SIZE;
+                    if (Framework.getRuntime() != null) {
+                        maxSize = Integer.parseInt(
+                                Framework.getProperty(CACHE_SIZE_PROP, String.valueOf(DEFAULT_CACHE_SIZE)));
+                    }
+                    instance = result = new ParsedQueryCache(maxSize);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses a query, or gets it from the cache.
+     *
+     * @return a query that the caller owns
+     * @throws QueryParseException if the query cannot be parsed
+     */
+    public SQLQuery parse(String query) {
+        if (cache == null || query.length() > MAX_QUERY_LENGTH) {
+            return SQLQueryParser.parse(query);
+        }
+        SQLQuery sqlQuery = cache.getIfPresent(query);
+        if (sqlQuery == null) {
+            missCount.inc();
+            sqlQuery = SQLQueryParser.parse(query);
+            cache.put(query, sqlQuery);
+        } else {
+            hitCount.inc();
+        }
+        return copy(sqlQuery);
+    }
+
+    protected SQLQuery copy(SQLQuery sqlQuery) {
+        SQLQuery copy = new IdentityQueryTransformer().transform(sqlQuery);
+        copy.setQueryString(sqlQuery.getQueryString());
+        return copy;
+    }
+
+    public void clear() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+}
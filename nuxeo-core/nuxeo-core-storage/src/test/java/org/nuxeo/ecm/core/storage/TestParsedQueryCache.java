@@ -0,0 +1,122 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Test;
+import org.nuxeo.ecm.core.query.QueryParseException;
+import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
+import org.nuxeo.ecm.core.query.sql.model.Expression;
+import org.nuxeo.ecm.core.query.sql.model.FromClause;
+import org.nuxeo.ecm.core.query.sql.model.Reference;
+import org.nuxeo.ecm.core.query.sql.model.SQLQuery;
+
+public class TestParsedQueryCache {
+
+    private static final Log log = LogFactory.getLog(TestParsedQueryCache.class);
+
+    protected static final String QUERY = "SELECT * FROM Document WHERE ecm:parentId = '123' AND ecm:isProxy = 0"
+            + " AND dc:title IS NULL AND NOT (dc:description LIKE 'foo%' OR dc:created > DATE '2018-01-01')"
+            + " ORDER BY dc:title DESC LIMIT 10 OFFSET 20";
+
+    @Test
+    public void testCopies() {
+        ParsedQueryCache cache = new ParsedQueryCache(10);
+        SQLQuery expected = SQLQueryParser.parse(QUERY);
+
+        SQLQuery sqlQuery1 = cache.parse(QUERY);
+        assertEquals(expected, sqlQuery1);
+        assertEquals(QUERY, sqlQuery1.getQueryString());
+        assertEquals(10, sqlQuery1.limit);
+        assertEquals(20, sqlQuery1.offset);
+
+        // modify the returned query in place, like the query makers do
+        sqlQuery1.select.add(new Reference(NXQL.ECM_UUID));
+        ((Expression) sqlQuery1.where.predicate).info = "info";
+
+        SQLQuery sqlQuery2 = cache.parse(QUERY);
+        assertNotSame(sqlQuery1, sqlQuery2);
+        assertEquals(expected, sqlQuery2);
+        assertEquals(QUERY, sqlQuery2.getQueryString());
+        assertFalse(sqlQuery2.select.containsOperand(new Reference(NXQL.ECM_UUID)));
+        assertNull(((Expression) sqlQuery2.where.predicate).info);
+    }
+
+    @Test
+    public void testFromType() {
+        ParsedQueryCache cache = new ParsedQueryCache(10);
+        String query = "SELECT * FROM TYPE Document";
+        cache.parse(query);
+        assertEquals(FromClause.DOCTYPE, cache.parse(query).from.getType());
+        assertNull(cache.parse(query).where);
+    }
+
+    @Test
+    public void testParseError() {
+        ParsedQueryCache cache = new ParsedQueryCache(10);
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.parse("SELECT * FROM");
+                fail();
+            } catch (QueryParseException e) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        ParsedQueryCache cache = new ParsedQueryCache(0);
+        assertEquals(SQLQueryParser.parse(QUERY), cache.parse(QUERY));
+    }
+
+    @Test
+    public void testParseTime() {
+        ParsedQueryCache cache = new ParsedQueryCache(10);
+        int n = 10_000;
+        // warm up
+        for (int i = 0; i < n; i++) {
+            SQLQueryParser.parse(QUERY);
+            cache.parse(QUERY);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            SQLQueryParser.parse(QUERY);
+        }
+        long parsed = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            cache.parse(QUERY);
+        }
+        long cached = System.nanoTime() - start;
+        log.info(String.format("%d queries, parsed: %dms, cached: %dms", n, TimeUnit.NANOSECONDS.toMillis(parsed),
+                TimeUnit.NANOSECONDS.toMillis(cached)));
+    }
+
+}
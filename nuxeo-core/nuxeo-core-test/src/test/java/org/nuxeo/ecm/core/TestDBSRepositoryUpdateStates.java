@@ -0,0 +1,152 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_CHANGE_TOKEN;
+
+import java.util.Arrays;
+
+import javax.inject.Inject;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.api.ConcurrentUpdateException;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.repository.RepositoryService;
+import org.nuxeo.ecm.core.storage.State;
+import org.nuxeo.ecm.core.storage.State.StateDiff;
+import org.nuxeo.ecm.core.storage.dbs.DBSDocumentState;
+import org.nuxeo.ecm.core.storage.dbs.DBSRepository;
+import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.ChangeTokenUpdater;
+import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.StateUpdate;
+import org.nuxeo.ecm.core.test.CoreFeature;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+
+/**
+ * Tests the bulk updates of {@link DBSRepository#updateStates} on the actual repository implementation.
+ *
+ * @since 10.10
+ */
+@RunWith(FeaturesRunner.class)
+@Features(CoreFeature.class)
+public class TestDBSRepositoryUpdateStates {
+
+    @Inject
+    protected CoreFeature coreFeature;
+
+    @Inject
+    protected CoreSession session;
+
+    protected DBSRepository repository;
+
+    @Before
+    public void setUp() {
+        assumeTrue("DBS only", coreFeature.getStorageConfiguration().isDBS());
+        repository = (DBSRepository) Framework.getService(RepositoryService.class)
+                                              .getRepository(session.getRepositoryName());
+    }
+
+    protected String createDocument(String name) {
+        DocumentModel doc = session.createDocumentModel("/", name, "File");
+        doc = session.createDocument(doc);
+        session.save();
+        return doc.getId();
+    }
+
+    /** Gets a change token updater expecting the current change token of the document. */
+    protected ChangeTokenUpdater getChangeTokenUpdater(String id) {
+        DBSDocumentState docState = new DBSDocumentState(repository.readState(id));
+        docState.markDirty();
+        return new ChangeTokenUpdater(docState);
+    }
+
+    protected static StateUpdate update(String id, String key, String value, ChangeTokenUpdater changeTokenUpdater) {
+        StateDiff diff = new StateDiff();
+        diff.put(key, value);
+        return new StateUpdate(id, diff, changeTokenUpdater);
+    }
+
+    @Test
+    public void testUpdateStates() {
+        String id1 = createDocument("doc1");
+        String id2 = createDocument("doc2");
+        String id3 = createDocument("doc3");
+        Object token1 = repository.readState(id1).get(KEY_CHANGE_TOKEN);
+
+        repository.updateStates(Arrays.asList( //
+                update(id1, "dc:title", "title1", getChangeTokenUpdater(id1)), //
+                update(id2, "dc:title", "title2", getChangeTokenUpdater(id2)), //
+                update(id3, "dc:title", "title3", null)));
+
+        assertEquals("title1", repository.readState(id1).get("dc:title"));
+        assertEquals("title2", repository.readState(id2).get("dc:title"));
+        assertEquals("title3", repository.readState(id3).get("dc:title"));
+        assertNotEquals(token1, repository.readState(id1).get(KEY_CHANGE_TOKEN));
+    }
+
+    @Test
+    public void testUpdateStatesSameDocument() {
+        String id1 = createDocument("doc1");
+        String id2 = createDocument("doc2");
+
+        // the second update of a document expects the change token written by the first one
+        ChangeTokenUpdater changeTokenUpdater = getChangeTokenUpdater(id1);
+        repository.updateStates(Arrays.asList( //
+                update(id1, "dc:title", "title1", changeTokenUpdater), //
+                update(id2, "dc:title", "title2", getChangeTokenUpdater(id2)), //
+                update(id1, "dc:description", "description1", changeTokenUpdater)));
+
+        State state = repository.readState(id1);
+        assertEquals("title1", state.get("dc:title"));
+        assertEquals("description1", state.get("dc:description"));
+        assertEquals("title2", repository.readState(id2).get("dc:title"));
+    }
+
+    @Test
+    public void testUpdateStatesConcurrentUpdate() {
+        String id1 = createDocument("doc1");
+        String id2 = createDocument("doc2");
+        ChangeTokenUpdater staleChangeTokenUpdater = getChangeTokenUpdater(id2);
+        // concurrent update of doc2
+        StateUpdate concurrentUpdate = update(id2, "dc:title", "concurrent", getChangeTokenUpdater(id2));
+        repository.updateState(id2, concurrentUpdate.getDiff(), concurrentUpdate.getChangeTokenUpdater());
+
+        try {
+            repository.updateStates(Arrays.asList( //
+                    update(id1, "dc:title", "title1", getChangeTokenUpdater(id1)), //
+                    update(id2, "dc:title", "title2", staleChangeTokenUpdater)));
+            fail("should throw ConcurrentUpdateException");
+        } catch (ConcurrentUpdateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(id2));
+        }
+        // the other updates are still applied
+        assertEquals("title1", repository.readState(id1).get("dc:title"));
+        assertEquals("concurrent", repository.readState(id2).get("dc:title"));
+    }
+
+}
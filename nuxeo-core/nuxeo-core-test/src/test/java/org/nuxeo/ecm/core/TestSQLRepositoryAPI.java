@@ -29,6 +29,7 @@ import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 import static org.nuxeo.ecm.core.api.event.DocumentEventTypes.BEFORE_DOC_UPDATE;
 import static org.nuxeo.ecm.core.api.event.DocumentEventTypes.INCREMENT_BEFORE_UPDATE;
+import static org.nuxeo.ecm.core.api.security.SecurityConstants.READ;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -57,6 +58,8 @@ import javax.inject.Inject;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -138,6 +141,8 @@ import org.nuxeo.runtime.transaction.TransactionHelper;
 @Deploy("org.nuxeo.ecm.core.test.tests:OSGI-INF/disable-schedulers.xml")
 public class TestSQLRepositoryAPI {
 
+    private static final Logger log = LogManager.getLogger(TestSQLRepositoryAPI.class);
+
     @Inject
     protected CoreFeature coreFeature;
 
@@ -1035,6 +1040,77 @@ public class TestSQLRepositoryAPI {
         assertEquals("Folder", doc.getType());
     }
 
+    @Test
+    public void testGetDocuments() {
+        DocumentModel folder = session.createDocumentModel("/", "folder", "Folder");
+        folder = session.createDocument(folder);
+        DocumentModel file1 = session.createDocumentModel("/folder", "file1", "File");
+        file1 = session.createDocument(file1);
+        DocumentModel file2 = session.createDocumentModel("/folder", "file2", "File");
+        file2 = session.createDocument(file2);
+        session.save();
+        reopenSession();
+
+        DocumentModelList docs = session.getDocuments(new DocumentRef[] { file2.getRef(), new PathRef("/folder"),
+                new IdRef(file1.getId()), file2.getRef() });
+        assertEquals(4, docs.size());
+        assertEquals(file2.getId(), docs.get(0).getId());
+        assertEquals(folder.getId(), docs.get(1).getId());
+        assertEquals(file1.getId(), docs.get(2).getId());
+        assertEquals(file2.getId(), docs.get(3).getId());
+
+        try {
+            session.getDocuments(new DocumentRef[] { file1.getRef(), new IdRef("nosuchid") });
+            fail("should throw DocumentNotFoundException");
+        } catch (DocumentNotFoundException e) {
+            // ok
+        }
+
+        // by ids, missing documents are skipped
+        docs = session.getDocuments(Arrays.asList(file2.getId(), "nosuchid", folder.getId()), READ);
+        assertEquals(2, docs.size());
+        assertEquals(file2.getId(), docs.get(0).getId());
+        assertEquals(folder.getId(), docs.get(1).getId());
+    }
+
+    @Test
+    public void testGetDocumentsLatency() {
+        int nbDocs = 1000;
+        DocumentRef[] refs = new DocumentRef[nbDocs];
+        for (int i = 0; i < nbDocs; i++) {
+            DocumentModel doc = session.createDocumentModel("/", "doc" + i, "File");
+            doc.setPropertyValue("dc:title", "doc " + i);
+            refs[i] = session.createDocument(doc).getRef();
+            if (i % 100 == 0) {
+                session.save();
+                nextTransaction();
+            }
+        }
+        session.save();
+        reopenSession();
+
+        // one document at a time
+        long start = System.nanoTime();
+        List<DocumentModel> docs = new ArrayList<>(nbDocs);
+        for (DocumentRef ref : refs) {
+            docs.add(session.getDocument(ref));
+        }
+        long oneByOne = System.nanoTime() - start;
+        assertEquals(nbDocs, docs.size());
+        reopenSession();
+
+        // batch
+        start = System.nanoTime();
+        DocumentModelList batch = session.getDocuments(refs);
+        long batched = System.nanoTime() - start;
+        assertEquals(nbDocs, batch.size());
+        for (int i = 0; i < nbDocs; i++) {
+            assertEquals(refs[i], batch.get(i).getRef());
+        }
+        log.info("Fetch of {} documents, one by one: {} ms, batch: {} ms", nbDocs,
+                TimeUnit.NANOSECONDS.toMillis(oneByOne), TimeUnit.NANOSECONDS.toMillis(batched));
+    }
+
     // TODO NXP-2514: fix this test.
     @Test
     @Ignore
@@ -30,6 +30,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeFalse;
 import static org.junit.Assume.assumeTrue;
+import static org.nuxeo.ecm.core.storage.mem.MemRepository.PARALLEL_EVALUATION_THRESHOLD_PROPERTY;
 
 import java.io.Serializable;
 import java.text.SimpleDateFormat;
@@ -1717,6 +1718,62 @@ public class TestSQLRepositoryQuery {
 
     }
 
+    @Test
+    public void testQueryParallelEvaluation() throws Exception {
+        assumeTrue("parallel evaluation is specific to the mem repository", isDBSMem());
+
+        DocumentModel folder1 = session.createDocument(session.createDocumentModel("/", "folder1", "Folder"));
+        DocumentModel folder2 = session.createDocument(session.createDocumentModel("/", "folder2", "Folder"));
+        for (int i = 0; i < 50; i++) {
+            for (DocumentModel folder : Arrays.asList(folder1, folder2)) {
+                DocumentModel doc = session.createDocumentModel(folder.getPathAsString(), "doc" + i, "File");
+                doc.setPropertyValue("dc:title", "doc" + i);
+                session.createDocument(doc);
+            }
+        }
+        // bob can only read folder1 and its children
+        ACP acp = new ACPImpl();
+        ACL acl = new ACLImpl();
+        acl.add(new ACE("bob", "Read", true));
+        acp.addACL(acl);
+        folder1.setACP(acp, true);
+        session.save();
+
+        List<String> queries = Arrays.asList( //
+                "SELECT * FROM Document", //
+                "SELECT * FROM Document WHERE ecm:path STARTSWITH '/folder1'", //
+                "SELECT * FROM Document WHERE ecm:path = '/folder2/doc7'", //
+                "SELECT * FROM File WHERE dc:title LIKE 'doc1%' AND ecm:path STARTSWITH '/folder2'", //
+                "SELECT * FROM Document WHERE ecm:ancestorId = '" + folder2.getId() + "'");
+        try (CloseableCoreSession bobSession = coreFeature.openCoreSession("bob")) {
+            for (CoreSession s : Arrays.asList(session, bobSession)) {
+                for (String query : queries) {
+                    Set<String> sequential = queryIds(s, query, Integer.MAX_VALUE);
+                    Set<String> parallel = queryIds(s, query, 1);
+                    assertEquals(query, sequential, parallel);
+                }
+            }
+            assertEquals(51, queryIds(bobSession, queries.get(0), 1).size());
+            assertEquals(50, queryIds(bobSession, queries.get(1), 1).size());
+            assertTrue(queryIds(bobSession, queries.get(3), 1).isEmpty());
+        }
+        assertEquals(1, queryIds(session, queries.get(2), 1).size());
+        assertEquals(11, queryIds(session, queries.get(3), 1).size());
+    }
+
+    /**
+     * Queries the ids of the matching documents, evaluating the query in parallel above the given number of documents.
+     */
+    protected Set<String> queryIds(CoreSession s, String query, int parallelEvaluationThreshold) {
+        Framework.getProperties().setProperty(PARALLEL_EVALUATION_THRESHOLD_PROPERTY,
+                String.valueOf(parallelEvaluationThreshold));
+        try {
+            return s.query(query).stream().map(DocumentModel::getId).collect(Collectors.toSet());
+        } finally {
+            Framework.getProperties().remove(PARALLEL_EVALUATION_THRESHOLD_PROPERTY);
+        }
+    }
+
     @Test
     public void testQueryWithProxies() throws Exception {
         createDocs();
@@ -296,6 +296,35 @@ public class TestSQLRepositorySecurity {
         }
     }
 
+    @Test
+    public void testGetDocumentsSkipsUnreadable() {
+        DocumentModel folder = session.createDocumentModel("/", "folder", "Folder");
+        folder = session.createDocument(folder);
+        DocumentModel doc1 = session.createDocumentModel("/folder", "doc1", "File");
+        doc1 = session.createDocument(doc1);
+        DocumentModel doc2 = session.createDocumentModel("/folder", "doc2", "File");
+        doc2 = session.createDocument(doc2);
+        ACP acp = new ACPImpl();
+        ACL acl = new ACLImpl();
+        acl.add(new ACE("bob", READ, true));
+        acp.addACL(acl);
+        folder.setACP(acp, true);
+        acp = new ACPImpl();
+        acl = new ACLImpl();
+        acl.add(new ACE(EVERYONE, EVERYTHING, false));
+        acp.addACL(acl);
+        doc2.setACP(acp, true);
+        session.save();
+
+        try (CloseableCoreSession bobSession = openSessionAs("bob")) {
+            DocumentModelList docs = bobSession.getDocuments(
+                    new DocumentRef[] { doc2.getRef(), doc1.getRef(), folder.getRef() });
+            assertEquals(2, docs.size());
+            assertEquals(doc1.getId(), docs.get(0).getId());
+            assertEquals(folder.getId(), docs.get(1).getId());
+        }
+    }
+
     @Test
     public void testACLEscaping() {
         // temporary set an Everything privileges on the root for anonymous
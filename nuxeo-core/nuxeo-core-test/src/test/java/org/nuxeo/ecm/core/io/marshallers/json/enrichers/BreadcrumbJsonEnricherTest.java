@@ -19,6 +19,9 @@
 
 package org.nuxeo.ecm.core.io.marshallers.json.enrichers;
 
+import java.util.Arrays;
+import java.util.List;
+
 import javax.inject.Inject;
 
 import org.junit.Before;
@@ -28,6 +31,7 @@ import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.io.marshallers.json.AbstractJsonWriterTest;
 import org.nuxeo.ecm.core.io.marshallers.json.JsonAssert;
 import org.nuxeo.ecm.core.io.marshallers.json.document.DocumentModelJsonWriter;
+import org.nuxeo.ecm.core.io.registry.MarshallerHelper;
 import org.nuxeo.ecm.core.io.registry.context.RenderingContext.CtxBuilder;
 import org.nuxeo.ecm.core.test.CoreFeature;
 import org.nuxeo.runtime.test.runner.Deploy;
@@ -71,4 +75,21 @@ public class BreadcrumbJsonEnricherTest extends AbstractJsonWriterTest.Local<Doc
         }
     }
 
+    @Test
+    public void testList() throws Exception {
+        DocumentModel sibling = session.createDocumentModel("/level1/level2", "sibling", "RefDoc");
+        sibling = session.createDocument(sibling);
+        DocumentModel level1 = session.getDocument(document.getParentRef());
+        level1 = session.getDocument(level1.getParentRef());
+        List<DocumentModel> documents = Arrays.asList(document, sibling, level1);
+        String listJson = MarshallerHelper.listToJson(DocumentModel.class, documents,
+                CtxBuilder.enrichDoc("breadcrumb").get());
+        JsonAssert json = JsonAssert.on(listJson).has("entries").length(3);
+        String[][] expected = { { "level1", "level2", "level3" }, { "level1", "level2", "sibling" }, { "level1" } };
+        for (int i = 0; i < expected.length; i++) {
+            JsonAssert breadcrumb = json.has(i).has("contextParameters").has("breadcrumb");
+            breadcrumb.has("entries").length(expected[i].length).childrenContains("title", expected[i]);
+        }
+    }
+
 }
@@ -19,6 +19,9 @@
 
 package org.nuxeo.ecm.core.io.marshallers.json.enrichers;
 
+import java.util.Arrays;
+import java.util.List;
+
 import javax.inject.Inject;
 
 import org.junit.Before;
@@ -29,6 +32,7 @@ import org.nuxeo.ecm.core.api.PathRef;
 import org.nuxeo.ecm.core.io.marshallers.json.AbstractJsonWriterTest;
 import org.nuxeo.ecm.core.io.marshallers.json.JsonAssert;
 import org.nuxeo.ecm.core.io.marshallers.json.document.DocumentModelJsonWriter;
+import org.nuxeo.ecm.core.io.registry.MarshallerHelper;
 import org.nuxeo.ecm.core.io.registry.context.RenderingContext.CtxBuilder;
 import org.nuxeo.ecm.core.test.CoreFeature;
 import org.nuxeo.runtime.test.runner.Deploy;
@@ -86,4 +90,23 @@ public class HasFolderishChildJsonEnricherTest extends AbstractJsonWriterTest.Lo
         json.isEquals(false);
     }
 
+    @Test
+    public void testList() throws Exception {
+        DocumentModel document = session.createDocumentModel("/child2", "child21", "MyFolder");
+        session.createDocument(document);
+        TransactionHelper.commitOrRollbackTransaction();
+        TransactionHelper.startTransaction();
+
+        List<DocumentModel> documents = Arrays.asList(session.getDocument(new PathRef("/")),
+                session.getDocument(new PathRef("/child1")), session.getDocument(new PathRef("/child2")),
+                session.getDocument(new PathRef("/child3")));
+        String listJson = MarshallerHelper.listToJson(DocumentModel.class, documents,
+                CtxBuilder.enrichDoc(HasFolderishChildJsonEnricher.NAME).get());
+        JsonAssert json = JsonAssert.on(listJson).has("entries").length(4);
+        boolean[] expected = { true, false, true, false };
+        for (int i = 0; i < expected.length; i++) {
+            json.has(i).has("contextParameters").has(HasFolderishChildJsonEnricher.NAME).isEquals(expected[i]);
+        }
+    }
+
 }
@@ -50,9 +50,11 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -339,6 +341,66 @@ public abstract class AbstractSession implements CoreSession, Serializable {
         }
     }
 
+    /**
+     * Resolves several references, the documents referenced by id are fetched in bulk.
+     *
+     * @return the documents, in the same order as the references
+     * @throws DocumentNotFoundException if one of the documents doesn't exist
+     * @since 10.10
+     */
+    protected List<Document> resolveReferences(DocumentRef[] docRefs) {
+        // the same document may be referenced several times, fetch it once
+        Set<String> idSet = new LinkedHashSet<>();
+        for (DocumentRef docRef : docRefs) {
+            String id = getReferencedId(docRef);
+            if (id != null) {
+                idSet.add(id);
+            }
+        }
+        List<String> ids = new ArrayList<>(idSet);
+        Map<String, Document> docsById = new HashMap<>();
+        if (!ids.isEmpty()) {
+            List<Document> fetched = getSession().getDocumentsByUUIDs(ids);
+            for (int i = 0; i < ids.size(); i++) {
+                Document doc = fetched.get(i);
+                if (doc != null) {
+                    docsById.put(ids.get(i), doc);
+                }
+            }
+        }
+        List<Document> docs = new ArrayList<>(docRefs.length);
+        for (DocumentRef docRef : docRefs) {
+            String id = getReferencedId(docRef);
+            if (id == null) {
+                docs.add(resolveReference(docRef));
+                continue;
+            }
+            Document doc = docsById.get(id);
+            if (doc == null) {
+                throw new DocumentNotFoundException(id);
+            }
+            docs.add(doc);
+        }
+        return docs;
+    }
+
+    /**
+     * Gets the id of a document reference, or {@code null} if the reference is not by id.
+     */
+    protected String getReferencedId(DocumentRef docRef) {
+        if (docRef == null || docRef.reference() == null) {
+            return null;
+        }
+        switch (docRef.type()) {
+        case DocumentRef.ID:
+            return (String) docRef.reference();
+        case DocumentRef.INSTANCE:
+            return ((DocumentModel) docRef.reference()).getId();
+        default:
+            return null;
+        }
+    }
+
     /**
      * Gets the document model for the given core document.
      *
@@ -941,19 +1003,32 @@ public abstract class AbstractSession implements CoreSession, Serializable {
 
     @Override
     public DocumentModelList getDocuments(DocumentRef[] docRefs) {
-        List<DocumentModel> docs = new ArrayList<>(docRefs.length);
-        for (DocumentRef docRef : docRefs) {
-            Document doc;
-            try {
-                doc = resolveReference(docRef);
-                checkPermission(doc, READ);
-            } catch (DocumentSecurityException e) {
-                // no permission
-                continue;
+        List<Document> docs = resolveReferences(docRefs);
+        // documents without permission are skipped
+        boolean[] granted = isAdministrator() ? null
+                : getSecurityService().checkPermission(docs, getPrincipal(), READ);
+        List<DocumentModel> docModels = new ArrayList<>(docs.size());
+        for (int i = 0; i < docs.size(); i++) {
+            if (granted == null || granted[i]) {
+                docModels.add(readModel(docs.get(i)));
+            }
+        }
+        return new DocumentModelListImpl(docModels);
+    }
+
+    @Override
+    public DocumentModelList getDocuments(List<String> ids, String permission) {
+        List<Document> docs = getSession().getDocumentsByUUIDs(ids);
+        boolean[] granted = isAdministrator() ? null
+                : getSecurityService().checkPermission(docs, getPrincipal(), permission);
+        List<DocumentModel> docModels = new ArrayList<>(docs.size());
+        for (int i = 0; i < docs.size(); i++) {
+            Document doc = docs.get(i);
+            if (doc != null && (granted == null || granted[i])) {
+                docModels.add(readModel(doc));
             }
-            docs.add(readModel(doc));
         }
-        return new DocumentModelListImpl(docs);
+        return new DocumentModelListImpl(docModels);
     }
 
     @Override
@@ -127,7 +127,34 @@ public class SecurityService extends DefaultComponent {
         // fully check each ACE in turn
         String[] resolvedPermissions = getPermissionsToCheck(permission);
         String[] additionalPrincipals = getPrincipalsToCheck(principal);
+        return checkPermission(doc, principal, permission, resolvedPermissions, additionalPrincipals);
+    }
+
+    /**
+     * Checks a permission on several documents, the permissions and principals to check are resolved only once. The
+     * merged ACP is still computed for each document.
+     *
+     * @param docs the documents, which may contain {@code null} elements
+     * @return for each document, whether the permission is granted, {@code false} for {@code null} documents
+     * @since 10.10
+     */
+    public boolean[] checkPermission(List<Document> docs, NuxeoPrincipal principal, String permission) {
+        boolean[] granted = new boolean[docs.size()];
+        boolean administrator = principal.isAdministrator();
+        String[] resolvedPermissions = administrator ? null : getPermissionsToCheck(permission);
+        String[] additionalPrincipals = administrator ? null : getPrincipalsToCheck(principal);
+        for (int i = 0; i < granted.length; i++) {
+            Document doc = docs.get(i);
+            if (doc != null) {
+                granted[i] = administrator
+                        || checkPermission(doc, principal, permission, resolvedPermissions, additionalPrincipals);
+            }
+        }
+        return granted;
+    }
 
+    protected boolean checkPermission(Document doc, NuxeoPrincipal principal, String permission,
+            String[] resolvedPermissions, String[] additionalPrincipals) {
         // get the ordered list of ACE
         ACP acp = doc.getSession().getMergedACP(doc);
 
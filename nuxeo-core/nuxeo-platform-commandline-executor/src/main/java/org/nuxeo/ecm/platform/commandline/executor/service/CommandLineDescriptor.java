@@ -82,6 +82,12 @@ public class CommandLineDescriptor implements Serializable {
 
     protected String installErrorMessage;
 
+    /**
+     * @since 10.10
+     */
+    @XNode("pool")
+    protected CommandPoolDescriptor pool;
+
     public String getInstallErrorMessage() {
         return installErrorMessage;
     }
@@ -145,7 +151,17 @@ public class CommandLineDescriptor implements Serializable {
         return testParameterString;
     }
 
+    /**
+     * @since 10.10
+     */
+    public CommandPoolDescriptor getPool() {
+        return pool;
+    }
+
     public String getExecutor() {
+        if (pool != null && pool.isEnabled()) {
+            return CommandLineExecutorComponent.POOLED_EXECUTOR;
+        }
         return CommandLineExecutorComponent.DEFAULT_EXECUTOR;
     }
 
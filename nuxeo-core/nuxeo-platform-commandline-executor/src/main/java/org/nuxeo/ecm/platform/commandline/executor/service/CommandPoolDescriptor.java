@@ -0,0 +1,146 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.platform.commandline.executor.service;
+
+import java.io.Serializable;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.nuxeo.common.xmap.annotation.XNode;
+import org.nuxeo.common.xmap.annotation.XObject;
+
+/**
+ * XMap descriptor for the pool of long-lived worker processes of a command.
+ * <p>
+ * A worker is started once with the worker command line, then each execution of the command is sent to it as a single
+ * line on its standard input: the expanded parameter string of the command. The worker must answer with the output of
+ * the job followed by a line equal to the success or the failure marker.
+ *
+ * @since 10.10
+ */
+@XObject("pool")
+public class CommandPoolDescriptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @XNode("@enabled")
+    protected boolean enabled = true;
+
+    /** The worker command, defaults to the command line of the command. */
+    @XNode("workerCommandLine")
+    protected String workerCommand;
+
+    @XNode("workerParameterString")
+    protected String workerParameterString = "";
+
+    @XNode("winWorkerParameterString")
+    protected String winWorkerParameterString;
+
+    /** A job run to check that an idle worker is still responsive, if none only checks that the process is alive. */
+    @XNode("healthCheck")
+    protected String healthCheck;
+
+    /** Minimum idle time of a worker, in seconds, before it is checked again. */
+    @XNode("healthCheckInterval")
+    protected int healthCheckInterval = 30;
+
+    @XNode("successMarker")
+    protected String successMarker = "PASS";
+
+    @XNode("failureMarker")
+    protected String failureMarker = "FAIL";
+
+    /** Maximum number of concurrent jobs, and of worker processes, for this command. */
+    @XNode("maxWorkers")
+    protected int maxWorkers = 2;
+
+    /** Number of jobs after which a worker is recycled, {@code 0} for no limit. */
+    @XNode("maxJobsPerWorker")
+    protected int maxJobsPerWorker = 100;
+
+    /** Maximum number of jobs waiting for a worker, further jobs are rejected. */
+    @XNode("maxQueueSize")
+    protected int maxQueueSize = 100;
+
+    /** Maximum time, in seconds, a job waits for a worker. */
+    @XNode("queueTimeout")
+    protected int queueTimeout = 60;
+
+    /** Maximum time, in seconds, of a job, after which the worker is killed. */
+    @XNode("jobTimeout")
+    protected int jobTimeout = 300;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getWorkerCommand() {
+        return workerCommand;
+    }
+
+    public String getWorkerParametersString() {
+        if (SystemUtils.IS_OS_WINDOWS && winWorkerParameterString != null) {
+            return winWorkerParameterString;
+        }
+        return workerParameterString;
+    }
+
+    public String getHealthCheck() {
+        return healthCheck;
+    }
+
+    public int getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public String getSuccessMarker() {
+        return successMarker;
+    }
+
+    public String getFailureMarker() {
+        return failureMarker;
+    }
+
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+
+    public int getMaxJobsPerWorker() {
+        return maxJobsPerWorker;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public int getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    public int getJobTimeout() {
+        return jobTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
+}
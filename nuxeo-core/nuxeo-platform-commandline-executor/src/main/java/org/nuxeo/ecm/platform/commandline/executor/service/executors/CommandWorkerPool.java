@@ -0,0 +1,354 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.platform.commandline.executor.service.executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.ecm.platform.commandline.executor.api.CmdParameters;
+import org.nuxeo.ecm.platform.commandline.executor.api.CommandLineExecutorService;
+import org.nuxeo.ecm.platform.commandline.executor.api.ExecResult;
+import org.nuxeo.ecm.platform.commandline.executor.service.CommandLineDescriptor;
+import org.nuxeo.ecm.platform.commandline.executor.service.CommandPoolDescriptor;
+import org.nuxeo.ecm.platform.commandline.executor.service.EnvironmentDescriptor;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+
+/**
+ * Pool of long-lived worker processes for a command.
+ * <p>
+ * The number of concurrent jobs is bounded by the number of workers, the other jobs wait in a bounded queue. Idle
+ * workers are checked before being reused, and recycled after a maximum number of jobs.
+ *
+ * @since 10.10
+ */
+public class CommandWorkerPool {
+
+    private static final Log log = LogFactory.getLog(CommandWorkerPool.class);
+
+    protected static final AtomicInteger WORKER_COUNT = new AtomicInteger();
+
+    protected final String commandName;
+
+    protected final CommandPoolDescriptor poolDesc;
+
+    protected final List<String> workerCommand;
+
+    protected final EnvironmentDescriptor env;
+
+    protected final Semaphore permits;
+
+    protected final AtomicInteger queued = new AtomicInteger();
+
+    protected final Deque<Worker> idleWorkers = new ConcurrentLinkedDeque<>();
+
+    protected volatile boolean shutdown;
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    protected final Timer jobTimer;
+
+    protected final Counter queuedCount;
+
+    protected final Counter activeCount;
+
+    protected final Counter workerCount;
+
+    protected final Counter recycledCount;
+
+    protected final Counter failureCount;
+
+    protected final Counter rejectedCount;
+
+    public CommandWorkerPool(CommandLineDescriptor cmdDesc, EnvironmentDescriptor env) {
+        commandName = cmdDesc.getName();
+        poolDesc = cmdDesc.getPool();
+        this.env = env;
+        String command = poolDesc.getWorkerCommand() == null ? cmdDesc.getCommand() : poolDesc.getWorkerCommand();
+        CmdParameters params = Framework.getService(CommandLineExecutorService.class).getDefaultCmdParameters();
+        workerCommand = new ArrayList<>();
+        workerCommand.add(SystemUtils.IS_OS_WINDOWS ? ShellExecutor.getCommandAbsolutePath(command) : command);
+        workerCommand.addAll(ShellExecutor.splitParameters(poolDesc.getWorkerParametersString(), params));
+        permits = new Semaphore(poolDesc.getMaxWorkers(), true);
+        jobTimer = registry.timer(getMetricName("jobs"));
+        queuedCount = registry.counter(getMetricName("queued"));
+        activeCount = registry.counter(getMetricName("active"));
+        workerCount = registry.counter(getMetricName("workers"));
+        recycledCount = registry.counter(getMetricName("recycled"));
+        failureCount = registry.counter(getMetricName("failures"));
+        rejectedCount = registry.counter(getMetricName("rejected"));
+    }
+
+    protected String getMetricName(String name) {
+        return MetricRegistry.name("nuxeo", "commandline", commandName, "pool", name);
+    }
+
+    /**
+     * Runs a job on a worker. No exception is thrown, the result holds the error if any.
+     */
+    public ExecResult exec(String job) {
+        String commandLine = commandName + ": " + job;
+        if (!permits.tryAcquire()) {
+            try {
+                if (queued.incrementAndGet() > poolDesc.getMaxQueueSize()) {
+                    rejectedCount.inc();
+                    return new ExecResult(commandLine,
+                            new RejectedExecutionException("Too many jobs waiting for command: " + commandName));
+                }
+                queuedCount.inc();
+                try {
+                    if (!permits.tryAcquire(poolDesc.getQueueTimeout(), TimeUnit.SECONDS)) {
+                        rejectedCount.inc();
+                        return new ExecResult(commandLine, new RejectedExecutionException(
+                                "Timeout waiting for a worker for command: " + commandName));
+                    }
+                } finally {
+                    queuedCount.dec();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new ExecResult(commandLine, e);
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+        activeCount.inc();
+        Worker worker = null;
+        try (Timer.Context context = jobTimer.time()) {
+            worker = borrowWorker();
+            worker.jobs++;
+            long t0 = System.currentTimeMillis();
+            List<String> output = new ArrayList<>();
+            boolean success = worker.run(job, output, TimeUnit.SECONDS.toMillis(poolDesc.getJobTimeout()));
+            long t1 = System.currentTimeMillis();
+            return new ExecResult(commandLine, output, t1 - t0, success ? 0 : 1);
+        } catch (IOException | TimeoutException e) {
+            failureCount.inc();
+            destroyWorker(worker);
+            worker = null;
+            return new ExecResult(commandLine, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // the worker may still be busy with the job
+            destroyWorker(worker);
+            worker = null;
+            return new ExecResult(commandLine, e);
+        } finally {
+            if (worker != null) {
+                releaseWorker(worker);
+            }
+            activeCount.dec();
+            permits.release();
+        }
+    }
+
+    protected Worker borrowWorker() throws IOException, InterruptedException {
+        Worker worker;
+        while ((worker = idleWorkers.pollFirst()) != null) {
+            if (isHealthy(worker)) {
+                return worker;
+            }
+            log.warn("Discarding unhealthy worker for command: " + commandName);
+            failureCount.inc();
+            destroyWorker(worker);
+        }
+        return startWorker();
+    }
+
+    protected boolean isHealthy(Worker worker) throws InterruptedException {
+        if (!worker.isAlive()) {
+            return false;
+        }
+        String healthCheck = poolDesc.getHealthCheck();
+        long idleTime = System.currentTimeMillis() - worker.lastUsed;
+        if (healthCheck == null || idleTime < TimeUnit.SECONDS.toMillis(poolDesc.getHealthCheckInterval())) {
+            return true;
+        }
+        try {
+            return worker.run(healthCheck, new ArrayList<>(), TimeUnit.SECONDS.toMillis(poolDesc.getJobTimeout()));
+        } catch (IOException | TimeoutException e) {
+            log.debug("Health check failed for command: " + commandName, e);
+            return false;
+        }
+    }
+
+    protected Worker startWorker() throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("Starting worker for command: " + commandName + ": " + String.join(" ", workerCommand));
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(workerCommand);
+        processBuilder.directory(new File(env.getWorkingDirectory()));
+        processBuilder.environment().putAll(env.getParameters());
+        processBuilder.redirectErrorStream(true);
+        Worker worker = new Worker(processBuilder.start(), poolDesc);
+        workerCount.inc();
+        return worker;
+    }
+
+    protected void releaseWorker(Worker worker) {
+        int maxJobs = poolDesc.getMaxJobsPerWorker();
+        if (shutdown || (maxJobs > 0 && worker.jobs >= maxJobs)) {
+            recycledCount.inc();
+            destroyWorker(worker);
+        } else {
+            worker.lastUsed = System.currentTimeMillis();
+            idleWorkers.offerFirst(worker);
+            // a concurrent shutdown may have drained the idle workers before the offer
+            if (shutdown && idleWorkers.remove(worker)) {
+                recycledCount.inc();
+                destroyWorker(worker);
+            }
+        }
+    }
+
+    protected void destroyWorker(Worker worker) {
+        if (worker != null) {
+            worker.destroy();
+            workerCount.dec();
+        }
+    }
+
+    /**
+     * Stops the idle workers. Busy workers are stopped when their job is done.
+     */
+    public void shutdown() {
+        shutdown = true;
+        Worker worker;
+        while ((worker = idleWorkers.pollFirst()) != null) {
+            destroyWorker(worker);
+        }
+    }
+
+    /**
+     * A worker process, receiving jobs on its standard input.
+     */
+    protected static class Worker {
+
+        protected final Process process;
+
+        protected final Writer writer;
+
+        /** The output lines, an empty value marks the end of the output. */
+        protected final BlockingQueue<Optional<String>> lines = new LinkedBlockingQueue<>();
+
+        protected final String successMarker;
+
+        protected final String failureMarker;
+
+        protected int jobs;
+
+        protected long lastUsed;
+
+        protected Worker(Process process, CommandPoolDescriptor poolDesc) {
+            this.process = process;
+            successMarker = poolDesc.getSuccessMarker();
+            failureMarker = poolDesc.getFailureMarker();
+            lastUsed = System.currentTimeMillis();
+            writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), UTF_8));
+            Thread thread = new Thread(this::readOutput, "Nuxeo-worker-" + WORKER_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        protected void readOutput() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(Optional.of(line));
+                }
+            } catch (IOException e) {
+                // process destroyed
+            } finally {
+                lines.add(Optional.empty());
+            }
+        }
+
+        /**
+         * Runs a job, collecting its output.
+         *
+         * @return {@code true} if the job succeeded
+         */
+        protected boolean run(String job, List<String> output, long timeoutMillis)
+                throws IOException, TimeoutException, InterruptedException {
+            // discard unexpected output left by a previous job
+            lines.removeIf(Optional::isPresent);
+            writer.write(job);
+            writer.write('\n');
+            writer.flush();
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            for (;;) {
+                long remaining = deadline - System.currentTimeMillis();
+                Optional<String> line = remaining > 0 ? lines.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                if (line == null) {
+                    throw new TimeoutException("Worker did not answer within " + timeoutMillis + "ms");
+                }
+                if (!line.isPresent()) {
+                    lines.add(line); // keep the end marker for isAlive checks
+                    throw new IOException("Worker exited with code: " + process.waitFor());
+                }
+                String text = line.get();
+                if (text.equals(successMarker)) {
+                    return true;
+                } else if (text.equals(failureMarker)) {
+                    return false;
+                }
+                output.add(text);
+            }
+        }
+
+        protected boolean isAlive() {
+            return process.isAlive();
+        }
+
+        protected void destroy() {
+            IOUtils.closeQuietly(writer);
+            process.destroyForcibly();
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.platform.commandline.executor.service.executors;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.nuxeo.ecm.platform.commandline.executor.api.CmdParameters;
+import org.nuxeo.ecm.platform.commandline.executor.api.ExecResult;
+import org.nuxeo.ecm.platform.commandline.executor.service.CommandLineDescriptor;
+import org.nuxeo.ecm.platform.commandline.executor.service.EnvironmentDescriptor;
+
+/**
+ * {@link Executor} sending the commands to pools of long-lived worker processes, one pool per command.
+ * <p>
+ * Commands whose parameters contain pipes need several processes and are run by the {@link ShellExecutor}.
+ *
+ * @since 10.10
+ */
+public class PooledExecutor extends ShellExecutor {
+
+    protected final Map<String, CommandWorkerPool> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public ExecResult exec(CommandLineDescriptor cmdDesc, CmdParameters params, EnvironmentDescriptor env) {
+        List<String> args = splitParameters(cmdDesc.getParametersString(), params);
+        if (args.contains("|")) {
+            return super.exec(cmdDesc, params, env);
+        }
+        String job;
+        try {
+            job = toJob(args);
+        } catch (IllegalArgumentException e) {
+            return new ExecResult(cmdDesc.getCommand(), e);
+        }
+        CommandWorkerPool pool = pools.computeIfAbsent(cmdDesc.getName(),
+                name -> new CommandWorkerPool(cmdDesc, env));
+        return pool.exec(job);
+    }
+
+    /**
+     * Builds the line sent to a worker, quoting the arguments containing spaces or quotes.
+     *
+     * @throws IllegalArgumentException if an argument contains a line break, which would end the job line and send the
+     *             rest to the worker as another job
+     */
+    protected static String toJob(List<String> args) {
+        return args.stream().map(PooledExecutor::quote).collect(Collectors.joining(" "));
+    }
+
+    protected static String quote(String arg) {
+        if (arg.indexOf('\n') >= 0 || arg.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException(
+                    "Line break in command argument: " + arg.replace("\r", "\\r").replace("\n", "\\n"));
+        }
+        if (!arg.isEmpty() && arg.chars().noneMatch(c -> Character.isWhitespace(c) || c == '"' || c == '\\')) {
+            return arg;
+        }
+        return '"' + arg.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * Stops the workers of a command.
+     */
+    public void removePool(String commandName) {
+        CommandWorkerPool pool = pools.remove(commandName);
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Stops all the workers.
+     */
+    public void shutdown() {
+        pools.values().forEach(CommandWorkerPool::shutdown);
+        pools.clear();
+    }
+
+}
@@ -87,22 +87,9 @@ public class ShellExecutor implements Executor {
 
     protected ExecResult exec1(CommandLineDescriptor cmdDesc, CmdParameters params, EnvironmentDescriptor env)
             throws IOException {
-        // split the configured parameters while keeping quoted parts intact
         List<String> list = new ArrayList<>();
         list.add(cmdDesc.getCommand());
-        Matcher m = COMMAND_SPLIT.matcher(cmdDesc.getParametersString());
-        while (m.find()) {
-            String word;
-            if (m.group(1) != null) {
-                word = m.group(1); // double-quoted
-            } else if (m.group(2) != null) {
-                word = m.group(2); // single-quoted
-            } else {
-                word = m.group(); // word
-            }
-            List<String> words = replaceParams(word, params);
-            list.addAll(words);
-        }
+        list.addAll(splitParameters(cmdDesc.getParametersString(), params));
 
         List<Process> processes = new LinkedList<>();
         List<Thread> pipes = new LinkedList<>();
@@ -182,6 +169,29 @@ public class ShellExecutor implements Executor {
         return new ExecResult(null, output, 0, returnCode);
     }
 
+    /**
+     * Splits the configured parameters while keeping quoted parts intact, and expands the parameter values.
+     *
+     * @since 10.10
+     */
+    public static List<String> splitParameters(String parametersString, CmdParameters params) {
+        List<String> list = new ArrayList<>();
+        Matcher m = COMMAND_SPLIT.matcher(parametersString);
+        while (m.find()) {
+            String word;
+            if (m.group(1) != null) {
+                word = m.group(1); // double-quoted
+            } else if (m.group(2) != null) {
+                word = m.group(2); // single-quoted
+            } else {
+                word = m.group(); // word
+            }
+            List<String> words = replaceParams(word, params);
+            list.addAll(words);
+        }
+        return list;
+    }
+
     /**
      * Returns a started daemon thread piping bytes from the InputStream to the OutputStream.
      * <p>
@@ -0,0 +1,148 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.platform.commandline.executor.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.platform.commandline.executor.api.CmdParameters;
+import org.nuxeo.ecm.platform.commandline.executor.api.CommandLineExecutorService;
+import org.nuxeo.ecm.platform.commandline.executor.api.ExecResult;
+import org.nuxeo.ecm.platform.commandline.executor.service.CommandLineExecutorComponent;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.test.runner.RuntimeFeature;
+
+@RunWith(FeaturesRunner.class)
+@Features(RuntimeFeature.class)
+@Deploy("org.nuxeo.ecm.platform.commandline.executor")
+@Deploy("org.nuxeo.ecm.platform.commandline.executor:OSGI-INF/commandline-pool-test-contrib.xml")
+public class TestPooledExecutor {
+
+    @Inject
+    protected CommandLineExecutorService cles;
+
+    @Before
+    public void checkPlatform() {
+        assumeFalse("No sh on Windows", SystemUtils.IS_OS_WINDOWS);
+    }
+
+    protected ExecResult exec(String text) throws Exception {
+        CmdParameters params = cles.getDefaultCmdParameters();
+        params.addNamedParameter("text", text);
+        return cles.execCommand("pooledEcho", params);
+    }
+
+    @Test
+    public void testPooledCommand() {
+        assertEquals(CommandLineExecutorComponent.POOLED_EXECUTOR,
+                CommandLineExecutorComponent.getCommandDescriptor("pooledEcho").getExecutor());
+    }
+
+    @Test
+    public void testExec() throws Exception {
+        ExecResult result = exec("hello");
+        assertTrue(result.isSuccessful());
+        assertEquals(Collections.singletonList("hello"), result.getOutput());
+
+        result = exec("fail");
+        assertFalse(result.isSuccessful());
+        assertEquals(1, result.getReturnCode());
+    }
+
+    @Test
+    public void testLineBreakInArgument() throws Exception {
+        // the second line would be run by the worker as another job
+        for (String text : Arrays.asList("hello\npid", "hello\rpid", "hello\r\npid")) {
+            ExecResult result = exec(text);
+            assertFalse(result.isSuccessful());
+            assertNotNull(result.getError());
+            assertTrue(result.getError().getCause() instanceof IllegalArgumentException);
+        }
+        // the worker is not confused
+        ExecResult result = exec("hello");
+        assertTrue(result.isSuccessful());
+        assertEquals(Collections.singletonList("hello"), result.getOutput());
+    }
+
+    @Test
+    public void testRecycle() throws Exception {
+        // workers are reused, and recycled after 3 jobs
+        int maxRun = 0;
+        int run = 0;
+        String previous = null;
+        for (int i = 0; i < 10; i++) {
+            String pid = exec("pid").getOutput().get(0);
+            run = pid.equals(previous) ? run + 1 : 1;
+            maxRun = Math.max(maxRun, run);
+            previous = pid;
+        }
+        assertEquals(3, maxRun);
+    }
+
+    @Test
+    public void testJobTimeout() throws Exception {
+        String pid = exec("pid").getOutput().get(0);
+        ExecResult result = exec("sleep");
+        assertFalse(result.isSuccessful());
+        // the worker has been killed, a new one is started
+        result = exec("pid");
+        assertTrue(result.isSuccessful());
+        assertNotEquals(pid, result.getOutput().get(0));
+    }
+
+    @Test
+    public void testConcurrentJobs() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ExecResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                String text = "job" + i;
+                futures.add(executor.submit(() -> exec(text)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                ExecResult result = futures.get(i).get();
+                assertTrue(result.isSuccessful());
+                assertEquals(Arrays.asList("job" + i), result.getOutput());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -184,6 +184,7 @@ public class ElasticSearchComponent extends DefaultComponent
         }
         try {
             shutdownListenerThreadPool();
+            esi.shutdown();
         } finally {
             try {
                 esa.disconnect();
@@ -121,6 +121,12 @@ public final class ElasticSearchConstants {
 
     public static final String INDEX_BULK_MAX_SIZE_PROPERTY = "elasticsearch.index.bulkMaxSize";
 
+    /** @since 10.10 */
+    public static final String INDEX_BULK_MAX_CONCURRENT_PROPERTY = "elasticsearch.index.bulkMaxConcurrent";
+
+    /** @since 10.10 */
+    public static final String INDEX_BULK_TARGET_LATENCY_PROPERTY = "elasticsearch.index.bulkTargetLatencyMs";
+
     public static final String DISABLE_AUTO_INDEXING = "disableAutoIndexing";
 
     public static final String ES_SYNC_INDEXING_FLAG = "ESSyncIndexing";
@@ -0,0 +1,77 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.elasticsearch.core;
+
+/**
+ * The size in bytes of the bulk requests, adapted to the Elasticsearch responses.
+ * <p>
+ * This is an additive increase / multiplicative decrease controller: the size grows slowly while bulk requests are
+ * answered below the target latency, it is reduced when the latency is above the target and halved when
+ * Elasticsearch rejects requests because its queues are full.
+ *
+ * @since 10.10
+ */
+public class AdaptiveBulkSize {
+
+    protected final int minSize;
+
+    protected final int maxSize;
+
+    protected final long targetLatencyMs;
+
+    protected volatile int size;
+
+    public AdaptiveBulkSize(int minSize, int maxSize, long targetLatencyMs) {
+        this.minSize = Math.min(minSize, maxSize);
+        this.maxSize = maxSize;
+        this.targetLatencyMs = targetLatencyMs;
+        size = maxSize;
+    }
+
+    /**
+     * Returns the current bulk size in bytes.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Adapts the size to a bulk response.
+     *
+     * @param latencyMs the time taken by the bulk request
+     * @param rejected the number of actions rejected because Elasticsearch is overloaded
+     */
+    public synchronized void onResponse(long latencyMs, int rejected) {
+        if (rejected > 0) {
+            onRejected();
+        } else if (latencyMs > targetLatencyMs) {
+            size = Math.max(minSize, (int) (size * 0.75));
+        } else {
+            size = (int) Math.min(maxSize, (long) size + Math.max(minSize, size / 10));
+        }
+    }
+
+    /**
+     * Adapts the size to a bulk request rejected because Elasticsearch is overloaded.
+     */
+    public synchronized void onRejected() {
+        size = Math.max(minSize, size / 2);
+    }
+
+}
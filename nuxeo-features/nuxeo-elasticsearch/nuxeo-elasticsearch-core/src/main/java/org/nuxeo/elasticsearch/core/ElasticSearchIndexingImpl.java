@@ -22,16 +22,29 @@ package org.nuxeo.elasticsearch.core;
 
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.CHILDREN_FIELD;
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.DOC_TYPE;
+import static org.nuxeo.elasticsearch.ElasticSearchConstants.INDEX_BULK_MAX_CONCURRENT_PROPERTY;
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.INDEX_BULK_MAX_SIZE_PROPERTY;
+import static org.nuxeo.elasticsearch.ElasticSearchConstants.INDEX_BULK_TARGET_LATENCY_PROPERTY;
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.PATH_FIELD;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -66,6 +79,7 @@ import org.nuxeo.elasticsearch.io.JsonESDocumentWriter;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.metrics.MetricsService;
 
+import com.codahale.metrics.Counter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.SharedMetricRegistries;
 import com.codahale.metrics.Timer;
@@ -85,6 +99,17 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
     // send the bulk indexing command when this size is reached, optimal is 5-10m
     private static final int DEFAULT_MAX_BULK_SIZE = 5 * 1024 * 1024;
 
+    // maximum number of bulk requests sent in background while the next one is built
+    private static final int DEFAULT_MAX_CONCURRENT_BULKS = 2;
+
+    // bulk requests answered slower than this are reduced
+    private static final int DEFAULT_BULK_TARGET_LATENCY_MS = 1000;
+
+    // retries of the actions rejected because Elasticsearch is overloaded
+    private static final int MAX_BULK_RETRIES = 5;
+
+    private static final long BULK_RETRY_BACKOFF_MS = 100;
+
     private final ElasticSearchAdminImpl esa;
 
     private final Timer deleteTimer;
@@ -93,6 +118,14 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
 
     private final Timer bulkIndexTimer;
 
+    private final Counter bulkRejectedCounter;
+
+    private final AdaptiveBulkSize bulkSize;
+
+    private final Semaphore bulkPermits;
+
+    private final ThreadPoolExecutor bulkExecutor;
+
     private final boolean useExternalVersion;
 
     private JsonESDocumentWriter jsonESDocumentWriter;
@@ -105,6 +138,16 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
         indexTimer = registry.timer(MetricRegistry.name("nuxeo", "elasticsearch", "service", "index"));
         deleteTimer = registry.timer(MetricRegistry.name("nuxeo", "elasticsearch", "service", "delete"));
         bulkIndexTimer = registry.timer(MetricRegistry.name("nuxeo", "elasticsearch", "service", "bulkIndex"));
+        bulkRejectedCounter = registry.counter(
+                MetricRegistry.name("nuxeo", "elasticsearch", "service", "bulkIndex", "rejected"));
+        int maxBulkSize = getMaxBulkSize();
+        bulkSize = new AdaptiveBulkSize(maxBulkSize / 16, maxBulkSize, getIntProperty(
+                INDEX_BULK_TARGET_LATENCY_PROPERTY, DEFAULT_BULK_TARGET_LATENCY_MS));
+        int maxConcurrentBulks = getIntProperty(INDEX_BULK_MAX_CONCURRENT_PROPERTY, DEFAULT_MAX_CONCURRENT_BULKS);
+        bulkPermits = new Semaphore(maxConcurrentBulks);
+        bulkExecutor = new ThreadPoolExecutor(maxConcurrentBulks, maxConcurrentBulks, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new BulkThreadFactory());
+        bulkExecutor.allowCoreThreadTimeOut(true);
         this.jsonESDocumentWriter = new JsonESDocumentWriter();// default writer
         this.useExternalVersion = esa.useExternalVersion();
     }
@@ -161,72 +204,219 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
         }
     }
 
+    /**
+     * Builds and sends the bulk requests.
+     * <p>
+     * Documents are serialized in the caller thread, because they are bound to its session, while the previous bulk
+     * requests are sent in background. The number of bulk requests in flight is bounded, and their size adapts to the
+     * Elasticsearch latency and rejections.
+     */
     void processBulkIndexCommands(List<IndexingCommand> cmds) {
         BulkRequest bulkRequest = new BulkRequest();
         Set<String> docIds = new HashSet<>(cmds.size());
-        int bulkSize = 0;
-        final int maxBulkSize = getMaxBulkSize();
-        for (IndexingCommand cmd : cmds) {
-            if (cmd.getType() == Type.DELETE || cmd.getType() == Type.UPDATE_DIRECT_CHILDREN) {
-                continue;
-            }
-            if (!docIds.add(cmd.getTargetDocumentId())) {
-                // do not submit the same doc 2 times
-                continue;
-            }
-            try {
-                IndexRequest idxRequest = buildEsIndexingRequest(cmd);
-                if (idxRequest != null) {
-                    bulkSize += idxRequest.source().length();
-                    bulkRequest.add(idxRequest);
+        int size = 0;
+        List<Future<?>> bulks = new ArrayList<>();
+        try {
+            for (IndexingCommand cmd : cmds) {
+                if (cmd.getType() == Type.DELETE || cmd.getType() == Type.UPDATE_DIRECT_CHILDREN) {
+                    continue;
+                }
+                if (!docIds.add(cmd.getTargetDocumentId())) {
+                    // do not submit the same doc 2 times
+                    continue;
+                }
+                try {
+                    IndexRequest idxRequest = buildEsIndexingRequest(cmd);
+                    if (idxRequest != null) {
+                        size += idxRequest.source().length();
+                        bulkRequest.add(idxRequest);
+                    }
+                } catch (BlobNotFoundException be) {
+                    log.info("Ignore indexing command in bulk, blob does not exists anymore: " + cmd);
+                } catch (ConcurrentUpdateException e) {
+                    throw e; // bubble up, usually until AbstractWork catches it and maybe retries
+                } catch (DocumentNotFoundException e) {
+                    log.info("Ignore indexing command in bulk, doc does not exists anymore: " + cmd);
+                } catch (IllegalArgumentException e) {
+                    log.error("Ignore indexing command in bulk, fail to create request: " + cmd, e);
+                }
+                if (size > bulkSize.getSize()) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Bulk size reached " + size + ", sending bulk command");
+                    }
+                    bulks.add(submitBulkCommand(bulkRequest, size));
+                    bulkRequest = new BulkRequest();
+                    size = 0;
                 }
-            } catch (BlobNotFoundException be) {
-                log.info("Ignore indexing command in bulk, blob does not exists anymore: " + cmd);
-            } catch (ConcurrentUpdateException e) {
-                throw e; // bubble up, usually until AbstractWork catches it and maybe retries
-            } catch (DocumentNotFoundException e) {
-                log.info("Ignore indexing command in bulk, doc does not exists anymore: " + cmd);
-            } catch (IllegalArgumentException e) {
-                log.error("Ignore indexing command in bulk, fail to create request: " + cmd, e);
-            }
-            if (bulkSize > maxBulkSize) {
-                log.warn("Max bulk size reached " + bulkSize + ", sending bulk command");
-                sendBulkCommand(bulkRequest, bulkSize);
-                bulkRequest = new BulkRequest();
-                bulkSize = 0;
             }
+        } catch (RuntimeException e) {
+            waitForBulkCommands(bulks, false);
+            throw e;
+        }
+        if (bulks.isEmpty()) {
+            // single bulk, no need to go through another thread
+            sendBulkCommand(bulkRequest, size);
+        } else {
+            bulks.add(submitBulkCommand(bulkRequest, size));
+            waitForBulkCommands(bulks, true);
         }
-        sendBulkCommand(bulkRequest, bulkSize);
     }
 
     int getMaxBulkSize() {
-        String value = Framework.getProperty(INDEX_BULK_MAX_SIZE_PROPERTY, String.valueOf(DEFAULT_MAX_BULK_SIZE));
+        return getIntProperty(INDEX_BULK_MAX_SIZE_PROPERTY, DEFAULT_MAX_BULK_SIZE);
+    }
+
+    protected int getIntProperty(String key, int defaultValue) {
+        String value = Framework.getProperty(key, String.valueOf(defaultValue));
         return Integer.parseInt(value);
     }
 
-    void sendBulkCommand(BulkRequest bulkRequest, int bulkSize) {
-        if (bulkRequest.numberOfActions() > 0) {
-            if (log.isDebugEnabled()) {
-                logDebugMessageTruncated(String.format(
-                        "Index %d docs (%d bytes) in bulk request: curl -XPOST 'http://localhost:9200/_bulk' -d '%s'",
-                        bulkRequest.numberOfActions(), bulkSize, bulkRequest.requests().toString()), MAX_CURL_LINE);
+    /**
+     * Sends a bulk request in background, waits if too many bulk requests are already in flight.
+     */
+    Future<?> submitBulkCommand(BulkRequest bulkRequest, int size) {
+        if (bulkRequest.numberOfActions() == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            bulkPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NuxeoException("Interrupted while waiting to send a bulk request", e);
+        }
+        try {
+            return bulkExecutor.submit(() -> {
+                try {
+                    sendBulkCommand(bulkRequest, size);
+                } finally {
+                    bulkPermits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bulkPermits.release();
+            throw e;
+        }
+    }
+
+    void waitForBulkCommands(List<Future<?>> bulks, boolean rethrow) {
+        RuntimeException error = null;
+        for (Future<?> bulk : bulks) {
+            try {
+                bulk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NuxeoException("Interrupted while waiting for bulk requests", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (!rethrow) {
+                    log.error("Bulk request failed", cause);
+                } else if (error == null) {
+                    error = cause instanceof RuntimeException ? (RuntimeException) cause : new NuxeoException(cause);
+                } else {
+                    error.addSuppressed(cause);
+                }
             }
-            BulkResponse response = esa.getClient().bulk(bulkRequest);
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    void sendBulkCommand(BulkRequest bulkRequest, int size) {
+        if (bulkRequest.numberOfActions() == 0) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            logDebugMessageTruncated(String.format(
+                    "Index %d docs (%d bytes) in bulk request: curl -XPOST 'http://localhost:9200/_bulk' -d '%s'",
+                    bulkRequest.numberOfActions(), size, bulkRequest.requests().toString()), MAX_CURL_LINE);
+        }
+        for (int retry = 0;; retry++) {
+            long start = System.nanoTime();
+            BulkResponse response;
+            try {
+                response = esa.getClient().bulk(bulkRequest);
+            } catch (RuntimeException e) {
+                if (ExceptionsHelper.status(e) != RestStatus.TOO_MANY_REQUESTS || retry >= MAX_BULK_RETRIES) {
+                    throw e;
+                }
+                // the whole request is rejected
+                bulkSize.onRejected();
+                bulkRejectedCounter.inc(bulkRequest.numberOfActions());
+                waitBeforeRetry(retry);
+                continue;
+            }
+            BulkRequest rejected = getRejectedRequests(bulkRequest, response);
+            int nbRejected = rejected.numberOfActions();
+            bulkSize.onResponse(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), nbRejected);
+            boolean retryRejected = nbRejected > 0 && retry < MAX_BULK_RETRIES;
             if (response.hasFailures()) {
-                logBulkFailure(response);
+                logBulkFailure(response, retryRejected);
+            }
+            if (!retryRejected) {
+                return;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Retry %d actions rejected by Elasticsearch, new bulk size: %d bytes",
+                        nbRejected, bulkSize.getSize()));
+            }
+            bulkRejectedCounter.inc(nbRejected);
+            waitBeforeRetry(retry);
+            bulkRequest = rejected;
+        }
+    }
+
+    /**
+     * Returns a bulk request with the actions rejected because Elasticsearch is overloaded.
+     */
+    BulkRequest getRejectedRequests(BulkRequest bulkRequest, BulkResponse response) {
+        BulkRequest rejected = new BulkRequest();
+        if (response.hasFailures()) {
+            for (BulkItemResponse item : response.getItems()) {
+                if (item.isFailed() && item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+                    rejected.add(bulkRequest.requests().get(item.getItemId()));
+                }
             }
         }
+        return rejected;
+    }
+
+    void waitBeforeRetry(int retry) {
+        try {
+            Thread.sleep(BULK_RETRY_BACKOFF_MS << retry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NuxeoException("Interrupted while retrying a bulk request", e);
+        }
+    }
+
+    /**
+     * Stops the threads used to send bulk requests.
+     *
+     * @since 10.10
+     */
+    public void shutdown() {
+        bulkExecutor.shutdown();
     }
 
     void logBulkFailure(BulkResponse response) {
+        logBulkFailure(response, false);
+    }
+
+    /**
+     * @param retryRejected whether the actions rejected because Elasticsearch is overloaded are going to be retried
+     * @since 10.10
+     */
+    void logBulkFailure(BulkResponse response, boolean retryRejected) {
         boolean isError = false;
         StringBuilder sb = new StringBuilder();
         sb.append("Ignore indexing of some docs more recent versions has already been indexed");
         for (BulkItemResponse item : response.getItems()) {
             if (item.isFailed()) {
-                if (item.getFailure().getStatus() == RestStatus.CONFLICT) {
+                RestStatus status = item.getFailure().getStatus();
+                if (status == RestStatus.CONFLICT) {
                     sb.append("\n  ").append(item.getFailureMessage());
-                } else {
+                } else if (!retryRejected || status != RestStatus.TOO_MANY_REQUESTS) {
                     isError = true;
                 }
             }
@@ -426,6 +616,18 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
         return esa.getWriteIndexName(esa.getIndexNameForRepository(repository));
     }
 
+    protected static class BulkThreadFactory implements ThreadFactory {
+
+        protected final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "elasticsearch-bulk-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     @Override
     public BytesReference source(DocumentModel doc) throws IOException {
         BytesStreamOutput out = new BytesStreamOutput();
@@ -69,6 +69,8 @@ public class ElasticSearchServiceImpl implements ElasticSearchService {
     private static final long LOG_MIN_DURATION_FETCH_NS = Long.parseLong(
             Framework.getProperty(LOG_MIN_DURATION_FETCH_KEY, "200")) * 1000000;
 
+    private static final int MAX_FETCH_TIMER_PAGE_SIZE = 10_000;
+
     // Metrics
     protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
 
@@ -177,7 +179,8 @@ public class ElasticSearchServiceImpl implements ElasticSearchService {
             ret.setTotalSize(totalSize);
             return ret;
         }
-        try (Context stopWatch = fetchTimer.time()) {
+        Timer pageSizeFetchTimer = getFetchTimer(response.getHits().getHits().length);
+        try (Context stopWatch = fetchTimer.time(); Context ignored = pageSizeFetchTimer.time()) {
             Fetcher fetcher = queryBuilder.getFetcher(response, esa.getRepositoryMap());
             ret = fetcher.fetchDocuments();
             logMinDurationFetch(stopWatch.stop(), totalSize);
@@ -186,6 +189,20 @@ public class ElasticSearchServiceImpl implements ElasticSearchService {
         return ret;
     }
 
+    /**
+     * Gets the fetch timer for a page size, page sizes are rounded up to a power of ten.
+     *
+     * @since 10.10
+     */
+    protected Timer getFetchTimer(int pageSize) {
+        int bucket = 10;
+        while (bucket < pageSize && bucket < MAX_FETCH_TIMER_PAGE_SIZE) {
+            bucket *= 10;
+        }
+        return registry.timer(MetricRegistry.name("nuxeo", "elasticsearch", "service", "fetch", "size",
+                String.valueOf(bucket)));
+    }
+
     private void logMinDurationFetch(long duration, long totalSize) {
         if (log.isDebugEnabled() && (duration > LOG_MIN_DURATION_FETCH_NS)) {
             String msg = String.format("Slow fetch duration_ms:\t%.2f\treturning:\t%d documents", duration / 1000000.0,
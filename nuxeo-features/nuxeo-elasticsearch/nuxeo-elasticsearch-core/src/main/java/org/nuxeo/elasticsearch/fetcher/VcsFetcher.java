@@ -20,7 +20,6 @@ package org.nuxeo.elasticsearch.fetcher;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +33,7 @@ import org.nuxeo.ecm.core.api.CoreInstance;
 import org.nuxeo.ecm.core.api.CoreSession;
 import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.impl.DocumentModelListImpl;
-import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.core.api.security.SecurityConstants;
 import org.nuxeo.ecm.platform.query.api.PageProvider;
 
 /**
@@ -51,7 +50,8 @@ public class VcsFetcher extends Fetcher {
     @Override
     public DocumentModelListImpl fetchDocuments() {
         Map<String, List<String>> repoHits = getHitsPerRepository();
-        List<DocumentModel> docs = new ArrayList<>();
+        // documents by repository and id
+        Map<String, Map<String, DocumentModel>> repoDocs = new HashMap<>();
         String openSessionRepository = getSession().getRepositoryName();
         boolean closeSession;
         CoreSession session;
@@ -64,18 +64,22 @@ public class VcsFetcher extends Fetcher {
                 closeSession = true;
             }
             try {
-                docs.addAll(fetchFromVcs(repoHits.get(repo), session));
+                repoDocs.put(repo, fetchFromVcs(repoHits.get(repo), session));
             } finally {
                 if (closeSession) {
                     ((CloseableCoreSession) session).close();
                 }
             }
         }
-        sortResults(docs);
-        addHighlights(docs);
-        DocumentModelListImpl ret = new DocumentModelListImpl(docs.size());
-        if (!docs.isEmpty()) {
-            ret.addAll(docs);
+        // join with the hits to keep their order and add highlights
+        DocumentModelListImpl ret = new DocumentModelListImpl(getResponse().getHits().getHits().length);
+        for (SearchHit hit : getResponse().getHits()) {
+            Map<String, DocumentModel> docs = repoDocs.get(getRepoForIndex(hit.getIndex()));
+            DocumentModel doc = docs == null ? null : docs.remove(hit.getId());
+            if (doc != null) {
+                addHighlights(doc, hit);
+                ret.add(doc);
+            }
         }
         return ret;
     }
@@ -90,81 +94,33 @@ public class VcsFetcher extends Fetcher {
         return ret;
     }
 
-    private List<DocumentModel> fetchFromVcs(List<String> ids, CoreSession session) {
-        List<DocumentModel> ret = null;
-        int size = ids.size();
-        int start = 0;
-        int end = Math.min(CHUNK_SIZE, size);
-        boolean done = false;
-        while (!done) {
-            List<DocumentModel> docs = fetchFromVcsChunk(ids.subList(start, end), session);
-            if (ret == null) {
-                ret = docs;
-            } else {
-                ret.addAll(docs);
-            }
-            if (end >= ids.size()) {
-                done = true;
-            } else {
-                start = end;
-                end = Math.min(start + CHUNK_SIZE, size);
+    private Map<String, DocumentModel> fetchFromVcs(List<String> ids, CoreSession session) {
+        Map<String, DocumentModel> ret = new HashMap<>(ids.size() * 2);
+        for (int start = 0; start < ids.size(); start += CHUNK_SIZE) {
+            List<String> chunk = ids.subList(start, Math.min(start + CHUNK_SIZE, ids.size()));
+            // same permission as for a query
+            for (DocumentModel doc : session.getDocuments(chunk, SecurityConstants.BROWSE)) {
+                ret.put(doc.getId(), doc);
             }
         }
         return ret;
     }
 
-    private List<DocumentModel> fetchFromVcsChunk(final List<String> ids, CoreSession session) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("SELECT * FROM Document, Relation WHERE ecm:uuid IN (");
-        for (int i = 0; i < ids.size(); i++) {
-            sb.append(NXQL.escapeString(ids.get(i)));
-            if (i < ids.size() - 1) {
-                sb.append(", ");
-            }
+    private void addHighlights(DocumentModel doc, SearchHit hit) {
+        Map<String, HighlightField> esHighlights = hit.getHighlightFields();
+        if (esHighlights.isEmpty()) {
+            return;
         }
-        sb.append(")");
-        return session.query(sb.toString());
-    }
-
-    private void addHighlights(List<DocumentModel> docs) {
-        for (SearchHit hit : getResponse().getHits()) {
-            for (DocumentModel doc : docs) {
-                String docId = doc.getRepositoryName() + doc.getId();
-                String hitId = getRepoForIndex(hit.getIndex()) + hit.getId();
-                if (docId.equals(hitId)) {
-                    // Add highlight if it exists
-                    Map<String, HighlightField> esHighlights = hit.getHighlightFields();
-                    if (!esHighlights.isEmpty()) {
-                        Map<String, List<String>> fields = new HashMap<>();
-                        for (Map.Entry<String, HighlightField> entry : esHighlights.entrySet()) {
-                            String field = entry.getKey();
-                            List<String> list = new ArrayList<>();
-                            for (Text fragment : entry.getValue().getFragments()) {
-                                list.add(fragment.toString());
-                            }
-                            fields.put(field, list);
-                        }
-                        doc.putContextData(PageProvider.HIGHLIGHT_CTX_DATA, (Serializable) fields);
-                    }
-                    break;
-                }
+        Map<String, List<String>> fields = new HashMap<>();
+        for (Map.Entry<String, HighlightField> entry : esHighlights.entrySet()) {
+            String field = entry.getKey();
+            List<String> list = new ArrayList<>();
+            for (Text fragment : entry.getValue().getFragments()) {
+                list.add(fragment.toString());
             }
+            fields.put(field, list);
         }
-    }
-
-    private void sortResults(List<DocumentModel> docs) {
-        final List<String> ids = new ArrayList<>();
-        for (SearchHit hit : getResponse().getHits()) {
-            ids.add(getRepoForIndex(hit.getIndex()) + hit.getId());
-        }
-
-        docs.sort(new Comparator<DocumentModel>() {
-            @Override
-            public int compare(DocumentModel a, DocumentModel b) {
-                return ids.indexOf(a.getRepositoryName() + a.getId()) - ids.indexOf(b.getRepositoryName() + b.getId());
-            }
-        });
-
+        doc.putContextData(PageProvider.HIGHLIGHT_CTX_DATA, (Serializable) fields);
     }
 
 }
@@ -0,0 +1,66 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.elasticsearch.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.nuxeo.elasticsearch.core.AdaptiveBulkSize;
+
+/**
+ * @since 10.10
+ */
+public class TestAdaptiveBulkSize {
+
+    @Test
+    public void testAdaptToLatencyAndRejections() throws Exception {
+        AdaptiveBulkSize bulkSize = new AdaptiveBulkSize(1000, 16000, 100);
+        assertEquals(16000, bulkSize.getSize());
+
+        // fast responses keep the max size
+        bulkSize.onResponse(10, 0);
+        assertEquals(16000, bulkSize.getSize());
+
+        // rejections halve the size down to the min
+        bulkSize.onResponse(10, 3);
+        assertEquals(8000, bulkSize.getSize());
+        bulkSize.onRejected();
+        assertEquals(4000, bulkSize.getSize());
+        for (int i = 0; i < 10; i++) {
+            bulkSize.onRejected();
+        }
+        assertEquals(1000, bulkSize.getSize());
+
+        // fast responses grow the size back up to the max
+        bulkSize.onResponse(10, 0);
+        assertEquals(2000, bulkSize.getSize());
+        for (int i = 0; i < 100; i++) {
+            bulkSize.onResponse(10, 0);
+        }
+        assertEquals(16000, bulkSize.getSize());
+
+        // slow responses reduce the size
+        bulkSize.onResponse(500, 0);
+        assertEquals(12000, bulkSize.getSize());
+        bulkSize.onResponse(500, 0);
+        assertTrue(bulkSize.getSize() < 12000);
+    }
+
+}
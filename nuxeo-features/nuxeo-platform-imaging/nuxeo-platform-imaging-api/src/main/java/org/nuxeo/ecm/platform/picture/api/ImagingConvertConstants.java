@@ -44,6 +44,14 @@ public class ImagingConvertConstants {
 
     public static final String OPTION_RESIZE_DEPTH = "depth";
 
+    /**
+     * Comma-separated list of {@code WIDTHxHEIGHT} sizes, to resize a picture to several sizes at once. The resulting
+     * blobs are returned in the same order.
+     *
+     * @since 10.10
+     */
+    public static final String OPTION_RESIZE_SIZES = "sizes";
+
     public static final String OPTION_CROP_X = "x";
 
     public static final String OPTION_CROP_Y = "y";
@@ -20,6 +20,7 @@
  */
 package org.nuxeo.ecm.platform.picture.api;
 
+import java.awt.Point;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -58,6 +59,14 @@ public interface ImagingService {
      */
     Blob resize(Blob blob, String finalFormat, int width, int height, int depth);
 
+    /**
+     * Resizes an image to several sizes, decoding it only once when the underlying library allows it.
+     *
+     * @return the resized images, in the order of the given sizes, or {@code null} if the resize failed
+     * @since 10.10
+     */
+    List<Blob> resize(Blob blob, String finalFormat, List<Point> sizes, int depth);
+
     /**
      * Rotates an image.
      *
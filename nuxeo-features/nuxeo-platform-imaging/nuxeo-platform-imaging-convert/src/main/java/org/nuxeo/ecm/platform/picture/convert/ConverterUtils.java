@@ -18,7 +18,12 @@
  */
 package org.nuxeo.ecm.platform.picture.convert;
 
+import java.awt.Point;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nuxeo.ecm.core.convert.api.ConversionException;
 
 /**
  * Shared utils methods for the converters
@@ -38,4 +43,21 @@ final class ConverterUtils {
             return (value == null) ? 0 : Integer.valueOf(value.toString());
         }
     }
+
+    /**
+     * Parses a comma-separated list of {@code WIDTHxHEIGHT} sizes.
+     *
+     * @since 10.10
+     */
+    static List<Point> getSizes(Serializable value) {
+        List<Point> sizes = new ArrayList<>();
+        for (String size : value.toString().split(",")) {
+            String[] dimensions = size.trim().split("x");
+            if (dimensions.length != 2) {
+                throw new ConversionException("Invalid size: " + size);
+            }
+            sizes.add(new Point(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1])));
+        }
+        return sizes;
+    }
 }
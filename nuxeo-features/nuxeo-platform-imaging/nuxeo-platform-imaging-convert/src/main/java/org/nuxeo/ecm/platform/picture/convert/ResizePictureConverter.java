@@ -22,6 +22,7 @@ package org.nuxeo.ecm.platform.picture.convert;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.CONVERSION_FORMAT;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_DEPTH;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_HEIGHT;
+import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_SIZES;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_WIDTH;
 
 import java.io.Serializable;
@@ -60,6 +61,15 @@ public class ResizePictureConverter implements Converter {
         int depth = ConverterUtils.getInteger(d);
         // use the registered conversion format
         String format = (String) parameters.get(CONVERSION_FORMAT);
+        Serializable sizes = parameters.get(OPTION_RESIZE_SIZES);
+        if (sizes != null) {
+            // several sizes for a single source, decoded only once
+            List<Blob> resized = service.resize(blobHolder.getBlob(), format, ConverterUtils.getSizes(sizes), depth);
+            if (resized != null) {
+                results.addAll(resized);
+            }
+            return new SimpleCachableBlobHolder(results);
+        }
         for (Blob source : sources) {
             if (source != null) {
                 Blob result = service.resize(source, format, width, height, depth);
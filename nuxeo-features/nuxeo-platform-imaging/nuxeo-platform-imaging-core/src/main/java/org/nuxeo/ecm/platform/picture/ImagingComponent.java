@@ -24,6 +24,7 @@ import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.JPEG_CO
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPERATION_RESIZE;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_DEPTH;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_HEIGHT;
+import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_SIZES;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_WIDTH;
 
 import java.awt.Point;
@@ -33,8 +34,11 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -52,6 +56,7 @@ import org.nuxeo.ecm.core.api.NuxeoException;
 import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
 import org.nuxeo.ecm.core.api.blobholder.SimpleBlobHolder;
 import org.nuxeo.ecm.core.api.impl.blob.BlobWrapper;
+import org.nuxeo.ecm.core.convert.api.ConversionException;
 import org.nuxeo.ecm.core.convert.api.ConversionService;
 import org.nuxeo.ecm.platform.actions.ActionContext;
 import org.nuxeo.ecm.platform.actions.ELActionContext;
@@ -83,6 +88,20 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
 
     public static final String PICTURE_CONVERSIONS_EP = "pictureConversions";
 
+    /**
+     * Configuration parameter enabling the generation of all the default resize views with a single decode of the
+     * original picture, {@code false} by default.
+     * <p>
+     * The views are then resized by the {@code multiResizer} command instead of the {@value #DEFAULT_RESIZE_CHAIN}
+     * chain, so this must not be enabled if that chain is overridden.
+     *
+     * @since 10.10
+     */
+    public static final String MULTI_RESIZE_CONFIGURATION = "multiResize";
+
+    /** @since 10.10 */
+    public static final String DEFAULT_RESIZE_CHAIN = "Image.Blob.Resize";
+
     protected Map<String, String> configurationParameters = new HashMap<>();
 
     protected PictureConversionRegistry pictureConversionRegistry = new PictureConversionRegistry();
@@ -111,6 +130,11 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
         return getLibrarySelectorService().getImageUtils().resize(blob, finalFormat, width, height, depth);
     }
 
+    @Override
+    public List<Blob> resize(Blob blob, String finalFormat, List<Point> sizes, int depth) {
+        return getLibrarySelectorService().getImageUtils().resize(blob, finalFormat, sizes, depth);
+    }
+
     @Override
     public Blob rotate(Blob blob, int angle) {
         return getLibrarySelectorService().getImageUtils().rotate(blob, angle);
@@ -262,6 +286,9 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
         if (imageInfo == null) {
             imageInfo = getImageInfo(blob);
         }
+        if (convert) {
+            return computeViews(null, blob, pictureConversions, imageInfo);
+        }
         List<PictureView> views = new ArrayList<>();
         for (PictureConversion pictureConversion : pictureConversions) {
             views.add(computeView(blob, pictureConversion, imageInfo, convert));
@@ -372,14 +399,57 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
 
     protected PictureView computeView(DocumentModel doc, Blob blob, PictureConversion pictureConversion,
             ImageInfo imageInfo) {
+        Point size = getViewSize(pictureConversion, imageInfo);
 
-        String title = pictureConversion.getId();
+        // Use the registered conversion format
+        String conversionFormat = getConfigurationValue(CONVERSION_FORMAT, JPEG_CONVERSATION_FORMAT);
 
-        Map<String, Serializable> pictureViewMap = new HashMap<>();
-        pictureViewMap.put(PictureView.FIELD_TITLE, title);
-        pictureViewMap.put(PictureView.FIELD_DESCRIPTION, pictureConversion.getDescription());
-        pictureViewMap.put(PictureView.FIELD_TAG, pictureConversion.getTag());
+        Blob viewBlob = callPictureConversionChain(doc, blob, pictureConversion, imageInfo, size, conversionFormat);
+        return createView(blob, pictureConversion, size, viewBlob);
+    }
 
+    /**
+     * Computes the views for several picture conversions.
+     * <p>
+     * The views using the default resize chain are all generated from a single multi-size resize, so that the
+     * original picture is decoded only once. Views with identical sizes share the same resized picture.
+     *
+     * @since 10.10
+     */
+    protected List<PictureView> computeViews(DocumentModel doc, Blob blob, List<PictureConversion> pictureConversions,
+            ImageInfo imageInfo) {
+        Map<Point, Blob> resizedBlobs = Collections.emptyMap();
+        if (Boolean.parseBoolean(getConfigurationValue(MULTI_RESIZE_CONFIGURATION, "false"))) {
+            List<Point> sizes = pictureConversions.stream()
+                                                  .filter(pc -> DEFAULT_RESIZE_CHAIN.equals(pc.getChainId()))
+                                                  .map(pc -> getViewSize(pc, imageInfo))
+                                                  .distinct()
+                                                  .collect(Collectors.toList());
+            if (sizes.size() > 1) {
+                resizedBlobs = callMultiResize(blob, imageInfo, sizes);
+            }
+        }
+
+        List<PictureView> views = new ArrayList<>(pictureConversions.size());
+        Set<Blob> usedBlobs = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PictureConversion pictureConversion : pictureConversions) {
+            Point size = getViewSize(pictureConversion, imageInfo);
+            Blob viewBlob = DEFAULT_RESIZE_CHAIN.equals(pictureConversion.getChainId()) ? resizedBlobs.get(size)
+                    : null;
+            if (viewBlob == null) {
+                views.add(computeView(doc, blob, pictureConversion, imageInfo));
+            } else {
+                if (!usedBlobs.add(viewBlob)) {
+                    // each view needs its own filename
+                    viewBlob = wrapBlob(viewBlob);
+                }
+                views.add(createView(blob, pictureConversion, size, viewBlob));
+            }
+        }
+        return views;
+    }
+
+    protected Point getViewSize(PictureConversion pictureConversion, ImageInfo imageInfo) {
         Point size = new Point(imageInfo.getWidth(), imageInfo.getHeight());
 
         /*
@@ -389,15 +459,19 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
         if (pictureConversion.getMaxSize() != null) {
             size = getSize(size, pictureConversion.getMaxSize());
         }
+        return size;
+    }
 
+    protected PictureView createView(Blob blob, PictureConversion pictureConversion, Point size, Blob viewBlob) {
+        String title = pictureConversion.getId();
+
+        Map<String, Serializable> pictureViewMap = new HashMap<>();
+        pictureViewMap.put(PictureView.FIELD_TITLE, title);
+        pictureViewMap.put(PictureView.FIELD_DESCRIPTION, pictureConversion.getDescription());
+        pictureViewMap.put(PictureView.FIELD_TAG, pictureConversion.getTag());
         pictureViewMap.put(PictureView.FIELD_WIDTH, size.x);
         pictureViewMap.put(PictureView.FIELD_HEIGHT, size.y);
 
-        // Use the registered conversion format
-        String conversionFormat = getConfigurationValue(CONVERSION_FORMAT, JPEG_CONVERSATION_FORMAT);
-
-        Blob viewBlob = callPictureConversionChain(doc, blob, pictureConversion, imageInfo, size, conversionFormat);
-
         // If the extension of the generated binary is empty, it's fetched from the mimetype
         String extension = FilenameUtils.getExtension(viewBlob.getFilename());
         if (StringUtils.isEmpty(extension)) {
@@ -464,19 +538,69 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
         }
     }
 
+    /**
+     * Resizes a picture to several sizes with a single conversion.
+     *
+     * @return the resized pictures by size, empty if the resize failed
+     * @since 10.10
+     */
+    protected Map<Point, Blob> callMultiResize(Blob blob, ImageInfo imageInfo, List<Point> sizes) {
+        Map<String, Serializable> options = new HashMap<>();
+        options.put(OPTION_RESIZE_SIZES,
+                sizes.stream().map(size -> size.x + "x" + size.y).collect(Collectors.joining(",")));
+        options.put(OPTION_RESIZE_DEPTH, imageInfo.getDepth());
+        options.put(CONVERSION_FORMAT, getConfigurationValue(CONVERSION_FORMAT, JPEG_CONVERSATION_FORMAT));
+
+        boolean txWasActive = false;
+        try {
+            if (TransactionHelper.isTransactionActive()) {
+                txWasActive = true;
+                TransactionHelper.commitOrRollbackTransaction();
+            }
+
+            BlobHolder bh;
+            try {
+                bh = Framework.getService(ConversionService.class)
+                              .convert(OPERATION_RESIZE, new SimpleBlobHolder(blob), options);
+            } catch (ConversionException e) {
+                // fall back to one resize per view
+                log.warn("Unable to resize picture " + blob.getFilename() + " to several sizes at once", e);
+                return Collections.emptyMap();
+            }
+            List<Blob> blobs = bh == null ? null : bh.getBlobs();
+            if (blobs == null || blobs.size() != sizes.size()) {
+                log.warn("Unable to resize picture " + blob.getFilename() + " to several sizes at once");
+                return Collections.emptyMap();
+            }
+            Map<Point, Blob> resizedBlobs = new HashMap<>();
+            for (int i = 0; i < sizes.size(); i++) {
+                resizedBlobs.put(sizes.get(i), blobs.get(i));
+            }
+            return resizedBlobs;
+        } finally {
+            if (txWasActive && !TransactionHelper.isTransactionActiveOrMarkedRollback()) {
+                TransactionHelper.startTransaction();
+            }
+        }
+    }
+
     @Override
     public List<PictureView> computeViewsFor(DocumentModel doc, Blob blob, ImageInfo imageInfo, boolean convert)
             throws IOException {
-        List<PictureConversion> pictureConversions = getPictureConversions();
-        List<PictureView> pictureViews = new ArrayList<>(pictureConversions.size());
-
-        for (PictureConversion pictureConversion : pictureConversions) {
+        List<PictureConversion> pictureConversions = new ArrayList<>();
+        for (PictureConversion pictureConversion : getPictureConversions()) {
             if (canApplyPictureConversion(pictureConversion, doc)) {
-                PictureView pictureView = computeView(doc, blob, pictureConversion, imageInfo, convert);
-                pictureViews.add(pictureView);
+                pictureConversions.add(pictureConversion);
             }
         }
 
+        if (convert) {
+            return computeViews(doc, blob, pictureConversions, imageInfo);
+        }
+        List<PictureView> pictureViews = new ArrayList<>(pictureConversions.size());
+        for (PictureConversion pictureConversion : pictureConversions) {
+            pictureViews.add(computeViewWithoutConversion(blob, pictureConversion, imageInfo));
+        }
         return pictureViews;
     }
 
@@ -21,6 +21,10 @@
 
 package org.nuxeo.ecm.platform.picture.core;
 
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.nuxeo.ecm.core.api.Blob;
 
 /**
@@ -32,6 +36,26 @@ public interface ImageUtils {
 
     Blob resize(Blob blob, String finalFormat, int width, int height, int depth);
 
+    /**
+     * Resizes an image to several sizes.
+     * <p>
+     * The default implementation does one resize per size.
+     *
+     * @return the resized images, in the order of the given sizes, or {@code null} if a resize failed
+     * @since 10.10
+     */
+    default List<Blob> resize(Blob blob, String finalFormat, List<Point> sizes, int depth) {
+        List<Blob> blobs = new ArrayList<>(sizes.size());
+        for (Point size : sizes) {
+            Blob resized = resize(blob, finalFormat, size.x, size.y, depth);
+            if (resized == null) {
+                return null;
+            }
+            blobs.add(resized);
+        }
+        return blobs;
+    }
+
     Blob rotate(Blob blob, int angle);
 
     /**
@@ -19,9 +19,13 @@
  */
 package org.nuxeo.ecm.platform.picture.core.im;
 
+import java.awt.Point;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.logging.Log;
@@ -159,6 +163,52 @@ public class IMImageUtils implements ImageUtils {
         }.call(blob, finalFormat, "resizer");
     }
 
+    @Override
+    public List<Blob> resize(Blob blob, String finalFormat, List<Point> sizes, int depth) {
+        CommandLineExecutorService cles = Framework.getService(CommandLineExecutorService.class);
+        if (sizes.size() < 2 || !cles.getCommandAvailability("multiResizer").isAvailable()) {
+            return ImageUtils.super.resize(blob, finalFormat, sizes, depth);
+        }
+        List<File> targetFiles = new ArrayList<>(sizes.size());
+        Blob firstBlob = new ImageMagickCaller() {
+            @Override
+            protected void makeFiles(Blob source, String targetExt)
+                    throws CommandNotAvailable, CommandException, IOException {
+                super.makeFiles(source, targetExt);
+                targetFiles.add(targetFile);
+                String ext = FilenameUtils.getExtension(targetFile.getName());
+                for (int i = 1; i < sizes.size(); i++) {
+                    targetFiles.add(Framework.createTempFile("nuxeoImageTarget", "." + ext));
+                }
+            }
+
+            @Override
+            public void callImageMagick() throws CommandNotAvailable, CommandException {
+                List<String> outputFiles = targetFiles.stream().map(File::getAbsolutePath).collect(Collectors.toList());
+                ImageResizer.resize(sourceFile.getAbsolutePath(), outputFiles, sizes, depth);
+            }
+        }.call(blob, finalFormat, "multiResizer");
+        List<File> otherFiles = targetFiles.isEmpty() ? targetFiles : targetFiles.subList(1, targetFiles.size());
+        if (firstBlob == null) {
+            otherFiles.forEach(File::delete);
+            return null;
+        }
+        List<Blob> blobs = new ArrayList<>(sizes.size());
+        blobs.add(firstBlob);
+        try {
+            for (File file : otherFiles) {
+                Blob targetBlob = Blobs.createBlob(file);
+                targetBlob.setFilename(firstBlob.getFilename());
+                Framework.trackFile(file, targetBlob);
+                blobs.add(targetBlob);
+            }
+        } catch (IOException e) {
+            log.error("ImageMagick failed on command: multiResizer", e);
+            return null;
+        }
+        return blobs;
+    }
+
     @Override
     public Blob rotate(Blob blob, final int angle) {
         return new ImageMagickCaller() {
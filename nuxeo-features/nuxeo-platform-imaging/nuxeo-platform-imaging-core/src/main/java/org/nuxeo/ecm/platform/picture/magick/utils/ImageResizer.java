@@ -23,6 +23,11 @@ import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.JPEG_CO
 
 import java.awt.Point;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.nuxeo.ecm.platform.commandline.executor.api.CmdParameters;
 import org.nuxeo.ecm.platform.commandline.executor.api.CommandException;
@@ -79,6 +84,58 @@ public class ImageResizer extends MagickExecutor {
         }
     }
 
+    /**
+     * Resizes a picture to several sizes with a single ImageMagick command.
+     * <p>
+     * The input is decoded only once: the outputs are written from the largest to the smallest, each one being resized
+     * from the previous one.
+     *
+     * @param outputFiles the output files, one per size
+     * @param sizes the target sizes
+     * @since 10.10
+     */
+    public static void resize(String inputFile, List<String> outputFiles, List<Point> sizes, int targetDepth)
+            throws CommandNotAvailable, CommandException {
+        if (outputFiles.size() != sizes.size()) {
+            throw new IllegalArgumentException("Expected one output file per size");
+        }
+        if (targetDepth == -1) {
+            targetDepth = ImageIdentifier.getInfo(inputFile).getDepth();
+        }
+        // cascade from the largest size
+        List<Integer> order = IntStream.range(0, sizes.size()).boxed().collect(Collectors.toList());
+        order.sort(Comparator.comparingLong((Integer i) -> (long) sizes.get(i).x * sizes.get(i).y).reversed());
+        boolean jpeg = true;
+        List<String> operations = new ArrayList<>();
+        for (int i : order) {
+            String outputFile = outputFiles.get(i);
+            Point size = sizes.get(i);
+            if (outputFile.endsWith(JPEG_CONVERSATION_FORMAT)) {
+                Point maxSize = scaleToMax(size.x, size.y, MAX_JEPG_DIMENSION);
+                if (maxSize != null) {
+                    size = maxSize;
+                }
+            } else {
+                jpeg = false;
+            }
+            operations.add("-resize");
+            operations.add(size.x + "x" + size.y);
+            operations.add("-write");
+            operations.add(outputFile);
+        }
+        CommandLineExecutorService cles = Framework.getService(CommandLineExecutorService.class);
+        CmdParameters params = cles.getDefaultCmdParameters();
+        params.addNamedParameter("inputFilePath", inputFile);
+        params.addNamedParameter("targetDepth", String.valueOf(targetDepth));
+        params.addNamedParameter("resizeOperations", operations);
+        // hack to manage jpeg default background
+        String commandName = jpeg ? "jpegMultiResizer" : "multiResizer";
+        ExecResult res = cles.execCommand(commandName, params);
+        if (!res.isSuccessful()) {
+            throw res.getError();
+        }
+    }
+
     /**
      * Adapts width and height to a max conserving ratio.
      *
@@ -0,0 +1,63 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.platform.picture.core.test;
+
+import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_SIZES;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
+import org.nuxeo.ecm.core.convert.api.ConversionException;
+import org.nuxeo.ecm.platform.picture.convert.ResizePictureConverter;
+
+/**
+ * Resize converter counting the single and multi-size resizes, and able to make the multi-size resizes fail.
+ *
+ * @since 10.10
+ */
+public class CountingResizePictureConverter extends ResizePictureConverter {
+
+    public static final AtomicInteger RESIZE_COUNT = new AtomicInteger();
+
+    public static final AtomicInteger MULTI_RESIZE_COUNT = new AtomicInteger();
+
+    public static volatile boolean failMultiResize;
+
+    public static void reset() {
+        RESIZE_COUNT.set(0);
+        MULTI_RESIZE_COUNT.set(0);
+        failMultiResize = false;
+    }
+
+    @Override
+    public BlobHolder convert(BlobHolder blobHolder, Map<String, Serializable> parameters) throws ConversionException {
+        if (parameters.get(OPTION_RESIZE_SIZES) == null) {
+            RESIZE_COUNT.incrementAndGet();
+        } else {
+            MULTI_RESIZE_COUNT.incrementAndGet();
+            if (failMultiResize) {
+                throw new ConversionException("Multi-size resize failure");
+            }
+        }
+        return super.convert(blobHolder, parameters);
+    }
+
+}
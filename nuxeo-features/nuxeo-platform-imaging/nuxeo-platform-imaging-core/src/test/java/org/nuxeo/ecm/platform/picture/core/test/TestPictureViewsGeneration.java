@@ -0,0 +1,174 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.platform.picture.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.nuxeo.ecm.platform.picture.ImagingComponent.MULTI_RESIZE_CONFIGURATION;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.common.utils.FileUtils;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.Blobs;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.test.CoreFeature;
+import org.nuxeo.ecm.platform.picture.api.ImageInfo;
+import org.nuxeo.ecm.platform.picture.api.ImagingService;
+import org.nuxeo.ecm.platform.picture.api.PictureConversion;
+import org.nuxeo.ecm.platform.picture.api.PictureView;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+
+/**
+ * Tests the generation of all the picture views with a single decode of the original picture.
+ *
+ * @since 10.10
+ */
+@RunWith(FeaturesRunner.class)
+@Features(CoreFeature.class)
+@Deploy("org.nuxeo.ecm.platform.commandline.executor")
+@Deploy("org.nuxeo.ecm.automation.core")
+@Deploy("org.nuxeo.ecm.actions")
+@Deploy("org.nuxeo.ecm.platform.picture.api")
+@Deploy("org.nuxeo.ecm.platform.picture.core")
+@Deploy("org.nuxeo.ecm.platform.picture.convert")
+@Deploy("org.nuxeo.ecm.platform.tag")
+@Deploy("org.nuxeo.ecm.platform.picture.core:OSGI-INF/imaging-listeners-override.xml")
+@Deploy("org.nuxeo.ecm.platform.picture.core:OSGI-INF/imaging-resize-converter-override.xml")
+public class TestPictureViewsGeneration {
+
+    @Inject
+    protected CoreSession session;
+
+    @Inject
+    protected ImagingService imagingService;
+
+    @Before
+    public void resetConverter() {
+        CountingResizePictureConverter.reset();
+    }
+
+    @After
+    public void resetConfiguration() {
+        imagingService.setConfigurationValue(MULTI_RESIZE_CONFIGURATION, "false");
+        CountingResizePictureConverter.reset();
+    }
+
+    protected Blob getBlob() {
+        Blob blob = Blobs.createBlob(FileUtils.getResourceFileFromContext("images/test.jpg"));
+        blob.setFilename("MyTest.jpg");
+        blob.setMimeType("image/jpeg");
+        return blob;
+    }
+
+    protected List<PictureView> computeViews(DocumentModel doc, Blob blob, boolean multiResize) throws Exception {
+        imagingService.setConfigurationValue(MULTI_RESIZE_CONFIGURATION, String.valueOf(multiResize));
+        ImageInfo imageInfo = imagingService.getImageInfo(blob);
+        return imagingService.computeViewsFor(doc, blob, imageInfo, true);
+    }
+
+    @Test
+    public void testSameViews() throws Exception {
+        DocumentModel doc = session.createDocumentModel("/", "picture", "Picture");
+        doc = session.createDocument(doc);
+        Blob blob = getBlob();
+
+        List<PictureView> expected = computeViews(doc, blob, false);
+        assertEquals(expected.size(), CountingResizePictureConverter.RESIZE_COUNT.get());
+        assertEquals(0, CountingResizePictureConverter.MULTI_RESIZE_COUNT.get());
+        CountingResizePictureConverter.reset();
+        List<PictureView> views = computeViews(doc, blob, true);
+        // all the views come from a single resize
+        assertEquals(0, CountingResizePictureConverter.RESIZE_COUNT.get());
+        assertEquals(1, CountingResizePictureConverter.MULTI_RESIZE_COUNT.get());
+        assertSameViews(expected, views);
+    }
+
+    protected void assertSameViews(List<PictureView> expected, List<PictureView> views) {
+        assertEquals(expected.size(), views.size());
+        for (int i = 0; i < expected.size(); i++) {
+            PictureView expectedView = expected.get(i);
+            PictureView view = views.get(i);
+            assertEquals(expectedView.getTitle(), view.getTitle());
+            assertEquals(expectedView.getFilename(), view.getFilename());
+            assertEquals(expectedView.getBlob().getFilename(), view.getBlob().getFilename());
+            assertEquals(expectedView.getBlob().getMimeType(), view.getBlob().getMimeType());
+            assertEquals(expectedView.getWidth(), view.getWidth());
+            assertEquals(expectedView.getHeight(), view.getHeight());
+            ImageInfo imageInfo = view.getImageInfo();
+            assertNotNull(imageInfo);
+            assertEquals(expectedView.getImageInfo().getWidth(), imageInfo.getWidth());
+            assertEquals(expectedView.getImageInfo().getHeight(), imageInfo.getHeight());
+            assertEquals(expectedView.getImageInfo().getFormat(), imageInfo.getFormat());
+        }
+    }
+
+    @Test
+    public void testIdenticalSizes() throws Exception {
+        PictureConversion small = new PictureConversion("Small", "Small size", null, 560);
+        small.setChainId("Image.Blob.Resize");
+        PictureConversion other = new PictureConversion("OtherSmall", "Other small size", null, 560);
+        other.setChainId("Image.Blob.Resize");
+        PictureConversion thumbnail = new PictureConversion("Thumbnail", "Thumbnail size", null, 100);
+        thumbnail.setChainId("Image.Blob.Resize");
+
+        imagingService.setConfigurationValue(MULTI_RESIZE_CONFIGURATION, "true");
+        List<PictureView> views = imagingService.computeViewsFor(getBlob(), Arrays.asList(small, other, thumbnail),
+                true);
+        // one multi-size resize for two distinct sizes
+        assertEquals(1, CountingResizePictureConverter.MULTI_RESIZE_COUNT.get());
+        assertEquals(0, CountingResizePictureConverter.RESIZE_COUNT.get());
+        assertEquals(3, views.size());
+        PictureView smallView = views.get(0);
+        PictureView otherView = views.get(1);
+        assertEquals("Small_MyTest.jpg", smallView.getBlob().getFilename());
+        assertEquals("OtherSmall_MyTest.jpg", otherView.getBlob().getFilename());
+        assertNotSame(smallView.getBlob(), otherView.getBlob());
+        assertEquals(smallView.getBlob().getLength(), otherView.getBlob().getLength());
+        assertEquals(100, Math.max(views.get(2).getWidth(), views.get(2).getHeight()));
+    }
+
+    @Test
+    public void testMultiResizeFailure() throws Exception {
+        DocumentModel doc = session.createDocumentModel("/", "picture", "Picture");
+        doc = session.createDocument(doc);
+        Blob blob = getBlob();
+
+        List<PictureView> expected = computeViews(doc, blob, false);
+        CountingResizePictureConverter.reset();
+        CountingResizePictureConverter.failMultiResize = true;
+        // each view falls back to its own resize
+        List<PictureView> views = computeViews(doc, blob, true);
+        assertEquals(1, CountingResizePictureConverter.MULTI_RESIZE_COUNT.get());
+        assertEquals(expected.size(), CountingResizePictureConverter.RESIZE_COUNT.get());
+        assertSameViews(expected, views);
+    }
+
+}
@@ -20,6 +20,7 @@ package org.nuxeo.runtime.kv;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Key/Value Store.
@@ -88,6 +89,34 @@ public interface KeyValueStore {
      */
     void put(String key, Long value, long ttl);
 
+    /**
+     * Sets the values associated to the keys, and a TTL.
+     * <p>
+     * A {@code null} value removes the key. The keys are not all set atomically.
+     * <p>
+     * This default implementation sets the keys one by one, stores are expected to use a more efficient bulk write.
+     *
+     * @param values the key/value map
+     * @param ttl the TTL, in seconds (0 for infinite)
+     * @since 10.10
+     */
+    default void putAll(Map<String, byte[]> values, long ttl) {
+        values.forEach((key, value) -> put(key, value, ttl));
+    }
+
+    /**
+     * Removes the keys.
+     * <p>
+     * This default implementation removes the keys one by one, stores are expected to use a more efficient bulk
+     * delete.
+     *
+     * @param keys the keys
+     * @since 10.10
+     */
+    default void deleteAll(Collection<String> keys) {
+        keys.forEach(key -> put(key, (byte[]) null));
+    }
+
     /**
      * Sets the TTL for an existing key.
      *
@@ -223,4 +252,16 @@ public interface KeyValueStore {
      */
     long addAndGet(String key, long delta);
 
+    /**
+     * Returns a {@link Stream} of the keys with the given prefix contained in this Key/Value store.
+     * <p>
+     * The keys may be read lazily while the stream is consumed, a key added or removed concurrently may or may not be
+     * returned.
+     *
+     * @param prefix the key prefix
+     * @return the stream of keys
+     * @since 10.3
+     */
+    Stream<String> keyStream(String prefix);
+
 }
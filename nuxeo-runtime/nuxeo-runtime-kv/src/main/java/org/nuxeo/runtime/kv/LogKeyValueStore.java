@@ -0,0 +1,766 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.runtime.kv;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.common.Environment;
+import org.nuxeo.runtime.RuntimeServiceException;
+
+/**
+ * Embedded persistent implementation of a Key/Value store, based on a memory-mapped append-only log.
+ * <p>
+ * The following configuration properties are available:
+ * <ul>
+ * <li>directory: the directory holding the log files. The default is the {@code kv} directory of the Nuxeo data
+ * directory.
+ * <li>fsync: whether each write is forced to disk before returning. The default is {@code false}, the data is then
+ * written to disk by the operating system, and when the store is closed.
+ * </ul>
+ * If a namespace is specified, it is used as the log file name, otherwise the store name.
+ * <p>
+ * Each write appends a record to the log, holding the key, the value (or a deletion marker) and the expiration time.
+ * The position of the latest record of each key is kept in an in-memory index, which is rebuilt by scanning the log
+ * when the store is opened. A record whose checksum doesn't match marks the end of the log, so that a write
+ * interrupted by a crash is ignored.
+ * <p>
+ * The TTL is stored as an expiration time in the record. Expired keys are ignored by reads and removed from the index
+ * by the next write, using an index sorted by expiration time.
+ * <p>
+ * When the records that are not live anymore take more than half of the log, the live records are copied to a new log
+ * file (the next generation) which replaces the current one.
+ * <p>
+ * A log file is limited to 2GB. It is used by a single store instance, which holds a lock on a {@code .lock} file next
+ * to it, so that another Nuxeo instance or store sharing the same directory and name fails to start.
+ *
+ * @since 10.10
+ */
+public class LogKeyValueStore extends AbstractKeyValueStoreProvider {
+
+    private static final Logger log = LogManager.getLogger(LogKeyValueStore.class);
+
+    /** Directory configuration property. */
+    public static final String DIRECTORY_PROP = "directory";
+
+    /** Fsync configuration property. */
+    public static final String FSYNC_PROP = "fsync";
+
+    /** Default directory, relative to the Nuxeo data directory. */
+    public static final String DEFAULT_DIRECTORY = "kv";
+
+    protected static final String LOG_SUFFIX = ".log";
+
+    protected static final String TMP_SUFFIX = ".tmp";
+
+    protected static final String LOCK_SUFFIX = ".lock";
+
+    /** Record header: checksum (int), expiration (long), key length (int), value length (int). */
+    protected static final int HEADER_SIZE = 4 + 8 + 4 + 4;
+
+    /** Value length of a record marking a deletion. */
+    protected static final int DELETED = -1;
+
+    protected static final int INITIAL_CAPACITY = 1024 * 1024; // 1MB
+
+    protected static final int MAX_CAPACITY = Integer.MAX_VALUE;
+
+    /** Minimum size of the records that are not live anymore before a compaction is done. */
+    protected static final int COMPACTION_MIN_GARBAGE = 4 * 1024 * 1024; // 4MB
+
+    /** Position of the latest record of a key. */
+    protected static class Entry {
+
+        protected final int position;
+
+        protected final int keyLength;
+
+        protected final int valueLength;
+
+        protected final long expiration;
+
+        protected Entry(int position, int keyLength, int valueLength, long expiration) {
+            this.position = position;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+            this.expiration = expiration;
+        }
+
+        protected int getRecordLength() {
+            return HEADER_SIZE + keyLength + valueLength;
+        }
+
+        protected int getValuePosition() {
+            return position + HEADER_SIZE + keyLength;
+        }
+
+        protected boolean isExpired(long now) {
+            return expiration != 0 && expiration <= now;
+        }
+    }
+
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    protected final Lock readLock = lock.readLock();
+
+    protected final Lock writeLock = lock.writeLock();
+
+    protected final Map<String, Entry> index = new HashMap<>();
+
+    /** Expiration time to keys expiring at this time. */
+    protected final NavigableMap<Long, Set<String>> expirations = new TreeMap<>();
+
+    protected Path directory;
+
+    protected String fileName;
+
+    protected boolean fsync;
+
+    protected long generation;
+
+    /** Lock files of the stores opened by this process. */
+    protected static final Set<Path> LOCKED_PATHS = ConcurrentHashMap.newKeySet();
+
+    protected Path lockPath;
+
+    /** Channel of the lock file, held for the life of the store whatever the log generation. */
+    protected FileChannel lockChannel;
+
+    protected FileChannel channel;
+
+    protected MappedByteBuffer buffer;
+
+    /** Position at which the next record is written. */
+    protected int end;
+
+    /** Total length of the live records. */
+    protected long liveLength;
+
+    @Override
+    public void initialize(KeyValueStoreDescriptor descriptor) {
+        super.initialize(descriptor);
+        Map<String, String> properties = descriptor.properties;
+        String dir = properties.get(DIRECTORY_PROP);
+        if (dir == null || dir.trim().isEmpty()) {
+            directory = new File(Environment.getDefault().getData(), DEFAULT_DIRECTORY).toPath();
+        } else {
+            directory = new File(dir.trim()).toPath();
+        }
+        String namespace = descriptor.namespace;
+        fileName = namespace == null || namespace.trim().isEmpty() ? name : namespace.trim();
+        fsync = Boolean.parseBoolean(properties.get(FSYNC_PROP));
+        try {
+            Files.createDirectories(directory);
+            open();
+        } catch (IOException e) {
+            throw new RuntimeServiceException("Cannot open key/value store: " + name + " in: " + directory, e);
+        }
+    }
+
+    protected Path getLogPath(long gen) {
+        return directory.resolve(fileName + "-" + gen + LOG_SUFFIX);
+    }
+
+    /**
+     * Locks the store and opens its log.
+     */
+    protected void open() throws IOException {
+        lock();
+        try {
+            openLog();
+        } catch (IOException | RuntimeException e) {
+            unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes the lock ensuring that the log files are used by a single store instance.
+     */
+    protected void lock() throws IOException {
+        Path path = directory.toRealPath().resolve(fileName + LOCK_SUFFIX);
+        // closing any channel on a file releases the locks of the whole process on it:
+        // never open the lock file of a store already opened by this process
+        if (!LOCKED_PATHS.add(path)) {
+            throw new RuntimeServiceException(
+                    "Key/value store: " + name + " is already in use by another store, lock: " + path);
+        }
+        lockPath = path;
+        FileLock fileLock;
+        try {
+            lockChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            fileLock = lockChannel.tryLock();
+        } catch (IOException | OverlappingFileLockException e) {
+            unlock();
+            throw e;
+        }
+        if (fileLock == null) {
+            unlock();
+            throw new RuntimeServiceException(
+                    "Key/value store: " + name + " is already in use by another process, lock: " + path);
+        }
+    }
+
+    /**
+     * Releases the lock taken by {@link #lock}.
+     */
+    protected void unlock() throws IOException {
+        try {
+            if (lockChannel != null) {
+                // releases the lock
+                lockChannel.close();
+                lockChannel = null;
+            }
+        } finally {
+            if (lockPath != null) {
+                LOCKED_PATHS.remove(lockPath);
+                lockPath = null;
+            }
+        }
+    }
+
+    /**
+     * Opens the latest generation of the log, removes the previous ones, and rebuilds the index.
+     */
+    protected void openLog() throws IOException {
+        Pattern pattern = Pattern.compile(Pattern.quote(fileName + "-") + "(\\d+)" + Pattern.quote(LOG_SUFFIX) + "("
+                + Pattern.quote(TMP_SUFFIX) + ")?");
+        List<Path> others = new ArrayList<>();
+        generation = 0;
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Iterator<Path> it = paths.iterator(); it.hasNext();) {
+                Path path = it.next();
+                Matcher m = pattern.matcher(path.getFileName().toString());
+                if (!m.matches()) {
+                    continue;
+                }
+                others.add(path);
+                // an unfinished compaction is ignored
+                if (m.group(2) == null) {
+                    generation = Math.max(generation, Long.parseLong(m.group(1)));
+                }
+            }
+        }
+        Path path = getLogPath(generation);
+        others.remove(path);
+        others.forEach(this::deleteQuietly);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > MAX_CAPACITY) {
+            throw new IOException("Log file too big: " + path);
+        }
+        buffer = channel.map(MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+        recover();
+    }
+
+    /**
+     * Scans the log to rebuild the index.
+     */
+    protected void recover() {
+        long now = System.currentTimeMillis();
+        int capacity = buffer.capacity();
+        int pos = 0;
+        while (pos + HEADER_SIZE <= capacity) {
+            int crc = buffer.getInt(pos);
+            long expiration = buffer.getLong(pos + 4);
+            int keyLength = buffer.getInt(pos + 12);
+            int valueLength = buffer.getInt(pos + 16);
+            if (keyLength < 0 || valueLength < DELETED
+                    || (long) pos + HEADER_SIZE + keyLength + Math.max(valueLength, 0) > capacity) {
+                break;
+            }
+            int length = HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+            if (crc != checksum(pos, length)) {
+                break;
+            }
+            String key = readKey(pos, keyLength);
+            if (valueLength == DELETED || (expiration != 0 && expiration <= now)) {
+                removeEntry(key);
+            } else {
+                putEntry(key, new Entry(pos, keyLength, valueLength, expiration));
+            }
+            pos += length;
+        }
+        end = pos;
+        // clear what remains of an interrupted write, so that it cannot be mistaken for a record later
+        int zeros = 0;
+        for (int i = end; i < capacity && zeros < HEADER_SIZE; i++) {
+            if (buffer.get(i) == 0) {
+                zeros++;
+            } else {
+                zeros = 0;
+                buffer.put(i, (byte) 0);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Opened key/value store: " + name + " with " + index.size() + " keys");
+        }
+    }
+
+    protected int checksum(int pos, int length) {
+        ByteBuffer buf = buffer.duplicate();
+        buf.limit(pos + length);
+        buf.position(pos + 4);
+        CRC32 crc = new CRC32();
+        crc.update(buf);
+        return (int) crc.getValue();
+    }
+
+    protected String readKey(int pos, int keyLength) {
+        return new String(readBytes(pos + HEADER_SIZE, keyLength), UTF_8);
+    }
+
+    protected byte[] readBytes(int pos, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer buf = buffer.duplicate();
+        buf.position(pos);
+        buf.get(bytes);
+        return bytes;
+    }
+
+    protected void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // may happen on Windows while the file is still mapped, it will be deleted on next open
+            log.warn("Cannot delete old key/value store log: " + path + ": " + e);
+        }
+    }
+
+    // ===== index, under write lock =====
+
+    protected void putEntry(String key, Entry entry) {
+        removeEntry(key);
+        index.put(key, entry);
+        liveLength += entry.getRecordLength();
+        if (entry.expiration != 0) {
+            expirations.computeIfAbsent(Long.valueOf(entry.expiration), k -> new HashSet<>()).add(key);
+        }
+    }
+
+    protected Entry removeEntry(String key) {
+        Entry entry = index.remove(key);
+        if (entry != null) {
+            liveLength -= entry.getRecordLength();
+            if (entry.expiration != 0) {
+                Long expiration = Long.valueOf(entry.expiration);
+                Set<String> keys = expirations.get(expiration);
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    expirations.remove(expiration);
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Removes the expired keys from the index.
+     */
+    protected void purgeExpired(long now) {
+        NavigableMap<Long, Set<String>> expired = expirations.headMap(Long.valueOf(now), true);
+        while (!expired.isEmpty()) {
+            Set<String> keys = expired.firstEntry().getValue();
+            for (String key : keys.toArray(new String[0])) {
+                removeEntry(key);
+            }
+        }
+    }
+
+    // ===== log, under write lock =====
+
+    /**
+     * Appends a record to the log and updates the index.
+     */
+    protected void append(String key, byte[] value, long expiration) {
+        byte[] keyBytes = key.getBytes(UTF_8);
+        int valueLength = value == null ? DELETED : value.length;
+        int length = HEADER_SIZE + keyBytes.length + Math.max(valueLength, 0);
+        ensureCapacity(length);
+        int pos = end;
+        ByteBuffer buf = buffer.duplicate();
+        buf.position(pos + 4);
+        buf.putLong(expiration);
+        buf.putInt(keyBytes.length);
+        buf.putInt(valueLength);
+        buf.put(keyBytes);
+        if (value != null) {
+            buf.put(value);
+        }
+        buffer.putInt(pos, checksum(pos, length));
+        end += length;
+        if (value == null) {
+            removeEntry(key);
+        } else {
+            putEntry(key, new Entry(pos, keyBytes.length, valueLength, expiration));
+        }
+        long garbage = end - liveLength;
+        if (garbage > COMPACTION_MIN_GARBAGE && garbage > liveLength) {
+            compact();
+        }
+    }
+
+    /**
+     * Forces the appended records to disk if configured.
+     */
+    protected void sync() {
+        if (fsync) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Makes room for a record of the given length, growing the mapping or compacting the log.
+     */
+    protected void ensureCapacity(int length) {
+        long needed = (long) end + length;
+        if (needed <= buffer.capacity()) {
+            return;
+        }
+        if (needed > MAX_CAPACITY) {
+            compact();
+            needed = (long) end + length;
+            if (needed > MAX_CAPACITY) {
+                throw new RuntimeServiceException("Key/value store: " + name + " is full");
+            }
+            if (needed <= buffer.capacity()) {
+                return;
+            }
+        }
+        long capacity = Math.min(Math.max(2L * buffer.capacity(), needed), MAX_CAPACITY);
+        try {
+            // the previous mapping is released by the garbage collector
+            buffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new RuntimeServiceException("Cannot grow key/value store: " + name, e);
+        }
+    }
+
+    /**
+     * Copies the live records to the next generation of the log, which replaces the current one.
+     */
+    protected void compact() {
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+        Path oldPath = getLogPath(generation);
+        Path path = getLogPath(generation + 1);
+        Path tmp = path.resolveSibling(path.getFileName() + TMP_SUFFIX);
+        int capacity = (int) Math.min(Math.max(2 * liveLength, INITIAL_CAPACITY), MAX_CAPACITY);
+        Map<String, Entry> newIndex = new HashMap<>();
+        MappedByteBuffer newBuffer;
+        int pos = 0;
+        try (FileChannel newChannel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            newBuffer = newChannel.map(MapMode.READ_WRITE, 0, capacity);
+            for (Map.Entry<String, Entry> es : index.entrySet()) {
+                Entry entry = es.getValue();
+                // records are self-contained and are copied unchanged
+                ByteBuffer record = buffer.duplicate();
+                record.limit(entry.position + entry.getRecordLength());
+                record.position(entry.position);
+                newBuffer.position(pos);
+                newBuffer.put(record);
+                newIndex.put(es.getKey(), new Entry(pos, entry.keyLength, entry.valueLength, entry.expiration));
+                pos += entry.getRecordLength();
+            }
+            newBuffer.force();
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new RuntimeServiceException("Cannot compact key/value store: " + name, e);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+            FileChannel oldChannel = channel;
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            oldChannel.close();
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new RuntimeServiceException("Cannot compact key/value store: " + name, e);
+        }
+        deleteQuietly(oldPath);
+        if (log.isDebugEnabled()) {
+            log.debug("Compacted key/value store: " + name + " from " + end + " to " + pos + " bytes");
+        }
+        generation++;
+        buffer = newBuffer;
+        end = pos;
+        index.clear();
+        index.putAll(newIndex);
+        // expirations and live length are unchanged
+    }
+
+    // ===== KeyValueStore =====
+
+    @Override
+    public void put(String key, byte[] value, long ttl) {
+        Objects.requireNonNull(key);
+        writeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            purgeExpired(now);
+            if (value == null && !index.containsKey(key)) {
+                return;
+            }
+            append(key, value, getExpiration(now, ttl));
+            sync();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> values, long ttl) {
+        writeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            purgeExpired(now);
+            long expiration = getExpiration(now, ttl);
+            values.forEach((key, value) -> {
+                Objects.requireNonNull(key);
+                if (value != null || index.containsKey(key)) {
+                    append(key, value, expiration);
+                }
+            });
+            sync();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        writeLock.lock();
+        try {
+            purgeExpired(System.currentTimeMillis());
+            for (String key : keys) {
+                if (index.containsKey(key)) {
+                    append(key, null, 0);
+                }
+            }
+            sync();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    protected static long getExpiration(long now, long ttl) {
+        return ttl == 0 ? 0 : now + TimeUnit.SECONDS.toMillis(ttl);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Objects.requireNonNull(key);
+        readLock.lock();
+        try {
+            return doGet(key, System.currentTimeMillis());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    protected byte[] doGet(String key, long now) {
+        Entry entry = index.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            return null;
+        }
+        return readBytes(entry.getValuePosition(), entry.valueLength);
+    }
+
+    @Override
+    public Map<String, byte[]> get(Collection<String> keys) {
+        Map<String, byte[]> map = new HashMap<>(keys.size());
+        readLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            for (String key : keys) {
+                byte[] value = doGet(key, now);
+                if (value != null) {
+                    map.put(key, value);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return map;
+    }
+
+    @Override
+    public boolean setTTL(String key, long ttl) {
+        Objects.requireNonNull(key);
+        writeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            purgeExpired(now);
+            byte[] value = doGet(key, now);
+            if (value == null) {
+                return false;
+            }
+            append(key, value, getExpiration(now, ttl));
+            sync();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean compareAndSet(String key, byte[] expected, byte[] value, long ttl) {
+        Objects.requireNonNull(key);
+        writeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            purgeExpired(now);
+            byte[] current = doGet(key, now);
+            if (!Arrays.equals(expected, current)) {
+                return false;
+            }
+            if (value != null || current != null) {
+                append(key, value, getExpiration(now, ttl));
+                sync();
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long addAndGet(String key, long delta) throws NumberFormatException { // NOSONAR
+        Objects.requireNonNull(key);
+        writeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            purgeExpired(now);
+            Entry entry = index.get(key);
+            byte[] bytes = doGet(key, now);
+            long base = bytes == null ? 0 : Long.parseLong(new String(bytes, UTF_8));
+            long result = base + delta;
+            // keep the current TTL
+            append(key, longToBytes(Long.valueOf(result)), entry == null ? 0 : entry.expiration);
+            sync();
+            return result;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Stream<String> keyStream() {
+        readLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            List<String> keys = new ArrayList<>(index.size());
+            index.forEach((key, entry) -> {
+                if (!entry.isExpired(now)) {
+                    keys.add(key);
+                }
+            });
+            return keys.stream();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Stream<String> keyStream(String prefix) {
+        readLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            List<String> keys = new ArrayList<>();
+            index.forEach((key, entry) -> {
+                if (key.startsWith(prefix) && !entry.isExpired(now)) {
+                    keys.add(key);
+                }
+            });
+            return keys.stream();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            index.clear();
+            expirations.clear();
+            liveLength = 0;
+            compact();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            // the unused capacity is left in the file, it is zeroed so it doesn't hold any record
+            buffer.force();
+            buffer = null;
+            channel.close();
+            channel = null;
+            unlock();
+        } catch (IOException e) {
+            throw new RuntimeServiceException("Cannot close key/value store: " + name, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+}
@@ -581,4 +581,75 @@ public abstract class AbstractKeyValueStoreTest {
         assertEquals(new HashSet<>(expected), store.keyStream(prefix).collect(Collectors.toSet()));
     }
 
+    @Test
+    public void testPutAllDeleteAll() {
+        Map<String, byte[]> values = new HashMap<>();
+        values.put("foo", BAR_B);
+        values.put("gee", NOT_UTF_8);
+        values.put("moo", "123".getBytes(UTF_8));
+        values.put("zap", null);
+        store.put("zap", BAR);
+        store.putAll(values, 0);
+        assertEquals(BAR, store.getString("foo"));
+        assertArrayEquals(NOT_UTF_8, store.get("gee"));
+        assertEquals(Long.valueOf(123), store.getLong("moo"));
+        assertNull(store.get("zap"));
+        assertEquals(new HashSet<>(Arrays.asList("foo", "gee", "moo")), storeKeys());
+
+        // overwrite existing keys
+        values.clear();
+        values.put("foo", GEE_B);
+        values.put("moo", null);
+        store.putAll(values, 0);
+        assertEquals(GEE, store.getString("foo"));
+        assertNull(store.get("moo"));
+
+        // empty bulk operations
+        store.putAll(Collections.emptyMap(), 0);
+        store.deleteAll(Collections.emptySet());
+
+        store.deleteAll(Arrays.asList("foo", "zap", "nosuchkey"));
+        assertNull(store.get("foo"));
+        assertEquals(Collections.singleton("gee"), storeKeys());
+    }
+
+    @Test
+    public void testPutAllTTL() throws Exception {
+        assumeFalse("Ignored because of slow TTL expiration", hasSlowTTLExpiration());
+        int shortTTL = 3; // 3s
+
+        Map<String, byte[]> values = new HashMap<>();
+        values.put("foo", BAR_B);
+        values.put("gee", GEE_B);
+        store.putAll(values, shortTTL);
+        store.put("moo", MOO_B);
+        assertEquals(BAR, store.getString("foo"));
+        Thread.sleep((shortTTL + 2) * 1000); // sleep a bit more in case expiration is late
+        sleepForTTLExpiration();
+        assertNull(store.get("foo"));
+        assertNull(store.get("gee"));
+        assertEquals(MOO, store.getString("moo"));
+    }
+
+    @Test
+    public void testKeyStreamMany() {
+        // enough keys to need several pages or scans
+        int n = 2500;
+        Map<String, byte[]> values = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            values.put("foo" + i, BAR_B);
+            values.put("bar" + i, BAR_B);
+        }
+        store.putAll(values, 0);
+        Set<String> keys = store.keyStream("foo").collect(Collectors.toSet());
+        assertEquals(n, keys.size());
+        assertTrue(keys.contains("foo0"));
+        assertTrue(keys.contains("foo" + (n - 1)));
+        assertEquals(2 * n, store.keyStream().count());
+
+        store.deleteAll(keys);
+        assertEquals(0, store.keyStream("foo").count());
+        assertEquals(n, store.keyStream("bar").count());
+    }
+
 }
@@ -0,0 +1,134 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.runtime.kv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.nuxeo.runtime.RuntimeServiceException;
+import org.nuxeo.runtime.test.runner.Deploy;
+
+/**
+ * @since 10.10
+ */
+@Deploy("org.nuxeo.runtime.kv.tests:OSGI-INF/test-log-keyvalue-contrib.xml")
+public class TestLogKeyValueStore extends AbstractKeyValueStoreTest {
+
+    @Test
+    public void testClass() {
+        assertTrue(store instanceof LogKeyValueStore);
+    }
+
+    protected LogKeyValueStore open(File dir) {
+        KeyValueStoreDescriptor descriptor = new KeyValueStoreDescriptor();
+        descriptor.name = "test";
+        descriptor.properties.put(LogKeyValueStore.DIRECTORY_PROP, dir.getAbsolutePath());
+        LogKeyValueStore logStore = new LogKeyValueStore();
+        logStore.initialize(descriptor);
+        return logStore;
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        File dir = Files.createTempDirectory("kv").toFile();
+        try {
+            LogKeyValueStore logStore = open(dir);
+            logStore.put("foo", BAR);
+            logStore.put("gee", 123L);
+            logStore.put("moo", MOO_B);
+            logStore.put("moo", (byte[]) null);
+            logStore.put("zap", NOT_UTF_8, 3600);
+            logStore.close();
+
+            logStore = open(dir);
+            assertEquals(BAR, logStore.getString("foo"));
+            assertEquals(Long.valueOf(123), logStore.getLong("gee"));
+            assertNull(logStore.get("moo"));
+            assertArrayEquals(NOT_UTF_8, logStore.get("zap"));
+            logStore.close();
+        } finally {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        File dir = Files.createTempDirectory("kv").toFile();
+        try {
+            LogKeyValueStore logStore = open(dir);
+            byte[] value = new byte[1000];
+            // overwrite the same keys until the log has been compacted
+            for (int i = 0; logStore.generation == 0; i++) {
+                logStore.put("key" + i % 10, value);
+            }
+            assertEquals(10, logStore.keyStream("key").count());
+            // the log and the lock file
+            assertEquals(2, dir.list().length);
+            logStore.put("foo", BAR);
+            logStore.close();
+
+            logStore = open(dir);
+            assertEquals(11, logStore.keyStream().count());
+            assertEquals(BAR, logStore.getString("foo"));
+            assertArrayEquals(value, logStore.get("key1"));
+            logStore.close();
+        } finally {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    @Test
+    public void testSingleInstance() throws IOException {
+        File dir = Files.createTempDirectory("kv").toFile();
+        try {
+            LogKeyValueStore logStore = open(dir);
+            logStore.put("foo", BAR);
+            assertLocked(dir);
+            // the lock is kept when switching to the next generation of the log
+            logStore.clear();
+            assertEquals(1, logStore.generation);
+            assertLocked(dir);
+            logStore.close();
+
+            logStore = open(dir);
+            logStore.close();
+        } finally {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    protected void assertLocked(File dir) {
+        try {
+            open(dir);
+            fail("should not open a store already in use");
+        } catch (RuntimeServiceException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("already in use"));
+        }
+    }
+
+}
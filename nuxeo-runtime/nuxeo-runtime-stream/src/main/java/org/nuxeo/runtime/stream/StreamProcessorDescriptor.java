@@ -86,6 +86,12 @@ public class StreamProcessorDescriptor implements Descriptor {
 
         public static final Duration DEFAULT_BATCH_THRESHOLD = Duration.ofSeconds(1);
 
+        public static final Integer DEFAULT_READ_BATCH_CAPACITY = 1;
+
+        public static final Duration DEFAULT_READ_BATCH_THRESHOLD = Duration.ofMillis(50);
+
+        public static final Integer DEFAULT_KEY_PARALLELISM = 1;
+
         @XNode("@name")
         public String name;
 
@@ -117,6 +123,17 @@ public class StreamProcessorDescriptor implements Descriptor {
         @XNode("@batchThreshold")
         public Duration batchThreshold = DEFAULT_BATCH_THRESHOLD;
 
+        // Read batch policy, the runner passes records by batch to the computation, since 10.10
+        @XNode("@readBatchCapacity")
+        public Integer readBatchCapacity = DEFAULT_READ_BATCH_CAPACITY;
+
+        @XNode("@readBatchThreshold")
+        public Duration readBatchThreshold = DEFAULT_READ_BATCH_THRESHOLD;
+
+        // Number of workers processing records with different keys concurrently, since 10.10
+        @XNode("@keyParallelism")
+        public Integer keyParallelism = DEFAULT_KEY_PARALLELISM;
+
     }
 
     public static final Integer DEFAULT_CONCURRENCY = 4;
@@ -183,6 +200,9 @@ public class StreamProcessorDescriptor implements Descriptor {
         return new ComputationPolicyBuilder().retryPolicy(retryPolicy)
                                              .batchPolicy(policyDescriptor.batchCapacity,
                                                      policyDescriptor.batchThreshold)
+                                             .readBatchPolicy(policyDescriptor.readBatchCapacity,
+                                                     policyDescriptor.readBatchThreshold)
+                                             .keyParallelism(policyDescriptor.keyParallelism)
                                              .continueOnFailure(policyDescriptor.continueOnFailure)
                                              .build();
     }
@@ -0,0 +1,94 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.runtime;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.nuxeo.runtime.model.ComponentContext;
+import org.nuxeo.runtime.model.DefaultComponent;
+import org.nuxeo.runtime.model.Property;
+
+/**
+ * Component recording its start in a shared list of events, used to check the parallel start.
+ * <p>
+ * When the {@code barrier} property is set, the start waits for the other components having it, which can only
+ * succeed if they are started concurrently. When the {@code fail} property is set, the start fails.
+ *
+ * @since 10.10
+ */
+public class ParallelStartComponent extends DefaultComponent {
+
+    public static final int START_ORDER = 4321;
+
+    public static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+
+    /** Armed by the tests, so that the regular start of the test runner is not blocked. */
+    public static volatile CountDownLatch barrier;
+
+    public static volatile boolean failing;
+
+    public static void reset(int barrierCount) {
+        EVENTS.clear();
+        barrier = new CountDownLatch(barrierCount);
+        failing = true;
+    }
+
+    public static void disarm() {
+        barrier = null;
+        failing = false;
+    }
+
+    @Override
+    public int getApplicationStartedOrder() {
+        return START_ORDER;
+    }
+
+    @Override
+    public void start(ComponentContext context) {
+        EVENTS.add("start:" + name);
+        try {
+            CountDownLatch latch = barrier;
+            if (isSet(context, "barrier") && latch != null) {
+                latch.countDown();
+                if (!latch.await(10, TimeUnit.SECONDS)) {
+                    EVENTS.add("timeout:" + name);
+                }
+            }
+            if (isSet(context, "fail") && failing) {
+                throw new RuntimeException("Failing start: " + name);
+            }
+            // leave time for a wrongly concurrent start to overlap
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            EVENTS.add("end:" + name);
+        }
+    }
+
+    protected static boolean isSet(ComponentContext context, String property) {
+        Property p = context.getProperty(property);
+        return p != null && Boolean.parseBoolean(p.getString());
+    }
+
+}
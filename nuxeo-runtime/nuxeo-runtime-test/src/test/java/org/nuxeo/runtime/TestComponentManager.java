@@ -18,11 +18,21 @@
  */
 package org.nuxeo.runtime;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.model.ComponentManager;
+import org.nuxeo.runtime.model.ComponentName;
+import org.nuxeo.runtime.model.RegistrationInfo;
+import org.nuxeo.runtime.model.impl.ComponentManagerImpl;
+import org.nuxeo.runtime.model.impl.StartupProfile;
+import org.nuxeo.runtime.test.runner.Deploy;
 import org.nuxeo.runtime.test.runner.Features;
 import org.nuxeo.runtime.test.runner.FeaturesRunner;
 import org.nuxeo.runtime.test.runner.RuntimeFeature;
@@ -56,6 +66,83 @@ public class TestComponentManager {
         listener.assertCounters(3, 3, 3, 3);
     }
 
+    protected void restartInParallel(String sequential) {
+        ComponentManager mgr = Framework.getRuntime().getComponentManager();
+        Properties properties = Framework.getProperties();
+        properties.setProperty(ComponentManagerImpl.PARALLEL_START_PROP, "true");
+        properties.setProperty(ComponentManagerImpl.PARALLEL_START_THREADS_PROP, "4");
+        if (sequential != null) {
+            properties.setProperty(ComponentManagerImpl.SEQUENTIAL_START_PROP, sequential);
+        }
+        try {
+            mgr.restart(false);
+        } finally {
+            properties.remove(ComponentManagerImpl.PARALLEL_START_PROP);
+            properties.remove(ComponentManagerImpl.PARALLEL_START_THREADS_PROP);
+            properties.remove(ComponentManagerImpl.SEQUENTIAL_START_PROP);
+            ParallelStartComponent.disarm();
+        }
+    }
+
+    @Test
+    @Deploy("org.nuxeo.runtime.test.tests:ParallelStartA.xml")
+    @Deploy("org.nuxeo.runtime.test.tests:ParallelStartB.xml")
+    @Deploy("org.nuxeo.runtime.test.tests:ParallelStartC.xml")
+    @Deploy("org.nuxeo.runtime.test.tests:ParallelStartD.xml")
+    @Deploy("org.nuxeo.runtime.test.tests:ParallelStartSeq.xml")
+    public void testParallelStart() throws Exception {
+        ComponentManagerImpl mgr = (ComponentManagerImpl) Framework.getRuntime().getComponentManager();
+        // C and D wait for each other, which only succeeds if they are started concurrently
+        ParallelStartComponent.reset(2);
+        restartInParallel("parallel.start.seq");
+        Assert.assertTrue(mgr.isStarted());
+
+        List<String> events = new ArrayList<>(ParallelStartComponent.EVENTS);
+        Assert.assertFalse(events.toString(), events.stream().anyMatch(event -> event.startsWith("timeout:")));
+        for (String name : Arrays.asList("a", "b", "c", "d", "seq")) {
+            RegistrationInfo ri = mgr.getRegistrationInfo(new ComponentName("parallel.start." + name));
+            Assert.assertEquals(name, RegistrationInfo.STARTED, ri.getState());
+            Assert.assertTrue(events.toString(), events.contains("start:parallel.start." + name));
+        }
+        // A requires B, although it comes first in the start order
+        Assert.assertTrue(events.toString(),
+                events.indexOf("end:parallel.start.b") < events.indexOf("start:parallel.start.a"));
+        // the sequential component is started alone, after the group preceding it
+        int seqStart = events.indexOf("start:parallel.start.seq");
+        Assert.assertEquals(events.toString(), events.size() - 2, seqStart);
+        Assert.assertEquals("end:parallel.start.seq", events.get(seqStart + 1));
+
+        StartupProfile profile = mgr.getStartupProfile();
+        Assert.assertNotNull(profile);
+        int started = 0;
+        for (RegistrationInfo ri : mgr.getRegistrations()) {
+            Assert.assertFalse(ri.getName().toString(), ri.isActivated());
+            if (ri.isStarted()) {
+                started++;
+                Assert.assertTrue(profile.get(StartupProfile.START, ri.getName().getName()) > 0);
+            }
+        }
+        Assert.assertTrue(started > 0);
+    }
+
+    @Test
+    @Deploy("org.nuxeo.runtime.test.tests:ParallelStartB.xml")
+    @Deploy("org.nuxeo.runtime.test.tests:ParallelStartFail.xml")
+    public void testParallelStartFailure() throws Exception {
+        ComponentManager mgr = Framework.getRuntime().getComponentManager();
+        ParallelStartComponent.reset(0);
+        restartInParallel(null);
+        Assert.assertTrue(mgr.isStarted());
+
+        // the failure is reported on the component as with the sequential start, the other ones are started
+        List<String> events = new ArrayList<>(ParallelStartComponent.EVENTS);
+        Assert.assertTrue(events.toString(), events.contains("end:parallel.start.fail"));
+        Assert.assertEquals(RegistrationInfo.START_FAILURE,
+                mgr.getRegistrationInfo(new ComponentName("parallel.start.fail")).getState());
+        Assert.assertEquals(RegistrationInfo.STARTED,
+                mgr.getRegistrationInfo(new ComponentName("parallel.start.b")).getState());
+    }
+
     protected static class EventsInfo {
 
         public int beforeStop = 0;
@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +43,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -67,6 +70,35 @@ public class ComponentManagerImpl implements ComponentManager {
 
     private static final Logger log = LogManager.getLogger(ComponentManagerImpl.class);
 
+    /**
+     * Framework property enabling the concurrent start of the components having the same start order.
+     *
+     * @since 10.10
+     */
+    public static final String PARALLEL_START_PROP = "org.nuxeo.runtime.component.parallel.start";
+
+    /**
+     * Framework property for the number of threads of the parallel start, defaults to the number of processors.
+     *
+     * @since 10.10
+     */
+    public static final String PARALLEL_START_THREADS_PROP = "org.nuxeo.runtime.component.parallel.start.threads";
+
+    /**
+     * Framework property holding the comma-separated names of the components that are not thread-safe and must be
+     * started alone even when the parallel start is enabled.
+     *
+     * @since 10.10
+     */
+    public static final String SEQUENTIAL_START_PROP = "org.nuxeo.runtime.component.sequential.start";
+
+    /**
+     * Framework property enabling the per-component startup metrics and profile file, always enabled in dev mode.
+     *
+     * @since 10.10
+     */
+    public static final String STARTUP_PROFILE_PROP = "org.nuxeo.runtime.component.startup.profile";
+
     // must use an ordered Set to avoid loosing the order of the pending
     // extensions
     protected final ConcurrentMap<ComponentName, Set<Extension>> pendingExtensions;
@@ -134,6 +166,13 @@ public class ComponentManagerImpl implements ComponentManager {
      */
     protected volatile boolean changed = false;
 
+    /**
+     * The timings of the last start.
+     *
+     * @since 10.10
+     */
+    protected volatile StartupProfile profile;
+
     public ComponentManagerImpl(RuntimeService runtime) {
         registry = new ComponentRegistry();
         pendingExtensions = new ConcurrentHashMap<>();
@@ -152,6 +191,15 @@ public class ComponentManagerImpl implements ComponentManager {
         return descriptors;
     }
 
+    /**
+     * Gets the per-component timings of the last start, or {@code null} if the components were never started.
+     *
+     * @since 10.10
+     */
+    public StartupProfile getStartupProfile() {
+        return profile;
+    }
+
     /**
      * @since 9.2
      */
@@ -543,8 +591,10 @@ public class ComponentManagerImpl implements ComponentManager {
      * @since 9.3
      */
     protected void activateComponent(RegistrationInfo ri) {
+        long t0 = System.nanoTime();
         if (ri.useFormerLifecycleManagement()) {
             ((RegistrationInfoImpl) ri).activate();
+            recordTiming(StartupProfile.ACTIVATE, ri, t0);
             return;
         }
         // TODO should be synchronized on ri ? test without it for now
@@ -556,6 +606,7 @@ public class ComponentManagerImpl implements ComponentManager {
         ComponentInstance component = ri.getComponent();
         component.activate();
         log.debug("Component activated: {}", ri.getName());
+        t0 = recordTiming(StartupProfile.ACTIVATE, ri, t0);
 
         // register contributed extensions if any
         Extension[] extensions = ri.getExtensions();
@@ -597,12 +648,28 @@ public class ComponentManagerImpl implements ComponentManager {
             }
         }
 
+        recordTiming(StartupProfile.EXTENSIONS, ri, t0);
+
         // register services
         registerServices(ri);
 
         ri.setState(RegistrationInfo.ACTIVATED);
     }
 
+    /**
+     * Records the time elapsed since {@code t0} for the given phase of a component, and returns the current time.
+     *
+     * @since 10.10
+     */
+    protected long recordTiming(String phase, RegistrationInfo ri, long t0) {
+        long t1 = System.nanoTime();
+        StartupProfile p = profile;
+        if (p != null) {
+            p.record(phase, ri.getName().getName(), t1 - t0);
+        }
+        return t1;
+    }
+
     /**
      * Deactivate all active components in the reverse resolve order
      *
@@ -683,13 +750,17 @@ public class ComponentManagerImpl implements ComponentManager {
      */
     protected void startComponents(List<RegistrationInfo> ris, boolean isResume) {
         log.info("Start components (isResume={})", isResume);
-        Watch watch = new Watch();
+        boolean parallel = Framework.isBooleanPropertyTrue(PARALLEL_START_PROP);
+        // intervals are recorded concurrently by the parallel start
+        Watch watch = parallel ? new Watch(new ConcurrentHashMap<>()) : new Watch();
         watch.start();
         listeners.beforeStart(isResume);
-        for (RegistrationInfo ri : ris) {
-            watch.start(ri.getName().getName());
-            startComponent(ri);
-            watch.stop(ri.getName().getName());
+        if (parallel) {
+            startComponentsInParallel(ris, watch);
+        } else {
+            for (RegistrationInfo ri : ris) {
+                startComponent(ri, watch);
+            }
         }
         this.started = ris;
         listeners.afterStart(isResume);
@@ -697,6 +768,151 @@ public class ComponentManagerImpl implements ComponentManager {
 
         log.debug("Components started in {}s", watch.total::formatSeconds);
         writeDevMetrics(watch, "start");
+        writeStartupProfile();
+    }
+
+    protected void startComponent(RegistrationInfo ri, Watch watch) {
+        watch.start(ri.getName().getName());
+        startComponent(ri);
+        watch.stop(ri.getName().getName());
+    }
+
+    /**
+     * Starts the given components, which are sorted according to the start order.
+     * <p>
+     * Consecutive components having the same start order are started concurrently on a bounded pool, a component being
+     * started only once the components it requires in the same group are started. Components using the former
+     * lifecycle management or listed in the {@value #SEQUENTIAL_START_PROP} property are started alone, after the
+     * components preceding them and before the ones following them.
+     * <p>
+     * While waiting for the pool, the manager lock is released so that the components being started can call
+     * synchronized methods of the manager.
+     *
+     * @since 10.10
+     */
+    protected synchronized void startComponentsInParallel(List<RegistrationInfo> ris, Watch watch) {
+        Set<String> sequential = new HashSet<>();
+        for (String name : Framework.getProperty(SEQUENTIAL_START_PROP, "").split(",")) {
+            if (!name.trim().isEmpty()) {
+                sequential.add(name.trim());
+            }
+        }
+        int threads = Integer.parseInt(Framework.getProperty(PARALLEL_START_THREADS_PROP,
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        log.info("Starting components in parallel with {} threads", threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "Nuxeo-component-start-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            int i = 0;
+            while (i < ris.size()) {
+                RegistrationInfo ri = ris.get(i);
+                if (!isParallelStartable(ri, sequential)) {
+                    startComponent(ri, watch);
+                    i++;
+                    continue;
+                }
+                int order = ri.getApplicationStartedOrder();
+                int j = i + 1;
+                while (j < ris.size() && ris.get(j).getApplicationStartedOrder() == order
+                        && isParallelStartable(ris.get(j), sequential)) {
+                    j++;
+                }
+                startComponentGroup(ris.subList(i, j), executor, watch);
+                i = j;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while starting components", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected boolean isParallelStartable(RegistrationInfo ri, Set<String> sequential) {
+        return !ri.useFormerLifecycleManagement() && !sequential.contains(ri.getName().getName());
+    }
+
+    /**
+     * Starts concurrently a group of components, following their dependencies within the group. Must be called with
+     * the manager lock held.
+     *
+     * @since 10.10
+     */
+    protected void startComponentGroup(List<RegistrationInfo> group, ExecutorService executor, Watch watch)
+            throws InterruptedException {
+        // build the dependency graph restricted to the group, components outside of it are already started
+        Map<ComponentName, RegistrationInfo> byName = new HashMap<>();
+        for (RegistrationInfo ri : group) {
+            byName.put(ri.getName(), ri);
+            ri.getAliases().forEach(alias -> byName.put(alias, ri));
+        }
+        Map<RegistrationInfo, Set<RegistrationInfo>> dependencies = new HashMap<>();
+        Map<RegistrationInfo, List<RegistrationInfo>> dependents = new HashMap<>();
+        for (RegistrationInfo ri : group) {
+            Set<RegistrationInfo> deps = new HashSet<>();
+            for (ComponentName name : ri.getRequiredComponents()) {
+                RegistrationInfo dep = byName.get(name);
+                if (dep != null && dep != ri && deps.add(dep)) {
+                    dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(ri);
+                }
+            }
+            dependencies.put(ri, deps);
+        }
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        List<RegistrationInfo> pending = new ArrayList<>(group);
+        // guarded by the manager lock
+        List<RegistrationInfo> done = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int running = 0;
+        while (!pending.isEmpty() || running > 0) {
+            for (Iterator<RegistrationInfo> it = pending.iterator(); it.hasNext();) {
+                RegistrationInfo ri = it.next();
+                if (!dependencies.get(ri).isEmpty()) {
+                    continue;
+                }
+                it.remove();
+                running++;
+                executor.execute(() -> {
+                    Thread.currentThread().setContextClassLoader(classLoader);
+                    try {
+                        startComponent(ri, watch);
+                    } catch (RuntimeException | Error e) { // NOSONAR
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        synchronized (this) {
+                            done.add(ri);
+                            notifyAll();
+                        }
+                    }
+                });
+            }
+            if (running == 0) {
+                // dependency cycle, cannot happen between resolved components: fall back to the start order
+                startComponent(pending.remove(0), watch);
+                continue;
+            }
+            while (done.isEmpty()) {
+                wait();
+            }
+            for (RegistrationInfo ri : done) {
+                running--;
+                for (RegistrationInfo dependent : dependents.getOrDefault(ri, Collections.emptyList())) {
+                    dependencies.get(dependent).remove(ri);
+                }
+            }
+            done.clear();
+        }
+        Throwable t = failure.get();
+        if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw (RuntimeException) t;
+        }
     }
 
     /**
@@ -705,8 +921,10 @@ public class ComponentManagerImpl implements ComponentManager {
      * @since 9.3
      */
     protected void startComponent(RegistrationInfo ri) {
+        long t0 = System.nanoTime();
         if (ri.useFormerLifecycleManagement()) {
             ((RegistrationInfoImpl) ri).start();
+            recordTiming(StartupProfile.START, ri, t0);
             return;
         }
         if (ri.getState() != RegistrationInfo.ACTIVATED) {
@@ -721,6 +939,8 @@ public class ComponentManagerImpl implements ComponentManager {
         } catch (RuntimeException e) {
             log.error("Component {} notification of application started failed: {}", ri.getName(), e.getMessage(), e);
             ri.setState(RegistrationInfo.START_FAILURE);
+        } finally {
+            recordTiming(StartupProfile.START, ri, t0);
         }
     }
 
@@ -783,6 +1003,7 @@ public class ComponentManagerImpl implements ComponentManager {
 
         log.info("Starting Nuxeo Components");
 
+        profile = new StartupProfile(isStartupProfileEnabled());
         List<RegistrationInfo> ris = activateComponents();
 
         // TODO we sort using the old start order sorter (see OSGiRuntimeService.RIApplicationStartedComparator)
@@ -848,6 +1069,7 @@ public class ComponentManagerImpl implements ComponentManager {
     @Override
     public synchronized void resume() {
         if (this.standby != null) {
+            profile = new StartupProfile(isStartupProfileEnabled());
             try {
                 startComponents(this.standby, true);
             } finally {
@@ -1049,6 +1271,28 @@ public class ComponentManagerImpl implements ComponentManager {
 
     }
 
+    protected static boolean isStartupProfileEnabled() {
+        return Framework.isDevModeSet() || Framework.isBooleanPropertyTrue(STARTUP_PROFILE_PROP);
+    }
+
+    /**
+     * Writes the per-component timings of the last start in collapsed stack format, for flame graph tools.
+     *
+     * @since 10.10
+     */
+    protected void writeStartupProfile() {
+        StartupProfile p = profile;
+        if (p == null || !isStartupProfileEnabled()) {
+            return;
+        }
+        File file = new File(Environment.getDefault().getTemp(), "startup-profile.txt");
+        try {
+            p.write(file);
+        } catch (IOException e) {
+            log.error("Failed to write startup profile file: {}", file, e);
+        }
+    }
+
     protected void writeDevMetrics(Watch watch, String type) {
         if (!Framework.isDevModeSet()) {
             return;
@@ -0,0 +1,109 @@
+/*
+ * (C) Copyright 2018 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.runtime.model.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+/**
+ * Per-component timings of the activation, extension registration and start phases of the component manager.
+ * <p>
+ * Each phase duration is reported to an aggregate timer {@code nuxeo.runtime.component.<phase>}; when detailed, a
+ * timer per component {@code nuxeo.runtime.component.<phase>.<component>} is also reported. The profile can be written
+ * as a text file in the collapsed stack format used by flame graph tools, one {@code phase;component micros} line per
+ * component and phase.
+ *
+ * @since 10.10
+ */
+public class StartupProfile {
+
+    public static final String ACTIVATE = "activate";
+
+    public static final String EXTENSIONS = "extensions";
+
+    public static final String START = "start";
+
+    protected static final String[] PHASES = { ACTIVATE, EXTENSIONS, START };
+
+    // MetricsService is in a module depending on this one, use the same registry name
+    protected static final String METRICS_REGISTRY_NAME = "org.nuxeo.runtime.metrics.MetricsService";
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(METRICS_REGISTRY_NAME);
+
+    protected final boolean detailed;
+
+    /** Phase to component name to cumulated nanoseconds. */
+    protected final Map<String, Map<String, Long>> timings = new ConcurrentHashMap<>();
+
+    public StartupProfile(boolean detailed) {
+        this.detailed = detailed;
+    }
+
+    /**
+     * Records the duration of a phase for a component.
+     */
+    public void record(String phase, String component, long nanos) {
+        timings.computeIfAbsent(phase, k -> new ConcurrentHashMap<>()).merge(component, Long.valueOf(nanos),
+                Long::sum);
+        registry.timer(MetricRegistry.name("nuxeo", "runtime", "component", phase)).update(nanos,
+                TimeUnit.NANOSECONDS);
+        if (detailed) {
+            registry.timer(MetricRegistry.name("nuxeo", "runtime", "component", phase, component)).update(nanos,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Gets the cumulated duration of a phase for a component, in nanoseconds.
+     */
+    public long get(String phase, String component) {
+        Map<String, Long> map = timings.get(phase);
+        Long nanos = map == null ? null : map.get(component);
+        return nanos == null ? 0 : nanos.longValue();
+    }
+
+    /**
+     * Writes the profile in collapsed stack format, the longest components first in each phase.
+     */
+    public void write(File file) throws IOException {
+        try (PrintStream ps = new PrintStream(new FileOutputStream(file), false, "UTF-8")) {
+            for (String phase : PHASES) {
+                Map<String, Long> map = timings.get(phase);
+                if (map == null) {
+                    continue;
+                }
+                map.entrySet()
+                   .stream()
+                   .sorted(Map.Entry.<String, Long> comparingByValue().reversed())
+                   .forEach(e -> ps.println(phase + ';' + e.getKey() + ' '
+                           + TimeUnit.NANOSECONDS.toMicros(e.getValue().longValue())));
+            }
+            ps.flush();
+        }
+    }
+
+}
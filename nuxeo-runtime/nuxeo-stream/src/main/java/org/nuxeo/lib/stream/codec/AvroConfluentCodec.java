@@ -112,7 +112,12 @@ public class AvroConfluentCodec<T> implements Codec<T> {
 
     @Override
     public T decode(byte[] data) {
-        ByteBuffer buffer = ByteBuffer.wrap(data);
+        return decode(data, 0, data.length);
+    }
+
+    @Override
+    public T decode(byte[] data, int offset, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
         if (buffer.get() != MAGIC_BYTE) {
             throw new IllegalArgumentException("Invalid Avro Confluent message, expecting magic byte");
         }
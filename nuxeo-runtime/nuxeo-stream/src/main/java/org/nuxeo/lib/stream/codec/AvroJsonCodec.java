@@ -74,7 +74,12 @@ public class AvroJsonCodec<T> implements Codec<T> {
 
     @Override
     public T decode(byte[] data) {
-        ByteArrayInputStream bais = new ByteArrayInputStream(data);
+        return decode(data, 0, data.length);
+    }
+
+    @Override
+    public T decode(byte[] data, int offset, int length) {
+        ByteArrayInputStream bais = new ByteArrayInputStream(data, offset, length);
         try {
             JsonDecoder jsonDecoder = DecoderFactory.get().jsonDecoder(schema, bais);
             return reader.read(null, jsonDecoder);
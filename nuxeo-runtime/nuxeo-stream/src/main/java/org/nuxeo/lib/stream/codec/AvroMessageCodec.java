@@ -19,6 +19,7 @@
 package org.nuxeo.lib.stream.codec;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.apache.avro.Schema;
 import org.apache.avro.message.BadHeaderException;
@@ -80,4 +81,13 @@ public class AvroMessageCodec<T> implements Codec<T> {
             throw new IllegalArgumentException(e);
         }
     }
+
+    @Override
+    public T decode(byte[] data, int offset, int length) {
+        try {
+            return decoder.decode(ByteBuffer.wrap(data, offset, length), null);
+        } catch (IOException | BadHeaderException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
 }
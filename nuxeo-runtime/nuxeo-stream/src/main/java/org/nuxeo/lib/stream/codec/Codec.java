@@ -18,6 +18,8 @@
  */
 package org.nuxeo.lib.stream.codec;
 
+import java.util.Arrays;
+
 /**
  * Convert an object to/from byte array. The implementation should be thread safe.
  *
@@ -41,4 +43,20 @@ public interface Codec<T> {
      * @throws IllegalArgumentException if data are invalid.
      */
     T decode(byte[] data);
+
+    /**
+     * Decodes {@code length} bytes of the array starting at {@code offset}, returns an object.
+     * <p>
+     * The returned object must not reference the array, so the caller can reuse it as a read buffer. The default
+     * implementation copies the slice, codecs able to read a slice in place should override it.
+     *
+     * @throws IllegalArgumentException if data are invalid.
+     * @since 10.10
+     */
+    default T decode(byte[] data, int offset, int length) {
+        if (offset == 0 && length == data.length) {
+            return decode(data);
+        }
+        return decode(Arrays.copyOfRange(data, offset, offset + length));
+    }
 }
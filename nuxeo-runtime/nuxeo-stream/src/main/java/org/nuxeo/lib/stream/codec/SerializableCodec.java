@@ -53,11 +53,16 @@ public class SerializableCodec<T extends Serializable> implements Codec<T> {
         }
     }
 
-    @SuppressWarnings({ "unchecked", "squid:S2093" })
     @Override
     public T decode(byte[] data) {
+        return decode(data, 0, data.length);
+    }
+
+    @SuppressWarnings({ "unchecked", "squid:S2093" })
+    @Override
+    public T decode(byte[] data, int offset, int length) {
         // TODO: check if it worth to switch to commons-lang3 SerializationUtils
-        ByteArrayInputStream bis = new ByteArrayInputStream(data);
+        ByteArrayInputStream bis = new ByteArrayInputStream(data, offset, length);
         ObjectInput in = null;
         try {
             in = new ObjectInputStream(bis);
@@ -19,6 +19,8 @@
  */
 package org.nuxeo.lib.stream.computation;
 
+import java.util.List;
+
 /**
  * Computation receives records from input streams one at a time, it can produce record on its output streams. A timer
  * processing can be used for windowing computation.
@@ -53,6 +55,22 @@ public interface Computation {
      */
     void processRecord(ComputationContext context, String inputStreamName, Record record);
 
+    /**
+     * Process a batch of incoming records coming from the same input stream. This is only called when the computation
+     * policy defines a read batch, see {@link ComputationPolicyBuilder#readBatchPolicy}.<br/>
+     * The default implementation calls {@link #processRecord} for each record.
+     *
+     * @param context The computation context object provided by the system.
+     * @param inputStreamName Name of the input stream that provides the records.
+     * @param records The records, in the order of the input stream.
+     * @since 10.10
+     */
+    default void processRecords(ComputationContext context, String inputStreamName, List<Record> records) {
+        for (Record record : records) {
+            processRecord(context, inputStreamName, record);
+        }
+    }
+
     /**
      * Process a timer callback previously set via {@link ComputationContext#setTimer(String, long)}.
      *
@@ -82,14 +100,16 @@ public interface Computation {
     }
 
     /**
-     * Called after a failure in {@link #processRecord} or {@link #processTimer} before retrying.
+     * Called after a failure in {@link #processRecord}, {@link #processRecords} or {@link #processTimer} before
+     * retrying.
      *
      * @since 10.3
      */
     void processRetry(ComputationContext context, Throwable failure);
 
     /**
-     * Called when {@link #processRecord} or {@link #processTimer} fails and cannot be retried.
+     * Called when {@link #processRecord}, {@link #processRecords} or {@link #processTimer} fails and cannot be
+     * retried.
      *
      * @since 10.3
      */
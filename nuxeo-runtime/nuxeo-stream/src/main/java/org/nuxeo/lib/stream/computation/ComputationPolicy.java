@@ -44,9 +44,18 @@ public class ComputationPolicy {
 
     protected final boolean skipFailure;
 
+    protected final int readBatchCapacity;
+
+    protected final Duration readBatchThreshold;
+
+    protected final int keyParallelism;
+
     public ComputationPolicy(ComputationPolicyBuilder builder) {
         batchCapacity = builder.batchCapacity;
         batchThreshold = builder.batchThreshold;
+        readBatchCapacity = builder.readBatchCapacity;
+        readBatchThreshold = builder.readBatchThreshold;
+        keyParallelism = builder.keyParallelism;
         skipFailure = builder.skipFailure;
         retryPolicy = builder.retryPolicy;
     }
@@ -63,6 +72,52 @@ public class ComputationPolicy {
         return batchThreshold;
     }
 
+    /**
+     * The maximum number of records read by the runner and passed to {@link Computation#processRecords}.
+     *
+     * @since 10.10
+     */
+    public int getReadBatchCapacity() {
+        return readBatchCapacity;
+    }
+
+    /**
+     * The maximum duration spent by the runner to fill a batch of records.
+     *
+     * @since 10.10
+     */
+    public Duration getReadBatchThreshold() {
+        return readBatchThreshold;
+    }
+
+    /**
+     * Returns {@code true} when the runner reads and processes records by batch.
+     *
+     * @since 10.10
+     */
+    public boolean isReadBatch() {
+        return readBatchCapacity > 1;
+    }
+
+    /**
+     * The number of workers processing concurrently the records of a runner, records with the same key are always
+     * processed in order by the same worker.
+     *
+     * @since 10.10
+     */
+    public int getKeyParallelism() {
+        return keyParallelism;
+    }
+
+    /**
+     * Returns {@code true} when the runner processes records with different keys concurrently.
+     *
+     * @since 10.10
+     */
+    public boolean isKeyParallel() {
+        return keyParallelism > 1;
+    }
+
     public boolean continueOnFailure() {
         return skipFailure;
     }
@@ -79,6 +134,7 @@ public class ComputationPolicy {
     public String toString() {
         return "ComputationPolicy{" + "maxRetries=" + retryPolicy.getMaxRetries() + ", delay=" + retryPolicy.getDelay()
                 + ", delayMax=" + retryPolicy.getMaxDelay() + ", continueOnFailure=" + skipFailure + ", batchCapacity="
-                + batchCapacity + ", batchThreshold=" + batchThreshold + '}';
+                + batchCapacity + ", batchThreshold=" + batchThreshold + ", readBatchCapacity=" + readBatchCapacity
+                + ", readBatchThreshold=" + readBatchThreshold + ", keyParallelism=" + keyParallelism + '}';
     }
 }
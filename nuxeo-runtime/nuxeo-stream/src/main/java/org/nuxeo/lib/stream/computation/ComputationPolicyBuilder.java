@@ -33,6 +33,12 @@ public class ComputationPolicyBuilder {
 
     protected static final int DEFAULT_BATCH_THRESHOLD_SECOND = 1;
 
+    protected static final int DEFAULT_READ_BATCH_CAPACITY = 1;
+
+    protected static final int DEFAULT_READ_BATCH_THRESHOLD_MS = 50;
+
+    protected static final int DEFAULT_KEY_PARALLELISM = 1;
+
     protected RetryPolicy retryPolicy = ComputationPolicy.NO_RETRY;
 
     protected boolean skipFailure = false;
@@ -41,6 +47,12 @@ public class ComputationPolicyBuilder {
 
     protected Duration batchThreshold = Duration.ofSeconds(DEFAULT_BATCH_THRESHOLD_SECOND);
 
+    protected int readBatchCapacity = DEFAULT_READ_BATCH_CAPACITY;
+
+    protected Duration readBatchThreshold = Duration.ofMillis(DEFAULT_READ_BATCH_THRESHOLD_MS);
+
+    protected int keyParallelism = DEFAULT_KEY_PARALLELISM;
+
     public ComputationPolicyBuilder() {
         // Empty constructor
     }
@@ -59,6 +71,40 @@ public class ComputationPolicyBuilder {
         return this;
     }
 
+    /**
+     * Defines how the computation runner reads records from its input streams.
+     * <p>
+     * When capacity is greater than 1, the runner drains up to capacity records or until the time threshold is
+     * reached, then passes them to {@link Computation#processRecords}. The retry policy, the checkpoint and the
+     * watermark tracking are applied once per batch instead of once per record.
+     *
+     * @param capacity the maximum number of records in a batch, 1 to process records one at a time (default)
+     * @param timeThreshold the maximum duration to fill a batch
+     * @since 10.10
+     */
+    public ComputationPolicyBuilder readBatchPolicy(int capacity, Duration timeThreshold) {
+        readBatchCapacity = capacity;
+        readBatchThreshold = timeThreshold;
+        return this;
+    }
+
+    /**
+     * Defines the number of workers used by a runner to process records concurrently.
+     * <p>
+     * When greater than 1, the runner dispatches the records it reads to workers according to their key, each worker
+     * having its own computation instance. Records with the same key are processed in order, records with different
+     * keys can be processed concurrently, and the committed positions never go beyond the oldest record not yet
+     * processed. This scales a computation without changing the number of partitions, the computation must not rely on
+     * the order of records with different keys. This mode does not apply to read batches.
+     *
+     * @param parallelism the number of workers, 1 to process records in the runner thread (default)
+     * @since 10.10
+     */
+    public ComputationPolicyBuilder keyParallelism(int parallelism) {
+        keyParallelism = parallelism;
+        return this;
+    }
+
     /**
      * Defines what to do in case of failure during the batch processing.
      */
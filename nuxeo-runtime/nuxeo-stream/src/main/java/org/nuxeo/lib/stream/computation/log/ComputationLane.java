@@ -0,0 +1,232 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.lib.stream.computation.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.lib.stream.computation.Computation;
+import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.internals.ComputationContextImpl;
+import org.nuxeo.lib.stream.log.LogRecord;
+
+import net.jodah.failsafe.Failsafe;
+
+/**
+ * A worker of a {@link ComputationRunner} in key parallel mode.
+ * <p>
+ * The runner dispatches to a lane all the records of a subset of keys, the lane processes them in order with its own
+ * computation instance and context, then reports each completed record to the runner that takes care of the outputs
+ * and of the checkpoints. Timers set by the lane computation are processed by the lane.
+ *
+ * @since 10.10
+ */
+public class ComputationLane implements Runnable {
+
+    private static final Log log = LogFactory.getLog(ComputationLane.class);
+
+    protected static final int QUEUE_CAPACITY = 32;
+
+    protected static final long POLL_TIMEOUT_MS = 100;
+
+    protected final ComputationRunner runner;
+
+    protected final Computation computation;
+
+    protected final BlockingQueue<LogRecord<Record>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // number of records dispatched and not yet completed or discarded
+    protected final AtomicInteger inFlight = new AtomicInteger();
+
+    protected volatile ComputationContextImpl context;
+
+    protected volatile boolean resetRequested;
+
+    protected volatile boolean stop;
+
+    // after a failure, the lane discards its records until the runner stops
+    protected volatile boolean failed;
+
+    public ComputationLane(ComputationRunner runner, Computation computation) {
+        this.runner = runner;
+        this.computation = computation;
+        this.context = runner.newContext();
+    }
+
+    /**
+     * Queues a record to process, waits if the lane is full.
+     */
+    public void dispatch(LogRecord<Record> record) throws InterruptedException {
+        inFlight.incrementAndGet();
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the queued records, the record in progress is completed.
+     */
+    public void discard() {
+        List<LogRecord<Record>> records = new ArrayList<>();
+        inFlight.addAndGet(-queue.drainTo(records));
+    }
+
+    /**
+     * Returns {@code true} when all the dispatched records have been completed or discarded.
+     */
+    public boolean isIdle() {
+        return inFlight.get() == 0;
+    }
+
+    /**
+     * Asks for a new context, before processing the next record.
+     */
+    public void reset() {
+        resetRequested = true;
+    }
+
+    public void stop() {
+        stop = true;
+        computation.signalStop();
+    }
+
+    @Override
+    public void run() {
+        log.debug(runner.metadata.name() + ": Init lane");
+        computation.init(context);
+        try {
+            while (!stop && !Thread.currentThread().isInterrupted()) {
+                checkReset();
+                processTimers();
+                LogRecord<Record> record = queue.poll(getPollTimeout(), TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    try {
+                        checkReset();
+                        if (!failed) {
+                            processRecord(record);
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug(runner.metadata.name() + ": Lane interrupted");
+        } catch (RuntimeException e) {
+            log.error(runner.metadata.name() + ": Exception in lane: " + e.getMessage(), e);
+            failed = true;
+            runner.laneFailed(this);
+            queue.clear();
+            inFlight.set(0);
+        } finally {
+            computation.destroy();
+            log.debug(runner.metadata.name() + ": Lane exited");
+        }
+    }
+
+    protected void checkReset() {
+        if (resetRequested) {
+            resetRequested = false;
+            context = runner.newContext();
+            failed = false;
+            log.debug(runner.metadata.name() + ": Reset lane");
+            computation.init(context);
+        }
+    }
+
+    protected long getPollTimeout() {
+        Map<String, Long> timers = context.getTimers();
+        if (timers.isEmpty()) {
+            return POLL_TIMEOUT_MS;
+        }
+        long nextTimer = timers.values().stream().mapToLong(Long::longValue).min().getAsLong();
+        return Math.max(0, Math.min(POLL_TIMEOUT_MS, nextTimer - System.currentTimeMillis()));
+    }
+
+    protected void processRecord(LogRecord<Record> logRecord) {
+        String from = runner.metadata.reverseMap(logRecord.offset().partition().name());
+        Record record = logRecord.message();
+        context.setLastOffset(logRecord.offset());
+        Failsafe.with(runner.policy.getRetryPolicy())
+                .onRetry(failure -> computation.processRetry(context, failure))
+                .onFailure(failure -> computation.processFailure(context, failure))
+                .withFallback(this::processFallback)
+                .run(() -> computation.processRecord(context, from, record));
+        if (context.requireTerminate()) {
+            failed = true;
+            runner.laneFailed(this);
+        } else {
+            runner.laneCompleted(this, logRecord);
+        }
+    }
+
+    protected void processTimers() {
+        if (failed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Long>> timers = context.getTimers()
+                                                      .entrySet()
+                                                      .stream()
+                                                      .filter(entry -> entry.getValue() <= now)
+                                                      .sorted(Map.Entry.comparingByValue())
+                                                      .collect(Collectors.toList());
+        if (timers.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Long> timer : timers) {
+            context.removeTimer(timer.getKey());
+            Failsafe.with(runner.policy.getRetryPolicy())
+                    .onRetry(failure -> computation.processRetry(context, failure))
+                    .onFailure(failure -> computation.processFailure(context, failure))
+                    .withFallback(this::processFallback)
+                    .run(() -> computation.processTimer(context, timer.getKey(), timer.getValue()));
+        }
+        if (context.requireTerminate()) {
+            failed = true;
+            runner.laneFailed(this);
+        } else {
+            runner.laneCompleted(this, null);
+        }
+    }
+
+    protected void processFallback() {
+        if (runner.policy.continueOnFailure()) {
+            log.error(String.format("Skip record after failure: %s", context.getLastOffset()));
+            context.askForCheckpoint();
+        } else {
+            log.error(String.format("Terminate computation: %s due to previous failure", runner.metadata.name()));
+            context.cancelAskForCheckpoint();
+            context.askForTermination();
+        }
+    }
+
+}
@@ -19,11 +19,17 @@
 package org.nuxeo.lib.stream.computation.log;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -45,6 +51,7 @@ import org.nuxeo.lib.stream.log.LogRecord;
 import org.nuxeo.lib.stream.log.LogTailer;
 import org.nuxeo.lib.stream.log.RebalanceException;
 import org.nuxeo.lib.stream.log.RebalanceListener;
+import org.nuxeo.lib.stream.log.internals.LogOffsetImpl;
 
 import net.jodah.failsafe.Failsafe;
 
@@ -61,6 +68,8 @@ public class ComputationRunner implements Runnable, RebalanceListener {
 
     protected static final long INACTIVITY_BREAK_MS = 100;
 
+    protected static final long LANE_STOP_TIMEOUT_S = 30;
+
     private static final Log log = LogFactory.getLog(ComputationRunner.class);
 
     protected final LogManager logManager;
@@ -103,6 +112,23 @@ public class ComputationRunner implements Runnable, RebalanceListener {
 
     protected String threadName;
 
+    protected boolean idle;
+
+    // key parallel mode, since 10.10
+    protected volatile List<ComputationLane> lanes;
+
+    protected ExecutorService laneExecutor;
+
+    // offsets of the records dispatched to the lanes and not yet completed, guarded by lanes
+    protected final Map<LogPartition, TreeSet<Long>> pendingOffsets = new HashMap<>();
+
+    // records produced by the lanes and not yet sent, guarded by lanes
+    protected final Map<String, List<Record>> laneRecords = new HashMap<>();
+
+    protected volatile boolean laneCheckpoint;
+
+    protected volatile boolean laneTerminate;
+
     @SuppressWarnings("unchecked")
     public ComputationRunner(Supplier<Computation> supplier, ComputationMetadataMapping metadata,
             List<LogPartition> defaultAssignment, LogManager logManager, Codec<Record> inputCodec,
@@ -110,10 +136,10 @@ public class ComputationRunner implements Runnable, RebalanceListener {
         this.supplier = supplier;
         this.metadata = metadata;
         this.logManager = logManager;
-        this.context = new ComputationContextImpl(logManager, metadata, policy);
+        this.policy = policy;
+        this.context = newContext();
         this.inputCodec = inputCodec;
         this.outputCodec = outputCodec;
-        this.policy = policy;
         if (metadata.inputStreams().isEmpty()) {
             this.tailer = null;
             assignmentLatch.countDown();
@@ -131,6 +157,10 @@ public class ComputationRunner implements Runnable, RebalanceListener {
         if (computation != null) {
             computation.signalStop();
         }
+        List<ComputationLane> currentLanes = lanes;
+        if (currentLanes != null) {
+            currentLanes.forEach(lane -> lane.computation.signalStop());
+        }
     }
 
     public void drain() {
@@ -150,12 +180,19 @@ public class ComputationRunner implements Runnable, RebalanceListener {
     public void run() {
         threadName = Thread.currentThread().getName();
         boolean interrupted = false;
-        computation = supplier.get();
-        log.debug(metadata.name() + ": Init");
-        computation.init(context);
+        if (isKeyParallel()) {
+            startLanes();
+        } else {
+            computation = supplier.get();
+            log.debug(metadata.name() + ": Init");
+            computation.init(context);
+        }
         log.debug(metadata.name() + ": Start");
         try {
             processLoop();
+            if (lanes != null) {
+                completeLanes();
+            }
         } catch (InterruptedException e) {
             interrupted = true; // Thread.currentThread().interrupt() in finally
             // this is expected when the pool is shutdownNow
@@ -175,7 +212,10 @@ public class ComputationRunner implements Runnable, RebalanceListener {
             }
         } finally {
             try {
-                computation.destroy();
+                if (computation != null) {
+                    computation.destroy();
+                }
+                stopLanes(interrupted);
                 closeTailer();
                 log.debug(metadata.name() + ": Exited");
             } finally {
@@ -186,6 +226,123 @@ public class ComputationRunner implements Runnable, RebalanceListener {
         }
     }
 
+    protected ComputationContextImpl newContext() {
+        return new ComputationContextImpl(logManager, metadata, policy);
+    }
+
+    /**
+     * Returns {@code true} when records are dispatched to lanes, see {@link ComputationPolicy#getKeyParallelism()}.
+     *
+     * @since 10.10
+     */
+    protected boolean isKeyParallel() {
+        return tailer != null && policy.isKeyParallel() && !policy.isReadBatch();
+    }
+
+    protected void startLanes() {
+        int parallelism = policy.getKeyParallelism();
+        log.debug(metadata.name() + ": Start " + parallelism + " lanes");
+        List<ComputationLane> newLanes = new ArrayList<>(parallelism);
+        laneExecutor = Executors.newFixedThreadPool(parallelism,
+                new ComputationPool.NamedThreadFactory(threadName + "-lane"));
+        for (int i = 0; i < parallelism; i++) {
+            ComputationLane lane = new ComputationLane(this, supplier.get());
+            newLanes.add(lane);
+            laneExecutor.execute(lane);
+        }
+        lanes = newLanes;
+    }
+
+    /**
+     * Waits for the lanes to complete the dispatched records, then checkpoints if needed.
+     */
+    protected void completeLanes() throws InterruptedException {
+        while (!laneTerminate && !lanes.stream().allMatch(ComputationLane::isIdle)) {
+            Thread.sleep(10);
+        }
+        if (!laneTerminate) {
+            checkpointIfNecessary();
+        }
+    }
+
+    protected void stopLanes(boolean interrupted) {
+        if (lanes == null) {
+            return;
+        }
+        lanes.forEach(ComputationLane::stop);
+        if (interrupted) {
+            laneExecutor.shutdownNow();
+            return;
+        }
+        laneExecutor.shutdown();
+        try {
+            if (!laneExecutor.awaitTermination(LANE_STOP_TIMEOUT_S, TimeUnit.SECONDS)) {
+                log.warn(metadata.name() + ": Timeout waiting for lanes to stop");
+                laneExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            laneExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected ComputationLane getLane(String key) {
+        int index = key == null ? 0 : Math.floorMod(key.hashCode(), lanes.size());
+        return lanes.get(index);
+    }
+
+    /**
+     * Called by a lane when a record or a timer has been processed, the record can be null for a timer.
+     */
+    protected void laneCompleted(ComputationLane lane, LogRecord<Record> logRecord) {
+        ComputationContextImpl laneContext = lane.context;
+        synchronized (lanes) {
+            for (String stream : metadata.outputStreams()) {
+                List<Record> records = laneContext.getRecords(stream);
+                if (!records.isEmpty()) {
+                    laneRecords.computeIfAbsent(stream, key -> new ArrayList<>()).addAll(records);
+                    records.clear();
+                }
+            }
+            if (logRecord != null) {
+                Set<Long> pending = pendingOffsets.get(logRecord.offset().partition());
+                if (pending != null) {
+                    pending.remove(logRecord.offset().offset());
+                }
+            }
+        }
+        if (laneContext.requireCheckpoint()) {
+            laneContext.removeCheckpointFlag();
+            laneCheckpoint = true;
+        }
+    }
+
+    /**
+     * Called by a lane that has failed to process a record, the runner stops without checkpointing the record.
+     */
+    protected void laneFailed(ComputationLane lane) {
+        laneTerminate = true;
+    }
+
+    /**
+     * Discards the records dispatched to the lanes and not yet processed, waits for the record in progress.
+     */
+    protected void discardLanes() {
+        lanes.forEach(ComputationLane::discard);
+        try {
+            while (!lanes.stream().allMatch(ComputationLane::isIdle)) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lanes) {
+            pendingOffsets.clear();
+            laneRecords.clear();
+            laneCheckpoint = false;
+        }
+    }
+
     protected void closeTailer() {
         if (tailer != null && !tailer.closed()) {
             tailer.close();
@@ -198,13 +355,30 @@ public class ComputationRunner implements Runnable, RebalanceListener {
             activity = processTimer();
             activity |= processRecord();
             counter++;
-            if (!activity) {
-                // no timer nor record to process, take a break
-                Thread.sleep(INACTIVITY_BREAK_MS);
+            idle = !activity;
+            if (idle && tailer == null) {
+                // no timer to process, take a break
+                Thread.sleep(getIdleDuration());
             }
+            // when there is an input, the next read parks on the tailer until new records are available
         }
     }
 
+    /**
+     * Returns the maximum duration to wait when there is no activity, bounded by the next timer.
+     *
+     * @since 10.10
+     */
+    protected long getIdleDuration() {
+        long ret = INACTIVITY_BREAK_MS;
+        Map<String, Long> timers = context.getTimers();
+        if (!timers.isEmpty()) {
+            long nextTimer = timers.values().stream().mapToLong(Long::longValue).min().getAsLong();
+            ret = Math.min(ret, nextTimer - System.currentTimeMillis());
+        }
+        return Math.max(ret, 1);
+    }
+
     protected boolean continueLoop() {
         if (stop || Thread.currentThread().isInterrupted()) {
             return false;
@@ -280,6 +454,12 @@ public class ComputationRunner implements Runnable, RebalanceListener {
         if (tailer == null) {
             return false;
         }
+        if (lanes != null) {
+            return processRecordInLanes();
+        }
+        if (policy.isReadBatch()) {
+            return processRecords();
+        }
         Duration timeoutRead = getTimeoutDuration();
         LogRecord<Record> logRecord = null;
         try {
@@ -305,6 +485,127 @@ public class ComputationRunner implements Runnable, RebalanceListener {
         return false;
     }
 
+    /**
+     * Reads a record and dispatches it to the lane of its key, checkpoints the records completed by the lanes.
+     *
+     * @since 10.10
+     */
+    protected boolean processRecordInLanes() throws InterruptedException {
+        if (laneTerminate) {
+            stop = true;
+            return true;
+        }
+        LogRecord<Record> logRecord = null;
+        try {
+            logRecord = tailer.read(getTimeoutDuration());
+        } catch (RebalanceException e) {
+            // the revoke has discarded the pending records
+        }
+        if (logRecord != null) {
+            Record record = logRecord.message();
+            lastReadTime = System.currentTimeMillis();
+            inRecords++;
+            lowWatermark.mark(record.getWatermark());
+            context.setLastOffset(logRecord.offset());
+            synchronized (lanes) {
+                pendingOffsets.computeIfAbsent(logRecord.offset().partition(), partition -> new TreeSet<>())
+                              .add(logRecord.offset().offset());
+            }
+            getLane(record.getKey()).dispatch(logRecord);
+            checkRecordFlags(record);
+            setThreadName("lanes");
+        }
+        checkpointIfNecessary();
+        return logRecord != null;
+    }
+
+    /**
+     * Reads up to the policy read batch capacity records, or until the read batch threshold is reached, and processes
+     * them by batch of records coming from the same input stream. The checkpoint is done once for the whole batch.
+     *
+     * @since 10.10
+     */
+    protected boolean processRecords() throws InterruptedException {
+        int capacity = policy.getReadBatchCapacity();
+        long deadline = System.currentTimeMillis() + policy.getReadBatchThreshold().toMillis();
+        List<Record> records = new ArrayList<>(capacity);
+        String currentFrom = null;
+        int count = 0;
+        Duration timeoutRead = getTimeoutDuration();
+        do {
+            LogRecord<Record> logRecord;
+            try {
+                logRecord = tailer.read(timeoutRead);
+            } catch (RebalanceException e) {
+                // the context has been reset, pending records are no longer ours
+                log.debug(metadata.name() + ": Rebalance, discard a batch of " + records.size() + " records");
+                return true;
+            }
+            if (logRecord == null) {
+                break;
+            }
+            Record record = logRecord.message();
+            String from = metadata.reverseMap(logRecord.offset().partition().name());
+            if (currentFrom != null && !currentFrom.equals(from)) {
+                // no checkpoint yet: the record just read is not processed, committing would skip it
+                if (!processBatch(currentFrom, records, false)) {
+                    return true;
+                }
+                records = new ArrayList<>(capacity);
+            }
+            currentFrom = from;
+            lastReadTime = System.currentTimeMillis();
+            inRecords++;
+            lowWatermark.mark(record.getWatermark());
+            context.setLastOffset(logRecord.offset());
+            records.add(record);
+            count++;
+            if (record.getFlags().contains(Record.Flag.POISON_PILL)) {
+                // stop reading, the records following the pill are left to the next run
+                break;
+            }
+            timeoutRead = Duration.ofMillis(Math.max(0, Math.min(READ_TIMEOUT.toMillis(), deadline - lastReadTime)));
+        } while (count < capacity && System.currentTimeMillis() < deadline);
+        if (records.isEmpty()) {
+            return false;
+        }
+        processBatch(currentFrom, records, true);
+        return true;
+    }
+
+    /**
+     * Processes a batch of records and checkpoints if necessary and allowed, returns {@code false} when the runner must
+     * stop.
+     * <p>
+     * A checkpoint commits the tailer position, it must not be done while a record that has been read is not yet
+     * processed. A checkpoint requested and not done is kept for the next batch.
+     */
+    protected boolean processBatch(String from, List<Record> records, boolean allowCheckpoint) {
+        processRecordsWithRetry(from, records);
+        if (context.requireTerminate()) {
+            // no checkpoint after a failure
+            stop = true;
+            return false;
+        }
+        for (Record record : records) {
+            checkRecordFlags(record);
+        }
+        checkSourceLowWatermark();
+        setThreadName("records");
+        if (allowCheckpoint) {
+            checkpointIfNecessary();
+        }
+        return !stop;
+    }
+
+    protected void processRecordsWithRetry(String from, List<Record> records) {
+        Failsafe.with(policy.getRetryPolicy())
+                .onRetry(failure -> computation.processRetry(context, failure))
+                .onFailure(failure -> computation.processFailure(context, failure))
+                .withFallback(() -> processFallback(context))
+                .run(() -> computation.processRecords(context, from, records));
+    }
+
     protected void processRecordWithRetry(String from, Record record) {
         Failsafe.with(policy.getRetryPolicy())
                 .onRetry(failure -> computation.processRetry(context, failure))
@@ -325,6 +626,10 @@ public class ComputationRunner implements Runnable, RebalanceListener {
     }
 
     protected Duration getTimeoutDuration() {
+        if (idle) {
+            // nothing to do, wait for new records
+            return Duration.ofMillis(getIdleDuration());
+        }
         // Adapt the duration so we are not throttling when one of the input stream is empty
         return Duration.ofMillis(Math.min(READ_TIMEOUT.toMillis(), System.currentTimeMillis() - lastReadTime));
     }
@@ -348,7 +653,7 @@ public class ComputationRunner implements Runnable, RebalanceListener {
     }
 
     protected void checkpointIfNecessary() {
-        if (context.requireCheckpoint()) {
+        if (context.requireCheckpoint() || laneCheckpoint) {
             boolean completed = false;
             try {
                 checkpoint();
@@ -362,16 +667,33 @@ public class ComputationRunner implements Runnable, RebalanceListener {
     }
 
     protected void checkpoint() {
+        boolean completed = true;
+        if (lanes == null) {
+            checkpointRecordsAndOffsets();
+        } else {
+            // the lanes cannot complete records during the checkpoint
+            synchronized (lanes) {
+                laneCheckpoint = false;
+                checkpointRecordsAndOffsets();
+                completed = !hasPendingOffsets();
+            }
+        }
+        if (completed) {
+            // with lanes, the watermarks read are completed only when there is no pending record
+            lowWatermark.checkpoint();
+        }
+        context.removeCheckpointFlag();
+        log.debug(metadata.name() + ": checkpoint");
+        inCheckpointRecords = inRecords;
+        setThreadName("checkpoint");
+    }
+
+    protected void checkpointRecordsAndOffsets() {
         sendRecords();
         saveTimers();
         saveState();
         // To Simulate slow checkpoint add a Thread.sleep(1)
         saveOffsets();
-        lowWatermark.checkpoint();
-        context.removeCheckpointFlag();
-        log.debug(metadata.name() + ": checkpoint");
-        inCheckpointRecords = inRecords;
-        setThreadName("checkpoint");
     }
 
     protected void saveTimers() {
@@ -383,26 +705,50 @@ public class ComputationRunner implements Runnable, RebalanceListener {
     }
 
     protected void saveOffsets() {
-        if (tailer != null) {
+        if (tailer == null) {
+            return;
+        }
+        if (lanes == null || !hasPendingOffsets()) {
             tailer.commit();
+            return;
         }
+        // records are completed out of order, commit up to the oldest record not yet completed
+        pendingOffsets.forEach((partition, offsets) -> {
+            if (offsets.isEmpty()) {
+                tailer.commit(partition);
+            } else {
+                tailer.commit(new LogOffsetImpl(partition, offsets.first()));
+            }
+        });
+    }
+
+    protected boolean hasPendingOffsets() {
+        return !pendingOffsets.values().stream().allMatch(Set::isEmpty);
     }
 
     protected void sendRecords() {
         for (String stream : metadata.outputStreams()) {
             LogAppender<Record> appender = logManager.getAppender(stream, outputCodec);
-            for (Record record : context.getRecords(stream)) {
-                if (record.getWatermark() == 0) {
-                    // use low watermark when not set
-                    record.setWatermark(lowWatermark.getLow().getValue());
-                }
-                appender.append(record.getKey(), record);
-                outRecords++;
+            sendRecords(appender, context.getRecords(stream));
+            List<Record> records = laneRecords.get(stream);
+            if (records != null) {
+                sendRecords(appender, records);
             }
-            context.getRecords(stream).clear();
         }
     }
 
+    protected void sendRecords(LogAppender<Record> appender, List<Record> records) {
+        for (Record record : records) {
+            if (record.getWatermark() == 0) {
+                // use low watermark when not set
+                record.setWatermark(lowWatermark.getLow().getValue());
+            }
+            appender.append(record.getKey(), record);
+            outRecords++;
+        }
+        records.clear();
+    }
+
     public Watermark getLowWatermark() {
         return lowWatermark.getLow();
     }
@@ -420,6 +766,9 @@ public class ComputationRunner implements Runnable, RebalanceListener {
     @Override
     public void onPartitionsRevoked(Collection<LogPartition> partitions) {
         setThreadName("rebalance revoked");
+        if (lanes != null) {
+            discardLanes();
+        }
     }
 
     @Override
@@ -427,9 +776,14 @@ public class ComputationRunner implements Runnable, RebalanceListener {
         lastReadTime = System.currentTimeMillis();
         setThreadName("rebalance assigned");
         // reset the context
-        this.context = new ComputationContextImpl(logManager, metadata, policy);
-        log.debug(metadata.name() + ": Init");
-        computation.init(context);
+        this.context = newContext();
+        if (computation != null) {
+            log.debug(metadata.name() + ": Init");
+            computation.init(context);
+        }
+        if (lanes != null) {
+            lanes.forEach(ComputationLane::reset);
+        }
         lastReadTime = System.currentTimeMillis();
         lastTimerExecution = 0;
         assignmentLatch.countDown();
@@ -62,6 +62,17 @@ public interface LogTailer<M extends Externalizable> extends AutoCloseable {
      */
     LogOffset commit(LogPartition partition);
 
+    /**
+     * Commit a position for the offset partition: the offset is the one of the next message to process, all the
+     * messages before it are considered as processed.
+     * <p>
+     * This is used when messages are processed out of order, the offset must be one returned by a previous read on this
+     * tailer.
+     *
+     * @since 10.10
+     */
+    void commit(LogOffset offset);
+
     /**
      * Set the current positions to the end of all partitions.
      */
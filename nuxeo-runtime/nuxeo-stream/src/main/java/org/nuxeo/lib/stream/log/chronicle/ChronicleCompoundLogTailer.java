@@ -23,12 +23,15 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.lib.stream.log.LogOffset;
 import org.nuxeo.lib.stream.log.LogPartition;
 import org.nuxeo.lib.stream.log.LogRecord;
 import org.nuxeo.lib.stream.log.LogTailer;
+import org.nuxeo.lib.stream.log.internals.LogDataSignal;
 
 /**
  * A compound tailer to handle multiple partitions.
@@ -46,6 +49,9 @@ public class ChronicleCompoundLogTailer<M extends Externalizable> implements Log
 
     protected final Codec<M> codec;
 
+    // the signal shared by all tailers, null if they don't share the same signal
+    protected final LogDataSignal signal;
+
     protected boolean closed;
 
     protected long counter;
@@ -61,22 +67,24 @@ public class ChronicleCompoundLogTailer<M extends Externalizable> implements Log
             this.codec = tailers.iterator().next().getCodec();
         }
         tailers.forEach(partition -> logPartitions.addAll(partition.assignments()));
+        Set<LogDataSignal> signals = this.tailers.stream()
+                                                 .map(ChronicleLogTailer::getSignal)
+                                                 .collect(Collectors.toSet());
+        this.signal = signals.size() == 1 ? signals.iterator().next() : null;
     }
 
     @Override
     public LogRecord<M> read(Duration timeout) throws InterruptedException {
-        LogRecord<M> ret = read();
-        if (ret != null) {
-            return ret;
-        }
-        final long timeoutMs = timeout.toMillis();
-        final long deadline = System.currentTimeMillis() + timeoutMs;
-        final long delay = Math.min(ChronicleLogTailer.POLL_INTERVAL_MS, timeoutMs);
-        while (ret == null && System.currentTimeMillis() < deadline) {
-            Thread.sleep(delay);
-            ret = read();
+        final long deadline = System.currentTimeMillis() + timeout.toMillis();
+        while (true) {
+            long sequence = signal == null ? 0 : signal.sequence();
+            LogRecord<M> ret = read();
+            long remaining = deadline - System.currentTimeMillis();
+            if (ret != null || remaining <= 0) {
+                return ret;
+            }
+            ChronicleLogTailer.waitForData(signal, sequence, remaining);
         }
-        return ret;
     }
 
     protected LogRecord<M> read() {
@@ -107,6 +115,17 @@ public class ChronicleCompoundLogTailer<M extends Externalizable> implements Log
         throw new IllegalArgumentException("No tailer matching: " + partition);
     }
 
+    @Override
+    public void commit(LogOffset offset) {
+        for (LogTailer<M> tailer : tailers) {
+            if (tailer.assignments().contains(offset.partition())) {
+                tailer.commit(offset);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No tailer matching: " + offset.partition());
+    }
+
     @Override
     public void commit() {
         tailers.forEach(LogTailer::commit);
@@ -44,6 +44,7 @@ import org.nuxeo.lib.stream.log.LogOffset;
 import org.nuxeo.lib.stream.log.LogPartition;
 import org.nuxeo.lib.stream.log.LogTailer;
 import org.nuxeo.lib.stream.log.internals.CloseableLogAppender;
+import org.nuxeo.lib.stream.log.internals.LogDataSignal;
 import org.nuxeo.lib.stream.log.internals.LogOffsetImpl;
 
 import net.openhft.chronicle.queue.ChronicleQueue;
@@ -96,12 +97,25 @@ public class ChronicleLogAppender<M extends Externalizable> implements Closeable
 
     protected final Codec<M> codec;
 
+    // notify the in-process tailers on append
+    protected final LogDataSignal signal;
+
     protected volatile boolean closed;
 
     /**
      * Open an existing Log
      */
     protected ChronicleLogAppender(Codec<M> codec, File basePath, ChronicleRetentionDuration retention) {
+        this(codec, basePath, retention, new LogDataSignal());
+    }
+
+    /**
+     * Open an existing Log sharing a data signal with other logs.
+     *
+     * @since 10.10
+     */
+    protected ChronicleLogAppender(Codec<M> codec, File basePath, ChronicleRetentionDuration retention,
+            LogDataSignal signal) {
         if (!exists(basePath)) {
             throw new IllegalArgumentException("Cannot open Chronicle Queues, invalid path: " + basePath);
         }
@@ -109,7 +123,9 @@ public class ChronicleLogAppender<M extends Externalizable> implements Closeable
             log.debug("Opening: " + toString());
         }
         Objects.requireNonNull(codec);
+        Objects.requireNonNull(signal);
         this.codec = codec;
+        this.signal = signal;
         this.basePath = basePath;
         this.name = basePath.getName();
 
@@ -159,6 +175,7 @@ public class ChronicleLogAppender<M extends Externalizable> implements Closeable
         Objects.requireNonNull(codec);
         this.nbPartitions = size;
         this.codec = codec;
+        this.signal = new LogDataSignal();
         this.name = basePath.getName();
         this.basePath = basePath;
         this.retention = retention;
@@ -273,6 +290,16 @@ public class ChronicleLogAppender<M extends Externalizable> implements Closeable
         return new ChronicleLogAppender<>(codec, basePath, retention);
     }
 
+    /**
+     * Open an existing log, tailers are notified using the provided signal.
+     *
+     * @since 10.10
+     */
+    public static <M extends Externalizable> ChronicleLogAppender<M> open(Codec<M> codec, File basePath,
+            ChronicleRetentionDuration retention, LogDataSignal signal) {
+        return new ChronicleLogAppender<>(codec, basePath, retention, signal);
+    }
+
     public String getBasePath() {
         return basePath.getPath();
     }
@@ -297,6 +324,7 @@ public class ChronicleLogAppender<M extends Externalizable> implements Closeable
             appender.writeDocument(w -> w.write().bytes(codec.encode(message)));
         }
         long offset = appender.lastIndexAppended();
+        signal.signal();
         LogOffset ret = new LogOffsetImpl(name, partition, offset);
         if (log.isDebugEnabled()) {
             log.debug(String.format("append to %s, value: %s", ret, message));
@@ -306,7 +334,7 @@ public class ChronicleLogAppender<M extends Externalizable> implements Closeable
 
     public LogTailer<M> createTailer(LogPartition partition, String group, Codec<M> codec) {
         return addTailer(new ChronicleLogTailer<>(codec, basePath.toString(),
-                partitions.get(partition.partition()).createTailer(), partition, group, retention));
+                partitions.get(partition.partition()).createTailer(), partition, group, retention, signal));
     }
 
     public long endOffset(int partition) {
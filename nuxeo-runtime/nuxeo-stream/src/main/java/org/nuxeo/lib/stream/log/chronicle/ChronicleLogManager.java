@@ -41,6 +41,7 @@ import org.nuxeo.lib.stream.log.LogTailer;
 import org.nuxeo.lib.stream.log.RebalanceListener;
 import org.nuxeo.lib.stream.log.internals.AbstractLogManager;
 import org.nuxeo.lib.stream.log.internals.CloseableLogAppender;
+import org.nuxeo.lib.stream.log.internals.LogDataSignal;
 
 /**
  * @since 9.3
@@ -52,6 +53,9 @@ public class ChronicleLogManager extends AbstractLogManager {
 
     protected final ChronicleRetentionDuration retention;
 
+    // shared by all the logs of the manager so a compound tailer can park on a single signal
+    protected final LogDataSignal signal = new LogDataSignal();
+
     public ChronicleLogManager(Path basePath) {
         this(basePath, null);
     }
@@ -203,7 +207,7 @@ public class ChronicleLogManager extends AbstractLogManager {
 
     @Override
     public <M extends Externalizable> CloseableLogAppender<M> createAppender(String name, Codec<M> codec) {
-        return ChronicleLogAppender.open(codec, basePath.resolve(name).toFile(), retention);
+        return ChronicleLogAppender.open(codec, basePath.resolve(name).toFile(), retention, signal);
     }
 
     @Override
@@ -23,10 +23,8 @@ import static org.nuxeo.lib.stream.log.chronicle.ChronicleLogAppender.MSG_KEY;
 
 import java.io.Externalizable;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,11 +36,15 @@ import org.nuxeo.lib.stream.log.LogOffset;
 import org.nuxeo.lib.stream.log.LogPartition;
 import org.nuxeo.lib.stream.log.LogRecord;
 import org.nuxeo.lib.stream.log.LogTailer;
+import org.nuxeo.lib.stream.log.internals.LogDataSignal;
 import org.nuxeo.lib.stream.log.internals.LogOffsetImpl;
 import org.nuxeo.lib.stream.log.internals.LogPartitionGroup;
 
+import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.queue.ExcerptTailer;
 import net.openhft.chronicle.queue.TailerState;
+import net.openhft.chronicle.wire.ReadMarshallable;
+import net.openhft.chronicle.wire.WireIn;
 
 /**
  * @since 9.3
@@ -50,6 +52,8 @@ import net.openhft.chronicle.queue.TailerState;
 public class ChronicleLogTailer<M extends Externalizable> implements LogTailer<M> {
     protected static final long POLL_INTERVAL_MS = 100L;
 
+    protected static final int READ_BUFFER_INITIAL_SIZE = 4096;
+
     // keep track of all tailers on the same namespace index even from different log
     protected static final Set<LogPartitionGroup> tailersId = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
@@ -67,16 +71,37 @@ public class ChronicleLogTailer<M extends Externalizable> implements LogTailer<M
 
     protected final Codec<M> codec;
 
+    // signaled on in-process append, null when only polling is possible
+    protected final LogDataSignal signal;
+
     protected volatile boolean closed = false;
 
+    // read buffer reused for all the messages, the codec decodes the payload in place
+    protected final Bytes<byte[]> readBuffer = Bytes.allocateElasticOnHeap(READ_BUFFER_INITIAL_SIZE);
+
+    // the following fields avoid allocating a holder and a lambda for each read
+    protected final ReadMarshallable readMessage;
+
+    protected M message;
+
     public ChronicleLogTailer(Codec<M> codec, String basePath, ExcerptTailer cqTailer, LogPartition partition,
             String group, ChronicleRetentionDuration retention) {
+        this(codec, basePath, cqTailer, partition, group, retention, null);
+    }
+
+    /**
+     * @since 10.10
+     */
+    public ChronicleLogTailer(Codec<M> codec, String basePath, ExcerptTailer cqTailer, LogPartition partition,
+            String group, ChronicleRetentionDuration retention, LogDataSignal signal) {
         Objects.requireNonNull(group);
         this.codec = codec;
+        this.signal = signal;
         this.basePath = basePath;
         this.cqTailer = cqTailer;
         this.partition = partition;
         this.id = new LogPartitionGroup(group, partition.name(), partition.partition());
+        this.readMessage = NO_CODEC.equals(codec) ? this::readExternalizable : this::readEncoded;
         registerTailer();
         this.offsetTracker = new ChronicleLogOffsetTracker(basePath, partition.partition(), group, retention);
         toLastCommitted();
@@ -94,42 +119,78 @@ public class ChronicleLogTailer<M extends Externalizable> implements LogTailer<M
 
     @Override
     public LogRecord<M> read(Duration timeout) throws InterruptedException {
-        LogRecord<M> ret = read();
-        if (ret != null) {
-            return ret;
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        while (true) {
+            long sequence = signal == null ? 0 : signal.sequence();
+            LogRecord<M> ret = read();
+            long remaining = deadline - System.currentTimeMillis();
+            if (ret != null || remaining <= 0) {
+                return ret;
+            }
+            waitForData(signal, sequence, remaining);
         }
-        long timeoutMs = timeout.toMillis();
-        long deadline = System.currentTimeMillis() + timeoutMs;
+    }
+
+    /**
+     * Parks until data is signaled or the timeout is reached. The wait is bounded by the poll interval because appends
+     * done by another process are not signaled.
+     *
+     * @since 10.10
+     */
+    protected static void waitForData(LogDataSignal signal, long sequence, long timeoutMs)
+            throws InterruptedException {
         long delay = Math.min(POLL_INTERVAL_MS, timeoutMs);
-        while (ret == null && System.currentTimeMillis() < deadline) {
+        if (signal == null) {
             Thread.sleep(delay);
-            ret = read();
+        } else {
+            signal.await(sequence, delay);
         }
-        return ret;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the signal used to wait for new data, can be null.
+     *
+     * @since 10.10
+     */
+    public LogDataSignal getSignal() {
+        return signal;
+    }
+
     protected LogRecord<M> read() {
         if (closed) {
             throw new IllegalStateException("The tailer has been closed.");
         }
-        List<M> value = new ArrayList<>(1);
         long offset = cqTailer.index();
-        if (NO_CODEC.equals(codec)) {
-            // default format to keep backward compatibility
-            try {
-                if (!cqTailer.readDocument(w -> value.add((M) w.read(MSG_KEY).object()))) {
-                    return null;
-                }
-            } catch (ClassCastException e) {
-                throw new IllegalArgumentException(e);
-            }
-        } else {
-            if (!cqTailer.readDocument(w -> value.add(codec.decode(w.read().bytes())))) {
+        try {
+            if (!cqTailer.readDocument(readMessage)) {
                 return null;
             }
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException(e);
         }
-        return new LogRecord<>(value.get(0), new LogOffsetImpl(partition, offset));
+        M value = message;
+        message = null;
+        return new LogRecord<>(value, new LogOffsetImpl(partition, offset));
+    }
+
+    /**
+     * Reads a message in the default format, kept for backward compatibility.
+     */
+    @SuppressWarnings("unchecked")
+    protected void readExternalizable(WireIn wire) {
+        message = (M) wire.read(MSG_KEY).object();
+    }
+
+    /**
+     * Reads an encoded message: the payload is copied from the queue into the reused read buffer and decoded in place,
+     * without allocating an intermediate byte array.
+     *
+     * @since 10.10
+     */
+    protected void readEncoded(WireIn wire) {
+        wire.read().bytes(readBuffer);
+        message = codec.decode(readBuffer.underlyingObject(), (int) readBuffer.readPosition(),
+                (int) readBuffer.readRemaining());
     }
 
     @Override
@@ -145,6 +206,17 @@ public class ChronicleLogTailer<M extends Externalizable> implements LogTailer<M
         return new LogOffsetImpl(partition, offset);
     }
 
+    @Override
+    public void commit(LogOffset offset) {
+        if (!this.partition.equals(offset.partition())) {
+            throw new IllegalArgumentException("Cannot commit this partition: " + offset.partition() + " from " + id);
+        }
+        offsetTracker.commit(offset.offset());
+        if (log.isTraceEnabled()) {
+            log.trace(String.format("Commit %s:+%d", id, offset.offset()));
+        }
+    }
+
     @Override
     public void commit() {
         commit(partition);
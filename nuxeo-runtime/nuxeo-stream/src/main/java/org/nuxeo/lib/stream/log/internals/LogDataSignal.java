@@ -0,0 +1,95 @@
+/*
+ * (C) Copyright 2018 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.lib.stream.log.internals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An in-process "data available" signal, appenders notify on each append and idle tailers park on it instead of
+ * polling.
+ * <p>
+ * A tailer must get the {@link #sequence()} before trying to read, then {@link #await(long, long)} with this sequence
+ * when there is nothing to read, so an append that happens in between is never missed. Appending is lock free when no
+ * tailer is waiting.
+ *
+ * @since 10.10
+ */
+public class LogDataSignal {
+
+    protected final AtomicLong sequence = new AtomicLong();
+
+    protected final AtomicInteger waiters = new AtomicInteger();
+
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    protected final Condition available = lock.newCondition();
+
+    /**
+     * Returns the current sequence, it is incremented on each signal.
+     */
+    public long sequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Notifies the waiting tailers that new data is available.
+     */
+    public void signal() {
+        sequence.incrementAndGet();
+        if (waiters.get() > 0) {
+            lock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits until a signal happens after the given sequence or until the timeout is reached.
+     *
+     * @return {@code true} if a signal happened, {@code false} on timeout
+     */
+    public boolean await(long lastSequence, long timeoutMs) throws InterruptedException {
+        if (sequence.get() != lastSequence) {
+            return true;
+        }
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            while (sequence.get() == lastSequence) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = available.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+}
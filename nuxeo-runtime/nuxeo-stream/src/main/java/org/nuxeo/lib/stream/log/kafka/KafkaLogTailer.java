@@ -378,6 +378,18 @@ public class KafkaLogTailer<M extends Externalizable> implements LogTailer<M>, C
         return ret;
     }
 
+    @Override
+    public void commit(LogOffset offset) {
+        LogPartition partition = offset.partition();
+        TopicPartition topicPartition = new TopicPartition(ns.getTopicName(partition.name()), partition.partition());
+        consumer.commitSync(Collections.singletonMap(topicPartition, new OffsetAndMetadata(offset.offset())));
+        lastCommittedOffsets.put(topicPartition, offset.offset());
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Committed offset %s-%02d:+%d", partition.name(), partition.partition(),
+                    offset.offset()));
+        }
+    }
+
     @Override
     public Collection<LogPartition> assignments() {
         return partitions;
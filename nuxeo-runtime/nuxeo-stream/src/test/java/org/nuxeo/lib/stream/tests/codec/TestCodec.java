@@ -26,14 +26,18 @@ import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.EnumSet;
 
 import org.apache.avro.message.MissingSchemaException;
 import org.apache.avro.reflect.ReflectData;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.junit.Assume;
 import org.junit.Ignore;
 import org.junit.Rule;
@@ -53,6 +57,8 @@ import org.nuxeo.lib.stream.computation.Record;
  * @since 10.2
  */
 public class TestCodec {
+    private static final Log log = LogFactory.getLog(TestCodec.class);
+
     @Rule
     public TemporaryFolder folder = new TemporaryFolder();
 
@@ -171,6 +177,43 @@ public class TestCodec {
         testCodecFromFile("data/record-avro-confluent.bin", codec);
     }
 
+    /**
+     * Compares decoding a copy of the payload, like the Chronicle tailer used to do, with decoding it in place from a
+     * read buffer. This is not a JMH benchmark, it logs the throughput and the allocation per record of both modes.
+     */
+    @Test
+    public void testDecodeInPlace() throws Exception {
+        final int NB_RECORDS = 200_000;
+        Codec<Record> codec = new AvroMessageCodec<>(Record.class);
+        byte[] payload = new byte[1024];
+        Arrays.fill(payload, (byte) 'x');
+        byte[] data = codec.encode(Record.of("key", payload));
+        byte[] buffer = Arrays.copyOf(data, 4096);
+        for (int mode = 0; mode < 4; mode++) {
+            boolean inPlace = mode % 2 == 1;
+            // first round is a warmup
+            long allocated = getAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < NB_RECORDS; i++) {
+                Record record = inPlace ? codec.decode(buffer, 0, data.length)
+                        : codec.decode(Arrays.copyOfRange(buffer, 0, data.length));
+                assertEquals(payload.length, record.getData().length);
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            allocated = getAllocatedBytes() - allocated;
+            log.info(String.format("decode %s: %.0f records/s, %d bytes allocated per record",
+                    inPlace ? "in place" : "copy", NB_RECORDS / elapsed, allocated / NB_RECORDS));
+        }
+    }
+
+    protected static long getAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
     @Test
     public void testInvalidEncoding() throws Exception {
         byte[] data = readFile("data/record-externalizable.bin");
@@ -222,6 +265,11 @@ public class TestCodec {
         T dest2 = codec.decode(data2);
         assertEquals(src, dest2);
         assertEquals(String.format("%s\n%s", overview(data), overview(data2)), data.length, data2.length);
+        // decode from a slice of a bigger buffer, like a tailer read buffer
+        byte[] buffer = new byte[data.length + 20];
+        Arrays.fill(buffer, (byte) 0x7f);
+        System.arraycopy(data, 0, buffer, 7, data.length);
+        assertEquals(src, codec.decode(buffer, 7, data.length));
         // System.out.println(String.format("Codec: %s, size: %d", codec.getClass().getSimpleName(), data.length));
         return dest2;
     }
@@ -28,6 +28,8 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -73,6 +75,10 @@ public abstract class TestStreamProcessor {
     public abstract StreamProcessor getStreamProcessor(LogManager logManager);
 
     public void testSimpleTopo(int nbRecords, int concurrency) throws Exception {
+        testSimpleTopo(nbRecords, concurrency, null);
+    }
+
+    public void testSimpleTopo(int nbRecords, int concurrency, ComputationPolicy policy) throws Exception {
         final long targetTimestamp = System.currentTimeMillis();
         final long targetWatermark = Watermark.ofTimestamp(targetTimestamp).getValue();
         Topology topology = Topology.builder()
@@ -90,7 +96,7 @@ public abstract class TestStreamProcessor {
                                             Arrays.asList("i1:s4", "o1:" + OUTPUT_STREAM))
                                     .build();
         // one thread for each computation
-        Settings settings = new Settings(concurrency, concurrency, codec).setConcurrency("GENERATOR", 1);
+        Settings settings = new Settings(concurrency, concurrency, codec, policy).setConcurrency("GENERATOR", 1);
         // uncomment to get the plantuml diagram
         // System.out.println(topology.toPlantuml(settings));
         try (LogManager manager = getLogManager()) {
@@ -128,8 +134,8 @@ public abstract class TestStreamProcessor {
                 processor.shutdown();
             }
             log.info(
-                    String.format("topo: simple, concurrency: %d, records: %s, took: %.2fs, throughput: %.2f records/s",
-                            concurrency, result, elapsed, result / elapsed));
+                    String.format("topo: simple, concurrency: %d, records: %s, took: %.2fs, throughput: %.2f records/s%s",
+                            concurrency, result, elapsed, result / elapsed, policy == null ? "" : ", " + policy));
             assertEquals(expected, result);
         }
     }
@@ -194,6 +200,13 @@ public abstract class TestStreamProcessor {
         testSimpleTopo(1003, 1);
     }
 
+    @Test
+    public void testSimpleTopoManyRecordsOneThreadReadBatch() throws Exception {
+        // compare the throughput with testSimpleTopoManyRecordsOneThread
+        ComputationPolicy policy = new ComputationPolicyBuilder().readBatchPolicy(100, Duration.ofMillis(50)).build();
+        testSimpleTopo(1003, 1, policy);
+    }
+
     @Ignore("A wrong case")
     @Test
     public void testSimpleTopoManyRecordsManyThread() throws Exception {
@@ -610,6 +623,46 @@ public abstract class TestStreamProcessor {
 
     }
 
+    @Test
+    public void testKeyParallelism() throws Exception {
+        final int NB_KEYS = 10;
+        final int NB_RECORDS = 1000;
+        Topology topology = Topology.builder()
+                                    .addComputation(() -> new ComputationForward("C1", 1, 1),
+                                            Arrays.asList("i1:input", "o1:output"))
+                                    .build();
+        // a single partition processed by 4 lanes
+        ComputationPolicy policy = new ComputationPolicyBuilder().keyParallelism(4).build();
+        Settings settings = new Settings(1, 1, codec, policy);
+        try (LogManager manager = getLogManager()) {
+            StreamProcessor processor = getStreamProcessor(manager);
+            processor.init(topology, settings).start();
+            assertTrue(processor.waitForAssignments(Duration.ofSeconds(10)));
+            LogAppender<Record> appender = manager.getAppender("input");
+            for (int i = 0; i < NB_RECORDS; i++) {
+                String key = "key" + (i % NB_KEYS);
+                appender.append(key, Record.of(key, String.valueOf(i).getBytes(StandardCharsets.UTF_8)));
+            }
+            assertTrue(processor.drainAndStop(Duration.ofSeconds(100)));
+            LogLag lag = manager.getLag("input", "C1");
+            assertEquals(lag.toString(), 0, lag.lag());
+            // records with the same key are forwarded in order
+            Map<String, Integer> lastValues = new HashMap<>();
+            int count = 0;
+            try (LogTailer<Record> tailer = manager.createTailer("results", "output", codec)) {
+                for (LogRecord<Record> logRecord = tailer.read(
+                        Duration.ofSeconds(1)); logRecord != null; logRecord = tailer.read(Duration.ofMillis(500))) {
+                    Record record = logRecord.message();
+                    int value = Integer.parseInt(new String(record.getData(), StandardCharsets.UTF_8));
+                    Integer last = lastValues.put(record.getKey(), value);
+                    assertTrue(record.getKey() + ": " + last + " before " + value, last == null || last < value);
+                    count++;
+                }
+            }
+            assertEquals(NB_RECORDS, count);
+        }
+    }
+
     // ---------------------------------
     // helpers
     protected int readOutputCounter(LogManager manager) throws InterruptedException {
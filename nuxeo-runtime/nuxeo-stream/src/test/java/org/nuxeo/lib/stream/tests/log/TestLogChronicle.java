@@ -29,6 +29,7 @@ import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
@@ -187,4 +188,32 @@ public class TestLogChronicle extends TestLog {
         }
     }
 
+    @Test
+    public void testTailerWakeupOnAppend() throws Exception {
+        final int LOG_SIZE = 2;
+        final int NB_MSG = 5;
+        manager.createIfNotExists(logName, LOG_SIZE);
+        LogAppender<KeyValueMessage> appender = manager.getAppender(logName);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        long totalLatency = 0;
+        try (LogTailer<KeyValueMessage> tailer = manager.createTailer("group", logName)) {
+            for (int i = 0; i < NB_MSG; i++) {
+                KeyValueMessage msg = KeyValueMessage.of("id" + i);
+                int partition = i % LOG_SIZE;
+                Future<Long> appendTime = executor.submit(() -> {
+                    Thread.sleep(200);
+                    long now = System.currentTimeMillis();
+                    appender.append(partition, msg);
+                    return now;
+                });
+                assertEquals(msg, tailer.read(Duration.ofSeconds(5)).message());
+                totalLatency += System.currentTimeMillis() - appendTime.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // the idle tailer is signaled on append, without polling interval
+        assertTrue("Latency too high: " + totalLatency, totalLatency < NB_MSG * 50);
+    }
+
 }
@@ -152,6 +152,14 @@ public class BaseDirectoryDescriptor implements Cloneable {
     @XNode("negativeCaching")
     public Boolean negativeCaching;
 
+    /**
+     * Name of the cache holding query results, query results are not cached if none.
+     *
+     * @since 10.10
+     */
+    @XNode("cacheQueryName")
+    public String cacheQueryName;
+
     @XNode("substringMatchType")
     public String substringMatchType;
 
@@ -329,6 +337,9 @@ public class BaseDirectoryDescriptor implements Cloneable {
         if (other.negativeCaching != null) {
             negativeCaching = other.negativeCaching;
         }
+        if (other.cacheQueryName != null) {
+            cacheQueryName = other.cacheQueryName;
+        }
         if (other.substringMatchType != null) {
             substringMatchType = other.substringMatchType;
         }
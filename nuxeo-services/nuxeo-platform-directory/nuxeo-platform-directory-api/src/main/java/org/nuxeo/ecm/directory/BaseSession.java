@@ -28,7 +28,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -562,6 +565,79 @@ public abstract class BaseSession implements Session, EntrySource {
         return query(filter, fulltext, orderBy, fetchReferences, -1, 0);
     }
 
+    /**
+     * Queries the entries through the query cache of the directory, if enabled.
+     * <p>
+     * Queries reading all columns, filtering on the password, or whose filter values can't be part of a cache key, are
+     * not cached.
+     *
+     * @param source the query to the directory backend
+     * @since 10.10
+     */
+    protected DocumentModelList queryWithCache(Map<String, Serializable> filter, Set<String> fulltext,
+            Map<String, String> orderBy, boolean fetchReferences, int limit, int offset,
+            Supplier<DocumentModelList> source) {
+        if (readAllColumns) {
+            return source.get();
+        }
+        String key = getQueryCacheKey(filter, fulltext, orderBy, fetchReferences, limit, offset);
+        if (key == null) {
+            return source.get();
+        }
+        return directory.getCache().getQueryResults(key, source);
+    }
+
+    /**
+     * Computes a normalized key for a query: filter fields are sorted, fulltext is restricted to the filtered fields and
+     * limits are canonicalized. The tenant of the current user is part of the key for multi-tenant directories.
+     *
+     * @return the key, or {@code null} if the query can't be cached
+     * @since 10.10
+     */
+    protected String getQueryCacheKey(Map<String, Serializable> filter, Set<String> fulltext,
+            Map<String, String> orderBy, boolean fetchReferences, int limit, int offset) {
+        String passwordField = getPasswordField();
+        if (passwordField != null && filter.containsKey(passwordField)) {
+            // don't keep passwords in cache keys
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        for (Entry<String, Serializable> es : new TreeMap<>(filter).entrySet()) {
+            Serializable value = es.getValue();
+            if (value != null && !(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+                // complex filters, blobs, dates...
+                return null;
+            }
+            boolean substring = fulltext != null && fulltext.contains(es.getKey());
+            appendKeyPart(key, es.getKey());
+            key.append(substring ? '~' : '=');
+            appendKeyPart(key, value == null ? null : value.toString());
+        }
+        key.append('|');
+        if (orderBy != null) {
+            for (Entry<String, String> es : orderBy.entrySet()) {
+                appendKeyPart(key, es.getKey());
+                appendKeyPart(key, StringUtils.lowerCase(es.getValue()));
+            }
+        }
+        key.append('|').append(fetchReferences);
+        key.append('|').append(Math.max(0, limit)).append('|').append(Math.max(0, offset));
+        if (isMultiTenant()) {
+            key.append('|');
+            appendKeyPart(key, getCurrentTenantId());
+        }
+        return key.toString();
+    }
+
+    /** Appends a length-prefixed string, so that no separator can be confused with content. */
+    protected static void appendKeyPart(StringBuilder key, String part) {
+        if (part == null) {
+            key.append('-');
+        } else {
+            key.append(part.length()).append(':').append(part);
+        }
+    }
+
     @Override
     public List<String> getProjection(Map<String, Serializable> filter, String columnName) {
         return getProjection(filter, Collections.emptySet(), columnName);
@@ -22,14 +22,20 @@ package org.nuxeo.ecm.directory;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.DocumentModelList;
 import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.api.impl.DocumentModelListImpl;
 import org.nuxeo.ecm.core.cache.Cache;
 import org.nuxeo.ecm.core.cache.CacheManagement;
 import org.nuxeo.ecm.core.cache.CacheService;
+import org.nuxeo.ecm.directory.api.DirectoryService;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.metrics.MetricsService;
 
@@ -38,7 +44,10 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.SharedMetricRegistries;
 
 /**
- * Very simple cache system to cache directory entry lookups (not search queries) on top of nuxeo cache
+ * Very simple cache system to cache directory entry lookups on top of nuxeo cache
+ * <p>
+ * The results of search queries can also be cached, in a separate cache which is disabled by default. Query results
+ * are invalidated as a whole on any write to the directory.
  * <p>
  * Beware that this cache is not transaction aware (which is not a problem for LDAP directories anyway).
  */
@@ -58,6 +67,13 @@ public class DirectoryCache {
 
     protected boolean negativeCaching;
 
+    protected Cache queryCache;
+
+    protected String queryCacheName = null;
+
+    /** Incremented on each invalidation, to avoid caching query results computed before it. */
+    protected final AtomicLong queryGeneration = new AtomicLong();
+
     protected final MetricRegistry metrics = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
 
     protected final Counter hitsCounter;
@@ -70,6 +86,10 @@ public class DirectoryCache {
 
     protected final Counter sizeCounter;
 
+    protected final Counter queryHitsCounter;
+
+    protected final Counter queryMissesCounter;
+
     private final static Log log = LogFactory.getLog(DirectoryCache.class);
 
     protected DirectoryCache(String name) {
@@ -80,12 +100,22 @@ public class DirectoryCache {
         invalidationsCounter = metrics.counter(MetricRegistry.name("nuxeo", "directories", name, "cache",
                 "invalidations"));
         sizeCounter = metrics.counter(MetricRegistry.name("nuxeo", "directories", name, "cache", "size"));
+        queryHitsCounter = metrics.counter(MetricRegistry.name("nuxeo", "directories", name, "cache", "queryhits"));
+        queryMissesCounter = metrics.counter(
+                MetricRegistry.name("nuxeo", "directories", name, "cache", "querymisses"));
     }
 
     protected boolean isCacheEnabled() {
         return (entryCacheName != null && entryCacheWithoutReferencesName != null);
     }
 
+    /**
+     * @since 10.10
+     */
+    protected boolean isQueryCacheEnabled() {
+        return queryCacheName != null;
+    }
+
     public DocumentModel getEntry(String entryId, EntrySource source) {
         return getEntry(entryId, source, true);
     }
@@ -110,41 +140,118 @@ public class DirectoryCache {
         }
 
         Cache cache = fetchReferences ? getEntryCache() : getEntryCacheWithoutReferences();
-        Serializable entry = cache.get(entryId);
-        if (CACHE_MISS.equals(entry)) {
+        AtomicBoolean loaded = new AtomicBoolean();
+        Thread caller = Thread.currentThread();
+        // concurrent lookups of the same entry wait for a single fetch from the backend
+        Serializable entry = cache.get(entryId, id -> {
+            DocumentModel dm;
+            if (Thread.currentThread() == caller) {
+                loaded.set(true);
+                dm = source.getEntryFromSource(id, fetchReferences);
+            } else {
+                // refresh-ahead in the background, the caller's session may be closed or in use
+                dm = getEntryFromNewSession(id, fetchReferences);
+            }
+            if (dm == null) {
+                return negativeCaching ? CACHE_MISS : null;
+            }
+            // DocumentModelImpl is not thread-safe and when we fetch and clone it when returning
+            // a value from the cache there may be concurrency.
+            // So we avoid thread-safety issues by exercising once the code paths that may do
+            // concurrent accesses to ComplexProperty (NXP-23458).
+            try {
+                dm.clone();
+            } catch (CloneNotSupportedException e) {
+                // ignore, no concurrency issues if not a DocumentModelImpl
+            }
+            if (fetchReferences && Thread.currentThread() == caller) {
+                // a refresh replaces an existing entry
+                sizeCounter.inc();
+            }
+            return dm;
+        });
+        if (loaded.get() || entry == null) {
+            missesCounter.inc();
+        } else if (CACHE_MISS.equals(entry)) {
             negativeHitsCounter.inc();
+        } else {
+            hitsCounter.inc();
+        }
+        if (entry == null || CACHE_MISS.equals(entry)) {
             return null;
         }
-        DocumentModel dm = (DocumentModel) entry;
-        if (dm == null) {
-            // fetch the entry from the backend and cache it for later reuse
-            dm = source.getEntryFromSource(entryId, fetchReferences);
-            if (dm != null) {
-                // DocumentModelImpl is not thread-safe and when we fetch and clone it when returning
-                // a value from the cache there may be concurrency.
-                // So we avoid thread-safety issues by exercising once the code paths that may do
-                // concurrent accesses to ComplexProperty (NXP-23458).
-                try {
-                    dm.clone();
-                } catch (CloneNotSupportedException e) {
-                    // ignore, no concurrency issues if not a DocumentModelImpl
+        return cloneEntry((DocumentModel) entry);
+    }
+
+    /**
+     * Fetches an entry from the backend through a new session of the directory.
+     *
+     * @since 10.10
+     */
+    protected DocumentModel getEntryFromNewSession(String entryId, boolean fetchReferences) {
+        Directory directory = Framework.getService(DirectoryService.class).getDirectory(name);
+        if (directory == null) {
+            throw new DirectoryException("Unknown directory: " + name);
+        }
+        try (Session session = directory.getSession()) {
+            return ((EntrySource) session).getEntryFromSource(entryId, fetchReferences);
+        }
+    }
+
+    /**
+     * Gets the results of a query from the query cache, or from the source if they are not cached yet.
+     *
+     * @param key the normalized query
+     * @param source the query to the directory backend
+     * @since 10.10
+     */
+    public DocumentModelList getQueryResults(String key, Supplier<DocumentModelList> source) {
+        if (!isQueryCacheEnabled()) {
+            return source.get();
+        }
+        Cache cache = getQueryCache();
+        if (cache == null) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("The cache '%s' is undefined for directory '%s', queries won't be cached",
+                        queryCacheName, name));
+            }
+            return source.get();
+        }
+        DocumentModelList results = (DocumentModelList) cache.get(key);
+        if (results == null) {
+            long generation = queryGeneration.get();
+            results = source.get();
+            if (results instanceof Serializable) {
+                // avoid concurrent accesses to ComplexProperty on first clone (NXP-23458), see getEntry
+                for (DocumentModel dm : results) {
+                    try {
+                        dm.clone();
+                    } catch (CloneNotSupportedException e) {
+                        // ignore, no concurrency issues if not a DocumentModelImpl
+                    }
                 }
-                ((CacheManagement) cache).putLocal(entryId, dm);
-                if (fetchReferences) {
-                    sizeCounter.inc();
+                synchronized (this) {
+                    // don't cache results that may have been computed before a write
+                    if (generation == queryGeneration.get()) {
+                        ((CacheManagement) cache).putLocal(key, (Serializable) results);
+                    }
                 }
-            } else if (negativeCaching) {
-                ((CacheManagement) cache).putLocal(entryId, CACHE_MISS);
             }
-            missesCounter.inc();
+            queryMissesCounter.inc();
         } else {
-            hitsCounter.inc();
+            queryHitsCounter.inc();
         }
+        DocumentModelListImpl clones = new DocumentModelListImpl(results.size());
+        for (DocumentModel dm : results) {
+            clones.add(cloneEntry(dm));
+        }
+        clones.setTotalSize(results.totalSize());
+        return clones;
+    }
+
+    protected DocumentModel cloneEntry(DocumentModel dm) {
         try {
-            if (dm == null) {
-                return null;
-            }
-            // this is the clone() that needs to be careful (see above) when there's concurrency
+            // this is the clone() that needs to be careful (see getEntry) when there's concurrency
             DocumentModel clone = dm.clone();
             // DocumentModelImpl#clone does not copy context data, hence
             // propagate the read-only flag manually
@@ -159,6 +266,8 @@ public class DirectoryCache {
     }
 
     public void invalidate(List<String> entryIds) {
+        // any query may have returned or now match these entries
+        invalidateQueries();
         if (isCacheEnabled()) {
             synchronized (this) {
                 for (String entryId : entryIds) {
@@ -183,6 +292,7 @@ public class DirectoryCache {
     }
 
     public void invalidateAll() {
+        invalidateQueries();
         if (isCacheEnabled()) {
             synchronized (this) {
                 long count = sizeCounter.getCount();
@@ -201,6 +311,24 @@ public class DirectoryCache {
         }
     }
 
+    /**
+     * Invalidates all the cached query results.
+     *
+     * @since 10.10
+     */
+    public void invalidateQueries() {
+        if (isQueryCacheEnabled()) {
+            synchronized (this) {
+                queryGeneration.incrementAndGet();
+                // cache may be null if we're called for invalidation during a hot-reload
+                Cache cache = getQueryCache();
+                if (cache != null) {
+                    cache.invalidateAll();
+                }
+            }
+        }
+    }
+
     public void setEntryCacheName(String entryCacheName) {
         this.entryCacheName = entryCacheName;
     }
@@ -213,6 +341,13 @@ public class DirectoryCache {
         this.negativeCaching = Boolean.TRUE.equals(negativeCaching);
     }
 
+    /**
+     * @since 10.10
+     */
+    public void setQueryCacheName(String queryCacheName) {
+        this.queryCacheName = queryCacheName;
+    }
+
     public Cache getEntryCache() {
         if (entryCache == null) {
             entryCache = getCacheService().getCache(entryCacheName);
@@ -229,6 +364,16 @@ public class DirectoryCache {
         return entryCacheWithoutReferences;
     }
 
+    /**
+     * @since 10.10
+     */
+    public Cache getQueryCache() {
+        if (queryCache == null) {
+            queryCache = getCacheService().getCache(queryCacheName);
+        }
+        return queryCache;
+    }
+
     protected CacheService getCacheService() {
         CacheService cacheService = Framework.getService(CacheService.class);
         if (cacheService == null) {
@@ -56,7 +56,7 @@ public abstract class AbstractDirectory implements Directory {
 
     protected final Map<String, List<Reference>> references = new HashMap<>();
 
-    // simple cache system for entry lookups, disabled by default
+    // simple cache system for entry lookups and query results, disabled by default
     protected final DirectoryCache cache;
 
     // @since 5.7
@@ -100,6 +100,7 @@ public abstract class AbstractDirectory implements Directory {
         cache.setEntryCacheName(descriptor.cacheEntryName);
         cache.setEntryCacheWithoutReferencesName(descriptor.cacheEntryWithoutReferencesName);
         cache.setNegativeCaching(descriptor.negativeCaching);
+        cache.setQueryCacheName(descriptor.cacheQueryName);
 
     }
 
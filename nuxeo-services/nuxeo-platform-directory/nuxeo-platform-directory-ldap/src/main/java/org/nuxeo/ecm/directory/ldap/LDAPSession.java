@@ -441,6 +441,17 @@ public class LDAPSession extends BaseSession {
         if (!hasPermission(SecurityConstants.READ)) {
             return new DocumentModelListImpl();
         }
+        return queryWithCache(filter, fulltext, orderBy, fetchReferences, limit, offset,
+                () -> queryFromSource(filter, fulltext, orderBy, fetchReferences, limit, offset));
+    }
+
+    /**
+     * Queries the backend, bypassing the query cache.
+     *
+     * @since 10.10
+     */
+    protected DocumentModelList queryFromSource(Map<String, Serializable> filter, Set<String> fulltext,
+            Map<String, String> orderBy, boolean fetchReferences, int limit, int offset) {
         try {
             // building the query using filterExpr / filterArgs to
             // escape special characters and to fulltext search only on
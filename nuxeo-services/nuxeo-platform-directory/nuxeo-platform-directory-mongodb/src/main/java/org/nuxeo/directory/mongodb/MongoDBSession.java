@@ -290,7 +290,11 @@ public class MongoDBSession extends BaseSession {
     @Override
     public DocumentModelList query(Map<String, Serializable> filter, Set<String> fulltext, Map<String, String> orderBy,
             boolean fetchReferences, int limit, int offset) {
-        return doQuery(filter, fulltext, orderBy, fetchReferences, limit, offset, true);
+        if (!hasPermission(SecurityConstants.READ)) {
+            return new DocumentModelListImpl();
+        }
+        return queryWithCache(filter, fulltext, orderBy, fetchReferences, limit, offset,
+                () -> doQuery(filter, fulltext, orderBy, fetchReferences, limit, offset, true));
     }
 
     protected DocumentModelList doQuery(Map<String, Serializable> filter, Set<String> fulltext,
@@ -429,6 +429,17 @@ public class SQLSession extends BaseSession {
         if (!hasPermission(SecurityConstants.READ)) {
             return new DocumentModelListImpl();
         }
+        return queryWithCache(filter, fulltext, orderBy, fetchReferences, limit, offset,
+                () -> queryFromSource(filter, fulltext, orderBy, fetchReferences, limit, offset));
+    }
+
+    /**
+     * Queries the backend, bypassing the query cache.
+     *
+     * @since 10.10
+     */
+    protected DocumentModelList queryFromSource(Map<String, Serializable> filter, Set<String> fulltext,
+            Map<String, String> orderBy, boolean fetchReferences, int limit, int offset) {
         acquireConnection();
         Map<String, Object> filterMap = new LinkedHashMap<>(filter);
         filterMap.remove(getPasswordField()); // cannot filter on password
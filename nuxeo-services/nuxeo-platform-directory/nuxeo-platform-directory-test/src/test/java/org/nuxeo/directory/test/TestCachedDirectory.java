@@ -24,12 +24,19 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
 import javax.inject.Inject;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.DocumentModelList;
 import org.nuxeo.ecm.core.redis.RedisFeature;
 import org.nuxeo.ecm.core.work.api.WorkManager;
 import org.nuxeo.ecm.directory.Directory;
@@ -59,6 +66,8 @@ public class TestCachedDirectory extends AbstractDirectoryTest {
 
     protected final static String ENTRY_CACHE_WITHOUT_REFERENCES_NAME = "entry-cache-without-references";
 
+    protected final static String QUERY_CACHE_NAME = "query-cache";
+
     @Inject
     protected RuntimeHarness harness;
 
@@ -77,7 +86,13 @@ public class TestCachedDirectory extends AbstractDirectoryTest {
         DirectoryCache cache = dir.getCache();
         cache.setEntryCacheName(ENTRY_CACHE_NAME);
         cache.setEntryCacheWithoutReferencesName(ENTRY_CACHE_WITHOUT_REFERENCES_NAME);
+        cache.setQueryCacheName(QUERY_CACHE_NAME);
+
+    }
 
+    @After
+    public void tearDown() throws Exception {
+        getDirectory().getCache().setQueryCacheName(null);
     }
 
     @Test
@@ -161,4 +176,55 @@ public class TestCachedDirectory extends AbstractDirectoryTest {
         assertEquals(baseNegativeHitsCount + 2, negativeHitsCounter.getCount());
         assertEquals(baseMissesCount + 1, missesCounter.getCount());
     }
+
+    @Test
+    public void testQueryFromCache() throws Exception {
+        MetricRegistry metrics = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+        Counter hitsCounter = metrics.counter(
+                MetricRegistry.name("nuxeo", "directories", "userDirectory", "cache", "queryhits"));
+        Counter missesCounter = metrics.counter(
+                MetricRegistry.name("nuxeo", "directories", "userDirectory", "cache", "querymisses"));
+        long baseHitsCount = hitsCounter.getCount();
+        long baseMissesCount = missesCounter.getCount();
+
+        try (Session session = getDirectory().getSession()) {
+            Map<String, Serializable> filter = Collections.singletonMap("firstName", "f");
+            Set<String> fulltext = Collections.singleton("firstName");
+
+            // First call will update cache
+            DocumentModelList entries = session.query(filter, fulltext);
+            int size = entries.size();
+            assertEquals(baseHitsCount, hitsCounter.getCount());
+            assertEquals(baseMissesCount + 1, missesCounter.getCount());
+
+            // Second call will use the cache
+            entries = session.query(filter, fulltext);
+            assertEquals(size, entries.size());
+            assertEquals(baseHitsCount + 1, hitsCounter.getCount());
+            assertEquals(baseMissesCount + 1, missesCounter.getCount());
+
+            // Returned entries are copies of the cached ones
+            DocumentModel entry = entries.get(0);
+            String company = (String) entry.getProperty(SCHEMA, "company");
+            entry.setProperty(SCHEMA, "company", "mycompany");
+            entries = session.query(filter, fulltext);
+            assertEquals(company, entries.get(0).getProperty(SCHEMA, "company"));
+            assertEquals(baseHitsCount + 2, hitsCounter.getCount());
+
+            // Another query is not in the cache
+            session.query(filter);
+            assertEquals(baseMissesCount + 2, missesCounter.getCount());
+
+            // A write invalidates the cached queries
+            session.updateEntry(entry);
+            entries = session.query(filter, fulltext);
+            assertEquals(size, entries.size());
+            assertEquals(baseHitsCount + 2, hitsCounter.getCount());
+            assertEquals(baseMissesCount + 3, missesCounter.getCount());
+            String id = entry.getId();
+            DocumentModel updated = entries.stream().filter(e -> id.equals(e.getId())).findFirst().get();
+            assertEquals("mycompany", updated.getProperty(SCHEMA, "company"));
+        }
+    }
+
 }